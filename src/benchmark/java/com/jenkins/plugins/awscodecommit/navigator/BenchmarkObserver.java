@@ -0,0 +1,75 @@
+/**
+ * The MIT License
+ * Copyright © 2016 Stephane Jeandeaux and all contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.jenkins.plugins.awscodecommit.navigator;
+
+import hudson.model.TaskListener;
+import jenkins.scm.api.SCMSource;
+import jenkins.scm.api.SCMSourceObserver;
+import jenkins.scm.api.SCMSourceOwner;
+
+/**
+ * An observer which only counts the sources, so the benchmarks do not measure the organization folder.
+ */
+public class BenchmarkObserver extends SCMSourceObserver {
+
+    private int sources;
+
+    @Override
+    public SCMSourceOwner getContext() {
+        return null;
+    }
+
+    @Override
+    public TaskListener getListener() {
+        return TaskListener.NULL;
+    }
+
+    @Override
+    public ProjectObserver observe(String projectName) {
+        return new ProjectObserver() {
+            @Override
+            public void addSource(SCMSource source) {
+                sources++;
+            }
+
+            @Override
+            public void addAttribute(String key, Object value) {
+            }
+
+            @Override
+            public void complete() {
+            }
+        };
+    }
+
+    @Override
+    public void addAttribute(String key, Object value) {
+    }
+
+    /**
+     * @return the number of sources observed
+     */
+    public int getSources() {
+        return sources;
+    }
+}
@@ -0,0 +1,114 @@
+/**
+ * The MIT License
+ * Copyright © 2016 Stephane Jeandeaux and all contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.jenkins.plugins.awscodecommit.navigator;
+
+import com.amazonaws.services.codecommit.AbstractAWSCodeCommit;
+import com.amazonaws.services.codecommit.model.BatchGetRepositoriesRequest;
+import com.amazonaws.services.codecommit.model.BatchGetRepositoriesResult;
+import com.amazonaws.services.codecommit.model.GetRepositoryRequest;
+import com.amazonaws.services.codecommit.model.GetRepositoryResult;
+import com.amazonaws.services.codecommit.model.ListRepositoriesRequest;
+import com.amazonaws.services.codecommit.model.ListRepositoriesResult;
+import com.amazonaws.services.codecommit.model.RepositoryDoesNotExistException;
+import com.amazonaws.services.codecommit.model.RepositoryMetadata;
+import com.amazonaws.services.codecommit.model.RepositoryNameIdPair;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * An account of code commit in memory, without network, so the benchmarks only measure the plugin.
+ */
+public class InMemoryCodeCommit extends AbstractAWSCodeCommit {
+
+    /**
+     * The size of a page of ListRepositories in AWS.
+     */
+    public static final int PAGE_SIZE = 1000;
+
+    private final List<RepositoryNameIdPair> repositories = new ArrayList<>();
+
+    private final Map<String, RepositoryMetadata> metadata = new HashMap<>();
+
+    /**
+     * @param count the number of repositories, named {@code repository-<index>}
+     */
+    public InMemoryCodeCommit(int count) {
+        final Date date = new Date();
+        for (int i = 0; i < count; i++) {
+            final String name = "repository-" + i;
+            final String id = "00000000-0000-0000-0000-" + String.format("%012d", i);
+            repositories.add(new RepositoryNameIdPair().withRepositoryName(name).withRepositoryId(id));
+            metadata.put(name, new RepositoryMetadata()
+                    .withRepositoryName(name)
+                    .withRepositoryId(id)
+                    .withAccountId("123456789012")
+                    .withArn("arn:aws:codecommit:us-east-1:123456789012:" + name)
+                    .withCloneUrlHttp("https://git-codecommit.us-east-1.amazonaws.com/v1/repos/" + name)
+                    .withCloneUrlSsh("ssh://git-codecommit.us-east-1.amazonaws.com/v1/repos/" + name)
+                    .withLastModifiedDate(date)
+                    .withCreationDate(date));
+        }
+    }
+
+    @Override
+    public ListRepositoriesResult listRepositories(ListRepositoriesRequest request) {
+        final int from = request.getNextToken() == null ? 0 : Integer.parseInt(request.getNextToken());
+        final int to = Math.min(repositories.size(), from + PAGE_SIZE);
+        return new ListRepositoriesResult()
+                .withRepositories(new ArrayList<>(repositories.subList(from, to)))
+                .withNextToken(to < repositories.size() ? String.valueOf(to) : null);
+    }
+
+    @Override
+    public BatchGetRepositoriesResult batchGetRepositories(BatchGetRepositoriesRequest request) {
+        final BatchGetRepositoriesResult result = new BatchGetRepositoriesResult()
+                .withRepositories(new ArrayList<RepositoryMetadata>())
+                .withRepositoriesNotFound(new ArrayList<String>());
+        for (String name : request.getRepositoryNames()) {
+            final RepositoryMetadata repository = metadata.get(name);
+            if (repository != null) {
+                result.getRepositories().add(repository);
+            } else {
+                result.getRepositoriesNotFound().add(name);
+            }
+        }
+        return result;
+    }
+
+    @Override
+    public GetRepositoryResult getRepository(GetRepositoryRequest request) {
+        final RepositoryMetadata repository = metadata.get(request.getRepositoryName());
+        if (repository == null) {
+            throw new RepositoryDoesNotExistException(request.getRepositoryName());
+        }
+        return new GetRepositoryResult().withRepositoryMetadata(repository);
+    }
+
+    @Override
+    public void shutdown() {
+    }
+}
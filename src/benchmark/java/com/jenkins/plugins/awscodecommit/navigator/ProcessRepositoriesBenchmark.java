@@ -0,0 +1,87 @@
+/**
+ * The MIT License
+ * Copyright © 2016 Stephane Jeandeaux and all contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.jenkins.plugins.awscodecommit.navigator;
+
+import org.apache.commons.io.output.NullOutputStream;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.PrintStream;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The scan of an organization folder: list the repositories by pages, prefetch the metadata, create the sources.
+ * The account is {@link InMemoryCodeCommit}, so the measure is the plugin, not the network.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class ProcessRepositoriesBenchmark {
+
+    @Param({"1000", "10000", "100000"})
+    public int repositories;
+
+    @Param({"VERBOSE", "SUMMARY"})
+    public ScanLog.Level logLevel;
+
+    private InMemoryCodeCommit client;
+
+    private AWSCodeCommitSCMNavigator navigator;
+
+    private PrintStream out;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        client = new InMemoryCodeCommit(repositories);
+        navigator = new AWSCodeCommitSCMNavigator();
+        navigator.setPattern(".*");
+        navigator.setLogLevel(logLevel);
+        out = new PrintStream(new NullOutputStream());
+    }
+
+    @Benchmark
+    public int processRepositories() throws Exception {
+        final BenchmarkObserver observer = new BenchmarkObserver();
+        final AWSCodeCommitSCMNavigatorRequest request = new AWSCodeCommitSCMNavigatorContext()
+                .withAwsCodeCommit(client)
+                .newRequest(navigator, observer);
+        final ScanLog scanLog = new ScanLog(out, logLevel, 0, ScanLog.DEFAULT_SLOWEST);
+        final SourceFactory sourceFactory = new SourceFactory("benchmark", request).withMetrics(scanLog.getMetrics());
+        navigator.processRepositories(client, request, new LoggerWitness(scanLog), sourceFactory, scanLog);
+        scanLog.summary();
+        return observer.getSources();
+    }
+}
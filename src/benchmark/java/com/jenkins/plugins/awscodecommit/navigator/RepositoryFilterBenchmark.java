@@ -0,0 +1,123 @@
+/**
+ * The MIT License
+ * Copyright © 2016 Stephane Jeandeaux and all contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.jenkins.plugins.awscodecommit.navigator;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+
+/**
+ * The match of a repository name: one alternation of the rules in a {@link Pattern}, like a user would write
+ * in the pattern of the navigator, against {@link RepositoryNameMatcher}.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class RepositoryFilterBenchmark {
+
+    private static final int NAMES = 1024;
+
+    @Param({"10", "100", "500"})
+    public int rules;
+
+    private Pattern pattern;
+
+    private RepositoryNameMatcher matcher;
+
+    private String[] names;
+
+    private int next;
+
+    @Setup
+    public void setUp() {
+        final StringBuilder regex = new StringBuilder();
+        final StringBuilder lines = new StringBuilder();
+        for (int i = 0; i < rules; i++) {
+            //a third of exact names, a third of prefixes, a third of globs
+            final String rule;
+            final String line;
+            switch (i % 3) {
+                case 0:
+                    rule = Pattern.quote("repository-" + i);
+                    line = "repository-" + i;
+                    break;
+                case 1:
+                    rule = Pattern.quote("team-" + i + "-") + ".*";
+                    line = RepositoryNameMatcher.PREFIX + "team-" + i + "-";
+                    break;
+                default:
+                    rule = "service-" + i + "-.*-api";
+                    line = RepositoryNameMatcher.GLOB + "service-" + i + "-*-api";
+                    break;
+            }
+            regex.append(regex.length() == 0 ? "" : "|").append(rule);
+            lines.append(line).append('\n');
+        }
+        pattern = Pattern.compile(regex.toString());
+        matcher = RepositoryNameMatcher.compile(lines.toString());
+
+        names = new String[NAMES];
+        for (int i = 0; i < NAMES; i++) {
+            switch (i % 4) {
+                case 0:
+                    names[i] = "repository-" + (i % rules);
+                    break;
+                case 1:
+                    names[i] = "team-" + (i % rules) + "-frontend";
+                    break;
+                case 2:
+                    names[i] = "service-" + (i % rules) + "-billing-api";
+                    break;
+                default:
+                    names[i] = "unmatched-" + i;
+                    break;
+            }
+        }
+    }
+
+    @Benchmark
+    public boolean pattern() {
+        next = (next + 1) & (NAMES - 1);
+        return pattern.matcher(names[next]).matches();
+    }
+
+    @Benchmark
+    public boolean matcher() {
+        next = (next + 1) & (NAMES - 1);
+        return matcher.matches(names[next]);
+    }
+}
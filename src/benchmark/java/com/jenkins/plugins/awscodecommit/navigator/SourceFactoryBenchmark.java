@@ -0,0 +1,92 @@
+/**
+ * The MIT License
+ * Copyright © 2016 Stephane Jeandeaux and all contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.jenkins.plugins.awscodecommit.navigator;
+
+import com.amazonaws.services.codecommit.model.ListRepositoriesRequest;
+import com.amazonaws.services.codecommit.model.RepositoryNameIdPair;
+import jenkins.plugins.git.GitSCMSource;
+import jenkins.scm.api.SCMSource;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The creation of one source, once its metadata is prefetched: this is done for every repository of the account.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class SourceFactoryBenchmark {
+
+    private SourceFactory sourceFactory;
+
+    private AWSCodeCommitSCMNavigatorRequest request;
+
+    private String[] names;
+
+    private int next;
+
+    @Setup
+    public void setUp() {
+        final InMemoryCodeCommit client = new InMemoryCodeCommit(SourceFactory.MAX_BATCH_SIZE);
+        request = new AWSCodeCommitSCMNavigatorContext()
+                .withAwsCodeCommit(client)
+                .newRequest(new AWSCodeCommitSCMNavigator(), new BenchmarkObserver());
+        sourceFactory = new SourceFactory("benchmark", request, new RepositoryMetadataCache(1, TimeUnit.DAYS));
+
+        final List<RepositoryNameIdPair> repositories = client.listRepositories(new ListRepositoriesRequest()).getRepositories();
+        sourceFactory.prefetch(client, repositories);
+        names = new String[repositories.size()];
+        for (int i = 0; i < names.length; i++) {
+            names[i] = repositories.get(i).getRepositoryName();
+        }
+    }
+
+    @Benchmark
+    public SCMSource create() throws Exception {
+        next = (next + 1) % names.length;
+        return sourceFactory.create(names[next]);
+    }
+
+    @Benchmark
+    public GitSCMSource build() {
+        next = (next + 1) % names.length;
+        return new AWSCodeCommitSCMSourceBuilder("benchmark::" + names[next], names[next])
+                .withRequest(request)
+                .withRemote("https://git-codecommit.us-east-1.amazonaws.com/v1/repos/" + names[next])
+                .build();
+    }
+}
@@ -0,0 +1,393 @@
+/**
+ * The MIT License
+ * Copyright © 2016 Stephane Jeandeaux and all contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.jenkins.plugins.awscodecommit;
+
+import com.amazonaws.ClientConfiguration;
+import com.amazonaws.auth.AWSCredentialsProvider;
+import com.amazonaws.services.codecommit.AWSCodeCommit;
+import com.amazonaws.services.codecommit.AWSCodeCommitAsync;
+import com.amazonaws.services.codecommit.AWSCodeCommitAsyncClientBuilder;
+import com.cloudbees.jenkins.plugins.awscredentials.AmazonWebServicesCredentials;
+import com.amazonaws.services.codecommit.AWSCodeCommitClient;
+import edu.umd.cs.findbugs.annotations.CheckForNull;
+import edu.umd.cs.findbugs.annotations.NonNull;
+import hudson.init.Terminator;
+
+import java.io.Closeable;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * The clients of code commit, synchronous or asynchronous, shared by all the scans of the JVM, so the HTTP connections are kept alive between the scans.
+ * A client is identified by its region and its credentials, the {@link AWSCodeCommitGlobalConfiguration} is shared by all.
+ * A client is leased for the duration of a scan, an index or a file system and is never closed while it is leased.
+ * An updated credentials is a new instance in its store, so it gets a new client and the client of the previous
+ * instance is closed once idle. When the global configuration changes, the clients are replaced and the previous ones
+ * are closed once released. All the clients are closed when Jenkins stops.
+ */
+public final class AWSCodeCommitClientRegistry {
+
+    private static final Logger LOGGER = Logger.getLogger(AWSCodeCommitClientRegistry.class.getName());
+
+    private static final AWSCodeCommitClientRegistry INSTANCE = new AWSCodeCommitClientRegistry();
+
+    /**
+     * The clients by key.
+     */
+    private final Map<Key, Entry> clients = new HashMap<>();
+
+    /**
+     * The clients replaced by a change of the configuration, closed once released.
+     */
+    private final Set<Entry> stale = new HashSet<>();
+
+    private AWSCodeCommitClientRegistry() {}
+
+    /**
+     * @return the registry of the JVM
+     */
+    @NonNull
+    public static AWSCodeCommitClientRegistry get() {
+        return INSTANCE;
+    }
+
+    /**
+     * Lease the client for a region and credentials, build it if needed.
+     *
+     * @param region        the region of code commit
+     * @param credentialsId the identifier of the credentials, {@code null} for the default credentials of the JVM
+     * @param credentials   the credentials, {@code null} for the default credentials of the JVM
+     * @param async         {@code true} for the asynchronous client, it shares the rate limit of the synchronous client
+     * @return the lease, to close when the client is no longer used
+     */
+    @NonNull
+    public Lease lease(@NonNull String region, @CheckForNull String credentialsId,
+                       @CheckForNull AWSCredentialsProvider credentials, boolean async) {
+        return new Lease(acquire(region, credentialsId, credentials, null, async));
+    }
+
+    /**
+     * Lease the client of a region, in the account of the credentials or of a role assumed from them.
+     * The sessions are renewed in the background, not by the calls, and closed after the clients built on them.
+     *
+     * @param region           the region of code commit
+     * @param awsCredentialsId the identifier of the credentials
+     * @param credentials      the credentials, {@code null} for the default credentials of the JVM
+     * @param roleArn          the role assumed from the credentials, {@code null} for the account of the credentials
+     * @param async            {@code true} for the asynchronous client
+     * @return the lease, to close when the client is no longer used
+     */
+    @NonNull
+    public Lease lease(@NonNull String region, @CheckForNull String awsCredentialsId,
+                       @CheckForNull AmazonWebServicesCredentials credentials, @CheckForNull String roleArn,
+                       boolean async) {
+        if (roleArn == null) {
+            return lease(region, awsCredentialsId, RefreshingCredentialsProvider.of(credentials), async);
+        }
+        //the session is released by the client built on it, or now if the client already exists
+        final AssumedRoleRegistry sessions = AssumedRoleRegistry.get();
+        final AWSCredentialsProvider session = sessions.acquire(region, awsCredentialsId, credentials, roleArn);
+        try {
+            return new Lease(acquire(region, AssumedRoleRegistry.getCredentialsId(awsCredentialsId, roleArn),
+                    RefreshingCredentialsProvider.of(session), session, async));
+        } catch (RuntimeException e) {
+            sessions.release(session);
+            throw e;
+        }
+    }
+
+    private synchronized Entry acquire(String region, String credentialsId, AWSCredentialsProvider credentials,
+                                       @CheckForNull AWSCredentialsProvider session, boolean async) {
+        final AWSCodeCommitGlobalConfiguration configuration = AWSCodeCommitGlobalConfiguration.get();
+        final long now = System.currentTimeMillis();
+        closeIdle(now - TimeUnit.MINUTES.toMillis(configuration.getClientMaxIdleMinutes()));
+
+        final Key key = new Key(region, credentialsId, credentials, async);
+        Entry entry = clients.get(key);
+        if (entry == null) {
+            final CodeCommitRateLimiter limiter = CodeCommitRateLimiter.get(region, credentialsId, configuration.getMaxRequestsPerSecond());
+            final ClientConfiguration clientConfiguration = configuration.newClientConfiguration()
+                    .withRetryPolicy(limiter.newRetryPolicy(configuration.getMaxErrorRetry()));
+            entry = new Entry(async ? newAsyncClient(region, credentials, limiter, clientConfiguration)
+                    : newClient(region, credentials, limiter, clientConfiguration), session);
+            clients.put(key, entry);
+        } else if (session != null) {
+            AssumedRoleRegistry.get().release(session);
+        }
+        entry.leases++;
+        entry.lastUsed = now;
+        return entry;
+    }
+
+    private synchronized void release(Entry entry) {
+        entry.leases--;
+        entry.lastUsed = System.currentTimeMillis();
+        if (entry.leases == 0 && stale.remove(entry)) {
+            entry.close();
+        }
+    }
+
+    /**
+     * Build a client.
+     *
+     * @param region              the region of code commit
+     * @param credentials         the credentials
+     * @param limiter             the limiter shared by the calls with the same region and credentials
+     * @param clientConfiguration the configuration of the client
+     * @return the client
+     */
+    private static AWSCodeCommit newClient(String region, AWSCredentialsProvider credentials, CodeCommitRateLimiter limiter,
+                                           ClientConfiguration clientConfiguration) {
+        return AWSCodeCommitClient.builder()
+                .withRegion(region)
+                .withCredentials(credentials)
+                .withClientConfiguration(clientConfiguration)
+                .withRequestHandlers(limiter.newRequestHandler(), CodeCommitApiMetrics.get().newRequestHandler())
+                .build();
+    }
+
+    /**
+     * Build an asynchronous client, its executor has one thread by HTTP connection of the configuration.
+     *
+     * @param region              the region of code commit
+     * @param credentials         the credentials
+     * @param limiter             the limiter shared by the calls with the same region and credentials
+     * @param clientConfiguration the configuration of the client
+     * @return the client
+     */
+    private static AWSCodeCommitAsync newAsyncClient(String region, AWSCredentialsProvider credentials, CodeCommitRateLimiter limiter,
+                                                     ClientConfiguration clientConfiguration) {
+        return AWSCodeCommitAsyncClientBuilder.standard()
+                .withRegion(region)
+                .withCredentials(credentials)
+                .withClientConfiguration(clientConfiguration)
+                .withRequestHandlers(limiter.newRequestHandler(), CodeCommitApiMetrics.get().newRequestHandler())
+                .build();
+    }
+
+    /**
+     * Close the clients not leased since a date.
+     *
+     * @param limit the date in milliseconds
+     */
+    synchronized void closeIdle(long limit) {
+        for (Iterator<Entry> it = clients.values().iterator(); it.hasNext(); ) {
+            final Entry entry = it.next();
+            if (entry.leases == 0 && entry.lastUsed < limit) {
+                entry.close();
+                it.remove();
+            }
+        }
+    }
+
+    /**
+     * Replace all the clients, e.g. when the configuration changes.
+     * The clients not leased are closed now, the others once released.
+     */
+    public synchronized void invalidateAll() {
+        for (Entry entry : clients.values()) {
+            if (entry.leases == 0) {
+                entry.close();
+            } else {
+                stale.add(entry);
+            }
+        }
+        clients.clear();
+    }
+
+    /**
+     * Close all the clients, even the leased ones.
+     */
+    public synchronized void closeAll() {
+        for (Entry entry : clients.values()) {
+            entry.close();
+        }
+        for (Entry entry : stale) {
+            entry.close();
+        }
+        clients.clear();
+        stale.clear();
+    }
+
+    /**
+     * @return the number of clients, without the stale ones
+     */
+    public synchronized int size() {
+        return clients.size();
+    }
+
+    /**
+     * @return the number of clients replaced and still leased
+     */
+    public synchronized int staleSize() {
+        return stale.size();
+    }
+
+    /**
+     * Close the clients when Jenkins stops.
+     */
+    @Terminator
+    @SuppressWarnings("unused") // called by Jenkins
+    public static void shutdown() {
+        INSTANCE.closeAll();
+    }
+
+    /**
+     * The use of a client, released by {@link #close()}.
+     */
+    public static final class Lease implements Closeable {
+
+        @CheckForNull
+        private final Entry entry;
+
+        private final AWSCodeCommit client;
+
+        private final AtomicBoolean released = new AtomicBoolean();
+
+        private Lease(@NonNull Entry entry) {
+            this.entry = entry;
+            this.client = entry.client;
+        }
+
+        private Lease(@NonNull AWSCodeCommit client) {
+            this.entry = null;
+            this.client = client;
+        }
+
+        /**
+         * @param client a client built outside of the registry
+         * @return a lease which does not close the client
+         */
+        @NonNull
+        public static Lease unmanaged(@NonNull AWSCodeCommit client) {
+            return new Lease(client);
+        }
+
+        /**
+         * @return the client, valid until the lease is closed
+         */
+        @NonNull
+        public AWSCodeCommit getClient() {
+            return client;
+        }
+
+        /**
+         * Release the client, only once.
+         */
+        @Override
+        public void close() {
+            if (entry != null && released.compareAndSet(false, true)) {
+                INSTANCE.release(entry);
+            }
+        }
+    }
+
+    /**
+     * The region and credentials of a client.
+     */
+    private static final class Key {
+
+        private final String region;
+
+        private final String credentialsId;
+
+        /**
+         * Compared by identity, the credentials are a new instance when they are updated in their store.
+         */
+        private final AWSCredentialsProvider credentials;
+
+        private final boolean async;
+
+        private Key(String region, String credentialsId, AWSCredentialsProvider credentials, boolean async) {
+            this.region = region;
+            this.credentialsId = credentialsId;
+            this.credentials = credentials;
+            this.async = async;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (o == null || getClass() != o.getClass()) {
+                return false;
+            }
+            final Key key = (Key) o;
+            return region.equals(key.region)
+                    && (credentialsId != null ? credentialsId.equals(key.credentialsId) : key.credentialsId == null)
+                    && credentials == key.credentials
+                    && async == key.async;
+        }
+
+        @Override
+        public int hashCode() {
+            int result = region.hashCode();
+            result = 31 * result + (credentialsId != null ? credentialsId.hashCode() : 0);
+            result = 31 * result + System.identityHashCode(credentials);
+            result = 31 * result + (async ? 1 : 0);
+            return result;
+        }
+    }
+
+    /**
+     * A client, its leases and its last use.
+     */
+    private static final class Entry {
+
+        private final AWSCodeCommit client;
+
+        /**
+         * The session of the assumed role of the client, {@code null} for the account of the credentials.
+         */
+        @CheckForNull
+        private final AWSCredentialsProvider session;
+
+        private int leases;
+
+        private long lastUsed;
+
+        private Entry(AWSCodeCommit client, @CheckForNull AWSCredentialsProvider session) {
+            this.client = client;
+            this.session = session;
+        }
+
+        private void close() {
+            try {
+                client.shutdown();
+            } catch (RuntimeException e) {
+                LOGGER.log(Level.FINE, "Failed to close a client", e);
+            }
+            if (session != null) {
+                AssumedRoleRegistry.get().release(session);
+            }
+        }
+    }
+}
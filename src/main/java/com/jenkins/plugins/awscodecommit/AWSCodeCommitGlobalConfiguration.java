@@ -0,0 +1,375 @@
+/**
+ * The MIT License
+ * Copyright © 2016 Stephane Jeandeaux and all contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.jenkins.plugins.awscodecommit;
+
+import com.amazonaws.ClientConfiguration;
+import com.amazonaws.retry.PredefinedRetryPolicies;
+import com.cloudbees.jenkins.plugins.awscredentials.AmazonWebServicesCredentials;
+import com.cloudbees.plugins.credentials.CredentialsMatchers;
+import com.cloudbees.plugins.credentials.common.StandardListBoxModel;
+import com.cloudbees.plugins.credentials.domains.URIRequirementBuilder;
+import com.jenkins.plugins.awscodecommit.events.CodeCommitQueueConsumer;
+import edu.umd.cs.findbugs.annotations.CheckForNull;
+import edu.umd.cs.findbugs.annotations.NonNull;
+import hudson.Extension;
+import hudson.security.ACL;
+import hudson.util.FormValidation;
+import hudson.util.ListBoxModel;
+import hudson.util.Secret;
+import jenkins.model.GlobalConfiguration;
+import jenkins.model.Jenkins;
+import net.sf.json.JSONObject;
+import org.apache.commons.lang.StringUtils;
+import org.jenkinsci.Symbol;
+import org.kohsuke.stapler.DataBoundSetter;
+import org.kohsuke.stapler.QueryParameter;
+import org.kohsuke.stapler.StaplerRequest;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The global configuration of the plugin.
+ */
+@Symbol("awsCodeCommit")
+@Extension
+public class AWSCodeCommitGlobalConfiguration extends GlobalConfiguration {
+
+    /**
+     * By default the maximum of HTTP connections of the SDK.
+     */
+    public static final int DEFAULT_MAX_CONNECTIONS = ClientConfiguration.DEFAULT_MAX_CONNECTIONS;
+
+    /**
+     * By default an HTTP connection is closed after one minute without request.
+     */
+    public static final int DEFAULT_CONNECTION_MAX_IDLE_SECONDS = 60;
+
+    /**
+     * By default a client is closed after 30 minutes without scan.
+     */
+    public static final int DEFAULT_CLIENT_MAX_IDLE_MINUTES = 30;
+
+    /**
+     * By default the calls are not limited, only the calls throttled by code commit are retried after a backoff.
+     */
+    public static final int DEFAULT_MAX_REQUESTS_PER_SECOND = 0;
+
+    /**
+     * By default one thread polls the queue.
+     */
+    public static final int DEFAULT_QUEUE_CONSUMERS = 1;
+
+    /**
+     * By default a message received is hidden one minute from the other consumers.
+     */
+    public static final int DEFAULT_QUEUE_VISIBILITY_TIMEOUT = 60;
+
+    /**
+     * By default the maximum wait of a long poll of SQS.
+     */
+    public static final int DEFAULT_QUEUE_WAIT_TIME_SECONDS = 20;
+
+    /**
+     * Maximum of HTTP connections by client.
+     */
+    private int maxConnections = DEFAULT_MAX_CONNECTIONS;
+
+    /**
+     * Seconds before an idle HTTP connection is closed.
+     */
+    private int connectionMaxIdleSeconds = DEFAULT_CONNECTION_MAX_IDLE_SECONDS;
+
+    /**
+     * Minutes before an unused client is closed.
+     */
+    private int clientMaxIdleMinutes = DEFAULT_CLIENT_MAX_IDLE_MINUTES;
+
+    /**
+     * Maximum of calls by second for each region and credentials, shared by all the scans, {@code 0} without limit.
+     */
+    private int maxRequestsPerSecond = DEFAULT_MAX_REQUESTS_PER_SECOND;
+
+    /**
+     * Maximum of retries of a failed call.
+     */
+    private int maxErrorRetry = PredefinedRetryPolicies.DEFAULT_MAX_ERROR_RETRY;
+
+    /**
+     * Token expected by the webhook, the notifications are refused without token.
+     */
+    private Secret webhookToken;
+
+    /**
+     * URL of the SQS queue with the notifications, the queue is not polled without URL.
+     */
+    private String queueUrl;
+
+    /**
+     * Credentials to poll the queue, the default credentials of the JVM if {@code null}.
+     */
+    private String queueCredentialsId;
+
+    /**
+     * Number of threads polling the queue.
+     */
+    private int queueConsumers = DEFAULT_QUEUE_CONSUMERS;
+
+    /**
+     * Seconds a received message is hidden from the other consumers before it is received again.
+     */
+    private int queueVisibilityTimeout = DEFAULT_QUEUE_VISIBILITY_TIMEOUT;
+
+    /**
+     * Seconds of the long poll.
+     */
+    private int queueWaitTimeSeconds = DEFAULT_QUEUE_WAIT_TIME_SECONDS;
+
+    public AWSCodeCommitGlobalConfiguration() {
+        this(true);
+    }
+
+    /**
+     * @param load {@code false} to keep the default configuration
+     */
+    private AWSCodeCommitGlobalConfiguration(boolean load) {
+        if (load) {
+            load();
+        }
+    }
+
+    /**
+     * @return the global configuration, the default one if Jenkins is not running
+     */
+    @NonNull
+    public static AWSCodeCommitGlobalConfiguration get() {
+        if (Jenkins.getInstance() != null) {
+            final AWSCodeCommitGlobalConfiguration configuration = GlobalConfiguration.all().get(AWSCodeCommitGlobalConfiguration.class);
+            if (configuration != null) {
+                return configuration;
+            }
+        }
+        return new AWSCodeCommitGlobalConfiguration(false);
+    }
+
+    @Override
+    public String getDisplayName() {
+        return Messages.AWSCodeCommitGlobalConfiguration_DisplayName();
+    }
+
+    @Override
+    public boolean configure(StaplerRequest req, JSONObject json) throws FormException {
+        req.bindJSON(this, json);
+        save();
+        //the clients are built again with the new configuration, the running scans keep theirs until they end
+        AWSCodeCommitClientRegistry.get().invalidateAll();
+        CodeCommitQueueConsumer.restart();
+        return true;
+    }
+
+    /**
+     * @return the configuration of the clients AWS
+     */
+    @NonNull
+    public ClientConfiguration newClientConfiguration() {
+        return new ClientConfiguration()
+                .withMaxConnections(getMaxConnections())
+                .withConnectionMaxIdleMillis(TimeUnit.SECONDS.toMillis(getConnectionMaxIdleSeconds()));
+    }
+
+    public int getMaxConnections() {
+        return maxConnections > 0 ? maxConnections : DEFAULT_MAX_CONNECTIONS;
+    }
+
+    @DataBoundSetter
+    public void setMaxConnections(int maxConnections) {
+        this.maxConnections = maxConnections;
+    }
+
+    public int getConnectionMaxIdleSeconds() {
+        return connectionMaxIdleSeconds > 0 ? connectionMaxIdleSeconds : DEFAULT_CONNECTION_MAX_IDLE_SECONDS;
+    }
+
+    @DataBoundSetter
+    public void setConnectionMaxIdleSeconds(int connectionMaxIdleSeconds) {
+        this.connectionMaxIdleSeconds = connectionMaxIdleSeconds;
+    }
+
+    public int getClientMaxIdleMinutes() {
+        return clientMaxIdleMinutes > 0 ? clientMaxIdleMinutes : DEFAULT_CLIENT_MAX_IDLE_MINUTES;
+    }
+
+    @DataBoundSetter
+    public void setClientMaxIdleMinutes(int clientMaxIdleMinutes) {
+        this.clientMaxIdleMinutes = clientMaxIdleMinutes;
+    }
+
+    public int getMaxRequestsPerSecond() {
+        return Math.max(0, maxRequestsPerSecond);
+    }
+
+    @DataBoundSetter
+    public void setMaxRequestsPerSecond(int maxRequestsPerSecond) {
+        this.maxRequestsPerSecond = maxRequestsPerSecond;
+    }
+
+    public int getMaxErrorRetry() {
+        return maxErrorRetry >= 0 ? maxErrorRetry : PredefinedRetryPolicies.DEFAULT_MAX_ERROR_RETRY;
+    }
+
+    @DataBoundSetter
+    public void setMaxErrorRetry(int maxErrorRetry) {
+        this.maxErrorRetry = maxErrorRetry;
+    }
+
+    /**
+     * @return the token of the webhook, {@code null} if the webhook is disabled
+     */
+    @CheckForNull
+    public Secret getWebhookToken() {
+        return webhookToken == null || webhookToken.getPlainText().isEmpty() ? null : webhookToken;
+    }
+
+    @DataBoundSetter
+    public void setWebhookToken(Secret webhookToken) {
+        this.webhookToken = webhookToken;
+    }
+
+    @CheckForNull
+    public String getQueueUrl() {
+        return StringUtils.trimToNull(queueUrl);
+    }
+
+    @DataBoundSetter
+    public void setQueueUrl(String queueUrl) {
+        this.queueUrl = queueUrl;
+    }
+
+    @CheckForNull
+    public String getQueueCredentialsId() {
+        return StringUtils.trimToNull(queueCredentialsId);
+    }
+
+    @DataBoundSetter
+    public void setQueueCredentialsId(String queueCredentialsId) {
+        this.queueCredentialsId = queueCredentialsId;
+    }
+
+    public int getQueueConsumers() {
+        return queueConsumers > 0 ? queueConsumers : DEFAULT_QUEUE_CONSUMERS;
+    }
+
+    @DataBoundSetter
+    public void setQueueConsumers(int queueConsumers) {
+        this.queueConsumers = queueConsumers;
+    }
+
+    public int getQueueVisibilityTimeout() {
+        return queueVisibilityTimeout > 0 ? queueVisibilityTimeout : DEFAULT_QUEUE_VISIBILITY_TIMEOUT;
+    }
+
+    @DataBoundSetter
+    public void setQueueVisibilityTimeout(int queueVisibilityTimeout) {
+        this.queueVisibilityTimeout = queueVisibilityTimeout;
+    }
+
+    public int getQueueWaitTimeSeconds() {
+        return queueWaitTimeSeconds > 0 ? Math.min(queueWaitTimeSeconds, DEFAULT_QUEUE_WAIT_TIME_SECONDS)
+                : DEFAULT_QUEUE_WAIT_TIME_SECONDS;
+    }
+
+    @DataBoundSetter
+    public void setQueueWaitTimeSeconds(int queueWaitTimeSeconds) {
+        this.queueWaitTimeSeconds = queueWaitTimeSeconds;
+    }
+
+    /**
+     * Validation of a number which must be positive.
+     *
+     * @param value the value
+     * @return OK if positive, error if not
+     */
+    private static FormValidation checkPositive(int value) {
+        if (value > 0) {
+            return FormValidation.ok();
+        }
+        return FormValidation.error(Messages.AWSCodeCommitGlobalConfiguration_PositiveCheckKo());
+    }
+
+    @SuppressWarnings("unused") // stapler form binding
+    public FormValidation doCheckMaxConnections(@QueryParameter int maxConnections) {
+        return checkPositive(maxConnections);
+    }
+
+    @SuppressWarnings("unused") // stapler form binding
+    public FormValidation doCheckConnectionMaxIdleSeconds(@QueryParameter int connectionMaxIdleSeconds) {
+        return checkPositive(connectionMaxIdleSeconds);
+    }
+
+    @SuppressWarnings("unused") // stapler form binding
+    public FormValidation doCheckClientMaxIdleMinutes(@QueryParameter int clientMaxIdleMinutes) {
+        return checkPositive(clientMaxIdleMinutes);
+    }
+
+    @SuppressWarnings("unused") // stapler form binding
+    public FormValidation doCheckMaxRequestsPerSecond(@QueryParameter int maxRequestsPerSecond) {
+        if (maxRequestsPerSecond < 0) {
+            return FormValidation.error(Messages.AWSCodeCommitGlobalConfiguration_NotNegativeCheckKo());
+        }
+        return FormValidation.ok();
+    }
+
+    @SuppressWarnings("unused") // stapler form binding
+    public FormValidation doCheckQueueConsumers(@QueryParameter int queueConsumers) {
+        return checkPositive(queueConsumers);
+    }
+
+    @SuppressWarnings("unused") // stapler form binding
+    public FormValidation doCheckQueueVisibilityTimeout(@QueryParameter int queueVisibilityTimeout) {
+        return checkPositive(queueVisibilityTimeout);
+    }
+
+    @SuppressWarnings("unused") // stapler form binding
+    public FormValidation doCheckQueueWaitTimeSeconds(@QueryParameter int queueWaitTimeSeconds) {
+        if (queueWaitTimeSeconds > DEFAULT_QUEUE_WAIT_TIME_SECONDS) {
+            return FormValidation.error(Messages.AWSCodeCommitGlobalConfiguration_QueueWaitTimeCheckKo(DEFAULT_QUEUE_WAIT_TIME_SECONDS));
+        }
+        return checkPositive(queueWaitTimeSeconds);
+    }
+
+    /**
+     * Listbox for the credentials polling the queue.
+     *
+     * @return listbox with the credentials AWS of Jenkins
+     */
+    @SuppressWarnings("unused") // stapler form binding
+    public ListBoxModel doFillQueueCredentialsIdItems() {
+        final Jenkins jenkins = Jenkins.getInstance();
+        if (jenkins == null || !jenkins.hasPermission(Jenkins.ADMINISTER)) {
+            return new StandardListBoxModel().includeCurrentValue(getQueueCredentialsId());
+        }
+        return new StandardListBoxModel()
+                .includeEmptyValue()
+                .includeMatchingAs(ACL.SYSTEM, jenkins, AmazonWebServicesCredentials.class,
+                        URIRequirementBuilder.create().build(), CredentialsMatchers.always());
+    }
+}
@@ -0,0 +1,106 @@
+/**
+ * The MIT License
+ * Copyright © 2016 Stephane Jeandeaux and all contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.jenkins.plugins.awscodecommit;
+
+import com.codahale.metrics.Gauge;
+import com.codahale.metrics.Metric;
+import com.codahale.metrics.MetricRegistry;
+import com.codahale.metrics.MetricSet;
+import com.jenkins.plugins.awscodecommit.navigator.ScanMetrics;
+import edu.umd.cs.findbugs.annotations.NonNull;
+import hudson.Extension;
+import jenkins.metrics.api.MetricProvider;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Publish the scans and the calls to the API Code Commit of the JVM, when the metrics plugin is installed.
+ */
+@Extension(optional = true)
+public class AWSCodeCommitMetricProvider extends MetricProvider {
+
+    private static final String PREFIX = "aws-codecommit";
+
+    @NonNull
+    @Override
+    public MetricSet getMetricSet() {
+        final Map<String, Metric> metrics = new HashMap<>();
+        metrics.put(MetricRegistry.name(PREFIX, "scans"), new Gauge<Long>() {
+            @Override
+            public Long getValue() {
+                return ScanMetrics.getScans();
+            }
+        });
+        metrics.put(MetricRegistry.name(PREFIX, "scans", "duration"), new Gauge<Long>() {
+            @Override
+            public Long getValue() {
+                return ScanMetrics.getScanMillis();
+            }
+        });
+        metrics.put(MetricRegistry.name(PREFIX, "scans", "last", "duration"), new Gauge<Long>() {
+            @Override
+            public Long getValue() {
+                return ScanMetrics.getLastScanMillis();
+            }
+        });
+        metrics.put(MetricRegistry.name(PREFIX, "scans", "repositories"), new Gauge<Long>() {
+            @Override
+            public Long getValue() {
+                return ScanMetrics.getRepositories();
+            }
+        });
+        for (final String operation : CodeCommitApiMetrics.OPERATIONS) {
+            metrics.put(MetricRegistry.name(PREFIX, "api", operation, "calls"), new Gauge<Long>() {
+                @Override
+                public Long getValue() {
+                    return CodeCommitApiMetrics.get().snapshot().getCalls(operation);
+                }
+            });
+            metrics.put(MetricRegistry.name(PREFIX, "api", operation, "errors"), new Gauge<Long>() {
+                @Override
+                public Long getValue() {
+                    return CodeCommitApiMetrics.get().snapshot().getErrors(operation);
+                }
+            });
+            metrics.put(MetricRegistry.name(PREFIX, "api", operation, "throttles"), new Gauge<Long>() {
+                @Override
+                public Long getValue() {
+                    return CodeCommitApiMetrics.get().snapshot().getThrottles(operation);
+                }
+            });
+            metrics.put(MetricRegistry.name(PREFIX, "api", operation, "latency", "p99"), new Gauge<Long>() {
+                @Override
+                public Long getValue() {
+                    return CodeCommitApiMetrics.get().snapshot().getLatency(operation, 0.99);
+                }
+            });
+        }
+        return new MetricSet() {
+            @Override
+            public Map<String, Metric> getMetrics() {
+                return metrics;
+            }
+        };
+    }
+}
@@ -0,0 +1,323 @@
+/**
+ * The MIT License
+ * Copyright © 2016 Stephane Jeandeaux and all contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.jenkins.plugins.awscodecommit;
+
+import com.amazonaws.auth.AWSCredentialsProvider;
+import com.amazonaws.auth.DefaultAWSCredentialsProviderChain;
+import com.amazonaws.auth.STSAssumeRoleSessionCredentialsProvider;
+import com.amazonaws.client.builder.AwsClientBuilder;
+import com.amazonaws.services.securitytoken.AWSSecurityTokenService;
+import com.amazonaws.services.securitytoken.AWSSecurityTokenServiceClientBuilder;
+import edu.umd.cs.findbugs.annotations.CheckForNull;
+import edu.umd.cs.findbugs.annotations.NonNull;
+import hudson.init.Terminator;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * The sessions of the roles assumed from base credentials, shared by all the scans of the JVM.
+ * A session is identified by the base credentials and the role ARN, it is refreshed by the SDK before it expires,
+ * so a scan never waits for STS once the session exists. An updated base credentials is a new instance in its store,
+ * so it gets a new session. The clients of code commit built on a session are counted by {@link #acquire} and
+ * {@link #release}: the previous session is only closed once its last client is closed. All the sessions are closed
+ * when Jenkins stops.
+ */
+public final class AssumedRoleRegistry {
+
+    private static final Logger LOGGER = Logger.getLogger(AssumedRoleRegistry.class.getName());
+
+    private static final AssumedRoleRegistry INSTANCE = new AssumedRoleRegistry(null);
+
+    /**
+     * The name of the sessions in CloudTrail.
+     */
+    public static final String SESSION_NAME = "jenkins-aws-codecommit";
+
+    /**
+     * Separator between the base credentials and the role in the identifiers.
+     */
+    public static final String SEPARATOR = "|";
+
+    /**
+     * The account in a role ARN, e.g. {@code arn:aws:iam::123456789012:role/jenkins}.
+     */
+    private static final Pattern PATTERN_ROLE_ARN = Pattern.compile("^arn:[^:]+:iam::(\\d{12}):role/.+$");
+
+    /**
+     * The duration of a session in seconds.
+     */
+    private static final int SESSION_DURATION = 3600;
+
+    /**
+     * The endpoint of STS, {@code null} for the one of the region.
+     */
+    @CheckForNull
+    private final AwsClientBuilder.EndpointConfiguration endpoint;
+
+    /**
+     * The sessions by key.
+     */
+    private final Map<Key, Entry> sessions = new HashMap<>();
+
+    /**
+     * The sessions replaced by a new session of updated base credentials, closed once their clients are closed.
+     */
+    private final List<Entry> retired = new ArrayList<>();
+
+    /**
+     * @param endpoint the endpoint of STS, {@code null} for the one of the region
+     */
+    AssumedRoleRegistry(@CheckForNull AwsClientBuilder.EndpointConfiguration endpoint) {
+        this.endpoint = endpoint;
+    }
+
+    /**
+     * @return the registry of the JVM
+     */
+    @NonNull
+    public static AssumedRoleRegistry get() {
+        return INSTANCE;
+    }
+
+    /**
+     * Get the credentials of a role assumed from base credentials, create the session if needed.
+     * The session is only opened on the first call to the API.
+     *
+     * @param region            the region of STS
+     * @param baseCredentialsId the identifier of the base credentials, {@code null} for the default credentials of the JVM
+     * @param baseCredentials   the base credentials, {@code null} for the default credentials of the JVM
+     * @param roleArn           the role to assume
+     * @return the credentials of the role
+     */
+    @NonNull
+    public synchronized AWSCredentialsProvider getCredentials(@NonNull String region, @CheckForNull String baseCredentialsId,
+                                                              @CheckForNull AWSCredentialsProvider baseCredentials,
+                                                              @NonNull String roleArn) {
+        final Key key = new Key(baseCredentialsId, roleArn);
+        Entry entry = sessions.get(key);
+        if (entry != null && entry.baseCredentials != baseCredentials) {
+            if (entry.clients == 0) {
+                entry.close();
+            } else {
+                retired.add(entry);
+            }
+            entry = null;
+        }
+        if (entry == null) {
+            final AWSSecurityTokenServiceClientBuilder builder = AWSSecurityTokenServiceClientBuilder.standard()
+                    .withCredentials(baseCredentials != null ? baseCredentials : DefaultAWSCredentialsProviderChain.getInstance());
+            if (endpoint != null) {
+                builder.withEndpointConfiguration(endpoint);
+            } else {
+                builder.withRegion(region);
+            }
+            final AWSSecurityTokenService sts = builder.build();
+            entry = new Entry(baseCredentials, sts, new STSAssumeRoleSessionCredentialsProvider.Builder(roleArn, SESSION_NAME)
+                    .withStsClient(sts)
+                    .withRoleSessionDurationSeconds(SESSION_DURATION)
+                    .build());
+            sessions.put(key, entry);
+        }
+        return entry.credentials;
+    }
+
+    /**
+     * Get the credentials of a role assumed from base credentials for a new client, the session is not closed until
+     * the client is released by {@link #release(AWSCredentialsProvider)}.
+     *
+     * @param region            the region of STS
+     * @param baseCredentialsId the identifier of the base credentials, {@code null} for the default credentials of the JVM
+     * @param baseCredentials   the base credentials, {@code null} for the default credentials of the JVM
+     * @param roleArn           the role to assume
+     * @return the credentials of the role
+     */
+    @NonNull
+    public synchronized AWSCredentialsProvider acquire(@NonNull String region, @CheckForNull String baseCredentialsId,
+                                                       @CheckForNull AWSCredentialsProvider baseCredentials,
+                                                       @NonNull String roleArn) {
+        final AWSCredentialsProvider credentials = getCredentials(region, baseCredentialsId, baseCredentials, roleArn);
+        sessions.get(new Key(baseCredentialsId, roleArn)).clients++;
+        return credentials;
+    }
+
+    /**
+     * Release the credentials of a closed client, close the session if it was replaced and has no more client.
+     *
+     * @param credentials the credentials returned by {@link #acquire}
+     */
+    public synchronized void release(@NonNull AWSCredentialsProvider credentials) {
+        for (Entry entry : sessions.values()) {
+            if (entry.credentials == credentials) {
+                entry.clients--;
+                return;
+            }
+        }
+        for (Iterator<Entry> it = retired.iterator(); it.hasNext(); ) {
+            final Entry entry = it.next();
+            if (entry.credentials == credentials) {
+                if (--entry.clients == 0) {
+                    entry.close();
+                    it.remove();
+                }
+                return;
+            }
+        }
+    }
+
+    /**
+     * The identifier of the credentials of an assumed role, for the clients and the rate limiters.
+     *
+     * @param baseCredentialsId the identifier of the base credentials
+     * @param roleArn           the role
+     * @return the identifier
+     */
+    @NonNull
+    public static String getCredentialsId(@CheckForNull String baseCredentialsId, @NonNull String roleArn) {
+        return baseCredentialsId + SEPARATOR + roleArn;
+    }
+
+    /**
+     * @param roleArn a role ARN
+     * @return the account of the role, {@code null} if it is not a role ARN
+     */
+    @CheckForNull
+    public static String getAccountId(@NonNull String roleArn) {
+        final Matcher matcher = PATTERN_ROLE_ARN.matcher(roleArn);
+        return matcher.matches() ? matcher.group(1) : null;
+    }
+
+    /**
+     * Close all the sessions, even the ones of clients still open.
+     */
+    public synchronized void closeAll() {
+        for (Entry entry : sessions.values()) {
+            entry.close();
+        }
+        for (Entry entry : retired) {
+            entry.close();
+        }
+        sessions.clear();
+        retired.clear();
+    }
+
+    /**
+     * @return the number of sessions, without the replaced ones
+     */
+    public synchronized int size() {
+        return sessions.size();
+    }
+
+    /**
+     * @return the number of sessions replaced and still used by clients
+     */
+    public synchronized int retiredSize() {
+        return retired.size();
+    }
+
+    /**
+     * Close the sessions when Jenkins stops.
+     */
+    @Terminator
+    @SuppressWarnings("unused") // called by Jenkins
+    public static void shutdown() {
+        INSTANCE.closeAll();
+    }
+
+    /**
+     * The base credentials and the role of a session.
+     */
+    private static final class Key {
+
+        private final String baseCredentialsId;
+
+        private final String roleArn;
+
+        private Key(String baseCredentialsId, String roleArn) {
+            this.baseCredentialsId = baseCredentialsId;
+            this.roleArn = roleArn;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (o == null || getClass() != o.getClass()) {
+                return false;
+            }
+            final Key key = (Key) o;
+            return (baseCredentialsId != null ? baseCredentialsId.equals(key.baseCredentialsId) : key.baseCredentialsId == null)
+                    && roleArn.equals(key.roleArn);
+        }
+
+        @Override
+        public int hashCode() {
+            int result = baseCredentialsId != null ? baseCredentialsId.hashCode() : 0;
+            result = 31 * result + roleArn.hashCode();
+            return result;
+        }
+    }
+
+    /**
+     * A session, its client of STS and the number of clients of code commit built on it.
+     */
+    private static final class Entry {
+
+        /**
+         * Compared by identity, the credentials are a new instance when they are updated in their store.
+         */
+        private final AWSCredentialsProvider baseCredentials;
+
+        private final AWSSecurityTokenService sts;
+
+        private final STSAssumeRoleSessionCredentialsProvider credentials;
+
+        private int clients;
+
+        private Entry(AWSCredentialsProvider baseCredentials, AWSSecurityTokenService sts,
+                      STSAssumeRoleSessionCredentialsProvider credentials) {
+            this.baseCredentials = baseCredentials;
+            this.sts = sts;
+            this.credentials = credentials;
+        }
+
+        private void close() {
+            //a retired session is not renewed anymore
+            RefreshingCredentialsProvider.close(credentials);
+            try {
+                credentials.close();
+                sts.shutdown();
+            } catch (RuntimeException e) {
+                LOGGER.log(Level.FINE, "Failed to close a session", e);
+            }
+        }
+    }
+}
@@ -0,0 +1,305 @@
+/**
+ * The MIT License
+ * Copyright © 2016 Stephane Jeandeaux and all contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.jenkins.plugins.awscodecommit;
+
+import com.amazonaws.AmazonWebServiceRequest;
+import com.amazonaws.Request;
+import com.amazonaws.Response;
+import com.amazonaws.handlers.HandlerContextKey;
+import com.amazonaws.handlers.RequestHandler2;
+import com.amazonaws.services.codecommit.AWSCodeCommit;
+import com.amazonaws.services.codecommit.AWSCodeCommitAsync;
+import edu.umd.cs.findbugs.annotations.CheckForNull;
+import edu.umd.cs.findbugs.annotations.NonNull;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * The calls to the API Code Commit by operation: number, errors, throttles and latency.
+ * The latency is counted in buckets of powers of two milliseconds, so the percentiles are approximated
+ * by the upper bound of their bucket.
+ * {@link #get()} counts the calls of the JVM. A scan counts its own calls with a new instance and the clients
+ * returned by {@link #scope(AWSCodeCommit)}, as the clients are shared by the concurrent scans.
+ */
+public final class CodeCommitApiMetrics {
+
+    /**
+     * The operations called by the plugin.
+     */
+    public static final List<String> OPERATIONS = Collections.unmodifiableList(Arrays.asList(
+            "ListRepositories", "GetRepository", "BatchGetRepositories", "ListTagsForResource",
+            "ListBranches", "GetBranch", "GetFile", "GetFolder", "ListPullRequests", "GetPullRequest"));
+
+    /**
+     * The upper bound of the last bucket is 2^(BUCKETS-1) ms, about 65 s.
+     */
+    static final int BUCKETS = 17;
+
+    private static final CodeCommitApiMetrics INSTANCE = new CodeCommitApiMetrics();
+
+    private static final HandlerContextKey<Long> START = new HandlerContextKey<>(CodeCommitApiMetrics.class.getName());
+
+    private static final HandlerContextKey<CodeCommitApiMetrics> SCOPE =
+            new HandlerContextKey<>(CodeCommitApiMetrics.class.getName() + ".scope");
+
+    /**
+     * By operation: calls, errors, throttles, then the buckets of latency.
+     */
+    private final ConcurrentMap<String, AtomicLongArray> operations = new ConcurrentHashMap<>();
+
+    /**
+     * New metrics counting only the calls of the clients returned by {@link #scope(AWSCodeCommit)}.
+     */
+    public CodeCommitApiMetrics() {}
+
+    /**
+     * @return the metrics of the JVM
+     */
+    @NonNull
+    public static CodeCommitApiMetrics get() {
+        return INSTANCE;
+    }
+
+    /**
+     * Record a call.
+     *
+     * @param operation the operation, {@code GetRepository} for instance
+     * @param nanos     the duration of the call with its retries
+     * @param error     {@code true} if the call failed
+     * @param throttled {@code true} if the call failed because of the throttling
+     */
+    public void record(@NonNull String operation, long nanos, boolean error, boolean throttled) {
+        AtomicLongArray values = operations.get(operation);
+        if (values == null) {
+            final AtomicLongArray created = new AtomicLongArray(3 + BUCKETS);
+            values = operations.putIfAbsent(operation, created);
+            if (values == null) {
+                values = created;
+            }
+        }
+        values.incrementAndGet(0);
+        if (error) {
+            values.incrementAndGet(1);
+        }
+        if (throttled) {
+            values.incrementAndGet(2);
+        }
+        values.incrementAndGet(3 + bucket(TimeUnit.NANOSECONDS.toMillis(nanos)));
+    }
+
+    /**
+     * @param millis a duration
+     * @return the index of the smallest bucket whose upper bound is at least the duration
+     */
+    static int bucket(long millis) {
+        if (millis <= 1) {
+            return 0;
+        }
+        final int bucket = 64 - Long.numberOfLeadingZeros(millis - 1);
+        return Math.min(bucket, BUCKETS - 1);
+    }
+
+    /**
+     * @return the calls since the start of the JVM
+     */
+    @NonNull
+    public Snapshot snapshot() {
+        final Map<String, long[]> values = new TreeMap<>();
+        for (Map.Entry<String, AtomicLongArray> operation : operations.entrySet()) {
+            final AtomicLongArray array = operation.getValue();
+            final long[] copy = new long[array.length()];
+            for (int i = 0; i < copy.length; i++) {
+                copy[i] = array.get(i);
+            }
+            values.put(operation.getKey(), copy);
+        }
+        return new Snapshot(values);
+    }
+
+    /**
+     * Count the calls of a client in these metrics, in addition to the metrics of the JVM.
+     *
+     * @param client the client, shared or not
+     * @return a client marking its requests with these metrics
+     */
+    @NonNull
+    public AWSCodeCommit scope(@NonNull final AWSCodeCommit client) {
+        final Class<?> type = client instanceof AWSCodeCommitAsync ? AWSCodeCommitAsync.class : AWSCodeCommit.class;
+        return (AWSCodeCommit) Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type}, new InvocationHandler() {
+            @Override
+            public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+                if (args != null) {
+                    for (Object arg : args) {
+                        if (arg instanceof AmazonWebServiceRequest) {
+                            ((AmazonWebServiceRequest) arg).addHandlerContext(SCOPE, CodeCommitApiMetrics.this);
+                        }
+                    }
+                }
+                try {
+                    return method.invoke(client, args);
+                } catch (InvocationTargetException e) {
+                    throw e.getCause();
+                }
+            }
+        });
+    }
+
+    /**
+     * @return a handler recording the calls of a client
+     */
+    @NonNull
+    public RequestHandler2 newRequestHandler() {
+        return new RequestHandler2() {
+            @Override
+            public void beforeRequest(Request<?> request) {
+                request.addHandlerContext(START, System.nanoTime());
+            }
+
+            @Override
+            public void afterResponse(Request<?> request, Response<?> response) {
+                done(request, null);
+            }
+
+            @Override
+            public void afterError(Request<?> request, Response<?> response, Exception e) {
+                done(request, e);
+            }
+        };
+    }
+
+    private void done(Request<?> request, @CheckForNull Exception e) {
+        final Long start = request.getHandlerContext(START);
+        if (start == null) {
+            return;
+        }
+        final AmazonWebServiceRequest original = request.getOriginalRequest();
+        final String operation = operationOf(original);
+        final long nanos = System.nanoTime() - start;
+        final boolean throttled = e != null && CodeCommitRateLimiter.isThrottling(e);
+        record(operation, nanos, e != null, throttled);
+        final CodeCommitApiMetrics scope = original != null ? original.getHandlerContext(SCOPE) : null;
+        if (scope != null && scope != this) {
+            scope.record(operation, nanos, e != null, throttled);
+        }
+    }
+
+    private static String operationOf(@CheckForNull AmazonWebServiceRequest request) {
+        if (request == null) {
+            return "Unknown";
+        }
+        final String name = request.getClass().getSimpleName();
+        return name.endsWith("Request") ? name.substring(0, name.length() - "Request".length()) : name;
+    }
+
+    /**
+     * The calls by operation at a date.
+     */
+    public static final class Snapshot {
+
+        private final Map<String, long[]> values;
+
+        private Snapshot(Map<String, long[]> values) {
+            this.values = values;
+        }
+
+        /**
+         * @param previous the snapshot at the start of the scan
+         * @return the calls since the previous snapshot
+         */
+        @NonNull
+        public Snapshot minus(@NonNull Snapshot previous) {
+            final Map<String, long[]> result = new TreeMap<>();
+            for (Map.Entry<String, long[]> operation : values.entrySet()) {
+                final long[] before = previous.values.get(operation.getKey());
+                final long[] diff = operation.getValue().clone();
+                if (before != null) {
+                    for (int i = 0; i < diff.length; i++) {
+                        diff[i] -= before[i];
+                    }
+                }
+                if (diff[0] > 0) {
+                    result.put(operation.getKey(), diff);
+                }
+            }
+            return new Snapshot(result);
+        }
+
+        /**
+         * @return the operations called, sorted by name
+         */
+        @NonNull
+        public Iterable<String> getOperations() {
+            return values.keySet();
+        }
+
+        public long getCalls(@NonNull String operation) {
+            return get(operation, 0);
+        }
+
+        public long getErrors(@NonNull String operation) {
+            return get(operation, 1);
+        }
+
+        public long getThrottles(@NonNull String operation) {
+            return get(operation, 2);
+        }
+
+        /**
+         * @param operation the operation
+         * @param quantile  the quantile between 0 and 1, 0.99 for the 99th percentile
+         * @return the upper bound in milliseconds of the bucket of the quantile, 0 without call
+         */
+        public long getLatency(@NonNull String operation, double quantile) {
+            final long[] operationValues = values.get(operation);
+            if (operationValues == null || operationValues[0] == 0) {
+                return 0;
+            }
+            final long rank = Math.max(1, (long) Math.ceil(quantile * operationValues[0]));
+            long seen = 0;
+            for (int i = 0; i < BUCKETS; i++) {
+                seen += operationValues[3 + i];
+                if (seen >= rank) {
+                    return 1L << i;
+                }
+            }
+            return 1L << (BUCKETS - 1);
+        }
+
+        private long get(String operation, int index) {
+            final long[] operationValues = values.get(operation);
+            return operationValues != null ? operationValues[index] : 0;
+        }
+    }
+}
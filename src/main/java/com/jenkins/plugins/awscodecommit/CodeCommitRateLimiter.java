@@ -0,0 +1,287 @@
+/**
+ * The MIT License
+ * Copyright © 2016 Stephane Jeandeaux and all contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.jenkins.plugins.awscodecommit;
+
+import com.amazonaws.AbortedException;
+import com.amazonaws.AmazonClientException;
+import com.amazonaws.AmazonServiceException;
+import com.amazonaws.AmazonWebServiceRequest;
+import com.amazonaws.Request;
+import com.amazonaws.Response;
+import com.amazonaws.handlers.RequestHandler2;
+import com.amazonaws.retry.PredefinedRetryPolicies;
+import com.amazonaws.retry.RetryPolicy;
+import edu.umd.cs.findbugs.annotations.CheckForNull;
+import edu.umd.cs.findbugs.annotations.NonNull;
+
+import java.util.Random;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Token bucket shared by all the calls to code commit of the JVM with the same region and credentials.
+ * The rate is adapted when code commit throttles the calls: it is halved on each throttle and increased
+ * by {@link #ADDITIVE_INCREASE} on each success (AIMD), the retries wait a jittered exponential backoff.
+ * A maximum rate of {@code 0} disables the bucket: the calls are never delayed and only the retries of the
+ * throttled calls wait.
+ */
+public final class CodeCommitRateLimiter {
+
+    /**
+     * The limiters by region and credentials.
+     */
+    private static final ConcurrentMap<String, CodeCommitRateLimiter> LIMITERS = new ConcurrentHashMap<>();
+
+    /**
+     * The minimum of calls by second, even after many throttles.
+     */
+    public static final double MIN_RATE = 0.5;
+
+    /**
+     * Calls by second added after a success.
+     */
+    public static final double ADDITIVE_INCREASE = 0.1;
+
+    /**
+     * Factor applied to the rate after a throttle.
+     */
+    public static final double MULTIPLICATIVE_DECREASE = 0.5;
+
+    /**
+     * The first delay before a retry in milliseconds.
+     */
+    private static final int BASE_BACKOFF_MILLIS = 100;
+
+    /**
+     * The maximum delay before a retry in milliseconds.
+     */
+    private static final int MAX_BACKOFF_MILLIS = 20000;
+
+    private final Random random = new Random();
+
+    /**
+     * Calls by second.
+     */
+    private double rate;
+
+    /**
+     * The maximum of calls by second, {@code 0} without limit.
+     */
+    private double maxRate;
+
+    /**
+     * The tokens available, negative when calls wait.
+     */
+    private double tokens;
+
+    /**
+     * The last refill of the tokens in nanoseconds.
+     */
+    private long lastRefill = System.nanoTime();
+
+    private final AtomicLong throttles = new AtomicLong();
+
+    private CodeCommitRateLimiter(double maxRate) {
+        setMaxRate(maxRate);
+    }
+
+    /**
+     * Get the limiter of a region and credentials.
+     *
+     * @param region        the region of code commit
+     * @param credentialsId the identifier of the credentials, {@code null} for the default credentials of the JVM
+     * @param maxRate       the maximum of calls by second, {@code 0} without limit
+     * @return the limiter
+     */
+    @NonNull
+    public static CodeCommitRateLimiter get(@NonNull String region, @CheckForNull String credentialsId, double maxRate) {
+        final String key = region + '/' + credentialsId;
+        CodeCommitRateLimiter limiter = LIMITERS.get(key);
+        if (limiter == null) {
+            final CodeCommitRateLimiter created = new CodeCommitRateLimiter(maxRate);
+            limiter = LIMITERS.putIfAbsent(key, created);
+            if (limiter == null) {
+                limiter = created;
+            }
+        }
+        limiter.setMaxRate(maxRate);
+        return limiter;
+    }
+
+    /**
+     * Wait for a token.
+     *
+     * @throws InterruptedException if the operation was interrupted.
+     */
+    public void acquire() throws InterruptedException {
+        final long waitNanos;
+        synchronized (this) {
+            if (!isLimited()) {
+                return;
+            }
+            refill();
+            tokens -= 1;
+            waitNanos = tokens >= 0 ? 0 : (long) (-tokens / rate * TimeUnit.SECONDS.toNanos(1));
+        }
+        if (waitNanos > 0) {
+            TimeUnit.NANOSECONDS.sleep(waitNanos);
+        }
+    }
+
+    private void refill() {
+        final long now = System.nanoTime();
+        tokens = Math.min(Math.max(1, rate), tokens + (now - lastRefill) * rate / TimeUnit.SECONDS.toNanos(1));
+        lastRefill = now;
+    }
+
+    /**
+     * Increase the rate after a success.
+     */
+    public synchronized void onSuccess() {
+        if (isLimited()) {
+            rate = Math.min(maxRate, rate + ADDITIVE_INCREASE);
+        }
+    }
+
+    /**
+     * Decrease the rate after a throttle.
+     */
+    public synchronized void onThrottle() {
+        throttles.incrementAndGet();
+        if (isLimited()) {
+            refill();
+            rate = Math.max(MIN_RATE, rate * MULTIPLICATIVE_DECREASE);
+        }
+    }
+
+    private synchronized void setMaxRate(double maxRate) {
+        if (maxRate <= 0) {
+            this.maxRate = 0;
+            this.rate = 0;
+        } else if (!isLimited()) {
+            this.maxRate = Math.max(MIN_RATE, maxRate);
+            this.rate = this.maxRate;
+            this.tokens = Math.max(1, this.maxRate);
+            this.lastRefill = System.nanoTime();
+        } else {
+            this.maxRate = Math.max(MIN_RATE, maxRate);
+            this.rate = Math.min(rate, this.maxRate);
+        }
+    }
+
+    /**
+     * @return {@code true} if the calls are limited by the bucket
+     */
+    public synchronized boolean isLimited() {
+        return maxRate > 0;
+    }
+
+    /**
+     * @return the current calls by second, {@code 0} without limit
+     */
+    public synchronized double getRate() {
+        return rate;
+    }
+
+    /**
+     * @return the number of calls throttled by code commit
+     */
+    public long getThrottles() {
+        return throttles.get();
+    }
+
+    /**
+     * @param e the failure of a call
+     * @return {@code true} if code commit throttled the call
+     */
+    public static boolean isThrottling(@CheckForNull Throwable e) {
+        if (e instanceof AmazonServiceException) {
+            final AmazonServiceException ase = (AmazonServiceException) e;
+            return ase.getStatusCode() == 429
+                    || "ThrottlingException".equals(ase.getErrorCode())
+                    || "Throttling".equals(ase.getErrorCode())
+                    || "TooManyRequestsException".equals(ase.getErrorCode());
+        }
+        return false;
+    }
+
+    /**
+     * @return the handler taking a token before each call
+     */
+    @NonNull
+    public RequestHandler2 newRequestHandler() {
+        return new RequestHandler2() {
+            @Override
+            public void beforeRequest(Request<?> request) {
+                try {
+                    acquire();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new AbortedException();
+                }
+            }
+
+            @Override
+            public void afterResponse(Request<?> request, Response<?> response) {
+                onSuccess();
+            }
+        };
+    }
+
+    /**
+     * @param maxErrorRetry the maximum of retries
+     * @return the policy counting the throttles and waiting a jittered exponential backoff
+     */
+    @NonNull
+    public RetryPolicy newRetryPolicy(int maxErrorRetry) {
+        return new RetryPolicy(new RetryPolicy.RetryCondition() {
+            @Override
+            public boolean shouldRetry(AmazonWebServiceRequest originalRequest, AmazonClientException exception, int retriesAttempted) {
+                if (isThrottling(exception)) {
+                    onThrottle();
+                }
+                return PredefinedRetryPolicies.DEFAULT_RETRY_CONDITION.shouldRetry(originalRequest, exception, retriesAttempted);
+            }
+        }, new RetryPolicy.BackoffDelayStrategy() {
+            @Override
+            public long delayBeforeNextRetry(AmazonWebServiceRequest originalRequest, AmazonClientException exception, int retriesAttempted) {
+                return backoff(retriesAttempted);
+            }
+        }, maxErrorRetry, false);
+    }
+
+    /**
+     * Full jitter: a random delay up to the exponential backoff.
+     *
+     * @param retriesAttempted the number of retries
+     * @return the delay in milliseconds
+     */
+    long backoff(int retriesAttempted) {
+        final long ceiling = Math.min(MAX_BACKOFF_MILLIS, (long) BASE_BACKOFF_MILLIS << Math.min(retriesAttempted, 20));
+        synchronized (random) {
+            return (long) (random.nextDouble() * ceiling);
+        }
+    }
+}
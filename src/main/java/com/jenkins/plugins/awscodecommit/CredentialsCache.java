@@ -0,0 +1,243 @@
+/**
+ * The MIT License
+ * Copyright © 2016 Stephane Jeandeaux and all contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.jenkins.plugins.awscodecommit;
+
+import com.cloudbees.plugins.credentials.CredentialsMatcher;
+import com.cloudbees.plugins.credentials.CredentialsMatchers;
+import com.cloudbees.plugins.credentials.CredentialsProvider;
+import com.cloudbees.plugins.credentials.SystemCredentialsProvider;
+import com.cloudbees.plugins.credentials.common.StandardCredentials;
+import com.cloudbees.plugins.credentials.domains.URIRequirementBuilder;
+import edu.umd.cs.findbugs.annotations.CheckForNull;
+import edu.umd.cs.findbugs.annotations.NonNull;
+import hudson.Extension;
+import hudson.XmlFile;
+import hudson.model.Item;
+import hudson.model.ItemGroup;
+import hudson.model.Queue;
+import hudson.model.Saveable;
+import hudson.model.User;
+import hudson.model.listeners.SaveableListener;
+import hudson.security.ACL;
+import jenkins.scm.api.SCMNavigatorOwner;
+import jenkins.scm.api.SCMSourceOwner;
+import org.apache.commons.lang.StringUtils;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The credentials resolved for an owner, so a scan does not look up all the credentials visible to its owner.
+ * The cache is cleared when a store of credentials is saved: the global store, a user or a folder.
+ * The organization folders and the multibranch projects are saved after every scan, so they do not clear the cache,
+ * the credentials in their own store are seen again after {@link #DEFAULT_TTL}.
+ */
+public final class CredentialsCache {
+
+    /**
+     * By default the credentials are resolved again after five minutes.
+     */
+    public static final long DEFAULT_TTL = TimeUnit.MINUTES.toMillis(5);
+
+    private static final CredentialsCache INSTANCE = new CredentialsCache(DEFAULT_TTL);
+
+    /**
+     * The credentials by key.
+     */
+    private final ConcurrentMap<Key, Entry> entries = new ConcurrentHashMap<>();
+
+    /**
+     * The time to live of the credentials in milliseconds.
+     */
+    private final long ttl;
+
+    /**
+     * @param ttl the time to live of the credentials in milliseconds
+     */
+    CredentialsCache(long ttl) {
+        this.ttl = ttl;
+    }
+
+    /**
+     * @return the cache of the JVM
+     */
+    @NonNull
+    public static CredentialsCache get() {
+        return INSTANCE;
+    }
+
+    /**
+     * @param owner         the full name of the owner
+     * @param credentialsId the identifier of the credentials
+     * @param type          the type of the credentials
+     * @param <T>           the type of the credentials
+     * @return the credentials, {@code null} if unknown or expired
+     */
+    @CheckForNull
+    public <T> T get(@NonNull String owner, @NonNull String credentialsId, @NonNull Class<T> type) {
+        final Key key = new Key(owner, credentialsId, type);
+        final Entry entry = entries.get(key);
+        if (entry == null) {
+            return null;
+        }
+        if (System.currentTimeMillis() - entry.created > ttl) {
+            entries.remove(key, entry);
+            return null;
+        }
+        return type.cast(entry.credentials);
+    }
+
+    /**
+     * @param owner         the full name of the owner
+     * @param credentialsId the identifier of the credentials
+     * @param type          the type of the credentials
+     * @param credentials   the credentials
+     */
+    public <T> void put(@NonNull String owner, @NonNull String credentialsId, @NonNull Class<T> type, @NonNull T credentials) {
+        entries.put(new Key(owner, credentialsId, type), new Entry(credentials));
+    }
+
+    /**
+     * Get the credentials of an owner, look them up in the stores visible to the owner if they are not cached.
+     *
+     * @param context            the owner
+     * @param credentialsId      the identifier of the credentials
+     * @param type               the type of the credentials
+     * @param credentialsMatcher the matcher of the credentials
+     * @param <T>                the type of the credentials
+     * @return the credentials, {@code null} if not found
+     */
+    @CheckForNull
+    public <T extends StandardCredentials> T lookup(@CheckForNull Item context, @CheckForNull String credentialsId,
+                                                    @NonNull Class<T> type, @NonNull CredentialsMatcher credentialsMatcher) {
+        if (StringUtils.isBlank(credentialsId) || context == null) {
+            return null;
+        }
+        //the lookup goes through all the credentials visible to the owner, it is done once by owner
+        final T cached = get(context.getFullName(), credentialsId, type);
+        if (cached != null) {
+            return cached;
+        }
+        final T credentials = CredentialsMatchers.firstOrNull(
+                CredentialsProvider.lookupCredentials(
+                        type,
+                        context,
+                        context instanceof Queue.Task
+                                ? ((Queue.Task) context).getDefaultAuthentication()
+                                : ACL.SYSTEM,
+                        URIRequirementBuilder.create().build()
+                ),
+                CredentialsMatchers.allOf(
+                        CredentialsMatchers.withId(credentialsId),
+                        credentialsMatcher
+                )
+        );
+        if (credentials != null) {
+            put(context.getFullName(), credentialsId, type, credentials);
+        }
+        return credentials;
+    }
+
+    /**
+     * Forget all the credentials.
+     */
+    public void clear() {
+        entries.clear();
+    }
+
+    /**
+     * @return the number of credentials
+     */
+    public int size() {
+        return entries.size();
+    }
+
+    /**
+     * Clear the cache when a store of credentials is saved.
+     */
+    @Extension
+    @SuppressWarnings("unused") // called by Jenkins
+    public static class SaveableListenerImpl extends SaveableListener {
+
+        @Override
+        public void onChange(Saveable o, XmlFile file) {
+            if (o instanceof SystemCredentialsProvider || o instanceof User
+                    || (o instanceof ItemGroup && !(o instanceof SCMNavigatorOwner) && !(o instanceof SCMSourceOwner))) {
+                INSTANCE.clear();
+            }
+        }
+    }
+
+    /**
+     * The owner, the identifier and the type of credentials.
+     */
+    private static final class Key {
+
+        private final String owner;
+
+        private final String credentialsId;
+
+        private final Class<?> type;
+
+        private Key(String owner, String credentialsId, Class<?> type) {
+            this.owner = owner;
+            this.credentialsId = credentialsId;
+            this.type = type;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (o == null || getClass() != o.getClass()) {
+                return false;
+            }
+            final Key key = (Key) o;
+            return owner.equals(key.owner) && credentialsId.equals(key.credentialsId) && type.equals(key.type);
+        }
+
+        @Override
+        public int hashCode() {
+            int result = owner.hashCode();
+            result = 31 * result + credentialsId.hashCode();
+            result = 31 * result + type.hashCode();
+            return result;
+        }
+    }
+
+    /**
+     * Credentials and the date they were resolved.
+     */
+    private static final class Entry {
+
+        private final Object credentials;
+
+        private final long created = System.currentTimeMillis();
+
+        private Entry(Object credentials) {
+            this.credentials = credentials;
+        }
+    }
+}
@@ -0,0 +1,267 @@
+/**
+ * The MIT License
+ * Copyright © 2016 Stephane Jeandeaux and all contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.jenkins.plugins.awscodecommit;
+
+import com.amazonaws.auth.AWSCredentials;
+import com.amazonaws.auth.AWSCredentialsProvider;
+import com.amazonaws.auth.AWSSessionCredentials;
+import com.google.common.collect.MapMaker;
+import edu.umd.cs.findbugs.annotations.CheckForNull;
+import edu.umd.cs.findbugs.annotations.NonNull;
+import jenkins.util.Timer;
+
+import java.lang.ref.WeakReference;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Credentials kept between the calls to the API. The session credentials, e.g. of an assumed role, are renewed
+ * in the background before they expire, so the calls never wait for STS once the first session exists.
+ * The renewal stops when the credentials are not used anymore, the next call opens a new session,
+ * and for good when the credentials are closed with {@link #close(AWSCredentialsProvider)}.
+ */
+public final class RefreshingCredentialsProvider implements AWSCredentialsProvider {
+
+    private static final Logger LOGGER = Logger.getLogger(RefreshingCredentialsProvider.class.getName());
+
+    /**
+     * The sessions are renewed every ten minutes, a session lasts at least fifteen minutes.
+     */
+    public static final long DEFAULT_REFRESH_PERIOD = TimeUnit.MINUTES.toMillis(10);
+
+    /**
+     * The renewal stops when the credentials are not used for one hour.
+     */
+    public static final long DEFAULT_IDLE_TIMEOUT = TimeUnit.HOURS.toMillis(1);
+
+    /**
+     * The providers by credentials, compared by identity: the credentials are a new instance when they are updated in their store.
+     * A provider references its credentials, so the entry is kept only as long as a client holds the provider.
+     */
+    private static final ConcurrentMap<AWSCredentialsProvider, RefreshingCredentialsProvider> PROVIDERS = new MapMaker().weakKeys().weakValues().makeMap();
+
+    private final AWSCredentialsProvider delegate;
+
+    private final ScheduledExecutorService executor;
+
+    private final long refreshPeriod;
+
+    private final long idleTimeout;
+
+    /**
+     * The current credentials, {@code null} before the first use and when idle.
+     */
+    @CheckForNull
+    private volatile AWSCredentials credentials;
+
+    private volatile long lastUsed;
+
+    /**
+     * The renewal, {@code null} if the credentials are not a session.
+     */
+    @CheckForNull
+    private ScheduledFuture<?> refresher;
+
+    /**
+     * The credentials are closed, they are not kept nor renewed anymore.
+     */
+    private volatile boolean closed;
+
+    /**
+     * {@see getRefreshes}
+     */
+    private final AtomicInteger refreshes = new AtomicInteger();
+
+    /**
+     * @param delegate      the credentials
+     * @param executor      the executor of the renewals
+     * @param refreshPeriod the period of the renewals in milliseconds
+     * @param idleTimeout   the time without use before the renewals stop in milliseconds
+     */
+    RefreshingCredentialsProvider(@NonNull AWSCredentialsProvider delegate, @NonNull ScheduledExecutorService executor,
+                                  long refreshPeriod, long idleTimeout) {
+        this.delegate = delegate;
+        this.executor = executor;
+        this.refreshPeriod = refreshPeriod;
+        this.idleTimeout = idleTimeout;
+    }
+
+    /**
+     * Get the provider which keeps some credentials.
+     *
+     * @param delegate the credentials, {@code null} for the default credentials of the JVM
+     * @return the provider, the same for the same credentials, {@code null} for the default credentials of the JVM
+     */
+    @CheckForNull
+    public static AWSCredentialsProvider of(@CheckForNull AWSCredentialsProvider delegate) {
+        if (delegate == null || delegate instanceof RefreshingCredentialsProvider) {
+            return delegate;
+        }
+        RefreshingCredentialsProvider provider = PROVIDERS.get(delegate);
+        if (provider == null) {
+            final RefreshingCredentialsProvider created = new RefreshingCredentialsProvider(delegate, Timer.get(),
+                    DEFAULT_REFRESH_PERIOD, DEFAULT_IDLE_TIMEOUT);
+            provider = PROVIDERS.putIfAbsent(delegate, created);
+            if (provider == null) {
+                provider = created;
+            }
+        }
+        return provider;
+    }
+
+    /**
+     * Stop the renewals of some credentials, e.g. when their session is closed.
+     *
+     * @param delegate the credentials
+     */
+    public static void close(@NonNull AWSCredentialsProvider delegate) {
+        final RefreshingCredentialsProvider provider = PROVIDERS.remove(delegate);
+        if (provider != null) {
+            provider.close();
+        }
+    }
+
+    /**
+     * Stop the renewals for good, the credentials are only looked up by the calls.
+     */
+    synchronized void close() {
+        closed = true;
+        credentials = null;
+        cancel();
+    }
+
+    @Override
+    public AWSCredentials getCredentials() {
+        lastUsed = System.currentTimeMillis();
+        if (closed) {
+            return delegate.getCredentials();
+        }
+        AWSCredentials current = credentials;
+        if (current == null) {
+            synchronized (this) {
+                current = credentials;
+                if (current == null) {
+                    current = delegate.getCredentials();
+                    if (!closed) {
+                        credentials = current;
+                        schedule(current);
+                    }
+                }
+            }
+        }
+        return current;
+    }
+
+    /**
+     * Renew the credentials now, e.g. when the API rejects them.
+     */
+    @Override
+    public synchronized void refresh() {
+        delegate.refresh();
+        if (!closed) {
+            credentials = delegate.getCredentials();
+        }
+    }
+
+    /**
+     * @return the number of renewals in the background
+     */
+    public int getRefreshes() {
+        return refreshes.get();
+    }
+
+    /**
+     * Renew the session credentials in the background.
+     *
+     * @param current the credentials
+     */
+    private void schedule(AWSCredentials current) {
+        if (refresher == null && current instanceof AWSSessionCredentials) {
+            final Renewal renewal = new Renewal(this);
+            refresher = executor.scheduleWithFixedDelay(renewal, refreshPeriod, refreshPeriod, TimeUnit.MILLISECONDS);
+            renewal.future = refresher;
+        }
+    }
+
+    private void cancel() {
+        if (refresher != null) {
+            refresher.cancel(false);
+            refresher = null;
+        }
+    }
+
+    /**
+     * Renew the credentials if they are still used, else stop the renewals.
+     */
+    void refreshInBackground() {
+        if (closed) {
+            return;
+        }
+        if (System.currentTimeMillis() - lastUsed > idleTimeout) {
+            synchronized (this) {
+                credentials = null;
+                cancel();
+            }
+            return;
+        }
+        try {
+            delegate.refresh();
+            credentials = delegate.getCredentials();
+            refreshes.incrementAndGet();
+        } catch (RuntimeException e) {
+            //the current session is kept until the next renewal
+            LOGGER.log(Level.WARNING, "Failed to renew the AWS session credentials", e);
+        }
+    }
+
+    /**
+     * The task of the renewals, it only references the provider weakly so the timer does not keep the provider
+     * and its credentials once the clients are gone.
+     */
+    private static final class Renewal implements Runnable {
+
+        private final WeakReference<RefreshingCredentialsProvider> provider;
+
+        @CheckForNull
+        private volatile ScheduledFuture<?> future;
+
+        private Renewal(RefreshingCredentialsProvider provider) {
+            this.provider = new WeakReference<>(provider);
+        }
+
+        @Override
+        public void run() {
+            final RefreshingCredentialsProvider current = provider.get();
+            if (current != null) {
+                current.refreshInBackground();
+            } else if (future != null) {
+                future.cancel(false);
+            }
+        }
+    }
+}
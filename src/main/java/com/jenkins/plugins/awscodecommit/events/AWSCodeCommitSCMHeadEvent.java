@@ -0,0 +1,120 @@
+/**
+ * The MIT License
+ * Copyright © 2016 Stephane Jeandeaux and all contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.jenkins.plugins.awscodecommit.events;
+
+import com.jenkins.plugins.awscodecommit.navigator.AWSCodeCommitSCMNavigator;
+import edu.umd.cs.findbugs.annotations.CheckForNull;
+import edu.umd.cs.findbugs.annotations.NonNull;
+import hudson.plugins.git.GitSCM;
+import hudson.plugins.git.UserRemoteConfig;
+import hudson.scm.SCM;
+import jenkins.plugins.git.AbstractGitSCMSource;
+import jenkins.plugins.git.GitSCMSource;
+import jenkins.scm.api.SCMHead;
+import jenkins.scm.api.SCMHeadEvent;
+import jenkins.scm.api.SCMNavigator;
+import jenkins.scm.api.SCMRevision;
+import jenkins.scm.api.SCMSource;
+
+import java.util.Collections;
+import java.util.Map;
+
+/**
+ * A branch of a repository of code commit was created, updated or deleted.
+ */
+public class AWSCodeCommitSCMHeadEvent extends SCMHeadEvent<CodeCommitEvent> {
+
+    /**
+     * Constructor.
+     *
+     * @param payload the change of the reference
+     * @param origin  the origin of the notification
+     */
+    public AWSCodeCommitSCMHeadEvent(@NonNull CodeCommitEvent payload, @CheckForNull String origin) {
+        super(payload.getType(), payload, origin);
+    }
+
+    @Override
+    public boolean isMatch(@NonNull SCMNavigator navigator) {
+        return navigator instanceof AWSCodeCommitSCMNavigator
+                && ((AWSCodeCommitSCMNavigator) navigator).isMatch(getPayload().getAccountId(),
+                        getPayload().getRegion(), getPayload().getRepositoryName());
+    }
+
+    /**
+     * The name of the repository, which is the name of its project for a navigator on one region and one account.
+     * A navigator on several regions or accounts qualifies its projects, so it visits the name qualified by
+     * {@link AWSCodeCommitSCMNavigator#getProjectName(CodeCommitEvent)} instead of this one.
+     *
+     * @return the name of the repository
+     */
+    @NonNull
+    @Override
+    public String getSourceName() {
+        return getPayload().getRepositoryName();
+    }
+
+    @NonNull
+    @Override
+    public Map<SCMHead, SCMRevision> heads(@NonNull SCMSource source) {
+        final CodeCommitEvent payload = getPayload();
+        if (!(source instanceof GitSCMSource) || !payload.isRemote(((GitSCMSource) source).getRemote())
+                || !CodeCommitEvent.BRANCH.equals(payload.getReferenceType()) || payload.getReferenceName() == null) {
+            return Collections.emptyMap();
+        }
+        final SCMHead head = new SCMHead(payload.getReferenceName());
+        final SCMRevision revision = payload.getCommitId() != null
+                ? new AbstractGitSCMSource.SCMRevisionImpl(head, payload.getCommitId())
+                : null;
+        return Collections.singletonMap(head, revision);
+    }
+
+    @Override
+    public boolean isMatch(@NonNull SCM scm) {
+        if (scm instanceof GitSCM) {
+            for (UserRemoteConfig remote : ((GitSCM) scm).getUserRemoteConfigs()) {
+                if (getPayload().isRemote(remote.getUrl())) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    @Override
+    public String descriptionFor(@NonNull SCMNavigator navigator) {
+        return "Push event to " + getPayload().getReferenceType() + " " + getPayload().getReferenceName()
+                + " in repository " + getPayload().getRepositoryName();
+    }
+
+    @Override
+    public String descriptionFor(@NonNull SCMSource source) {
+        return "Push event to " + getPayload().getReferenceType() + " " + getPayload().getReferenceName();
+    }
+
+    @Override
+    public String description() {
+        return "Push event to " + getPayload().getReferenceType() + " " + getPayload().getReferenceName()
+                + " in repository " + getPayload().getRegion() + "/" + getPayload().getRepositoryName();
+    }
+}
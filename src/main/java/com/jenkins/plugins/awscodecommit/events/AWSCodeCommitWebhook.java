@@ -0,0 +1,219 @@
+/**
+ * The MIT License
+ * Copyright © 2016 Stephane Jeandeaux and all contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.jenkins.plugins.awscodecommit.events;
+
+import com.jenkins.plugins.awscodecommit.AWSCodeCommitGlobalConfiguration;
+import edu.umd.cs.findbugs.annotations.CheckForNull;
+import edu.umd.cs.findbugs.annotations.NonNull;
+import hudson.Extension;
+import hudson.ProxyConfiguration;
+import hudson.model.UnprotectedRootAction;
+import hudson.security.csrf.CrumbExclusion;
+import hudson.util.HttpResponses;
+import hudson.util.Secret;
+import jenkins.scm.api.SCMEvent;
+import jenkins.scm.api.SCMHeadEvent;
+import jenkins.scm.api.SCMSourceEvent;
+import net.sf.json.JSONException;
+import net.sf.json.JSONObject;
+import org.apache.commons.io.IOUtils;
+import org.kohsuke.stapler.HttpResponse;
+import org.kohsuke.stapler.StaplerRequest;
+import org.kohsuke.stapler.interceptor.RequirePOST;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URL;
+import java.net.URLConnection;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.regex.Pattern;
+
+/**
+ * Receive the notifications of code commit (EventBridge or SNS) and fire the matching SCM events,
+ * so only the repository and the branch concerned are indexed again.
+ * A notification is accepted only with the token of the {@link AWSCodeCommitGlobalConfiguration},
+ * in the parameter {@code token} or the header {@link #TOKEN_HEADER}. The token is the only authentication:
+ * the signature of the SNS messages is not verified.
+ */
+@Extension
+public class AWSCodeCommitWebhook implements UnprotectedRootAction {
+
+    private static final Logger LOGGER = Logger.getLogger(AWSCodeCommitWebhook.class.getName());
+
+    /**
+     * The URL of the webhook.
+     */
+    public static final String URL_NAME = "aws-codecommit-webhook";
+
+    /**
+     * The header with the token.
+     */
+    public static final String TOKEN_HEADER = "X-Jenkins-Token";
+
+    /**
+     * The SNS confirmation URLs which can be called.
+     */
+    private static final Pattern SNS_URL = Pattern.compile("https://sns\\.[a-z0-9-]+\\.amazonaws\\.com(\\.cn)?/.*");
+
+    /**
+     * The timeout to connect to SNS and to read its answer, so a confirmation does not hold the request thread.
+     */
+    private static final int SNS_TIMEOUT_MILLIS = (int) TimeUnit.SECONDS.toMillis(10);
+
+    @Override
+    public String getIconFileName() {
+        return null;
+    }
+
+    @Override
+    public String getDisplayName() {
+        return null;
+    }
+
+    @Override
+    public String getUrlName() {
+        return URL_NAME;
+    }
+
+    /**
+     * Receive a notification.
+     *
+     * @param req the request
+     * @return 200 if the notification is accepted
+     * @throws IOException if the body could not be read.
+     */
+    @RequirePOST
+    @SuppressWarnings("unused") // stapler web method
+    public HttpResponse doIndex(StaplerRequest req) throws IOException {
+        final Secret token = AWSCodeCommitGlobalConfiguration.get().getWebhookToken();
+        if (token == null || !isToken(token, req)) {
+            return HttpResponses.forbidden();
+        }
+
+        final JSONObject json;
+        try (InputStream in = req.getInputStream()) {
+            json = JSONObject.fromObject(IOUtils.toString(in, StandardCharsets.UTF_8.name()));
+        } catch (JSONException e) {
+            return HttpResponses.error(HttpServletResponse.SC_BAD_REQUEST, "The notification is not JSON");
+        }
+
+        final String subscribeURL = CodeCommitEventParser.getSubscribeURL(json);
+        if (subscribeURL != null) {
+            return confirmSubscription(subscribeURL);
+        }
+
+        final List<CodeCommitEvent> events;
+        try {
+            events = CodeCommitEventParser.parse(json);
+        } catch (IllegalArgumentException e) {
+            return HttpResponses.error(HttpServletResponse.SC_BAD_REQUEST, "The message of the notification is not JSON");
+        }
+        fire(events, SCMEvent.originOf(req));
+        return HttpResponses.ok();
+    }
+
+    /**
+     * Fire the SCM events of the changes.
+     *
+     * @param events the changes
+     * @param origin the origin of the notification
+     */
+    public static void fire(@NonNull List<CodeCommitEvent> events, @CheckForNull String origin) {
+        for (CodeCommitEvent event : events) {
+            LOGGER.log(Level.FINE, "Received {0} from {1}", new Object[]{event, origin});
+            if (event.isRepositoryEvent()) {
+                SCMSourceEvent.fireNow(new AWSCodeCommitSCMSourceEvent(event, origin));
+            } else {
+                SCMHeadEvent.fireNow(new AWSCodeCommitSCMHeadEvent(event, origin));
+            }
+        }
+    }
+
+    /**
+     * Compare the token of the request in constant time.
+     *
+     * @param token the expected token
+     * @param req   the request
+     * @return {@code true} if the request has the token
+     */
+    private static boolean isToken(Secret token, HttpServletRequest req) {
+        String actual = req.getHeader(TOKEN_HEADER);
+        if (actual == null) {
+            actual = req.getParameter("token");
+        }
+        return actual != null && MessageDigest.isEqual(
+                token.getPlainText().getBytes(StandardCharsets.UTF_8), actual.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Confirm the subscription of the webhook to an SNS topic, through the proxy of Jenkins.
+     *
+     * @param subscribeURL the URL of confirmation
+     * @return 200 if the subscription is confirmed
+     */
+    private static HttpResponse confirmSubscription(String subscribeURL) {
+        if (!SNS_URL.matcher(subscribeURL).matches()) {
+            return HttpResponses.error(HttpServletResponse.SC_BAD_REQUEST, "Invalid SubscribeURL");
+        }
+        try {
+            final URLConnection connection = ProxyConfiguration.open(new URL(subscribeURL));
+            connection.setConnectTimeout(SNS_TIMEOUT_MILLIS);
+            connection.setReadTimeout(SNS_TIMEOUT_MILLIS);
+            try (InputStream in = connection.getInputStream()) {
+                IOUtils.toString(in, StandardCharsets.UTF_8.name());
+            }
+            LOGGER.log(Level.INFO, "Subscription confirmed {0}", subscribeURL);
+            return HttpResponses.ok();
+        } catch (IOException e) {
+            LOGGER.log(Level.WARNING, "Failed to confirm the subscription " + subscribeURL, e);
+            return HttpResponses.error(HttpServletResponse.SC_BAD_GATEWAY, e);
+        }
+    }
+
+    /**
+     * The notifications do not have a crumb.
+     */
+    @Extension
+    public static class CrumbExclusionImpl extends CrumbExclusion {
+
+        @Override
+        public boolean process(HttpServletRequest req, HttpServletResponse resp, FilterChain chain)
+                throws IOException, ServletException {
+            final String pathInfo = req.getPathInfo();
+            if (pathInfo != null && (pathInfo.equals("/" + URL_NAME) || pathInfo.startsWith("/" + URL_NAME + "/"))) {
+                chain.doFilter(req, resp);
+                return true;
+            }
+            return false;
+        }
+    }
+}
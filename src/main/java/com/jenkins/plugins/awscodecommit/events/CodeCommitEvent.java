@@ -0,0 +1,152 @@
+/**
+ * The MIT License
+ * Copyright © 2016 Stephane Jeandeaux and all contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.jenkins.plugins.awscodecommit.events;
+
+import edu.umd.cs.findbugs.annotations.CheckForNull;
+import edu.umd.cs.findbugs.annotations.NonNull;
+import jenkins.scm.api.SCMEvent;
+
+/**
+ * A change in a repository of code commit: the repository itself or one of its references.
+ */
+public final class CodeCommitEvent {
+
+    /**
+     * Type of reference for a branch.
+     */
+    public static final String BRANCH = "branch";
+
+    /**
+     * Type of reference for a tag.
+     */
+    public static final String TAG = "tag";
+
+    @NonNull
+    private final SCMEvent.Type type;
+
+    @NonNull
+    private final String region;
+
+    @CheckForNull
+    private final String accountId;
+
+    @NonNull
+    private final String repositoryName;
+
+    @CheckForNull
+    private final String referenceType;
+
+    @CheckForNull
+    private final String referenceName;
+
+    @CheckForNull
+    private final String commitId;
+
+    /**
+     * Constructor.
+     *
+     * @param type           the type of change
+     * @param region         the region of the repository
+     * @param accountId      the account of the repository
+     * @param repositoryName the name of the repository
+     * @param referenceType  {@link #BRANCH} or {@link #TAG}, {@code null} if the repository changed
+     * @param referenceName  the short name of the reference, {@code null} if the repository changed
+     * @param commitId       the commit of the reference, {@code null} if deleted or unknown
+     */
+    public CodeCommitEvent(@NonNull SCMEvent.Type type, @NonNull String region, @CheckForNull String accountId,
+                           @NonNull String repositoryName, @CheckForNull String referenceType,
+                           @CheckForNull String referenceName, @CheckForNull String commitId) {
+        this.type = type;
+        this.region = region;
+        this.accountId = accountId;
+        this.repositoryName = repositoryName;
+        this.referenceType = referenceType;
+        this.referenceName = referenceName;
+        this.commitId = commitId;
+    }
+
+    @NonNull
+    public SCMEvent.Type getType() {
+        return type;
+    }
+
+    @NonNull
+    public String getRegion() {
+        return region;
+    }
+
+    @CheckForNull
+    public String getAccountId() {
+        return accountId;
+    }
+
+    @NonNull
+    public String getRepositoryName() {
+        return repositoryName;
+    }
+
+    @CheckForNull
+    public String getReferenceType() {
+        return referenceType;
+    }
+
+    @CheckForNull
+    public String getReferenceName() {
+        return referenceName;
+    }
+
+    @CheckForNull
+    public String getCommitId() {
+        return commitId;
+    }
+
+    /**
+     * @return {@code true} if the repository itself was created or deleted
+     */
+    public boolean isRepositoryEvent() {
+        return referenceType == null;
+    }
+
+    /**
+     * Check if a git remote is the repository of this event.
+     *
+     * @param remote the remote of git (HTTPS, SSH or git-remote-codecommit)
+     * @return {@code true} if the remote targets the repository
+     */
+    public boolean isRemote(@CheckForNull String remote) {
+        if (remote == null) {
+            return false;
+        }
+        if (remote.startsWith("codecommit:")) {
+            //git-remote-codecommit: codecommit::region://[profile@]name
+            return remote.contains("::" + region + "://") && (remote.endsWith("://" + repositoryName) || remote.endsWith("@" + repositoryName));
+        }
+        return remote.contains("." + region + ".") && remote.endsWith("/v1/repos/" + repositoryName);
+    }
+
+    @Override
+    public String toString() {
+        return "CodeCommitEvent{" + type + ' ' + region + '/' + repositoryName
+                + (referenceType != null ? ' ' + referenceType + ':' + referenceName + '@' + commitId : "") + '}';
+    }
+}
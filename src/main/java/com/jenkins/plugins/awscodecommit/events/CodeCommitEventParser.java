@@ -0,0 +1,202 @@
+/**
+ * The MIT License
+ * Copyright © 2016 Stephane Jeandeaux and all contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.jenkins.plugins.awscodecommit.events;
+
+import edu.umd.cs.findbugs.annotations.CheckForNull;
+import edu.umd.cs.findbugs.annotations.NonNull;
+import jenkins.scm.api.SCMEvent;
+import net.sf.json.JSONArray;
+import net.sf.json.JSONException;
+import net.sf.json.JSONObject;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Parse the notifications of code commit.
+ * <ul>
+ * <li>EventBridge "CodeCommit Repository State Change" on the references</li>
+ * <li>EventBridge "AWS API Call via CloudTrail" for CreateRepository and DeleteRepository</li>
+ * <li>the triggers of code commit ("Records")</li>
+ * <li>one of the previous formats in the message of an SNS notification</li>
+ * </ul>
+ */
+public final class CodeCommitEventParser {
+
+    private static final String REFS_HEADS = "refs/heads/";
+
+    private static final String REFS_TAGS = "refs/tags/";
+
+    private CodeCommitEventParser() {}
+
+    /**
+     * Parse a notification.
+     *
+     * @param body the JSON of the notification
+     * @return the events, empty if the notification is not about code commit
+     * @throws IllegalArgumentException if the body is not JSON.
+     */
+    @NonNull
+    public static List<CodeCommitEvent> parse(@NonNull String body) {
+        final JSONObject json;
+        try {
+            json = JSONObject.fromObject(body);
+        } catch (JSONException e) {
+            throw new IllegalArgumentException("The notification is not JSON", e);
+        }
+        return parse(json);
+    }
+
+    /**
+     * Parse a notification.
+     *
+     * @param json the notification
+     * @return the events, empty if the notification is not about code commit
+     * @throws IllegalArgumentException if the message of an SNS notification is not JSON.
+     */
+    @NonNull
+    public static List<CodeCommitEvent> parse(@NonNull JSONObject json) {
+        if ("Notification".equals(json.optString("Type")) && json.has("Message")) {
+            return parse(json.getString("Message"));
+        }
+        if ("aws.codecommit".equals(json.optString("source"))) {
+            return parseEventBridge(json);
+        }
+        if (json.has("Records")) {
+            return parseRecords(json.getJSONArray("Records"));
+        }
+        return Collections.emptyList();
+    }
+
+    /**
+     * @param json the notification
+     * @return the SubscribeURL if the notification is an SNS subscription confirmation
+     */
+    @CheckForNull
+    public static String getSubscribeURL(@NonNull JSONObject json) {
+        if ("SubscriptionConfirmation".equals(json.optString("Type"))) {
+            return json.optString("SubscribeURL", null);
+        }
+        return null;
+    }
+
+    private static List<CodeCommitEvent> parseEventBridge(JSONObject json) {
+        final JSONObject detail = json.optJSONObject("detail");
+        if (detail == null || detail.isNullObject()) {
+            return Collections.emptyList();
+        }
+        final String region = json.optString("region");
+        final String accountId = json.optString("account", null);
+
+        if ("AWS API Call via CloudTrail".equals(json.optString("detail-type"))) {
+            final JSONObject parameters = detail.optJSONObject("requestParameters");
+            if (parameters == null || parameters.isNullObject() || !parameters.has("repositoryName")) {
+                return Collections.emptyList();
+            }
+            final String eventName = detail.optString("eventName");
+            final SCMEvent.Type type;
+            if ("CreateRepository".equals(eventName)) {
+                type = SCMEvent.Type.CREATED;
+            } else if ("DeleteRepository".equals(eventName)) {
+                type = SCMEvent.Type.REMOVED;
+            } else {
+                return Collections.emptyList();
+            }
+            return Collections.singletonList(new CodeCommitEvent(type, region, accountId,
+                    parameters.getString("repositoryName"), null, null, null));
+        }
+
+        final SCMEvent.Type type = typeOf(detail.optString("event"));
+        final String referenceType = detail.optString("referenceType");
+        if (type == null || !detail.has("repositoryName")
+                || !(CodeCommitEvent.BRANCH.equals(referenceType) || CodeCommitEvent.TAG.equals(referenceType))) {
+            return Collections.emptyList();
+        }
+        return Collections.singletonList(new CodeCommitEvent(type, region, accountId, detail.getString("repositoryName"),
+                referenceType, detail.optString("referenceName"),
+                type == SCMEvent.Type.REMOVED ? null : detail.optString("commitId", null)));
+    }
+
+    private static SCMEvent.Type typeOf(String event) {
+        switch (event) {
+            case "referenceCreated":
+                return SCMEvent.Type.CREATED;
+            case "referenceUpdated":
+                return SCMEvent.Type.UPDATED;
+            case "referenceDeleted":
+                return SCMEvent.Type.REMOVED;
+            default:
+                return null;
+        }
+    }
+
+    private static List<CodeCommitEvent> parseRecords(JSONArray records) {
+        final List<CodeCommitEvent> result = new ArrayList<>();
+        for (int i = 0; i < records.size(); i++) {
+            final JSONObject record = records.optJSONObject(i);
+            if (record == null || !"aws:codecommit".equals(record.optString("eventSource"))) {
+                continue;
+            }
+            //arn:aws:codecommit:region:account:name
+            final String[] arn = record.optString("eventSourceARN").split(":", 6);
+            final JSONObject codecommit = record.optJSONObject("codecommit");
+            if (arn.length != 6 || codecommit == null || codecommit.isNullObject()) {
+                continue;
+            }
+            final JSONArray references = codecommit.optJSONArray("references");
+            if (references == null) {
+                continue;
+            }
+            for (int j = 0; j < references.size(); j++) {
+                final JSONObject reference = references.optJSONObject(j);
+                if (reference == null) {
+                    continue;
+                }
+                final String ref = reference.optString("ref");
+                final String referenceType;
+                final String referenceName;
+                if (ref.startsWith(REFS_HEADS)) {
+                    referenceType = CodeCommitEvent.BRANCH;
+                    referenceName = ref.substring(REFS_HEADS.length());
+                } else if (ref.startsWith(REFS_TAGS)) {
+                    referenceType = CodeCommitEvent.TAG;
+                    referenceName = ref.substring(REFS_TAGS.length());
+                } else {
+                    continue;
+                }
+                final SCMEvent.Type type;
+                if (reference.optBoolean("deleted")) {
+                    type = SCMEvent.Type.REMOVED;
+                } else if (reference.optBoolean("created")) {
+                    type = SCMEvent.Type.CREATED;
+                } else {
+                    type = SCMEvent.Type.UPDATED;
+                }
+                result.add(new CodeCommitEvent(type, arn[3], arn[4], arn[5], referenceType, referenceName,
+                        type == SCMEvent.Type.REMOVED ? null : reference.optString("commit", null)));
+            }
+        }
+        return result;
+    }
+}
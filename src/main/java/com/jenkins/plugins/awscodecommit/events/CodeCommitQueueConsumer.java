@@ -0,0 +1,324 @@
+/**
+ * The MIT License
+ * Copyright © 2016 Stephane Jeandeaux and all contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.jenkins.plugins.awscodecommit.events;
+
+import com.amazonaws.AbortedException;
+import com.amazonaws.auth.AWSCredentialsProvider;
+import com.amazonaws.auth.DefaultAWSCredentialsProviderChain;
+import com.amazonaws.client.builder.AwsClientBuilder;
+import com.amazonaws.services.sqs.AmazonSQS;
+import com.amazonaws.services.sqs.AmazonSQSClientBuilder;
+import com.amazonaws.services.sqs.model.DeleteMessageBatchRequestEntry;
+import com.amazonaws.services.sqs.model.DeleteMessageBatchResult;
+import com.amazonaws.services.sqs.model.Message;
+import com.amazonaws.services.sqs.model.ReceiveMessageRequest;
+import com.cloudbees.jenkins.plugins.awscredentials.AmazonWebServicesCredentials;
+import com.cloudbees.plugins.credentials.CredentialsMatchers;
+import com.cloudbees.plugins.credentials.CredentialsProvider;
+import com.cloudbees.plugins.credentials.domains.URIRequirementBuilder;
+import com.jenkins.plugins.awscodecommit.AWSCodeCommitGlobalConfiguration;
+import edu.umd.cs.findbugs.annotations.CheckForNull;
+import edu.umd.cs.findbugs.annotations.NonNull;
+import hudson.init.InitMilestone;
+import hudson.init.Initializer;
+import hudson.init.Terminator;
+import hudson.security.ACL;
+import hudson.util.DaemonThreadFactory;
+import hudson.util.NamingThreadFactory;
+import jenkins.model.Jenkins;
+
+import java.io.Closeable;
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Long poll an SQS queue with the notifications of code commit and fire the matching SCM events,
+ * for the Jenkins which cannot receive the {@link AWSCodeCommitWebhook}.
+ * The messages are received and deleted by batches of 10. A message which could not be handled is not deleted,
+ * so it is received again after the visibility timeout (or moved by the redrive policy of the queue).
+ * The consumer of the JVM is configured in the {@link AWSCodeCommitGlobalConfiguration}.
+ */
+public class CodeCommitQueueConsumer implements Closeable {
+
+    private static final Logger LOGGER = Logger.getLogger(CodeCommitQueueConsumer.class.getName());
+
+    /**
+     * Maximum of messages received by call.
+     */
+    public static final int MAX_MESSAGES = 10;
+
+    /**
+     * Maximum of seconds between two polls after a failure.
+     */
+    private static final long MAX_BACKOFF_SECONDS = 60;
+
+    /**
+     * The region in the URL of a queue: https://sqs.region.amazonaws.com/account/name.
+     */
+    private static final Pattern PATTERN_REGION = Pattern.compile("\\.([a-z]{2}(?:-[a-z]+)+-\\d)\\.");
+
+    /**
+     * The consumer of the JVM, {@code null} if no queue is configured.
+     */
+    private static CodeCommitQueueConsumer instance;
+
+    private final AmazonSQS sqs;
+
+    private final String queueUrl;
+
+    private final int visibilityTimeout;
+
+    private final int waitTimeSeconds;
+
+    private final ExecutorService executor;
+
+    private volatile boolean running;
+
+    /**
+     * @param sqs               the client SQS, closed with the consumer
+     * @param queueUrl          the URL of the queue
+     * @param visibilityTimeout the seconds a received message is hidden from the other consumers
+     * @param waitTimeSeconds   the seconds of the long poll
+     */
+    public CodeCommitQueueConsumer(@NonNull AmazonSQS sqs, @NonNull String queueUrl, int visibilityTimeout, int waitTimeSeconds) {
+        this.sqs = sqs;
+        this.queueUrl = queueUrl;
+        this.visibilityTimeout = visibilityTimeout;
+        this.waitTimeSeconds = waitTimeSeconds;
+        this.executor = Executors.newCachedThreadPool(
+                new NamingThreadFactory(new DaemonThreadFactory(), CodeCommitQueueConsumer.class.getSimpleName()));
+    }
+
+    /**
+     * Start the threads polling the queue.
+     *
+     * @param consumers the number of threads
+     */
+    public void start(int consumers) {
+        running = true;
+        for (int i = 0; i < consumers; i++) {
+            executor.submit(new Runnable() {
+                @Override
+                public void run() {
+                    consume();
+                }
+            });
+        }
+    }
+
+    /**
+     * Poll the queue until the consumer is closed, with an exponential backoff after the failures.
+     */
+    private void consume() {
+        int failures = 0;
+        while (running && !Thread.currentThread().isInterrupted()) {
+            try {
+                poll();
+                failures = 0;
+            } catch (AbortedException e) {
+                //closed while polling
+                return;
+            } catch (RuntimeException e) {
+                failures++;
+                final long backoff = Math.min(MAX_BACKOFF_SECONDS, 1L << Math.min(failures, 6));
+                LOGGER.log(Level.WARNING, "Failed to poll " + queueUrl + ", next poll in " + backoff + "s", e);
+                try {
+                    TimeUnit.SECONDS.sleep(backoff);
+                } catch (InterruptedException interrupted) {
+                    return;
+                }
+            }
+        }
+    }
+
+    /**
+     * Receive the messages of one long poll, fire their events and delete them.
+     *
+     * @return the number of messages deleted
+     */
+    public int poll() {
+        final List<Message> messages = sqs.receiveMessage(new ReceiveMessageRequest(queueUrl)
+                .withMaxNumberOfMessages(MAX_MESSAGES)
+                .withVisibilityTimeout(visibilityTimeout)
+                .withWaitTimeSeconds(waitTimeSeconds)).getMessages();
+        if (messages.isEmpty()) {
+            return 0;
+        }
+
+        final List<DeleteMessageBatchRequestEntry> handled = new ArrayList<>(messages.size());
+        for (Message message : messages) {
+            if (handle(message)) {
+                //the identifier only has to be unique in the batch
+                handled.add(new DeleteMessageBatchRequestEntry(String.valueOf(handled.size()), message.getReceiptHandle()));
+            }
+        }
+        if (handled.isEmpty()) {
+            return 0;
+        }
+
+        final DeleteMessageBatchResult result = sqs.deleteMessageBatch(queueUrl, handled);
+        if (!result.getFailed().isEmpty()) {
+            LOGGER.log(Level.WARNING, "Failed to delete {0} message(s) of {1}: {2}",
+                    new Object[]{result.getFailed().size(), queueUrl, result.getFailed()});
+        }
+        return result.getSuccessful().size();
+    }
+
+    /**
+     * Fire the events of a message.
+     *
+     * @param message the message
+     * @return {@code true} if the message can be deleted
+     */
+    private boolean handle(Message message) {
+        final List<CodeCommitEvent> events;
+        try {
+            events = CodeCommitEventParser.parse(message.getBody());
+        } catch (IllegalArgumentException e) {
+            //it will never be parsed
+            LOGGER.log(Level.WARNING, "Ignored message {0} of {1}: not JSON", new Object[]{message.getMessageId(), queueUrl});
+            return true;
+        }
+        try {
+            fire(events);
+            return true;
+        } catch (RuntimeException e) {
+            LOGGER.log(Level.WARNING, "Failed to handle message " + message.getMessageId() + " of " + queueUrl, e);
+            return false;
+        }
+    }
+
+    /**
+     * Fire the SCM events of the changes.
+     *
+     * @param events the changes
+     */
+    protected void fire(@NonNull List<CodeCommitEvent> events) {
+        AWSCodeCommitWebhook.fire(events, queueUrl);
+    }
+
+    /**
+     * Stop the threads and close the client.
+     */
+    @Override
+    public void close() {
+        running = false;
+        executor.shutdownNow();
+        sqs.shutdown();
+    }
+
+    /**
+     * Start the consumer of the global configuration once the jobs are loaded.
+     */
+    @Initializer(after = InitMilestone.JOB_LOADED)
+    public static void init() {
+        restart();
+    }
+
+    /**
+     * Stop the consumer when Jenkins stops.
+     */
+    @Terminator
+    public static synchronized void shutdown() {
+        if (instance != null) {
+            instance.close();
+            instance = null;
+        }
+    }
+
+    /**
+     * Stop the consumer and start a new one with the global configuration.
+     */
+    public static synchronized void restart() {
+        shutdown();
+        final AWSCodeCommitGlobalConfiguration configuration = AWSCodeCommitGlobalConfiguration.get();
+        final String queueUrl = configuration.getQueueUrl();
+        if (queueUrl == null) {
+            return;
+        }
+        final AWSCredentialsProvider credentials = getCredentials(configuration.getQueueCredentialsId());
+        if (credentials == null) {
+            LOGGER.log(Level.WARNING, "The queue {0} is not polled: credentials {1} not found",
+                    new Object[]{queueUrl, configuration.getQueueCredentialsId()});
+            return;
+        }
+        final AmazonSQS sqs;
+        try {
+            sqs = AmazonSQSClientBuilder.standard()
+                    .withEndpointConfiguration(getEndpointConfiguration(queueUrl))
+                    .withCredentials(credentials)
+                    .build();
+        } catch (IllegalArgumentException e) {
+            LOGGER.log(Level.WARNING, "The queue " + queueUrl + " is not polled", e);
+            return;
+        }
+        instance = new CodeCommitQueueConsumer(sqs, queueUrl,
+                configuration.getQueueVisibilityTimeout(), configuration.getQueueWaitTimeSeconds());
+        instance.start(configuration.getQueueConsumers());
+        LOGGER.log(Level.INFO, "Polling {0} with {1} consumer(s)", new Object[]{queueUrl, configuration.getQueueConsumers()});
+    }
+
+    /**
+     * The endpoint of a queue, also for the local stand-ins of SQS.
+     *
+     * @param queueUrl the URL of the queue
+     * @return the endpoint with the region of the URL, us-east-1 if the URL has no region
+     */
+    @NonNull
+    static AwsClientBuilder.EndpointConfiguration getEndpointConfiguration(@NonNull String queueUrl) {
+        final URI uri = URI.create(queueUrl);
+        if (uri.getScheme() == null || uri.getAuthority() == null) {
+            throw new IllegalArgumentException("Invalid queue URL " + queueUrl);
+        }
+        final Matcher matcher = PATTERN_REGION.matcher(uri.getHost() + '.');
+        final String region = matcher.find() ? matcher.group(1) : "us-east-1";
+        return new AwsClientBuilder.EndpointConfiguration(uri.getScheme() + "://" + uri.getAuthority(), region);
+    }
+
+    /**
+     * @param credentialsId the identifier of credentials AWS of Jenkins, {@code null} for the default credentials
+     * @return the credentials, {@code null} if not found
+     */
+    @CheckForNull
+    private static AWSCredentialsProvider getCredentials(@CheckForNull String credentialsId) {
+        if (credentialsId == null) {
+            return DefaultAWSCredentialsProviderChain.getInstance();
+        }
+        final Jenkins jenkins = Jenkins.getInstance();
+        if (jenkins == null) {
+            return null;
+        }
+        return CredentialsMatchers.firstOrNull(
+                CredentialsProvider.lookupCredentials(AmazonWebServicesCredentials.class, jenkins, ACL.SYSTEM,
+                        URIRequirementBuilder.create().build()),
+                CredentialsMatchers.withId(credentialsId));
+    }
+}
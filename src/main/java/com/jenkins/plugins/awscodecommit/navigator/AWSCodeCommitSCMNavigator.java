@@ -24,41 +24,55 @@ package com.jenkins.plugins.awscodecommit.navigator;
 
 
 import com.amazonaws.services.codecommit.AWSCodeCommit;
-import com.amazonaws.services.codecommit.AWSCodeCommitClient;
-import com.amazonaws.services.codecommit.model.ListRepositoriesRequest;
-import com.amazonaws.services.codecommit.model.ListRepositoriesResult;
+import com.amazonaws.services.codecommit.AWSCodeCommitAsync;
 import com.amazonaws.services.codecommit.model.RepositoryNameIdPair;
 import com.cloudbees.jenkins.plugins.awscredentials.AmazonWebServicesCredentials;
 import com.cloudbees.jenkins.plugins.sshcredentials.SSHUserPrivateKey;
 import com.cloudbees.plugins.credentials.CredentialsMatcher;
 import com.cloudbees.plugins.credentials.CredentialsMatchers;
-import com.cloudbees.plugins.credentials.CredentialsProvider;
 import com.cloudbees.plugins.credentials.common.StandardCredentials;
 import com.cloudbees.plugins.credentials.common.StandardListBoxModel;
 import com.cloudbees.plugins.credentials.common.StandardUsernameCredentials;
 import com.cloudbees.plugins.credentials.domains.URIRequirementBuilder;
 import com.google.common.collect.Lists;
+import com.google.common.util.concurrent.MoreExecutors;
+import com.jenkins.plugins.awscodecommit.AWSCodeCommitClientRegistry;
+import com.jenkins.plugins.awscodecommit.AWSCodeCommitGlobalConfiguration;
+import com.jenkins.plugins.awscodecommit.AssumedRoleRegistry;
+import com.jenkins.plugins.awscodecommit.CodeCommitRateLimiter;
+import com.jenkins.plugins.awscodecommit.CredentialsCache;
 import com.jenkins.plugins.awscodecommit.Messages;
+import com.jenkins.plugins.awscodecommit.events.AWSCodeCommitSCMHeadEvent;
+import com.jenkins.plugins.awscodecommit.events.AWSCodeCommitSCMSourceEvent;
+import com.jenkins.plugins.awscodecommit.events.CodeCommitEvent;
 import edu.umd.cs.findbugs.annotations.CheckForNull;
 import edu.umd.cs.findbugs.annotations.NonNull;
+import hudson.AbortException;
 import hudson.Extension;
 import hudson.model.Queue;
 import hudson.model.TaskListener;
 import hudson.plugins.git.GitSCM;
 import hudson.security.ACL;
+import hudson.util.DaemonThreadFactory;
 import hudson.util.FormValidation;
 import hudson.util.ListBoxModel;
+import hudson.util.NamingThreadFactory;
 import jenkins.plugins.git.GitSCMBuilder;
 import jenkins.plugins.git.GitSCMSourceContext;
 import jenkins.plugins.git.traits.BranchDiscoveryTrait;
+import jenkins.scm.api.SCMHeadEvent;
 import jenkins.scm.api.SCMNavigator;
 import jenkins.scm.api.SCMNavigatorDescriptor;
+import jenkins.scm.api.SCMSourceEvent;
 import jenkins.scm.api.SCMSourceObserver;
 import jenkins.scm.api.SCMSourceOwner;
 import jenkins.scm.api.trait.SCMNavigatorRequest;
+import jenkins.scm.api.trait.SCMNavigatorTrait;
+import jenkins.scm.api.trait.SCMNavigatorTraitDescriptor;
 import jenkins.scm.api.trait.SCMSourceTrait;
 import jenkins.scm.api.trait.SCMSourceTraitDescriptor;
 import jenkins.scm.api.trait.SCMTrait;
+import jenkins.scm.api.trait.SCMTraitDescriptor;
 import jenkins.scm.impl.form.NamedArrayList;
 import jenkins.scm.impl.trait.Discovery;
 import jenkins.scm.impl.trait.Selection;
@@ -72,11 +86,23 @@ import org.kohsuke.stapler.DataBoundConstructor;
 import org.kohsuke.stapler.DataBoundSetter;
 import org.kohsuke.stapler.QueryParameter;
 
+import java.io.File;
 import java.io.IOException;
 import java.io.PrintStream;
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 import java.util.regex.PatternSyntaxException;
@@ -98,6 +124,12 @@ public class AWSCodeCommitSCMNavigator extends SCMNavigator {
      */
     public static final String SEPARATOR_ID = "::";
 
+    /**
+     * Separator between the region and the repository in the project names, for a navigator on several regions.
+     * It is not allowed in the names of code commit repositories and allowed in the names of jenkins items.
+     */
+    public static final String SEPARATOR_REGION = "~";
+
     /**
      * Credentials matcher for AMI
      */
@@ -109,6 +141,24 @@ public class AWSCodeCommitSCMNavigator extends SCMNavigator {
      */
     private String awsCodeCommitURL;
 
+    /**
+     * The regions scanned, separated by spaces or commas, {@code null} for the region of {@link #awsCodeCommitURL}.
+     */
+    @CheckForNull
+    private String regions;
+
+    /**
+     * The roles assumed from {@link #awsCredentialsId}, one by account, separated by spaces, commas or lines,
+     * {@code null} to scan the account of the credentials.
+     */
+    @CheckForNull
+    private String roleArns;
+
+    /**
+     * Number of accounts scanned at the same time.
+     */
+    private int accountConcurrency;
+
     /**
      * The regex
      */
@@ -131,6 +181,74 @@ public class AWSCodeCommitSCMNavigator extends SCMNavigator {
      */
     private List<SCMTrait<? extends SCMTrait<?>>> traits;
 
+    /**
+     * Number of repositories resolved by one call to BatchGetRepositories.
+     */
+    private int batchSize;
+
+    /**
+     * Number of workers resolving the repositories during a scan.
+     */
+    private int concurrency;
+
+    /**
+     * Time to live in minutes of the metadata of the repositories, 0 disables the cache.
+     */
+    private int metadataCacheTtl;
+
+    /**
+     * The repositories unchanged since the last successful scan get their tags without the API.
+     */
+    private boolean incremental;
+
+    /**
+     * Number of scans between two full scans when the scan is incremental.
+     */
+    private int fullScanInterval;
+
+    /**
+     * The clone URLs are derived from the region and the name of the repositories instead of being read with the API.
+     */
+    private boolean deriveCloneUrls;
+
+    /**
+     * The template of the derived clone URLs, {@code null} for the scheme of code commit.
+     */
+    @CheckForNull
+    private String cloneUrlTemplate;
+
+    /**
+     * The generated sources discover their branches with the API instead of git.
+     */
+    private boolean apiDiscovery;
+
+    /**
+     * The engine of the scan, {@code null} for {@link ScanEngine#BLOCKING}.
+     */
+    @CheckForNull
+    private ScanEngine engine;
+
+    /**
+     * Maximum number of calls in flight with an asynchronous engine.
+     */
+    private int maxInFlight;
+
+    /**
+     * The compiled pattern, kept for the life of the configuration.
+     */
+    private transient volatile Pattern compiledPattern;
+
+    /**
+     * The details of the scan log, {@code null} for {@link ScanLog.Level#VERBOSE}.
+     */
+    @CheckForNull
+    private ScanLog.Level logLevel;
+
+    /**
+     * One repository on this number is logged in summary, 0 for none.
+     */
+    private int logSampling;
+
 
     @DataBoundConstructor
     public AWSCodeCommitSCMNavigator() {}
@@ -145,37 +263,435 @@ public class AWSCodeCommitSCMNavigator extends SCMNavigator {
     @Override
     public void visitSources(@NonNull SCMSourceObserver scmSourceObserver) throws IOException, InterruptedException {
         final TaskListener listener = scmSourceObserver.getListener();
+        final PrintStream logger = listener.getLogger();
+        final ScanLog scanLog = new ScanLog(logger, getLogLevel(), getLogSampling(), ScanLog.DEFAULT_SLOWEST);
+        final ScanMetrics metrics = scanLog.getMetrics();
+
+        final AmazonWebServicesCredentials credentialsForAPI;
+        final StandardUsernameCredentials credentialsForCodeCommit;
+        try (ScanMetrics.Phase phase = metrics.phase(ScanMetrics.CREDENTIALS)) {
+            credentialsForAPI = getCredentials(scmSourceObserver.getContext(), awsCredentialsId, AmazonWebServicesCredentials.class, CREDENTIALS_MATCHER);
+            credentialsForCodeCommit = getCredentials(scmSourceObserver.getContext(), codeCommitCredentialsId, StandardUsernameCredentials.class, GitClient.CREDENTIALS_MATCHER);
+        }
+        final List<String> regionList = getRegionList();
+
+        if (regionList.isEmpty() || credentialsForCodeCommit == null) {
+            logger.printf("visitSources - with null value(s): '%s' '%s' '%s' '%s'%n", awsCodeCommitURL, awsCredentialsId, codeCommitCredentialsId, regionList);
+        } else {
+            logger.println("visitSources - start to checkout the code");
+
+            //one client by account and region, the project names are qualified by the account and the region only if there are several
+            final List<String> roleArnList = getRoleArnList();
+            final String roleArnsError = checkRoleArns(roleArnList);
+            if (roleArnsError != null) {
+                //the projects of a skipped role would be removed as orphans, the configuration may bypass the form
+                throw new AbortException(roleArnsError);
+            }
+            final boolean accountQualified = roleArnList.size() > 1;
+            final boolean regionQualified = accountQualified || regionList.size() > 1;
+            final Map<String, AWSCodeCommit> clients = new LinkedHashMap<>();
+            final List<AWSCodeCommitClientRegistry.Lease> leases = new ArrayList<>();
+            final Map<String, String> accounts = new LinkedHashMap<>();
+            final Map<String, String> regionsByScope = new LinkedHashMap<>();
+            final Map<String, String> roleArnsByScope = new LinkedHashMap<>();
+            try {
+                for (String roleArn : roleArnList.isEmpty() ? Collections.<String>singletonList(null) : roleArnList) {
+                    final String account = roleArn == null ? null : AssumedRoleRegistry.getAccountId(roleArn);
+                    for (String region : regionList) {
+                        final String scope = account == null ? region : account + " " + region;
+                        final AWSCodeCommitClientRegistry.Lease lease = lease(region, roleArn, credentialsForAPI, getEngine().isAsync());
+                        leases.add(lease);
+                        clients.put(scope, metrics.scope(lease.getClient()));
+                        accounts.put(scope, accountQualified ? account : null);
+                        regionsByScope.put(scope, region);
+                        roleArnsByScope.put(scope, roleArn);
+                    }
+                }
+                try (final AWSCodeCommitSCMNavigatorRequest request = newRequest(scmSourceObserver, clients.values().iterator().next(), credentialsForCodeCommit)) {
+
+                    final SCMNavigatorRequest.Witness loggerWitness = new LoggerWitness(scanLog);
+                    final File rootDir = scmSourceObserver.getContext().getRootDir();
+                    final RepositoryMetadataCache cache = RepositoryMetadataCache.load(rootDir, getMetadataCacheTtl(), TimeUnit.MINUTES);
+                    //the repository IDs are unique across the regions and the accounts
+                    final IncrementalScanState scanState = incremental ? IncrementalScanState.load(rootDir, getFullScanInterval()) : null;
+                    final Map<String, SourceFactory> sourceFactories = new LinkedHashMap<>();
+                    for (Map.Entry<String, AWSCodeCommit> client : clients.entrySet()) {
+                        sourceFactories.put(client.getKey(), new SourceFactory(getId(), request, cache)
+                                .withAwsCodeCommit(client.getValue())
+                                .withAccount(accounts.get(client.getKey()))
+                                .withRegion(regionQualified ? regionsByScope.get(client.getKey()) : null)
+                                .withCloneUrls(newCloneUrls(regionsByScope.get(client.getKey())))
+                                .withApiDiscovery(apiDiscovery ? regionsByScope.get(client.getKey()) : null, awsCredentialsId,
+                                        roleArnsByScope.get(client.getKey()))
+                                .withScanState(scanState)
+                                .withMetrics(metrics));
+                    }
+                    try {
+                        processRegions(clients, request, loggerWitness, sourceFactories, scanLog);
+                    } finally {
+                        metrics.summary(scanLog);
+                        scanLog.summary();
+                    }
+                    cache.save();
+                    logger.printf("metadata cache - hits: %d misses: %d%n", cache.getHits(), cache.getMisses());
+                    if (scanState != null) {
+                        //only a successful scan is recorded
+                        scanState.save();
+                        logger.printf("incremental scan - full: %s new or changed: %d unchanged: %d%n",
+                                scanState.isFullScan(), scanState.getChanged(), scanState.getUnchanged());
+                    }
+                    if (request.getTagFilter() != null) {
+                        int tagLookups = 0;
+                        for (SourceFactory sourceFactory : sourceFactories.values()) {
+                            tagLookups += sourceFactory.getTagLookups();
+                        }
+                        logger.printf("tag lookups: %d%n", tagLookups);
+                        RepositoryTagCache.get().prune(request.getTagCacheTtl());
+                    }
+                    for (String roleArn : roleArnList.isEmpty() ? Collections.<String>singletonList(null) : roleArnList) {
+                        for (String region : regionList) {
+                            final CodeCommitRateLimiter limiter = CodeCommitRateLimiter.get(region, getCredentialsId(roleArn),
+                                    AWSCodeCommitGlobalConfiguration.get().getMaxRequestsPerSecond());
+                            logger.printf("rate limiter - %s - rate: %s throttles: %d%n",
+                                    roleArn == null ? region : roleArn + " " + region,
+                                    limiter.isLimited() ? String.format("%.1f/s", limiter.getRate()) : "unlimited",
+                                    limiter.getThrottles());
+                        }
+                    }
+                }
+            } finally {
+                for (AWSCodeCommitClientRegistry.Lease lease : leases) {
+                    lease.close();
+                }
+            }
+            logger.println("visitSources - end to checkout the code");
+        }
+    }
+
+
+
+    /**
+     * Visit only one repository, with one call to the API instead of listing all the repositories.
+     *
+     * @param sourceName the name of the repository
+     * @param scmSourceObserver the observer
+     * @throws IOException              if there is an I/O error.
+     * @throws InterruptedException     if the operation was interrupted.
+     */
+    @Override
+    public void visitSource(@NonNull String sourceName, @NonNull SCMSourceObserver scmSourceObserver) throws IOException, InterruptedException {
+        final TaskListener listener = scmSourceObserver.getListener();
+        final PrintStream logger = listener.getLogger();
+
+        //the project names are qualified by the account and the region only if there are several
+        final List<String> regionList = getRegionList();
+        final List<String> roleArnList = getRoleArnList();
+        final String roleArnsError = checkRoleArns(roleArnList);
+        if (roleArnsError != null) {
+            logger.printf("visitSource - %s - %s%n", sourceName, roleArnsError);
+            return;
+        }
+        final boolean accountQualified = roleArnList.size() > 1;
+        final boolean regionQualified = accountQualified || regionList.size() > 1;
+        final String account = toAccount(sourceName);
+        final String qualifier = toRegion(sourceName);
+        final String region = !regionQualified && qualifier == null && !regionList.isEmpty() ? regionList.get(0) : qualifier;
+        if (region == null || !regionList.contains(region) || regionQualified != (qualifier != null) || accountQualified != (account != null)) {
+            logger.printf("visitSource - %s - not in the regions %s%n", sourceName, regionList);
+            return;
+        }
+        final String roleArn = accountQualified ? getRoleArn(account) : roleArnList.isEmpty() ? null : roleArnList.get(0);
+        if (accountQualified && roleArn == null) {
+            logger.printf("visitSource - %s - not in the accounts %s%n", sourceName, roleArnList);
+            return;
+        }
+        final String repositoryName = toRepositoryName(sourceName);
+
+        final Pattern patternValue = compilePattern();
+        if (patternValue != null && !patternValue.matcher(repositoryName).matches()) {
+            logger.printf("visitSource - %s - no matches%n", sourceName);
+            return;
+        }
 
         final AmazonWebServicesCredentials credentialsForAPI = getCredentials(scmSourceObserver.getContext(), awsCredentialsId, AmazonWebServicesCredentials.class, CREDENTIALS_MATCHER);
         final StandardUsernameCredentials credentialsForCodeCommit = getCredentials(scmSourceObserver.getContext(), codeCommitCredentialsId, StandardUsernameCredentials.class, GitClient.CREDENTIALS_MATCHER);
-        final String region = getRegion();
 
-        final PrintStream logger = listener.getLogger();
-        if (region == null || credentialsForCodeCommit == null) {
-            logger.printf("visitSources - with null value(s): '%s' '%s' '%s' '%s'%n", awsCodeCommitURL, awsCredentialsId, codeCommitCredentialsId, region);
-        } else {
-            logger.println("visitSources - start to checkout the code");
+        if (credentialsForCodeCommit == null) {
+            logger.printf("visitSource - with null value(s): '%s' '%s' '%s' '%s'%n", awsCodeCommitURL, awsCredentialsId, codeCommitCredentialsId, region);
+            return;
+        }
 
-            final AWSCodeCommit client = AWSCodeCommitClient.builder()
-                    .withRegion(region)
-                    .withCredentials(credentialsForAPI)
-                    .build();
-            try (final AWSCodeCommitSCMNavigatorRequest request = new AWSCodeCommitSCMNavigatorContext()
-                    .withTraits(traits)
+        try (final AWSCodeCommitClientRegistry.Lease lease = lease(region, roleArn, credentialsForAPI, false);
+             final AWSCodeCommitSCMNavigatorRequest request = newRequest(scmSourceObserver, lease.getClient(), credentialsForCodeCommit)) {
+            final AWSCodeCommit client = lease.getClient();
+            final SCMNavigatorRequest.Witness loggerWitness = new LoggerWitness(logger);
+            final RepositoryMetadataCache cache = RepositoryMetadataCache.load(scmSourceObserver.getContext().getRootDir(),
+                    getMetadataCacheTtl(), TimeUnit.MINUTES);
+            final SourceFactory sourceFactory = new SourceFactory(getId(), request, cache)
                     .withAwsCodeCommit(client)
-                    .withCodeCommitCredentialsId(codeCommitCredentialsId)
-                    .withCloneSsh(credentialsForCodeCommit instanceof SSHUserPrivateKey)
-                    .newRequest(this, scmSourceObserver)) {
+                    .withAccount(account)
+                    .withRegion(qualifier)
+                    .withCloneUrls(newCloneUrls(region))
+                    .withApiDiscovery(apiDiscovery ? region : null, awsCredentialsId, roleArn);
+            //the prefilters get the name of the project, as in the scans of all the repositories
+            if (request.isExcluded(sourceName)) {
+                logger.printf("visitSource - %s - excluded%n", sourceName);
+            } else if (sourceFactory.prefetch(client, repositoryName)) {
+                sourceFactory.filterTags(client, Collections.singletonList(new RepositoryNameIdPair().withRepositoryName(repositoryName)));
+                if (sourceFactory.isExcludedByTags(repositoryName)) {
+                    logger.printf("visitSource - %s - excluded by tags%n", sourceName);
+                    loggerWitness.record(sourceName, false);
+                } else {
+                    request.process(sourceName, sourceFactory, null, loggerWitness);
+                }
+            } else {
+                logger.printf("visitSource - %s - not found%n", sourceName);
+                loggerWitness.record(sourceName, false);
+            }
+            cache.save();
+        }
+    }
+
+    /**
+     * Lease the client of a region, in the account of the credentials or of an assumed role.
+     *
+     * @param region            the region
+     * @param roleArn           the role assumed from the credentials, {@code null} for the account of the credentials
+     * @param credentialsForAPI the credentials
+     * @param async             {@code true} for the asynchronous client
+     * @return the lease of the client, released at the end of the scan
+     */
+    private AWSCodeCommitClientRegistry.Lease lease(String region, @CheckForNull String roleArn,
+                                                    @CheckForNull AmazonWebServicesCredentials credentialsForAPI, boolean async) {
+        return AWSCodeCommitClientRegistry.get().lease(region, awsCredentialsId, credentialsForAPI, roleArn, async);
+    }
 
-                final SCMNavigatorRequest.Witness loggerWitness = new LoggerWitness(listener.getLogger());
-                final SourceFactory sourceFactory = new SourceFactory(getId(), request);
-                processRepositories(client, request, loggerWitness, sourceFactory, logger);
+    /**
+     * @param roleArn the role assumed from the credentials, {@code null} for none
+     * @return the identifier of the credentials of the clients
+     */
+    private String getCredentialsId(@CheckForNull String roleArn) {
+        return roleArn == null ? awsCredentialsId : AssumedRoleRegistry.getCredentialsId(awsCredentialsId, roleArn);
+    }
+
+    /**
+     * @param account an account
+     * @return the role of the account, {@code null} if none
+     */
+    @CheckForNull
+    private String getRoleArn(@CheckForNull String account) {
+        for (String roleArn : getRoleArnList()) {
+            if (account != null && account.equals(AssumedRoleRegistry.getAccountId(roleArn))) {
+                return roleArn;
             }
-            logger.println("visitSources - end to checkout the code");
         }
+        return null;
     }
 
+    /**
+     * @param region the region of the repositories
+     * @return the derived clone URLs of the region, {@code null} if they are read with the API
+     */
+    @CheckForNull
+    private CloneUrls newCloneUrls(String region) {
+        return deriveCloneUrls ? new CloneUrls(region, cloneUrlTemplate) : null;
+    }
 
+    /**
+     * Create the request of a scan.
+     *
+     * @param scmSourceObserver the observer
+     * @param client the client AWS
+     * @param credentialsForCodeCommit the credentials for git
+     * @return the request
+     */
+    private AWSCodeCommitSCMNavigatorRequest newRequest(SCMSourceObserver scmSourceObserver, AWSCodeCommit client,
+                                                        StandardUsernameCredentials credentialsForCodeCommit) {
+        return new AWSCodeCommitSCMNavigatorContext()
+                .withTraits(traits)
+                .withAwsCodeCommit(client)
+                .withCodeCommitCredentialsId(codeCommitCredentialsId)
+                .withCloneSsh(credentialsForCodeCommit instanceof SSHUserPrivateKey)
+                .newRequest(this, scmSourceObserver);
+    }
+
+    /**
+     * @return the pattern on the names of the repositories, {@code null} if all the repositories match
+     */
+    @CheckForNull
+    private Pattern compilePattern() {
+        if (pattern == null) {
+            return null;
+        }
+        Pattern compiled = compiledPattern;
+        if (compiled == null || !compiled.pattern().equals(pattern)) {
+            compiled = Pattern.compile(pattern);
+            compiledPattern = compiled;
+        }
+        return compiled;
+    }
+
+    /**
+     * Check if a repository of code commit is in the scope of this navigator.
+     *
+     * @param region the region of the repository
+     * @param repositoryName the name of the repository
+     * @return {@code true} if the region is one of the navigator and the name matches the pattern
+     */
+    public boolean isMatch(@CheckForNull String region, @NonNull String repositoryName) {
+        return isMatch(null, region, repositoryName);
+    }
+
+    /**
+     * Check if a repository of code commit is in the scope of this navigator.
+     *
+     * @param account the account of the repository, {@code null} if unknown
+     * @param region the region of the repository
+     * @param repositoryName the name of the repository
+     * @return {@code true} if the account is one of the roles, the region is one of the navigator and the name matches the pattern
+     */
+    public boolean isMatch(@CheckForNull String account, @CheckForNull String region, @NonNull String repositoryName) {
+        if (account != null && !getRoleArnList().isEmpty() && getRoleArn(account) == null) {
+            return false;
+        }
+        if (region == null || !getRegionList().contains(region)) {
+            return false;
+        }
+        final Pattern patternValue = compilePattern();
+        if (patternValue != null && !patternValue.matcher(repositoryName).matches()) {
+            return false;
+        }
+        for (SCMTrait<?> trait : traits) {
+            if (trait instanceof RepositoryFilterTrait && !((RepositoryFilterTrait) trait).isMatch(repositoryName)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * The events of code commit only visit the repository concerned.
+     */
+    @Override
+    public void visitSources(@NonNull SCMSourceObserver observer, @NonNull SCMSourceEvent<?> event) throws IOException, InterruptedException {
+        if (event instanceof AWSCodeCommitSCMSourceEvent) {
+            visitSource(getProjectName(((AWSCodeCommitSCMSourceEvent) event).getPayload()), observer);
+        } else {
+            super.visitSources(observer, event);
+        }
+    }
+
+    /**
+     * The events of code commit only visit the repository concerned.
+     */
+    @Override
+    public void visitSources(@NonNull SCMSourceObserver observer, @NonNull SCMHeadEvent<?> event) throws IOException, InterruptedException {
+        if (event instanceof AWSCodeCommitSCMHeadEvent) {
+            visitSource(getProjectName(((AWSCodeCommitSCMHeadEvent) event).getPayload()), observer);
+        } else {
+            super.visitSources(observer, event);
+        }
+    }
+
+    /**
+     * The name of the project of the repository of an event, the name given to the observers and the prefilters
+     * by the scans of all the repositories.
+     *
+     * @param payload the event
+     * @return the name qualified by the account and the region if there are several
+     */
+    @NonNull
+    public String getProjectName(@NonNull CodeCommitEvent payload) {
+        if (getRoleArnList().size() > 1 && payload.getAccountId() != null && payload.getRegion() != null) {
+            return toProjectName(payload.getAccountId(), payload.getRegion(), payload.getRepositoryName());
+        }
+        if (getRegionList().size() > 1 && payload.getRegion() != null) {
+            return toProjectName(payload.getRegion(), payload.getRepositoryName());
+        }
+        return payload.getRepositoryName();
+    }
+
+    /**
+     * Scan the regions concurrently, each one with its client and its pages, in the same request.
+     * A failed region does not stop the others, the scan fails when all the regions are done.
+     * With several accounts, at most {@link #getAccountConcurrency()} accounts are scanned at the same time.
+     *
+     * @param clients         the clients by region, or by account and region
+     * @param request         the request to process the repositories
+     * @param loggerWitness   the logger
+     * @param sourceFactories the source factories by region
+     * @param logger          the log of the scan
+     * @throws IOException              if the scan of a region failed.
+     * @throws InterruptedException     if the operation was interrupted.
+     */
+    protected void processRegions(final Map<String, AWSCodeCommit> clients, final AWSCodeCommitSCMNavigatorRequest request,
+                                  final SCMNavigatorRequest.Witness loggerWitness, final Map<String, SourceFactory> sourceFactories,
+                                  final ScanLog logger) throws IOException, InterruptedException {
+        if (clients.size() == 1) {
+            final String region = clients.keySet().iterator().next();
+            processScope(clients.get(region), request, loggerWitness, sourceFactories.get(region), logger);
+            return;
+        }
+        final int threads = Math.min(clients.size(), getAccountConcurrency() * Math.max(1, getRegionList().size()));
+        final ExecutorService executor = Executors.newFixedThreadPool(threads,
+                new NamingThreadFactory(new DaemonThreadFactory(), AWSCodeCommitSCMNavigator.class.getSimpleName() + "-region"));
+        try {
+            final Map<String, Future<Void>> scans = new LinkedHashMap<>();
+            for (final Map.Entry<String, AWSCodeCommit> client : clients.entrySet()) {
+                scans.put(client.getKey(), executor.submit(new Callable<Void>() {
+                    @Override
+                    public Void call() throws Exception {
+                        processScope(client.getValue(), request, loggerWitness, sourceFactories.get(client.getKey()), logger);
+                        return null;
+                    }
+                }));
+            }
+            IOException failure = null;
+            for (Map.Entry<String, Future<Void>> scan : scans.entrySet()) {
+                try {
+                    scan.getValue().get();
+                } catch (ExecutionException e) {
+                    logger.printf("%s - scan failed: %s%n", scan.getKey(), e.getCause());
+                    final IOException regionFailure = new IOException("The scan of " + scan.getKey() + " failed", e.getCause());
+                    if (failure == null) {
+                        failure = regionFailure;
+                    } else {
+                        failure.addSuppressed(regionFailure);
+                    }
+                }
+            }
+            if (failure != null) {
+                throw failure;
+            }
+        } finally {
+            //interrupts the other regions when the scan is cancelled
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * Scan the repositories of one region with the engine of the navigator.
+     *
+     * @param client        the client of the region, asynchronous with an asynchronous engine
+     * @param request       the request to process the repositories
+     * @param loggerWitness the logger
+     * @param sourceFactory the source factory of the region
+     * @param logger        the log of the scan
+     * @throws IOException              if there is an I/O error.
+     * @throws InterruptedException     if the operation was interrupted.
+     */
+    protected void processScope(AWSCodeCommit client, AWSCodeCommitSCMNavigatorRequest request, SCMNavigatorRequest.Witness loggerWitness,
+                                SourceFactory sourceFactory, ScanLog logger) throws IOException, InterruptedException {
+        if (getEngine().isAsync() && client instanceof AWSCodeCommitAsync) {
+            logger.printf("pattern %s%n", pattern);
+            //the asynchronous client has one thread by connection, more calls would only wait in its queue
+            final int maxInFlight = Math.min(getMaxInFlight(), AWSCodeCommitGlobalConfiguration.get().getMaxConnections());
+            new AsyncScanEngine((AWSCodeCommitAsync) client, maxInFlight, getEngine() == ScanEngine.ASYNC_ORDERED)
+                    .process(request, compilePattern(), loggerWitness, sourceFactory, getBatchSize(), logger);
+        } else {
+            processRepositories(client, request, loggerWitness, sourceFactory, logger);
+        }
+    }
 
     /**
      * Generate
@@ -188,26 +704,158 @@ public class AWSCodeCommitSCMNavigator extends SCMNavigator {
      * @throws IOException              if there is an I/O error.
      * @throws InterruptedException     if the operation was interrupted.
      */
-    protected void processRepositories(AWSCodeCommit client, AWSCodeCommitSCMNavigatorRequest request, SCMNavigatorRequest.Witness loggerWitness, SourceFactory sourceFactory, PrintStream logger) throws IOException, InterruptedException {
+    protected void processRepositories(final AWSCodeCommit client, AWSCodeCommitSCMNavigatorRequest request, SCMNavigatorRequest.Witness loggerWitness, final SourceFactory sourceFactory, PrintStream logger) throws IOException, InterruptedException {
+        final ScanLog scanLog = ScanLog.verbose(logger);
+        try {
+            processRepositories(client, request, loggerWitness, sourceFactory, scanLog);
+        } finally {
+            scanLog.flush();
+        }
+    }
+
+    /**
+     * Generate
+     *
+     * @param client the client AWS
+     * @param request the request to process the repository
+     * @param loggerWitness the logger
+     * @param sourceFactory the source factory to create project
+     * @param logger the log of the scan
+     * @throws IOException              if there is an I/O error.
+     * @throws InterruptedException     if the operation was interrupted.
+     */
+    protected void processRepositories(final AWSCodeCommit client, AWSCodeCommitSCMNavigatorRequest request, SCMNavigatorRequest.Witness loggerWitness, final SourceFactory sourceFactory, ScanLog logger) throws IOException, InterruptedException {
         logger.printf("pattern %s%n", pattern);
 
-        final ListRepositoriesRequest listRequest = new ListRepositoriesRequest();
+        final Pattern patternValue = compilePattern();
 
-        final Pattern patternValue = pattern != null ? Pattern.compile(pattern) : null;
+        final ScanMetrics metrics = logger.getMetrics();
+        final ExecutorService executor = newExecutor();
+        //the next pages are fetched while the current one is processed
+        try (RepositoryPages pages = new RepositoryPages(client, RepositoryPages.DEFAULT_PREFETCH_DEPTH)) {
+            while (true) {
+                final List<RepositoryNameIdPair> page;
+                try (ScanMetrics.Phase phase = metrics.phase(ScanMetrics.LIST)) {
+                    page = pages.next();
+                }
+                if (page == null) {
+                    break;
+                }
 
-        do {
-            final ListRepositoriesResult allRepositories = client.listRepositories(listRequest);
+                final List<RepositoryNameIdPair> repositories = new ArrayList<>();
+                for (RepositoryNameIdPair repository : page) {
+                    //the filters are checked before the repository is fetched
+                    if ((patternValue == null || patternValue.matcher(repository.getRepositoryName()).matches())
+                            && !request.isExcluded(sourceFactory.getProjectName(repository.getRepositoryName()))) {
+                        logger.repository(repository, "matches");
+                        repositories.add(repository);
+                    } else {
+                        logger.repository(repository, "no matches");
+                    }
+                }
 
-            for (RepositoryNameIdPair repository : allRepositories.getRepositories()) {
-                if(patternValue == null || patternValue.matcher(repository.getRepositoryName()).matches()){
-                    logger.printf("%s - matches%n",repository);
-                    request.process(repository.getRepositoryName(), sourceFactory, null, loggerWitness);
-                } else {
-                    logger.printf("%s - no matches%n",repository);
+                //the batches are resolved by the workers, the observer is only called by this thread.
+                final List<List<RepositoryNameIdPair>> batches = Lists.partition(repositories, getBatchSize());
+                final List<Future<Set<String>>> prefetches = new ArrayList<>(batches.size());
+                for (final List<RepositoryNameIdPair> batch : batches) {
+                    prefetches.add(executor.submit(new Callable<Set<String>>() {
+                        @Override
+                        public Set<String> call() {
+                            final Set<String> notFound;
+                            try (ScanMetrics.Phase phase = metrics.phase(ScanMetrics.PREFETCH)) {
+                                notFound = sourceFactory.prefetch(client, batch);
+                            }
+                            //only the repositories selected by their name get their tags
+                            try (ScanMetrics.Phase phase = metrics.phase(ScanMetrics.TAGS)) {
+                                sourceFactory.filterTags(client, batch);
+                            }
+                            return notFound;
+                        }
+                    }));
+                }
+
+                for (int i = 0; i < batches.size(); i++) {
+                    processBatch(request, loggerWitness, sourceFactory, batches.get(i), getPrefetched(prefetches.get(i)), logger);
                 }
             }
-            listRequest.setNextToken(allRepositories.getNextToken());
-        } while (listRequest.getNextToken() != null);
+        } finally {
+            //interrupts the workers when the scan is cancelled
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * Give the repositories of a resolved batch to the observer.
+     *
+     * @param request       the request to process the repository
+     * @param loggerWitness the logger
+     * @param sourceFactory the source factory to create project
+     * @param batch         the repositories of the batch
+     * @param notFound      the repositories which do not exist anymore
+     * @param logger        the log of the scan
+     * @throws IOException              if there is an I/O error.
+     * @throws InterruptedException     if the operation was interrupted.
+     */
+    static void processBatch(AWSCodeCommitSCMNavigatorRequest request, SCMNavigatorRequest.Witness loggerWitness,
+                             SourceFactory sourceFactory, List<RepositoryNameIdPair> batch, Set<String> notFound,
+                             ScanLog logger) throws IOException, InterruptedException {
+        for (RepositoryNameIdPair repository : batch) {
+            final String repositoryName = repository.getRepositoryName();
+            final String projectName = sourceFactory.getProjectName(repositoryName);
+            if (notFound.contains(repositoryName)) {
+                logger.error(projectName, "not found");
+                loggerWitness.record(projectName, false);
+            } else if (sourceFactory.isExcludedByTags(repositoryName)) {
+                logger.repository(projectName, "excluded by tags");
+                loggerWitness.record(projectName, false);
+            } else {
+                final long start = System.nanoTime();
+                //the regions share the request and its observer
+                synchronized (request) {
+                    request.process(projectName, sourceFactory, null, loggerWitness);
+                }
+                logger.processed(projectName, System.nanoTime() - start);
+                logger.getMetrics().add(ScanMetrics.PROCESS, System.nanoTime() - start);
+            }
+        }
+    }
+
+    /**
+     * Create the workers to resolve the repositories.
+     *
+     * @return the workers, the current thread if the concurrency is 1
+     */
+    private ExecutorService newExecutor() {
+        final int concurrency = getConcurrency();
+        if (concurrency == 1) {
+            return MoreExecutors.sameThreadExecutor();
+        }
+        return Executors.newFixedThreadPool(concurrency,
+                new NamingThreadFactory(new DaemonThreadFactory(), AWSCodeCommitSCMNavigator.class.getSimpleName()));
+    }
+
+    /**
+     * Wait the result of a worker.
+     *
+     * @param future the work
+     * @param <T>    the type of result
+     * @return the result
+     * @throws IOException          if the worker failed.
+     * @throws InterruptedException if the operation was interrupted.
+     */
+    static <T> T getPrefetched(Future<T> future) throws IOException, InterruptedException {
+        try {
+            return future.get();
+        } catch (ExecutionException e) {
+            final Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw new IOException(cause);
+        }
     }
 
     /**
@@ -227,6 +875,134 @@ public class AWSCodeCommitSCMNavigator extends SCMNavigator {
 
     }
 
+    /**
+     * Get the regions scanned.
+     *
+     * @return the configured regions, else the region in awsCodeCommitURL, empty if none
+     */
+    @NonNull
+    public List<String> getRegionList() {
+        final Set<String> result = new LinkedHashSet<>();
+        if (regions != null) {
+            for (String region : regions.split("[\\s,]+")) {
+                if (!region.isEmpty()) {
+                    result.add(region);
+                }
+            }
+        }
+        if (result.isEmpty()) {
+            final String region = getRegion();
+            if (region != null) {
+                result.add(region);
+            }
+        }
+        return new ArrayList<>(result);
+    }
+
+    /**
+     * Get the roles assumed from the credentials.
+     *
+     * @return the roles, one by account, empty to scan the account of the credentials
+     */
+    @NonNull
+    public List<String> getRoleArnList() {
+        return toRoleArnList(roleArns);
+    }
+
+    /**
+     * @param roleArns the roles separated by spaces, commas or new lines
+     * @return the roles without duplicates
+     */
+    @NonNull
+    static List<String> toRoleArnList(@CheckForNull String roleArns) {
+        final Set<String> result = new LinkedHashSet<>();
+        if (roleArns != null) {
+            for (String roleArn : roleArns.split("[\\s,]+")) {
+                if (!roleArn.isEmpty()) {
+                    result.add(roleArn);
+                }
+            }
+        }
+        return new ArrayList<>(result);
+    }
+
+    /**
+     * Check that each role is a valid ARN in its own account, the account qualifies the clients and the projects.
+     *
+     * @param roleArnList the roles assumed from the credentials
+     * @return the error, {@code null} if the roles are valid
+     */
+    @CheckForNull
+    static String checkRoleArns(@NonNull List<String> roleArnList) {
+        final Map<String, String> roleArnsByAccount = new HashMap<>();
+        for (String roleArn : roleArnList) {
+            final String account = AssumedRoleRegistry.getAccountId(roleArn);
+            if (account == null) {
+                return Messages.AWSCodeCommitSCMNavigator_RoleArnCheckKo(roleArn);
+            }
+            final String previous = roleArnsByAccount.put(account, roleArn);
+            if (previous != null) {
+                return Messages.AWSCodeCommitSCMNavigator_RoleArnAccountCheckKo(account, previous, roleArn);
+            }
+        }
+        return null;
+    }
+
+    /**
+     * The name of the project of a repository, for a navigator on several regions.
+     *
+     * @param region         the region of the repository
+     * @param repositoryName the name of the repository
+     * @return the name qualified by the region
+     */
+    @NonNull
+    public static String toProjectName(@NonNull String region, @NonNull String repositoryName) {
+        return region + SEPARATOR_REGION + repositoryName;
+    }
+
+    /**
+     * The name of the project of a repository, for a navigator on several accounts.
+     *
+     * @param account        the account of the repository
+     * @param region         the region of the repository
+     * @param repositoryName the name of the repository
+     * @return the name qualified by the account and the region
+     */
+    @NonNull
+    public static String toProjectName(@NonNull String account, @NonNull String region, @NonNull String repositoryName) {
+        return account + SEPARATOR_REGION + toProjectName(region, repositoryName);
+    }
+
+    /**
+     * @param projectName the name of a project, qualified or not
+     * @return the name of the repository
+     */
+    @NonNull
+    public static String toRepositoryName(@NonNull String projectName) {
+        final int separator = projectName.lastIndexOf(SEPARATOR_REGION);
+        return separator < 0 ? projectName : projectName.substring(separator + SEPARATOR_REGION.length());
+    }
+
+    /**
+     * @param projectName the name of a project, qualified or not
+     * @return the region, {@code null} if the name is not qualified
+     */
+    @CheckForNull
+    public static String toRegion(@NonNull String projectName) {
+        final String[] parts = projectName.split(SEPARATOR_REGION, -1);
+        return parts.length > 1 ? parts[parts.length - 2] : null;
+    }
+
+    /**
+     * @param projectName the name of a project, qualified or not
+     * @return the account, {@code null} if the name is not qualified by the account
+     */
+    @CheckForNull
+    public static String toAccount(@NonNull String projectName) {
+        final String[] parts = projectName.split(SEPARATOR_REGION, -1);
+        return parts.length > 2 ? parts[0] : null;
+    }
+
 
     /**
      * Get the credentials AWS with id awsCredentialsId
@@ -239,23 +1015,7 @@ public class AWSCodeCommitSCMNavigator extends SCMNavigator {
     private <T extends StandardCredentials> T getCredentials(@CheckForNull SCMSourceOwner context,
                                                              @CheckForNull String credentialsId, Class<T> lookupWhat, CredentialsMatcher credentialsMatcher) {
         //TODO see how can see add test
-        if (StringUtils.isNotBlank(credentialsId) && context != null) {
-            return CredentialsMatchers.firstOrNull(
-                    CredentialsProvider.lookupCredentials(
-                            lookupWhat,
-                            context,
-                            context instanceof Queue.Task
-                                    ? ((Queue.Task) context).getDefaultAuthentication()
-                                    : ACL.SYSTEM,
-                            URIRequirementBuilder.create().build()
-                    ),
-                    CredentialsMatchers.allOf(
-                            CredentialsMatchers.withId(credentialsId),
-                            credentialsMatcher
-                    )
-            );
-        }
-        return null;
+        return CredentialsCache.get().lookup(context, credentialsId, lookupWhat, credentialsMatcher);
     }
 
     @NonNull
@@ -276,6 +1036,45 @@ public class AWSCodeCommitSCMNavigator extends SCMNavigator {
         this.awsCodeCommitURL = awsCodeCommitURL;
     }
 
+    @CheckForNull
+    @SuppressWarnings("unused") // stapler form binding
+    public String getRegions() {
+        return regions;
+    }
+
+    @DataBoundSetter
+    @SuppressWarnings("unused") // stapler form binding
+    public void setRegions(@CheckForNull String regions) {
+        this.regions = StringUtils.trimToNull(regions);
+    }
+
+    @CheckForNull
+    @SuppressWarnings("unused") // stapler form binding
+    public String getRoleArns() {
+        return roleArns;
+    }
+
+    @DataBoundSetter
+    @SuppressWarnings("unused") // stapler form binding
+    public void setRoleArns(@CheckForNull String roleArns) {
+        this.roleArns = StringUtils.trimToNull(roleArns);
+    }
+
+    /**
+     * @return the number of accounts scanned at the same time
+     */
+    public int getAccountConcurrency() {
+        if (accountConcurrency <= 0) {
+            return DescriptorImpl.DEFAULT_ACCOUNT_CONCURRENCY;
+        }
+        return accountConcurrency;
+    }
+
+    @DataBoundSetter
+    public void setAccountConcurrency(int accountConcurrency) {
+        this.accountConcurrency = accountConcurrency;
+    }
+
 
     @DataBoundSetter
     @SuppressWarnings("unused") // stapler form binding
@@ -321,6 +1120,169 @@ public class AWSCodeCommitSCMNavigator extends SCMNavigator {
         return pattern;
     }
 
+    /**
+     * @return the details of the scan log
+     */
+    @NonNull
+    public ScanLog.Level getLogLevel() {
+        return logLevel != null ? logLevel : ScanLog.Level.VERBOSE;
+    }
+
+    @DataBoundSetter
+    public void setLogLevel(@CheckForNull ScanLog.Level logLevel) {
+        this.logLevel = logLevel;
+    }
+
+    /**
+     * @return one repository on this number is logged in summary, 0 for none
+     */
+    public int getLogSampling() {
+        return Math.max(0, logSampling);
+    }
+
+    @DataBoundSetter
+    public void setLogSampling(int logSampling) {
+        this.logSampling = logSampling;
+    }
+
+    /**
+     * @return the number of repositories resolved by one call to BatchGetRepositories
+     */
+    public int getBatchSize() {
+        if (batchSize <= 0 || batchSize > SourceFactory.MAX_BATCH_SIZE) {
+            return SourceFactory.MAX_BATCH_SIZE;
+        }
+        return batchSize;
+    }
+
+    @DataBoundSetter
+    @SuppressWarnings("unused") // stapler form binding
+    public void setBatchSize(int batchSize) {
+        this.batchSize = batchSize;
+    }
+
+    /**
+     * @return the number of workers resolving the repositories during a scan
+     */
+    public int getConcurrency() {
+        if (concurrency <= 0) {
+            return DescriptorImpl.DEFAULT_CONCURRENCY;
+        }
+        return Math.min(concurrency, DescriptorImpl.MAX_CONCURRENCY);
+    }
+
+    @DataBoundSetter
+    @SuppressWarnings("unused") // stapler form binding
+    public void setConcurrency(int concurrency) {
+        this.concurrency = concurrency;
+    }
+
+    /**
+     * @return {@code true} if the clone URLs are derived from the region and the name of the repositories
+     */
+    public boolean isDeriveCloneUrls() {
+        return deriveCloneUrls;
+    }
+
+    @DataBoundSetter
+    public void setDeriveCloneUrls(boolean deriveCloneUrls) {
+        this.deriveCloneUrls = deriveCloneUrls;
+    }
+
+    /**
+     * @return the template of the derived clone URLs, {@code null} for the scheme of code commit
+     */
+    @CheckForNull
+    public String getCloneUrlTemplate() {
+        return cloneUrlTemplate;
+    }
+
+    @DataBoundSetter
+    public void setCloneUrlTemplate(@CheckForNull String cloneUrlTemplate) {
+        this.cloneUrlTemplate = StringUtils.trimToNull(cloneUrlTemplate);
+    }
+
+    /**
+     * @return {@code true} if the generated sources discover their branches with the API instead of git
+     */
+    public boolean isApiDiscovery() {
+        return apiDiscovery;
+    }
+
+    @DataBoundSetter
+    public void setApiDiscovery(boolean apiDiscovery) {
+        this.apiDiscovery = apiDiscovery;
+    }
+
+    /**
+     * @return the engine of the scan
+     */
+    @NonNull
+    public ScanEngine getEngine() {
+        return engine != null ? engine : ScanEngine.BLOCKING;
+    }
+
+    @DataBoundSetter
+    public void setEngine(@CheckForNull ScanEngine engine) {
+        this.engine = engine;
+    }
+
+    /**
+     * @return the maximum number of calls in flight with an asynchronous engine
+     */
+    public int getMaxInFlight() {
+        if (maxInFlight <= 0) {
+            return AsyncScanEngine.DEFAULT_MAX_IN_FLIGHT;
+        }
+        return Math.min(maxInFlight, AsyncScanEngine.MAX_IN_FLIGHT);
+    }
+
+    @DataBoundSetter
+    @SuppressWarnings("unused") // stapler form binding
+    public void setMaxInFlight(int maxInFlight) {
+        this.maxInFlight = maxInFlight;
+    }
+
+    /**
+     * @return the time to live in minutes of the metadata of the repositories, 0 if the cache is disabled
+     */
+    public int getMetadataCacheTtl() {
+        return Math.max(0, metadataCacheTtl);
+    }
+
+    @DataBoundSetter
+    @SuppressWarnings("unused") // stapler form binding
+    public void setMetadataCacheTtl(int metadataCacheTtl) {
+        this.metadataCacheTtl = metadataCacheTtl;
+    }
+
+    @SuppressWarnings("unused") // stapler form binding
+    public boolean isIncremental() {
+        return incremental;
+    }
+
+    @DataBoundSetter
+    @SuppressWarnings("unused") // stapler form binding
+    public void setIncremental(boolean incremental) {
+        this.incremental = incremental;
+    }
+
+    /**
+     * @return the number of scans between two full scans when the scan is incremental
+     */
+    public int getFullScanInterval() {
+        if (fullScanInterval <= 0) {
+            return DescriptorImpl.DEFAULT_FULL_SCAN_INTERVAL;
+        }
+        return fullScanInterval;
+    }
+
+    @DataBoundSetter
+    @SuppressWarnings("unused") // stapler form binding
+    public void setFullScanInterval(int fullScanInterval) {
+        this.fullScanInterval = fullScanInterval;
+    }
+
     @Symbol("awscodecommit")
     @Extension
     public static class DescriptorImpl extends SCMNavigatorDescriptor {
@@ -334,6 +1296,31 @@ public class AWSCodeCommitSCMNavigator extends SCMNavigator {
          */
         private static final String DEFAULT_PATTERN = ".*";
 
+        /**
+         * By default the repositories are resolved by the scan thread.
+         */
+        protected static final int DEFAULT_CONCURRENCY = 1;
+
+        /**
+         * By default four accounts are scanned at the same time.
+         */
+        protected static final int DEFAULT_ACCOUNT_CONCURRENCY = 4;
+
+        /**
+         * Maximum number of workers for one scan.
+         */
+        protected static final int MAX_CONCURRENCY = 32;
+
+        /**
+         * By default the metadata of the repositories is kept one hour.
+         */
+        protected static final int DEFAULT_METADATA_CACHE_TTL = 60;
+
+        /**
+         * By default an incremental scan checks all the repositories again every 10 scans.
+         */
+        protected static final int DEFAULT_FULL_SCAN_INTERVAL = 10;
+
         @Override
         public String getDisplayName() {
             return Messages.AWSCodeCommitSCMNavigator_DisplayName();
@@ -350,6 +1337,9 @@ public class AWSCodeCommitSCMNavigator extends SCMNavigator {
             final AWSCodeCommitSCMNavigator navigator = new AWSCodeCommitSCMNavigator();
             navigator.setAwsCodeCommitURL(DEFAULT_SERVER_URL);
             navigator.setPattern(DEFAULT_PATTERN);
+            navigator.setBatchSize(SourceFactory.MAX_BATCH_SIZE);
+            navigator.setConcurrency(DEFAULT_CONCURRENCY);
+            navigator.setMetadataCacheTtl(DEFAULT_METADATA_CACHE_TTL);
             navigator.setTraits(Lists.<SCMTrait<? extends SCMTrait<?>>>newArrayList(new BranchDiscoveryTrait()));
             return navigator;
         }
@@ -371,6 +1361,103 @@ public class AWSCodeCommitSCMNavigator extends SCMNavigator {
         }
 
 
+        /**
+         * Listbox for the details of the scan log.
+         *
+         * @return the levels
+         */
+        @SuppressWarnings("unused") // stapler form binding
+        public ListBoxModel doFillLogLevelItems() {
+            final ListBoxModel result = new ListBoxModel();
+            result.add(Messages.AWSCodeCommitSCMNavigator_LogLevelVerbose(), ScanLog.Level.VERBOSE.name());
+            result.add(Messages.AWSCodeCommitSCMNavigator_LogLevelSummary(), ScanLog.Level.SUMMARY.name());
+            return result;
+        }
+
+        /**
+         * Validation of the template of the clone URLs
+         *
+         * @param cloneUrlTemplate the template
+         * @return OK if blank or with the name of the repository, error if not
+         */
+        @SuppressWarnings("unused") // stapler form binding
+        public FormValidation doCheckCloneUrlTemplate(@QueryParameter String cloneUrlTemplate) {
+            if (CloneUrls.isValid(cloneUrlTemplate)) {
+                return FormValidation.ok();
+            }
+            return FormValidation.error(Messages.AWSCodeCommitSCMNavigator_CloneUrlTemplateCheckKo(CloneUrls.REPOSITORY));
+        }
+
+        /**
+         * Listbox for the engine of the scan.
+         *
+         * @return the engines
+         */
+        @SuppressWarnings("unused") // stapler form binding
+        public ListBoxModel doFillEngineItems() {
+            final ListBoxModel result = new ListBoxModel();
+            result.add(Messages.AWSCodeCommitSCMNavigator_EngineBlocking(), ScanEngine.BLOCKING.name());
+            result.add(Messages.AWSCodeCommitSCMNavigator_EngineAsyncOrdered(), ScanEngine.ASYNC_ORDERED.name());
+            result.add(Messages.AWSCodeCommitSCMNavigator_EngineAsyncUnordered(), ScanEngine.ASYNC_UNORDERED.name());
+            return result;
+        }
+
+        /**
+         * Validation of the calls in flight
+         *
+         * @param maxInFlight the maximum number of calls in flight
+         * @return OK if between 1 and {@link AsyncScanEngine#MAX_IN_FLIGHT}, error if not
+         */
+        @SuppressWarnings("unused") // stapler form binding
+        public FormValidation doCheckMaxInFlight(@QueryParameter int maxInFlight) {
+            if (maxInFlight >= 1 && maxInFlight <= AsyncScanEngine.MAX_IN_FLIGHT) {
+                return FormValidation.ok();
+            }
+            return FormValidation.error(Messages.AWSCodeCommitSCMNavigator_MaxInFlightCheckKo(AsyncScanEngine.MAX_IN_FLIGHT));
+        }
+
+        /**
+         * Validation of the batch size
+         *
+         * @param batchSize the number of repositories by call
+         * @return OK if between 1 and {@link SourceFactory#MAX_BATCH_SIZE}, error if not
+         */
+        @SuppressWarnings("unused") // stapler form binding
+        public FormValidation doCheckBatchSize(@QueryParameter int batchSize) {
+            if (batchSize >= 1 && batchSize <= SourceFactory.MAX_BATCH_SIZE) {
+                return FormValidation.ok();
+            }
+            return FormValidation.error(Messages.AWSCodeCommitSCMNavigator_BatchSizeCheckKo(SourceFactory.MAX_BATCH_SIZE));
+        }
+
+
+        /**
+         * Validation of the roles
+         *
+         * @param roleArns the roles, separated by spaces, commas or lines
+         * @return OK if every role is an IAM role ARN, error if not
+         */
+        public FormValidation doCheckRoleArns(@QueryParameter String roleArns) {
+            final String error = checkRoleArns(toRoleArnList(roleArns));
+            return error == null ? FormValidation.ok() : FormValidation.error(error);
+        }
+
+
+        /**
+         * Validation of the concurrency
+         *
+         * @param concurrency the number of workers
+         * @return OK if between 1 and {@link #MAX_CONCURRENCY}, error if not
+         */
+        @SuppressWarnings("unused") // stapler form binding
+        public FormValidation doCheckConcurrency(@QueryParameter int concurrency) {
+            if (concurrency >= 1 && concurrency <= MAX_CONCURRENCY) {
+                return FormValidation.ok();
+            }
+            return FormValidation.error(Messages.AWSCodeCommitSCMNavigator_ConcurrencyCheckKo(MAX_CONCURRENCY));
+        }
+
+
         /**
          * Validation URL
          *
@@ -441,10 +1528,20 @@ public class AWSCodeCommitSCMNavigator extends SCMNavigator {
          * @return the list of traits
          */
         @SuppressWarnings("unused") // stapler form binding
-        public List<NamedArrayList<? extends SCMSourceTraitDescriptor>> getTraitsDescriptorLists() {
-            final List<NamedArrayList<? extends SCMSourceTraitDescriptor>> result = new ArrayList<>();
+        public List<NamedArrayList<? extends SCMTraitDescriptor<?>>> getTraitsDescriptorLists() {
+            final List<NamedArrayList<? extends SCMTraitDescriptor<?>>> result = new ArrayList<>();
+
+            final List<SCMTraitDescriptor<?>> all = new ArrayList<>();
+            all.addAll(SCMNavigatorTrait._for(this, AWSCodeCommitSCMNavigatorContext.class, AWSCodeCommitSCMSourceBuilder.class));
+            all.addAll(SCMSourceTrait._for(null, GitSCMSourceContext.class, GitSCMBuilder.class));
 
-            final List<SCMSourceTraitDescriptor> all = new ArrayList<>(SCMSourceTrait._for(null, GitSCMSourceContext.class, GitSCMBuilder.class));
+            //add selection of the repositories
+            NamedArrayList.select(all, Messages.AWSCodeCommitSCMNavigator_Repositories(), new NamedArrayList.Predicate<SCMTraitDescriptor<?>>() {
+                @Override
+                public boolean test(SCMTraitDescriptor<?> d) {
+                    return d instanceof SCMNavigatorTraitDescriptor;
+                }
+            }, true, result);
 
             //add filter and discover
             NamedArrayList.select(all, Messages.AWSCodeCommitSCMNavigator_WithinRepository(), NamedArrayList
@@ -453,10 +1550,11 @@ public class AWSCodeCommitSCMNavigator extends SCMNavigator {
                     true, result);
 
             //add trait on git
-            NamedArrayList.select(all, Messages.AWSCodeCommitSCMNavigator_Additional(), new NamedArrayList.Predicate<SCMSourceTraitDescriptor>() {
+            NamedArrayList.select(all, Messages.AWSCodeCommitSCMNavigator_Additional(), new NamedArrayList.Predicate<SCMTraitDescriptor<?>>() {
                 @Override
-                public boolean test(SCMSourceTraitDescriptor d) {
-                    return GitSCM.class.isAssignableFrom(d.getScmClass());
+                public boolean test(SCMTraitDescriptor<?> d) {
+                    return d instanceof SCMSourceTraitDescriptor
+                            && GitSCM.class.isAssignableFrom(((SCMSourceTraitDescriptor) d).getScmClass());
                 }
             }, true, result);
 
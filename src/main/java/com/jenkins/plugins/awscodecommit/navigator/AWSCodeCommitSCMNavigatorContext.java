@@ -23,11 +23,14 @@
 package com.jenkins.plugins.awscodecommit.navigator;
 
 import com.amazonaws.services.codecommit.AWSCodeCommit;
+import edu.umd.cs.findbugs.annotations.CheckForNull;
 import edu.umd.cs.findbugs.annotations.NonNull;
 import jenkins.scm.api.SCMNavigator;
 import jenkins.scm.api.SCMSourceObserver;
 import jenkins.scm.api.trait.SCMNavigatorContext;
 
+import java.util.concurrent.TimeUnit;
+
 /**
  * The {@link SCMNavigatorContext} for aws code commit.
  */
@@ -49,6 +52,16 @@ public class AWSCodeCommitSCMNavigatorContext extends SCMNavigatorContext<AWSCod
      */
     private AWSCodeCommit awsCodeCommit;
 
+    /**
+     * {@see getTagFilter}
+     */
+    private TagFilter tagFilter;
+
+    /**
+     * {@see getTagCacheTtl}
+     */
+    private long tagCacheTtl;
+
     /**
      * {@inheritDoc}
      */
@@ -83,6 +96,27 @@ public class AWSCodeCommitSCMNavigatorContext extends SCMNavigatorContext<AWSCod
     }
 
 
+    /**
+     * @return the filter on the tags of the repositories, {@code null} if the tags are not needed
+     */
+    @CheckForNull
+    public TagFilter getTagFilter() {
+        return tagFilter;
+    }
+
+    /**
+     * @return the time to live of the tags in milliseconds
+     */
+    public long getTagCacheTtl() {
+        return tagCacheTtl;
+    }
+
+    public AWSCodeCommitSCMNavigatorContext withTagFilter(@CheckForNull TagFilter tagFilter, long tagCacheTtl, @NonNull TimeUnit timeUnit) {
+        this.tagFilter = tagFilter;
+        this.tagCacheTtl = timeUnit.toMillis(tagCacheTtl);
+        return this;
+    }
+
     public AWSCodeCommitSCMNavigatorContext withCodeCommitCredentialsId(String codeCommitCredentialsId) {
         this.codeCommitCredentialsId = codeCommitCredentialsId;
         return this;
@@ -47,6 +47,17 @@ public class AWSCodeCommitSCMNavigatorRequest extends SCMNavigatorRequest {
 
     private boolean cloneSsh;
 
+    /**
+     * The filter on the tags, {@code null} if the tags are not needed.
+     */
+    @CheckForNull
+    private final TagFilter tagFilter;
+
+    /**
+     * The time to live of the tags in milliseconds.
+     */
+    private final long tagCacheTtl;
+
     
     /**
      * Constructor.
@@ -62,6 +73,8 @@ public class AWSCodeCommitSCMNavigatorRequest extends SCMNavigatorRequest {
         this.codeCommitCredentialsId = context.getCodeCommitCredentialsId();
         this.awsCodeCommit = context.getAwsCodeCommit();
         this.cloneSsh = context.isCloneSsh();
+        this.tagFilter = context.getTagFilter();
+        this.tagCacheTtl = context.getTagCacheTtl();
     }
 
     public String getCodeCommitCredentialsId() {
@@ -75,4 +88,13 @@ public class AWSCodeCommitSCMNavigatorRequest extends SCMNavigatorRequest {
     public boolean isCloneSsh() {
         return cloneSsh;
     }
+
+    @CheckForNull
+    public TagFilter getTagFilter() {
+        return tagFilter;
+    }
+
+    public long getTagCacheTtl() {
+        return tagCacheTtl;
+    }
 }
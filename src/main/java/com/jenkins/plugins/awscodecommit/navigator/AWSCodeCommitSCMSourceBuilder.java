@@ -22,13 +22,14 @@
  */
 package com.jenkins.plugins.awscodecommit.navigator;
 
+import com.jenkins.plugins.awscodecommit.source.AWSCodeCommitSCMSource;
 import edu.umd.cs.findbugs.annotations.CheckForNull;
 import edu.umd.cs.findbugs.annotations.NonNull;
 import jenkins.plugins.git.GitSCMSource;
 import jenkins.scm.api.trait.SCMSourceBuilder;
 
 /**
- * Builder of {@link GitSCMSource}
+ * Builder of {@link GitSCMSource}, or of {@link AWSCodeCommitSCMSource} when the branches are discovered with the API.
  */
 public class AWSCodeCommitSCMSourceBuilder extends SCMSourceBuilder<AWSCodeCommitSCMSourceBuilder, GitSCMSource> {
 
@@ -52,6 +53,24 @@ public class AWSCodeCommitSCMSourceBuilder extends SCMSourceBuilder<AWSCodeCommi
     @CheckForNull
     private String remote;
 
+    /**
+     * The region of the API, {@code null} to discover the branches with git
+     */
+    @CheckForNull
+    private String region;
+
+    /**
+     * The credentials for the API
+     */
+    @CheckForNull
+    private String awsCredentialsId;
+
+    /**
+     * The role assumed from the credentials for the API
+     */
+    @CheckForNull
+    private String roleArn;
+
 
     /**
      * Initialize the builder.
@@ -67,7 +86,17 @@ public class AWSCodeCommitSCMSourceBuilder extends SCMSourceBuilder<AWSCodeCommi
     @NonNull
     @Override
     public GitSCMSource build() {
-        final GitSCMSource result = new GitSCMSource(remote);
+        final GitSCMSource result;
+        if (region != null) {
+            final AWSCodeCommitSCMSource source = new AWSCodeCommitSCMSource(remote);
+            source.setRegion(region);
+            source.setRepositoryName(AWSCodeCommitSCMNavigator.toRepositoryName(projectName()));
+            source.setAwsCredentialsId(awsCredentialsId);
+            source.setRoleArn(roleArn);
+            result = source;
+        } else {
+            result = new GitSCMSource(remote);
+        }
         result.setId(id);
         result.setCredentialsId(credentialsId);
         result.setTraits(traits());
@@ -98,4 +127,20 @@ public class AWSCodeCommitSCMSourceBuilder extends SCMSourceBuilder<AWSCodeCommi
         return this;
     }
 
+    /**
+     * Discover the branches with the API of code commit instead of git
+     *
+     * @param region           the region of the repository, {@code null} to discover the branches with git
+     * @param awsCredentialsId the credentials for the API
+     * @param roleArn          the role assumed from the credentials, {@code null} for none
+     * @return the builder
+     */
+    public AWSCodeCommitSCMSourceBuilder withApiDiscovery(@CheckForNull String region, @CheckForNull String awsCredentialsId,
+                                                          @CheckForNull String roleArn) {
+        this.region = region;
+        this.awsCredentialsId = awsCredentialsId;
+        this.roleArn = roleArn;
+        return this;
+    }
+
 }
@@ -0,0 +1,352 @@
+/**
+ * The MIT License
+ * Copyright © 2016 Stephane Jeandeaux and all contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.jenkins.plugins.awscodecommit.navigator;
+
+import com.amazonaws.handlers.AsyncHandler;
+import com.amazonaws.services.codecommit.AWSCodeCommitAsync;
+import com.amazonaws.services.codecommit.model.BatchGetRepositoriesRequest;
+import com.amazonaws.services.codecommit.model.BatchGetRepositoriesResult;
+import com.amazonaws.services.codecommit.model.ListRepositoriesRequest;
+import com.amazonaws.services.codecommit.model.ListRepositoriesResult;
+import com.amazonaws.services.codecommit.model.RepositoryNameIdPair;
+import com.google.common.collect.Lists;
+import com.jenkins.plugins.awscodecommit.AWSCodeCommitGlobalConfiguration;
+import edu.umd.cs.findbugs.annotations.CheckForNull;
+import edu.umd.cs.findbugs.annotations.NonNull;
+import jenkins.scm.api.trait.SCMNavigatorRequest;
+
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.regex.Pattern;
+
+/**
+ * Scan the repositories of a region with the asynchronous client.
+ * The scan thread lists the pages and submits the batches of BatchGetRepositories, at most {@code maxInFlight} calls
+ * are in flight at the same time. The results are given to the observer by the scan thread, in the order of the listing
+ * or as soon as their batch is resolved.
+ */
+public class AsyncScanEngine {
+
+    /**
+     * Number of calls in flight by default, the connections of a client by default.
+     */
+    public static final int DEFAULT_MAX_IN_FLIGHT = AWSCodeCommitGlobalConfiguration.DEFAULT_MAX_CONNECTIONS;
+
+    /**
+     * Maximum number of calls in flight for one scan.
+     */
+    public static final int MAX_IN_FLIGHT = 512;
+
+    private final AWSCodeCommitAsync client;
+
+    /**
+     * The permits of the calls in flight.
+     */
+    private final Semaphore permits;
+
+    /**
+     * {@see getMaxInFlight}
+     */
+    private final int maxInFlight;
+
+    /**
+     * {@code true} if the repositories are processed in the order of the listing.
+     */
+    private final boolean ordered;
+
+    /**
+     * {@see getInFlight}
+     */
+    private final AtomicInteger inFlight = new AtomicInteger();
+
+    /**
+     * {@see getPeakInFlight}
+     */
+    private final AtomicInteger peakInFlight = new AtomicInteger();
+
+    /**
+     * {@see getCalls}
+     */
+    private final AtomicInteger calls = new AtomicInteger();
+
+    /**
+     * Constructor
+     *
+     * @param client      the asynchronous client of the region
+     * @param maxInFlight the maximum number of calls in flight, at most the connections of the client to bind
+     * @param ordered     {@code true} to process the repositories in the order of the listing
+     */
+    public AsyncScanEngine(@NonNull AWSCodeCommitAsync client, int maxInFlight, boolean ordered) {
+        this.client = client;
+        this.maxInFlight = Math.max(1, maxInFlight);
+        this.permits = new Semaphore(this.maxInFlight);
+        this.ordered = ordered;
+    }
+
+    /**
+     * Scan the repositories of the client.
+     *
+     * @param request       the request to process the repositories
+     * @param pattern       the pattern on the names of the repositories, {@code null} if all the repositories match
+     * @param loggerWitness the logger
+     * @param sourceFactory the source factory of the region
+     * @param batchSize     the number of repositories by call to BatchGetRepositories
+     * @param logger        the log of the scan
+     * @throws IOException          if a call failed.
+     * @throws InterruptedException if the operation was interrupted.
+     */
+    public void process(@NonNull AWSCodeCommitSCMNavigatorRequest request, @CheckForNull Pattern pattern,
+                        @NonNull SCMNavigatorRequest.Witness loggerWitness, @NonNull SourceFactory sourceFactory,
+                        int batchSize, @NonNull ScanLog logger) throws IOException, InterruptedException {
+        final ScanMetrics metrics = logger.getMetrics();
+        final Deque<Batch> pending = new ArrayDeque<>();
+        try {
+            Future<ListRepositoriesResult> page = client.listRepositoriesAsync(new ListRepositoriesRequest());
+            while (page != null) {
+                final ListRepositoriesResult result;
+                try (ScanMetrics.Phase phase = metrics.phase(ScanMetrics.LIST)) {
+                    result = AWSCodeCommitSCMNavigator.getPrefetched(page);
+                }
+                //the next page is listed while this one is resolved
+                page = result.getNextToken() == null ? null
+                        : client.listRepositoriesAsync(new ListRepositoriesRequest().withNextToken(result.getNextToken()));
+
+                final List<RepositoryNameIdPair> repositories = new ArrayList<>();
+                for (RepositoryNameIdPair repository : result.getRepositories()) {
+                    //the filters are checked before the repository is fetched
+                    if ((pattern == null || pattern.matcher(repository.getRepositoryName()).matches())
+                            && !request.isExcluded(sourceFactory.getProjectName(repository.getRepositoryName()))) {
+                        logger.repository(repository, "matches");
+                        repositories.add(repository);
+                    } else {
+                        logger.repository(repository, "no matches");
+                    }
+                }
+
+                for (List<RepositoryNameIdPair> batch : Lists.partition(repositories, batchSize)) {
+                    pending.add(submit(batch, sourceFactory, pending, request, loggerWitness, logger));
+                    complete(pending, false, request, loggerWitness, sourceFactory, logger);
+                }
+            }
+            complete(pending, true, request, loggerWitness, sourceFactory, logger);
+        } finally {
+            //the calls of a failed or cancelled scan are abandoned, a call cancelled before it runs never calls its handler
+            for (Batch batch : pending) {
+                if (batch.result != null) {
+                    batch.result.cancel(true);
+                }
+                if (batch.permit != null) {
+                    batch.permit.release();
+                }
+            }
+        }
+        logger.printf("async engine - calls: %d peak in flight: %d max in flight: %d%n", getCalls(), getPeakInFlight(), maxInFlight);
+    }
+
+    /**
+     * Submit the call of a batch, wait a permit if {@code maxInFlight} calls are in flight.
+     * The batches already resolved are processed while waiting.
+     *
+     * @return the batch
+     */
+    private Batch submit(List<RepositoryNameIdPair> repositories, SourceFactory sourceFactory, Deque<Batch> pending,
+                         AWSCodeCommitSCMNavigatorRequest request, SCMNavigatorRequest.Witness loggerWitness,
+                         ScanLog logger) throws IOException, InterruptedException {
+        final List<String> misses = sourceFactory.prefetchKnown(repositories);
+        if (misses.isEmpty()) {
+            return new Batch(repositories, null, null);
+        }
+        while (!permits.tryAcquire()) {
+            if (!complete(pending, false, request, loggerWitness, sourceFactory, logger)) {
+                permits.acquire();
+                break;
+            }
+        }
+        final int current = inFlight.incrementAndGet();
+        int peak;
+        while (current > (peak = peakInFlight.get()) && !peakInFlight.compareAndSet(peak, current)) {
+            //retry
+        }
+        calls.incrementAndGet();
+        final Permit permit = new Permit();
+        try {
+            return new Batch(repositories, client.batchGetRepositoriesAsync(
+                    new BatchGetRepositoriesRequest().withRepositoryNames(misses), permit), permit);
+        } catch (RuntimeException e) {
+            permit.release();
+            throw e;
+        }
+    }
+
+    /**
+     * The permit of a call, released once by the handler of the call or when the call is cancelled.
+     */
+    private final class Permit implements AsyncHandler<BatchGetRepositoriesRequest, BatchGetRepositoriesResult> {
+
+        private final AtomicBoolean released = new AtomicBoolean();
+
+        @Override
+        public void onError(Exception exception) {
+            release();
+        }
+
+        @Override
+        public void onSuccess(BatchGetRepositoriesRequest request, BatchGetRepositoriesResult result) {
+            release();
+        }
+
+        private void release() {
+            if (released.compareAndSet(false, true)) {
+                inFlight.decrementAndGet();
+                permits.release();
+            }
+        }
+    }
+
+    /**
+     * Process the batches resolved.
+     *
+     * @param pending the batches not processed, in the order of the listing
+     * @param all     {@code true} to wait all the batches
+     * @return {@code true} if at least one batch was processed
+     */
+    private boolean complete(Deque<Batch> pending, boolean all, AWSCodeCommitSCMNavigatorRequest request,
+                             SCMNavigatorRequest.Witness loggerWitness, SourceFactory sourceFactory,
+                             ScanLog logger) throws IOException, InterruptedException {
+        boolean processed = false;
+        while (!pending.isEmpty()) {
+            Batch next = ordered ? pending.peekFirst() : firstDone(pending);
+            if (next == null || !next.isDone()) {
+                if (!all) {
+                    return processed;
+                }
+                //waits the oldest batch
+                next = pending.peekFirst();
+            }
+            pending.remove(next);
+            process(next, request, loggerWitness, sourceFactory, logger);
+            processed = true;
+        }
+        return processed;
+    }
+
+    /**
+     * @param pending the batches not processed
+     * @return the first batch resolved, {@code null} if none
+     */
+    @CheckForNull
+    private static Batch firstDone(Deque<Batch> pending) {
+        for (Batch batch : pending) {
+            if (batch.isDone()) {
+                return batch;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Give the repositories of a batch to the observer.
+     */
+    private void process(Batch batch, AWSCodeCommitSCMNavigatorRequest request, SCMNavigatorRequest.Witness loggerWitness,
+                         SourceFactory sourceFactory, ScanLog logger) throws IOException, InterruptedException {
+        final ScanMetrics metrics = logger.getMetrics();
+        final Set<String> notFound;
+        try (ScanMetrics.Phase phase = metrics.phase(ScanMetrics.PREFETCH)) {
+            notFound = batch.result == null ? Collections.<String>emptySet()
+                    : sourceFactory.prefetched(AWSCodeCommitSCMNavigator.getPrefetched(batch.result));
+        }
+        //only the repositories selected by their name get their tags
+        try (ScanMetrics.Phase phase = metrics.phase(ScanMetrics.TAGS)) {
+            sourceFactory.filterTags(client, batch.repositories);
+        }
+        AWSCodeCommitSCMNavigator.processBatch(request, loggerWitness, sourceFactory, batch.repositories, notFound, logger);
+    }
+
+    /**
+     * @return the number of calls in flight
+     */
+    public int getInFlight() {
+        return inFlight.get();
+    }
+
+    /**
+     * @return the maximum number of calls allowed in flight
+     */
+    public int getMaxInFlight() {
+        return maxInFlight;
+    }
+
+    /**
+     * @return the maximum number of calls in flight at the same time
+     */
+    public int getPeakInFlight() {
+        return peakInFlight.get();
+    }
+
+    /**
+     * @return the number of calls to BatchGetRepositories
+     */
+    public int getCalls() {
+        return calls.get();
+    }
+
+    /**
+     * The repositories of a call to BatchGetRepositories.
+     */
+    private static final class Batch {
+
+        private final List<RepositoryNameIdPair> repositories;
+
+        /**
+         * The result of the call, {@code null} if all the repositories are known.
+         */
+        @CheckForNull
+        private final Future<BatchGetRepositoriesResult> result;
+
+        /**
+         * The permit of the call, {@code null} if there is no call.
+         */
+        @CheckForNull
+        private final Permit permit;
+
+        private Batch(List<RepositoryNameIdPair> repositories, @CheckForNull Future<BatchGetRepositoriesResult> result,
+                      @CheckForNull Permit permit) {
+            this.repositories = repositories;
+            this.result = result;
+            this.permit = permit;
+        }
+
+        private boolean isDone() {
+            return result == null || result.isDone();
+        }
+    }
+}
@@ -0,0 +1,98 @@
+/**
+ * The MIT License
+ * Copyright © 2016 Stephane Jeandeaux and all contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.jenkins.plugins.awscodecommit.navigator;
+
+import edu.umd.cs.findbugs.annotations.CheckForNull;
+import edu.umd.cs.findbugs.annotations.NonNull;
+import org.apache.commons.lang.StringUtils;
+
+/**
+ * The clone URLs of the repositories of a region, derived from the region and the name of the repository
+ * without any call to the API. The default scheme is the one of {@code cloneUrlHttp} and {@code cloneUrlSsh} of
+ * GetRepository, a template replaces it, e.g. {@code codecommit::${region}://${repository}} for git-remote-codecommit
+ * or the DNS name of an interface VPC endpoint.
+ */
+public class CloneUrls {
+
+    /**
+     * The placeholder of the region in a template.
+     */
+    public static final String REGION = "${region}";
+
+    /**
+     * The placeholder of the name of the repository in a template.
+     */
+    public static final String REPOSITORY = "${repository}";
+
+    /**
+     * The placeholder of the DNS suffix of the region in a template.
+     */
+    public static final String DOMAIN = "${domain}";
+
+    private final String region;
+
+    @CheckForNull
+    private final String template;
+
+    /**
+     * Constructor
+     *
+     * @param region   the region of the repositories
+     * @param template the template of the URLs, {@code null} or blank for the scheme of code commit
+     */
+    public CloneUrls(@NonNull String region, @CheckForNull String template) {
+        this.region = region;
+        this.template = StringUtils.trimToNull(template);
+    }
+
+    /**
+     * @param repositoryName the name of the repository
+     * @param cloneSsh       the type of clone, not used with a template
+     * @return the remote of the repository
+     */
+    @NonNull
+    public String getRemote(@NonNull String repositoryName, boolean cloneSsh) {
+        if (template != null) {
+            return template.replace(REGION, region).replace(DOMAIN, getDomain(region)).replace(REPOSITORY, repositoryName);
+        }
+        return new StringBuilder(cloneSsh ? "ssh" : "https").append("://git-codecommit.").append(region).append('.')
+                .append(getDomain(region)).append("/v1/repos/").append(repositoryName).toString();
+    }
+
+    /**
+     * @param region a region
+     * @return the DNS suffix of the partition of the region
+     */
+    @NonNull
+    public static String getDomain(@NonNull String region) {
+        return region.startsWith("cn-") ? "amazonaws.com.cn" : "amazonaws.com";
+    }
+
+    /**
+     * @param template a template of the URLs
+     * @return {@code true} if the template names the repository
+     */
+    public static boolean isValid(@CheckForNull String template) {
+        return StringUtils.isBlank(template) || template.contains(REPOSITORY);
+    }
+}
@@ -0,0 +1,235 @@
+/**
+ * The MIT License
+ * Copyright © 2016 Stephane Jeandeaux and all contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.jenkins.plugins.awscodecommit.navigator;
+
+import com.amazonaws.services.codecommit.model.RepositoryMetadata;
+import edu.umd.cs.findbugs.annotations.CheckForNull;
+import edu.umd.cs.findbugs.annotations.NonNull;
+import hudson.XmlFile;
+import jenkins.model.Jenkins;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * The repositories known after the last successful scan, persisted next to the configuration of the organization folder.
+ * A repository is unchanged if BatchGetRepositories returns the same name and the same {@code lastModifiedDate}:
+ * its tags are read from this state instead of the API. Every {@code fullScanInterval} scans all the repositories
+ * are checked again, so a change which does not update the {@code lastModifiedDate} is seen at the next full scan.
+ */
+public class IncrementalScanState {
+
+    private static final Logger LOGGER = Logger.getLogger(IncrementalScanState.class.getName());
+
+    /**
+     * The name of the file in the root directory of the organization folder.
+     */
+    public static final String FILE_NAME = "aws-codecommit-scan-state.xml";
+
+    /**
+     * The repositories of the last successful scan by repository ID.
+     */
+    private Map<String, Repository> repositories = new HashMap<>();
+
+    /**
+     * Number of successful scans since the last full scan.
+     */
+    private int scansSinceFullScan;
+
+    /**
+     * The repositories seen by the current scan by repository ID.
+     */
+    private transient Map<String, Repository> seen = new ConcurrentHashMap<>();
+
+    /**
+     * {@see getChanged}
+     */
+    private transient AtomicInteger changed = new AtomicInteger();
+
+    /**
+     * {@see getUnchanged}
+     */
+    private transient AtomicInteger unchanged = new AtomicInteger();
+
+    /**
+     * {@see isFullScan}
+     */
+    private transient boolean fullScan;
+
+    /**
+     * The file where the state is persisted, {@code null} if only in memory.
+     */
+    @CheckForNull
+    private transient XmlFile file;
+
+    /**
+     * Load the state persisted in a directory.
+     *
+     * @param rootDir          the directory of the organization folder, {@code null} for a state in memory
+     * @param fullScanInterval the number of scans between two full scans
+     * @return the state
+     */
+    @NonNull
+    public static IncrementalScanState load(@CheckForNull File rootDir, int fullScanInterval) {
+        IncrementalScanState state = null;
+        XmlFile file = null;
+        if (rootDir != null) {
+            file = new XmlFile(Jenkins.XSTREAM2, new File(rootDir, FILE_NAME));
+            if (file.exists()) {
+                try {
+                    state = (IncrementalScanState) file.read();
+                } catch (IOException | ClassCastException e) {
+                    LOGGER.log(Level.WARNING, "Ignore the scan state " + file, e);
+                }
+            }
+        }
+        if (state == null) {
+            state = new IncrementalScanState();
+        }
+        state.file = file;
+        state.fullScan = state.repositories.isEmpty() || state.scansSinceFullScan + 1 >= fullScanInterval;
+        return state;
+    }
+
+    /**
+     * Initialize the transient fields after a deserialization.
+     *
+     * @return this
+     */
+    private Object readResolve() {
+        if (repositories == null) {
+            repositories = new HashMap<>();
+        }
+        seen = new ConcurrentHashMap<>();
+        changed = new AtomicInteger();
+        unchanged = new AtomicInteger();
+        return this;
+    }
+
+    /**
+     * @return {@code true} if all the repositories are checked again
+     */
+    public boolean isFullScan() {
+        return fullScan;
+    }
+
+    /**
+     * Record a repository returned by the API during the current scan.
+     *
+     * @param metadata the metadata of the repository
+     * @return {@code true} if the repository is unchanged since the last successful scan, never during a full scan
+     */
+    public boolean record(@NonNull RepositoryMetadata metadata) {
+        final String repositoryId = metadata.getRepositoryId();
+        if (repositoryId == null) {
+            changed.incrementAndGet();
+            return false;
+        }
+        final Repository previous = repositories.get(repositoryId);
+        final boolean isUnchanged = !fullScan && previous != null
+                && previous.repositoryName.equals(metadata.getRepositoryName())
+                && metadata.getLastModifiedDate() != null
+                && metadata.getLastModifiedDate().equals(previous.lastModifiedDate);
+        seen.put(repositoryId, new Repository(metadata, isUnchanged ? previous.tags : null));
+        (isUnchanged ? unchanged : changed).incrementAndGet();
+        return isUnchanged;
+    }
+
+    /**
+     * @param repositoryId the ID of a repository recorded by the current scan
+     * @return the tags known by the last successful scan, {@code null} if the repository changed or its tags are unknown
+     */
+    @CheckForNull
+    public Map<String, String> getTags(@NonNull String repositoryId) {
+        final Repository repository = seen.get(repositoryId);
+        return repository != null ? repository.tags : null;
+    }
+
+    /**
+     * @param repositoryId the ID of a repository recorded by the current scan
+     * @param tags         the tags returned by the API
+     */
+    public void setTags(@NonNull String repositoryId, @NonNull Map<String, String> tags) {
+        final Repository repository = seen.get(repositoryId);
+        if (repository != null) {
+            repository.tags = new HashMap<>(tags);
+        }
+    }
+
+    /**
+     * @return the number of repositories new or changed since the last successful scan
+     */
+    public int getChanged() {
+        return changed.get();
+    }
+
+    /**
+     * @return the number of repositories unchanged since the last successful scan
+     */
+    public int getUnchanged() {
+        return unchanged.get();
+    }
+
+    /**
+     * Keep the repositories seen by the current scan and persist the state, only after a successful scan.
+     *
+     * @throws IOException if the state could not be written.
+     */
+    public void save() throws IOException {
+        repositories = new HashMap<>(seen);
+        scansSinceFullScan = fullScan ? 0 : scansSinceFullScan + 1;
+        if (file != null) {
+            file.write(this);
+        }
+    }
+
+    /**
+     * A repository as returned by BatchGetRepositories.
+     */
+    private static final class Repository {
+
+        private final String repositoryName;
+
+        @CheckForNull
+        private final Date lastModifiedDate;
+
+        /**
+         * The tags, {@code null} if they were not fetched.
+         */
+        @CheckForNull
+        private volatile Map<String, String> tags;
+
+        Repository(RepositoryMetadata metadata, @CheckForNull Map<String, String> tags) {
+            this.repositoryName = metadata.getRepositoryName();
+            this.lastModifiedDate = metadata.getLastModifiedDate();
+            this.tags = tags;
+        }
+    }
+}
@@ -22,6 +22,7 @@
  */
 package com.jenkins.plugins.awscodecommit.navigator;
 
+import edu.umd.cs.findbugs.annotations.CheckForNull;
 import edu.umd.cs.findbugs.annotations.NonNull;
 import hudson.model.TaskListener;
 import jenkins.scm.api.trait.SCMNavigatorRequest;
@@ -38,14 +39,33 @@ public class LoggerWitness implements SCMNavigatorRequest.Witness {
      */
     private final PrintStream logger;
 
+    /**
+     * The log of the scan, {@code null} to write each project to the logger
+     */
+    @CheckForNull
+    private final ScanLog scanLog;
+
 
     public LoggerWitness(PrintStream logger) {
         this.logger = logger;
+        this.scanLog = null;
+    }
+
+    /**
+     * @param scanLog the log of the scan, which buffers or summarizes the projects
+     */
+    public LoggerWitness(@NonNull ScanLog scanLog) {
+        this.logger = null;
+        this.scanLog = scanLog;
     }
 
     @Override
     public void record(@NonNull String projectName, boolean isMatch) {
-        logger.format("%s = %B%n", projectName, isMatch);
+        if (scanLog != null) {
+            scanLog.record(projectName, isMatch);
+        } else {
+            logger.format("%s = %B%n", projectName, isMatch);
+        }
     }
 
 }
@@ -0,0 +1,152 @@
+/**
+ * The MIT License
+ * Copyright © 2016 Stephane Jeandeaux and all contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.jenkins.plugins.awscodecommit.navigator;
+
+import com.jenkins.plugins.awscodecommit.Messages;
+import edu.umd.cs.findbugs.annotations.CheckForNull;
+import edu.umd.cs.findbugs.annotations.NonNull;
+import hudson.Extension;
+import hudson.util.FormValidation;
+import jenkins.scm.api.SCMNavigator;
+import jenkins.scm.api.trait.SCMNavigatorContext;
+import jenkins.scm.api.trait.SCMNavigatorTrait;
+import jenkins.scm.api.trait.SCMNavigatorTraitDescriptor;
+import jenkins.scm.api.trait.SCMSourcePrefilter;
+import jenkins.scm.impl.trait.Selection;
+import org.jenkinsci.Symbol;
+import org.kohsuke.stapler.DataBoundConstructor;
+import org.kohsuke.stapler.QueryParameter;
+
+/**
+ * Select the repositories with include and exclude rules on their names, see {@link RepositoryNameMatcher}.
+ * A repository is selected if an include rule matches (or if there is no include rule) and no exclude rule matches.
+ * The rules are compiled once by configuration of the navigator.
+ */
+public class RepositoryFilterTrait extends SCMNavigatorTrait {
+
+    /**
+     * The rules of the repositories to include, one by line.
+     */
+    @CheckForNull
+    private final String includes;
+
+    /**
+     * The rules of the repositories to exclude, one by line.
+     */
+    @CheckForNull
+    private final String excludes;
+
+    private transient volatile RepositoryNameMatcher includeMatcher;
+
+    private transient volatile RepositoryNameMatcher excludeMatcher;
+
+    @DataBoundConstructor
+    public RepositoryFilterTrait(@CheckForNull String includes, @CheckForNull String excludes) {
+        this.includes = includes;
+        this.excludes = excludes;
+    }
+
+    @CheckForNull
+    public String getIncludes() {
+        return includes;
+    }
+
+    @CheckForNull
+    public String getExcludes() {
+        return excludes;
+    }
+
+    /**
+     * @param repositoryName the name of a repository
+     * @return {@code true} if the repository is selected
+     */
+    public boolean isMatch(@NonNull String repositoryName) {
+        if (includeMatcher == null || excludeMatcher == null) {
+            //compiled once, the trait is immutable
+            includeMatcher = RepositoryNameMatcher.compile(includes);
+            excludeMatcher = RepositoryNameMatcher.compile(excludes);
+        }
+        return (includeMatcher.isEmpty() || includeMatcher.matches(repositoryName)) && !excludeMatcher.matches(repositoryName);
+    }
+
+    @Override
+    protected void decorateContext(SCMNavigatorContext<?, ?> context) {
+        context.withPrefilter(new SCMSourcePrefilter() {
+            @Override
+            public boolean isExcluded(@NonNull SCMNavigator source, @NonNull String projectName) {
+                return !isMatch(AWSCodeCommitSCMNavigator.toRepositoryName(projectName));
+            }
+        });
+    }
+
+    /**
+     * Our descriptor.
+     */
+    @Symbol("repositoryFilter")
+    @Extension
+    @Selection
+    public static class DescriptorImpl extends SCMNavigatorTraitDescriptor {
+
+        @NonNull
+        @Override
+        public String getDisplayName() {
+            return Messages.RepositoryFilterTrait_DisplayName();
+        }
+
+        @Override
+        public Class<? extends SCMNavigatorContext> getContextClass() {
+            return AWSCodeCommitSCMNavigatorContext.class;
+        }
+
+        /**
+         * Validation of the include rules
+         *
+         * @param includes the rules
+         * @return OK if the rules compile, error with the line if not
+         */
+        @SuppressWarnings("unused") // stapler form binding
+        public FormValidation doCheckIncludes(@QueryParameter String includes) {
+            return checkRules(includes);
+        }
+
+        /**
+         * Validation of the exclude rules
+         *
+         * @param excludes the rules
+         * @return OK if the rules compile, error with the line if not
+         */
+        @SuppressWarnings("unused") // stapler form binding
+        public FormValidation doCheckExcludes(@QueryParameter String excludes) {
+            return checkRules(excludes);
+        }
+
+        private static FormValidation checkRules(String rules) {
+            try {
+                RepositoryNameMatcher.compile(rules);
+                return FormValidation.ok();
+            } catch (IllegalArgumentException e) {
+                return FormValidation.error(e.getMessage());
+            }
+        }
+    }
+}
@@ -0,0 +1,249 @@
+/**
+ * The MIT License
+ * Copyright © 2016 Stephane Jeandeaux and all contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.jenkins.plugins.awscodecommit.navigator;
+
+import com.amazonaws.services.codecommit.model.RepositoryMetadata;
+import edu.umd.cs.findbugs.annotations.CheckForNull;
+import edu.umd.cs.findbugs.annotations.NonNull;
+import hudson.XmlFile;
+import jenkins.model.Jenkins;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Cache of the {@link RepositoryMetadata} by repository ID, persisted next to the configuration of the organization folder.
+ * An entry is only refreshed when its TTL expires or the repository is renamed: ListRepositories does not give the
+ * {@code lastModifiedDate}, so a modification is not seen before the TTL.
+ */
+public class RepositoryMetadataCache {
+
+    private static final Logger LOGGER = Logger.getLogger(RepositoryMetadataCache.class.getName());
+
+    /**
+     * The name of the file in the root directory of the organization folder.
+     */
+    public static final String FILE_NAME = "aws-codecommit-repositories.xml";
+
+    /**
+     * The entries by repository ID.
+     */
+    private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+
+    /**
+     * The time to live of an entry in milliseconds, 0 disables the cache.
+     */
+    private transient long ttl;
+
+    /**
+     * The file where the cache is persisted, {@code null} if only in memory.
+     */
+    @CheckForNull
+    private transient XmlFile file;
+
+    /**
+     * {@see getHits}
+     */
+    private transient AtomicLong hits = new AtomicLong();
+
+    /**
+     * {@see getMisses}
+     */
+    private transient AtomicLong misses = new AtomicLong();
+
+    /**
+     * Initialize a cache in memory.
+     *
+     * @param ttl      the time to live of an entry, 0 disables the cache
+     * @param timeUnit the unit of the time to live
+     */
+    public RepositoryMetadataCache(long ttl, @NonNull TimeUnit timeUnit) {
+        this.ttl = timeUnit.toMillis(ttl);
+    }
+
+    /**
+     * Load the cache persisted in a directory.
+     *
+     * @param rootDir  the directory of the organization folder, {@code null} for a cache in memory
+     * @param ttl      the time to live of an entry, 0 disables the cache
+     * @param timeUnit the unit of the time to live
+     * @return the cache
+     */
+    @NonNull
+    public static RepositoryMetadataCache load(@CheckForNull File rootDir, long ttl, @NonNull TimeUnit timeUnit) {
+        RepositoryMetadataCache cache = null;
+        XmlFile file = null;
+        if (rootDir != null && ttl > 0) {
+            file = new XmlFile(Jenkins.XSTREAM2, new File(rootDir, FILE_NAME));
+            if (file.exists()) {
+                try {
+                    cache = (RepositoryMetadataCache) file.read();
+                } catch (IOException | ClassCastException e) {
+                    LOGGER.log(Level.WARNING, "Ignore the cache " + file, e);
+                }
+            }
+        }
+        if (cache == null) {
+            cache = new RepositoryMetadataCache(ttl, timeUnit);
+        }
+        cache.ttl = timeUnit.toMillis(ttl);
+        cache.file = file;
+        return cache;
+    }
+
+    /**
+     * Initialize the transient fields after a deserialization.
+     *
+     * @return this
+     */
+    private Object readResolve() {
+        hits = new AtomicLong();
+        misses = new AtomicLong();
+        return this;
+    }
+
+    /**
+     * Get a valid entry.
+     *
+     * @param repositoryId   the repository ID
+     * @param repositoryName the repository name, a renamed repository is a miss
+     * @return the entry, {@code null} if it is missing or expired
+     */
+    @CheckForNull
+    public Entry get(@NonNull String repositoryId, @NonNull String repositoryName) {
+        final Entry entry = entries.get(repositoryId);
+        if (entry != null && entry.repositoryName.equals(repositoryName) && !isExpired(entry, System.currentTimeMillis())) {
+            hits.incrementAndGet();
+            return entry;
+        }
+        misses.incrementAndGet();
+        return null;
+    }
+
+    /**
+     * Store the metadata returned by the API, the previous entry is replaced.
+     *
+     * @param metadata the metadata of the repository
+     * @return the entry
+     */
+    @NonNull
+    public Entry put(@NonNull RepositoryMetadata metadata) {
+        final Entry entry = new Entry(metadata, System.currentTimeMillis());
+        if (ttl > 0 && metadata.getRepositoryId() != null) {
+            entries.put(metadata.getRepositoryId(), entry);
+        }
+        return entry;
+    }
+
+    /**
+     * Remove the expired entries and persist the cache.
+     *
+     * @throws IOException if the cache could not be written.
+     */
+    public void save() throws IOException {
+        final long now = System.currentTimeMillis();
+        for (Iterator<Entry> it = entries.values().iterator(); it.hasNext(); ) {
+            if (isExpired(it.next(), now)) {
+                it.remove();
+            }
+        }
+        if (file != null) {
+            file.write(this);
+        }
+    }
+
+    private boolean isExpired(Entry entry, long now) {
+        return now - entry.fetched >= ttl;
+    }
+
+    /**
+     * @return the number of lookups served by the cache
+     */
+    public long getHits() {
+        return hits.get();
+    }
+
+    /**
+     * @return the number of lookups which need a call to the API
+     */
+    public long getMisses() {
+        return misses.get();
+    }
+
+    /**
+     * @return the number of entries
+     */
+    public int size() {
+        return entries.size();
+    }
+
+    /**
+     * The metadata needed to create a source.
+     */
+    public static final class Entry {
+
+        private final String repositoryName;
+
+        private final String arn;
+
+        private final String cloneUrlHttp;
+
+        private final String cloneUrlSsh;
+
+        /**
+         * When the metadata was fetched.
+         */
+        private final long fetched;
+
+        private Entry(RepositoryMetadata metadata, long fetched) {
+            this.repositoryName = metadata.getRepositoryName();
+            this.arn = metadata.getArn();
+            this.cloneUrlHttp = metadata.getCloneUrlHttp();
+            this.cloneUrlSsh = metadata.getCloneUrlSsh();
+            this.fetched = fetched;
+        }
+
+        public String getRepositoryName() {
+            return repositoryName;
+        }
+
+        public String getArn() {
+            return arn;
+        }
+
+        /**
+         * @param cloneSsh the type of clone
+         * @return the remote for git
+         */
+        public String getCloneUrl(boolean cloneSsh) {
+            return cloneSsh ? cloneUrlSsh : cloneUrlHttp;
+        }
+    }
+}
@@ -0,0 +1,223 @@
+/**
+ * The MIT License
+ * Copyright © 2016 Stephane Jeandeaux and all contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.jenkins.plugins.awscodecommit.navigator;
+
+import edu.umd.cs.findbugs.annotations.CheckForNull;
+import edu.umd.cs.findbugs.annotations.NonNull;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Pattern;
+import java.util.regex.PatternSyntaxException;
+
+/**
+ * Compiled rules on the names of the repositories, one rule by line:
+ * <ul>
+ *     <li>{@code prefix:team-} the names starting with {@code team-}</li>
+ *     <li>{@code regex:team-(a|b)-.*} the names matching the whole regex</li>
+ *     <li>{@code glob:team-*-api} or {@code team-*-api} the names matching the glob ({@code *} any characters, {@code ?} one)</li>
+ * </ul>
+ * The exact names are kept in a set, the prefixes (and the globs ending with their only {@code *}) in a trie,
+ * and all the other rules are combined in one regex, so a name is checked in one pass whatever the number of rules.
+ */
+public final class RepositoryNameMatcher {
+
+    public static final String PREFIX = "prefix:";
+
+    public static final String REGEX = "regex:";
+
+    public static final String GLOB = "glob:";
+
+    /**
+     * The matcher without rule.
+     */
+    private static final RepositoryNameMatcher EMPTY = new RepositoryNameMatcher(new HashSet<String>(), new Node(), null);
+
+    private final Set<String> names;
+
+    private final Node prefixes;
+
+    @CheckForNull
+    private final Pattern pattern;
+
+    private RepositoryNameMatcher(Set<String> names, Node prefixes, @CheckForNull Pattern pattern) {
+        this.names = names;
+        this.prefixes = prefixes;
+        this.pattern = pattern;
+    }
+
+    /**
+     * Compile the rules.
+     *
+     * @param rules the rules, one by line, the blank lines and the lines starting with {@code #} are ignored
+     * @return the matcher
+     * @throws IllegalArgumentException if a regex is invalid, the message has the number of the line.
+     */
+    @NonNull
+    public static RepositoryNameMatcher compile(@CheckForNull String rules) {
+        if (rules == null || rules.trim().isEmpty()) {
+            return EMPTY;
+        }
+        final Set<String> names = new HashSet<>();
+        final Node prefixes = new Node();
+        final List<String> regexes = new ArrayList<>();
+
+        final String[] lines = rules.split("\\r?\\n");
+        for (int i = 0; i < lines.length; i++) {
+            final String line = lines[i].trim();
+            if (line.isEmpty() || line.startsWith("#")) {
+                continue;
+            }
+            if (line.startsWith(PREFIX)) {
+                prefixes.add(line.substring(PREFIX.length()));
+            } else if (line.startsWith(REGEX)) {
+                final String regex = line.substring(REGEX.length());
+                try {
+                    Pattern.compile(regex);
+                } catch (PatternSyntaxException e) {
+                    throw new IllegalArgumentException("Line " + (i + 1) + ": " + e.getDescription() + " " + regex, e);
+                }
+                regexes.add(regex);
+            } else {
+                final String glob = line.startsWith(GLOB) ? line.substring(GLOB.length()) : line;
+                final int wildcard = indexOfWildcard(glob);
+                if (wildcard < 0) {
+                    names.add(glob);
+                } else if (wildcard == glob.length() - 1 && glob.charAt(wildcard) == '*') {
+                    prefixes.add(glob.substring(0, wildcard));
+                } else {
+                    regexes.add(globToRegex(glob));
+                }
+            }
+        }
+        return new RepositoryNameMatcher(names, prefixes, combine(regexes));
+    }
+
+    /**
+     * @param name the name of a repository
+     * @return {@code true} if a rule matches the name
+     */
+    public boolean matches(@NonNull String name) {
+        return names.contains(name) || prefixes.matchesPrefix(name) || (pattern != null && pattern.matcher(name).matches());
+    }
+
+    /**
+     * @return {@code true} if there is no rule
+     */
+    public boolean isEmpty() {
+        return names.isEmpty() && prefixes.isEmpty() && pattern == null;
+    }
+
+    private static int indexOfWildcard(String glob) {
+        for (int i = 0; i < glob.length(); i++) {
+            final char c = glob.charAt(i);
+            if (c == '*' || c == '?') {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private static String globToRegex(String glob) {
+        final StringBuilder regex = new StringBuilder();
+        int literal = 0;
+        for (int i = 0; i < glob.length(); i++) {
+            final char c = glob.charAt(i);
+            if (c == '*' || c == '?') {
+                if (literal < i) {
+                    regex.append(Pattern.quote(glob.substring(literal, i)));
+                }
+                regex.append(c == '*' ? ".*" : ".");
+                literal = i + 1;
+            }
+        }
+        if (literal < glob.length()) {
+            regex.append(Pattern.quote(glob.substring(literal)));
+        }
+        return regex.toString();
+    }
+
+    /**
+     * @param regexes the regexes
+     * @return one regex matching if one of the regexes matches, {@code null} if there is no regex
+     */
+    @CheckForNull
+    private static Pattern combine(List<String> regexes) {
+        if (regexes.isEmpty()) {
+            return null;
+        }
+        final StringBuilder combined = new StringBuilder();
+        for (String regex : regexes) {
+            if (combined.length() > 0) {
+                combined.append('|');
+            }
+            combined.append("(?:").append(regex).append(')');
+        }
+        return Pattern.compile(combined.toString());
+    }
+
+    /**
+     * A node of the trie of the prefixes.
+     */
+    private static final class Node {
+
+        private final Map<Character, Node> children = new HashMap<>();
+
+        private boolean terminal;
+
+        void add(String prefix) {
+            Node node = this;
+            for (int i = 0; i < prefix.length(); i++) {
+                Node child = node.children.get(prefix.charAt(i));
+                if (child == null) {
+                    child = new Node();
+                    node.children.put(prefix.charAt(i), child);
+                }
+                node = child;
+            }
+            node.terminal = true;
+        }
+
+        boolean matchesPrefix(String name) {
+            Node node = this;
+            for (int i = 0; node != null; i++) {
+                if (node.terminal) {
+                    return true;
+                }
+                if (i == name.length()) {
+                    return false;
+                }
+                node = node.children.get(name.charAt(i));
+            }
+            return false;
+        }
+
+        boolean isEmpty() {
+            return !terminal && children.isEmpty();
+        }
+    }
+}
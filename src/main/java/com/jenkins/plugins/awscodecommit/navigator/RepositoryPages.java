@@ -0,0 +1,167 @@
+/**
+ * The MIT License
+ * Copyright © 2016 Stephane Jeandeaux and all contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.jenkins.plugins.awscodecommit.navigator;
+
+import com.amazonaws.services.codecommit.AWSCodeCommit;
+import com.amazonaws.services.codecommit.model.ListRepositoriesRequest;
+import com.amazonaws.services.codecommit.model.ListRepositoriesResult;
+import com.amazonaws.services.codecommit.model.RepositoryNameIdPair;
+import edu.umd.cs.findbugs.annotations.CheckForNull;
+import edu.umd.cs.findbugs.annotations.NonNull;
+import hudson.util.DaemonThreadFactory;
+import hudson.util.NamingThreadFactory;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Fetch the pages of ListRepositories ahead of their processing.
+ * A dedicated thread follows the next tokens and waits when {@code prefetchDepth} pages are not consumed yet.
+ */
+public class RepositoryPages implements Closeable {
+
+    /**
+     * Number of pages fetched ahead by default.
+     */
+    public static final int DEFAULT_PREFETCH_DEPTH = 2;
+
+    /**
+     * Marker of the last page.
+     */
+    private static final Page END = new Page(null, null);
+
+    /**
+     * The pages fetched and not consumed yet.
+     */
+    private final BlockingQueue<Page> pages;
+
+    /**
+     * The thread which fetches the pages.
+     */
+    private final ExecutorService producer;
+
+    /**
+     * {@code true} when {@link #END} or a failure was consumed.
+     */
+    private boolean done;
+
+    /**
+     * Start to fetch the pages.
+     *
+     * @param client        the client AWS
+     * @param prefetchDepth the number of pages fetched ahead
+     */
+    public RepositoryPages(@NonNull final AWSCodeCommit client, int prefetchDepth) {
+        this.pages = new ArrayBlockingQueue<>(Math.max(1, prefetchDepth));
+        this.producer = Executors.newSingleThreadExecutor(
+                new NamingThreadFactory(new DaemonThreadFactory(), RepositoryPages.class.getSimpleName()));
+        this.producer.submit(new Runnable() {
+            @Override
+            public void run() {
+                fetch(client);
+            }
+        });
+    }
+
+    /**
+     * Follow the next tokens until the last page.
+     *
+     * @param client the client AWS
+     */
+    private void fetch(AWSCodeCommit client) {
+        final ListRepositoriesRequest listRequest = new ListRepositoriesRequest();
+        try {
+            try {
+                do {
+                    final ListRepositoriesResult result = client.listRepositories(listRequest);
+                    pages.put(new Page(result.getRepositories(), null));
+                    listRequest.setNextToken(result.getNextToken());
+                } while (listRequest.getNextToken() != null);
+                pages.put(END);
+            } catch (RuntimeException | Error e) {
+                pages.put(new Page(null, e));
+            }
+        } catch (InterruptedException e) {
+            //closed by the consumer
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Wait the next page.
+     *
+     * @return the repositories of the next page, {@code null} after the last page
+     * @throws IOException          if the page could not be fetched.
+     * @throws InterruptedException if the operation was interrupted.
+     */
+    @CheckForNull
+    public List<RepositoryNameIdPair> next() throws IOException, InterruptedException {
+        if (done) {
+            return null;
+        }
+        final Page page = pages.take();
+        if (page == END) {
+            done = true;
+            return null;
+        }
+        if (page.failure != null) {
+            done = true;
+            if (page.failure instanceof RuntimeException) {
+                throw (RuntimeException) page.failure;
+            }
+            if (page.failure instanceof Error) {
+                throw (Error) page.failure;
+            }
+            throw new IOException(page.failure);
+        }
+        return page.repositories;
+    }
+
+    /**
+     * Stop to fetch the pages.
+     */
+    @Override
+    public void close() {
+        producer.shutdownNow();
+    }
+
+    /**
+     * A page or the failure to fetch it.
+     */
+    private static final class Page {
+
+        private final List<RepositoryNameIdPair> repositories;
+
+        private final Throwable failure;
+
+        private Page(List<RepositoryNameIdPair> repositories, Throwable failure) {
+            this.repositories = repositories;
+            this.failure = failure;
+        }
+    }
+}
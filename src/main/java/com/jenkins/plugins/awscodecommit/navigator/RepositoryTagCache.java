@@ -0,0 +1,116 @@
+/**
+ * The MIT License
+ * Copyright © 2016 Stephane Jeandeaux and all contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.jenkins.plugins.awscodecommit.navigator;
+
+import edu.umd.cs.findbugs.annotations.CheckForNull;
+import edu.umd.cs.findbugs.annotations.NonNull;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * The tags of the repositories by ARN, shared by all the scans of the JVM,
+ * so a steady-state scan only calls ListTagsForResource for the repositories whose tags expired.
+ * The ARN identifies a repository across the regions and the accounts.
+ */
+public final class RepositoryTagCache {
+
+    private static final RepositoryTagCache INSTANCE = new RepositoryTagCache();
+
+    private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+
+    private RepositoryTagCache() {}
+
+    /**
+     * @return the cache of the JVM
+     */
+    @NonNull
+    public static RepositoryTagCache get() {
+        return INSTANCE;
+    }
+
+    /**
+     * @param arn the ARN of the repository
+     * @param ttl the time to live of the tags in milliseconds
+     * @return the tags, {@code null} if missing or expired
+     */
+    @CheckForNull
+    public Map<String, String> get(@NonNull String arn, long ttl) {
+        final Entry entry = entries.get(arn);
+        if (entry == null || System.currentTimeMillis() - entry.fetched >= ttl) {
+            return null;
+        }
+        return entry.tags;
+    }
+
+    /**
+     * @param arn  the ARN of the repository
+     * @param tags the tags returned by the API
+     */
+    public void put(@NonNull String arn, @NonNull Map<String, String> tags) {
+        entries.put(arn, new Entry(Collections.unmodifiableMap(new HashMap<>(tags)), System.currentTimeMillis()));
+    }
+
+    /**
+     * Remove the expired tags.
+     *
+     * @param ttl the time to live of the tags in milliseconds
+     */
+    public void prune(long ttl) {
+        final long now = System.currentTimeMillis();
+        for (Iterator<Entry> it = entries.values().iterator(); it.hasNext(); ) {
+            if (now - it.next().fetched >= ttl) {
+                it.remove();
+            }
+        }
+    }
+
+    /**
+     * Remove all the tags.
+     */
+    public void clear() {
+        entries.clear();
+    }
+
+    /**
+     * @return the number of repositories with tags
+     */
+    public int size() {
+        return entries.size();
+    }
+
+    private static final class Entry {
+
+        private final Map<String, String> tags;
+
+        private final long fetched;
+
+        Entry(Map<String, String> tags, long fetched) {
+            this.tags = tags;
+            this.fetched = fetched;
+        }
+    }
+}
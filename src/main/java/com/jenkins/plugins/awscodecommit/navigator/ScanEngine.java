@@ -0,0 +1,48 @@
+/**
+ * The MIT License
+ * Copyright © 2016 Stephane Jeandeaux and all contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.jenkins.plugins.awscodecommit.navigator;
+
+/**
+ * The engines of the scan of a navigator.
+ */
+public enum ScanEngine {
+    /**
+     * The repositories are resolved by a pool of workers with the synchronous client, one thread by call.
+     */
+    BLOCKING,
+    /**
+     * The repositories are resolved with the asynchronous client and processed in the order of the listing.
+     */
+    ASYNC_ORDERED,
+    /**
+     * The repositories are resolved with the asynchronous client and processed as soon as their batch is resolved.
+     */
+    ASYNC_UNORDERED;
+
+    /**
+     * @return {@code true} if the engine uses the asynchronous client
+     */
+    public boolean isAsync() {
+        return this != BLOCKING;
+    }
+}
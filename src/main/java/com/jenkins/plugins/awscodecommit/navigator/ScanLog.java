@@ -0,0 +1,270 @@
+/**
+ * The MIT License
+ * Copyright © 2016 Stephane Jeandeaux and all contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.jenkins.plugins.awscodecommit.navigator;
+
+import edu.umd.cs.findbugs.annotations.NonNull;
+
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The log of a scan, written to the listener by blocks instead of line by line.
+ * <ul>
+ *     <li>{@link Level#VERBOSE} writes one line by repository</li>
+ *     <li>{@link Level#SUMMARY} only writes the errors, one repository line on {@code sampling},
+ *     then the counts by outcome and the slowest repositories at the end of the scan</li>
+ * </ul>
+ */
+public class ScanLog {
+
+    /**
+     * The level of details of the log.
+     */
+    public enum Level {
+        VERBOSE, SUMMARY
+    }
+
+    /**
+     * The buffered lines are written once this size is reached.
+     */
+    private static final int BUFFER_SIZE = 8192;
+
+    /**
+     * By default the 10 slowest repositories are in the summary.
+     */
+    public static final int DEFAULT_SLOWEST = 10;
+
+    private static final Comparator<Timing> FASTEST_FIRST = new Comparator<Timing>() {
+        @Override
+        public int compare(Timing o1, Timing o2) {
+            return Long.compare(o1.nanos, o2.nanos);
+        }
+    };
+
+    private final PrintStream out;
+
+    private final Level level;
+
+    /**
+     * One repository line on this number is written in summary, 0 for none.
+     */
+    private final int sampling;
+
+    private final int slowest;
+
+    private final StringBuilder buffer = new StringBuilder();
+
+    /**
+     * The number of repositories by outcome.
+     */
+    private final Map<String, Integer> counts = new LinkedHashMap<>();
+
+    /**
+     * The slowest repositories, the fastest one first.
+     */
+    private final PriorityQueue<Timing> timings;
+
+    private long lines;
+
+    /**
+     * The timers of the scan.
+     */
+    private final ScanMetrics metrics = new ScanMetrics();
+
+    /**
+     * @param out      the log of the listener
+     * @param level    the level of details
+     * @param sampling one repository line on this number is written in summary, 0 for none
+     * @param slowest  the number of slowest repositories in the summary
+     */
+    public ScanLog(@NonNull PrintStream out, @NonNull Level level, int sampling, int slowest) {
+        this.out = out;
+        this.level = level;
+        this.sampling = Math.max(0, sampling);
+        this.slowest = Math.max(0, slowest);
+        this.timings = new PriorityQueue<>(Math.max(1, this.slowest), FASTEST_FIRST);
+    }
+
+    /**
+     * @param out the log of the listener
+     * @return a log with one line by repository
+     */
+    @NonNull
+    public static ScanLog verbose(@NonNull PrintStream out) {
+        return new ScanLog(out, Level.VERBOSE, 0, DEFAULT_SLOWEST);
+    }
+
+    /**
+     * @return the level of details
+     */
+    @NonNull
+    public Level getLevel() {
+        return level;
+    }
+
+    /**
+     * @return the timers of the scan, started with the log
+     */
+    @NonNull
+    public ScanMetrics getMetrics() {
+        return metrics;
+    }
+
+    /**
+     * Write a line whatever the level.
+     *
+     * @param format the format of the line
+     * @param args   the arguments of the format
+     */
+    public synchronized void printf(@NonNull String format, Object... args) {
+        append(String.format(format, args));
+    }
+
+    /**
+     * Write an error whatever the level, and count it.
+     *
+     * @param repository the repository
+     * @param outcome    the error
+     */
+    public synchronized void error(@NonNull Object repository, @NonNull String outcome) {
+        count(outcome);
+        append(repository + " - " + outcome + String.format("%n"));
+    }
+
+    /**
+     * Count the outcome of a repository, and write it in verbose or if sampled.
+     *
+     * @param repository the repository
+     * @param outcome    the outcome, {@code matches} for instance
+     */
+    public synchronized void repository(@NonNull Object repository, @NonNull String outcome) {
+        count(outcome);
+        lines++;
+        if (level == Level.VERBOSE || (sampling > 0 && lines % sampling == 0)) {
+            append(repository + " - " + outcome + String.format("%n"));
+        }
+    }
+
+    /**
+     * Record the decision of the request on a project, see {@link LoggerWitness}.
+     *
+     * @param projectName the project
+     * @param isMatch     {@code true} if the project is kept
+     */
+    public synchronized void record(@NonNull String projectName, boolean isMatch) {
+        count(isMatch ? "projects" : "projects ignored");
+        if (level == Level.VERBOSE) {
+            append(String.format("%s = %B%n", projectName, isMatch));
+        }
+    }
+
+    /**
+     * Record the time to process a repository.
+     *
+     * @param repositoryName the repository
+     * @param nanos          the duration in nanoseconds
+     */
+    public synchronized void processed(@NonNull String repositoryName, long nanos) {
+        if (slowest == 0) {
+            return;
+        }
+        if (timings.size() < slowest) {
+            timings.add(new Timing(repositoryName, nanos));
+        } else if (timings.peek().nanos < nanos) {
+            timings.poll();
+            timings.add(new Timing(repositoryName, nanos));
+        }
+    }
+
+    /**
+     * @param outcome an outcome
+     * @return the number of repositories with this outcome
+     */
+    public synchronized int getCount(@NonNull String outcome) {
+        final Integer count = counts.get(outcome);
+        return count != null ? count : 0;
+    }
+
+    /**
+     * Write the counts and the slowest repositories in summary, then write the buffer.
+     */
+    public synchronized void summary() {
+        if (level == Level.SUMMARY) {
+            final StringBuilder line = new StringBuilder("repositories -");
+            for (Map.Entry<String, Integer> count : counts.entrySet()) {
+                line.append(' ').append(count.getKey()).append(": ").append(count.getValue());
+            }
+            append(line.append(String.format("%n")).toString());
+
+            final List<Timing> sorted = new ArrayList<>(timings);
+            Collections.sort(sorted, Collections.reverseOrder(FASTEST_FIRST));
+            for (Timing timing : sorted) {
+                append(String.format(Locale.ENGLISH, "slowest - %s %d ms%n", timing.repositoryName,
+                        TimeUnit.NANOSECONDS.toMillis(timing.nanos)));
+            }
+        }
+        flush();
+    }
+
+    /**
+     * Write the buffer to the listener.
+     */
+    public synchronized void flush() {
+        if (buffer.length() > 0) {
+            out.print(buffer);
+            buffer.setLength(0);
+        }
+    }
+
+    private void count(String outcome) {
+        final Integer count = counts.get(outcome);
+        counts.put(outcome, count == null ? 1 : count + 1);
+    }
+
+    private void append(String text) {
+        buffer.append(text);
+        if (buffer.length() >= BUFFER_SIZE) {
+            flush();
+        }
+    }
+
+    private static final class Timing {
+
+        private final String repositoryName;
+
+        private final long nanos;
+
+        Timing(String repositoryName, long nanos) {
+            this.repositoryName = repositoryName;
+            this.nanos = nanos;
+        }
+    }
+}
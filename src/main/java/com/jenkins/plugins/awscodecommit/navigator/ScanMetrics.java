@@ -0,0 +1,205 @@
+/**
+ * The MIT License
+ * Copyright © 2016 Stephane Jeandeaux and all contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.jenkins.plugins.awscodecommit.navigator;
+
+import com.amazonaws.services.codecommit.AWSCodeCommit;
+import com.jenkins.plugins.awscodecommit.CodeCommitApiMetrics;
+import edu.umd.cs.findbugs.annotations.NonNull;
+
+import java.util.Locale;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * The timers of a scan by phase and its calls to the API, summarized at the end of the scan log.
+ * The phases run by the workers are cumulated, so they can be longer than the scan.
+ * The totals of all the scans of the JVM are published by {@link com.jenkins.plugins.awscodecommit.AWSCodeCommitMetricProvider}.
+ */
+public class ScanMetrics {
+
+    public static final String CREDENTIALS = "credentials";
+
+    public static final String LIST = "list repositories";
+
+    public static final String PREFETCH = "prefetch";
+
+    public static final String TAGS = "tags";
+
+    public static final String CREATE = "create sources";
+
+    public static final String PROCESS = "process";
+
+    private static final AtomicLong SCANS = new AtomicLong();
+
+    private static final AtomicLong SCAN_MILLIS = new AtomicLong();
+
+    private static final AtomicLong LAST_SCAN_MILLIS = new AtomicLong();
+
+    private static final AtomicLong REPOSITORIES = new AtomicLong();
+
+    private final long start = System.nanoTime();
+
+    /**
+     * The calls to the API of this scan only.
+     */
+    private final CodeCommitApiMetrics api = new CodeCommitApiMetrics();
+
+    /**
+     * Nanoseconds by phase, in the order of the phases.
+     */
+    private final ConcurrentMap<String, AtomicLong> phases = new ConcurrentHashMap<>();
+
+    /**
+     * A running phase, closed to stop its timer.
+     */
+    public final class Phase implements AutoCloseable {
+
+        private final String name;
+
+        private final long phaseStart = System.nanoTime();
+
+        private Phase(String name) {
+            this.name = name;
+        }
+
+        @Override
+        public void close() {
+            add(name, System.nanoTime() - phaseStart);
+        }
+    }
+
+    /**
+     * Start a phase.
+     *
+     * @param name the phase
+     * @return the phase to close when it ends
+     */
+    @NonNull
+    public Phase phase(@NonNull String name) {
+        return new Phase(name);
+    }
+
+    /**
+     * Add a duration to a phase.
+     *
+     * @param name  the phase
+     * @param nanos the duration
+     */
+    public void add(@NonNull String name, long nanos) {
+        AtomicLong phase = phases.get(name);
+        if (phase == null) {
+            final AtomicLong created = new AtomicLong();
+            phase = phases.putIfAbsent(name, created);
+            if (phase == null) {
+                phase = created;
+            }
+        }
+        phase.addAndGet(nanos);
+    }
+
+    /**
+     * @param name the phase
+     * @return the duration of the phase in milliseconds
+     */
+    public long getPhaseMillis(@NonNull String name) {
+        final AtomicLong phase = phases.get(name);
+        return phase != null ? TimeUnit.NANOSECONDS.toMillis(phase.get()) : 0;
+    }
+
+    /**
+     * @param client a client, shared by the scans or not
+     * @return the client counting its calls in the summary of this scan
+     */
+    @NonNull
+    public AWSCodeCommit scope(@NonNull AWSCodeCommit client) {
+        return api.scope(client);
+    }
+
+    /**
+     * @return the calls to the API of this scan
+     */
+    @NonNull
+    public CodeCommitApiMetrics.Snapshot getApi() {
+        return api.snapshot();
+    }
+
+    /**
+     * End the scan and write its summary.
+     *
+     * @param scanLog the log of the scan
+     */
+    public void summary(@NonNull ScanLog scanLog) {
+        final long millis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        SCANS.incrementAndGet();
+        SCAN_MILLIS.addAndGet(millis);
+        LAST_SCAN_MILLIS.set(millis);
+        REPOSITORIES.addAndGet(scanLog.getCount("matches"));
+
+        final StringBuilder line = new StringBuilder(String.format(Locale.ENGLISH, "scan metrics - duration: %d ms", millis));
+        for (String name : new String[]{CREDENTIALS, LIST, PREFETCH, TAGS, CREATE, PROCESS}) {
+            if (phases.containsKey(name)) {
+                line.append(String.format(Locale.ENGLISH, ", %s: %d ms", name, getPhaseMillis(name)));
+            }
+        }
+        line.append(String.format(Locale.ENGLISH, ", repositories matched: %d skipped: %d",
+                scanLog.getCount("matches"), scanLog.getCount("no matches") + scanLog.getCount("excluded by tags")));
+        scanLog.printf("%s%n", line);
+
+        final CodeCommitApiMetrics.Snapshot calls = getApi();
+        for (String operation : calls.getOperations()) {
+            scanLog.printf("api %s - calls: %d errors: %d throttles: %d p50: %d ms p99: %d ms%n", operation,
+                    calls.getCalls(operation), calls.getErrors(operation), calls.getThrottles(operation),
+                    calls.getLatency(operation, 0.5), calls.getLatency(operation, 0.99));
+        }
+    }
+
+    /**
+     * @return the number of scans of the JVM
+     */
+    public static long getScans() {
+        return SCANS.get();
+    }
+
+    /**
+     * @return the duration of all the scans of the JVM in milliseconds
+     */
+    public static long getScanMillis() {
+        return SCAN_MILLIS.get();
+    }
+
+    /**
+     * @return the duration of the last scan in milliseconds
+     */
+    public static long getLastScanMillis() {
+        return LAST_SCAN_MILLIS.get();
+    }
+
+    /**
+     * @return the number of repositories matched by all the scans of the JVM
+     */
+    public static long getRepositories() {
+        return REPOSITORIES.get();
+    }
+}
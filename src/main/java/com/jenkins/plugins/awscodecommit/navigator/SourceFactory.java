@@ -23,13 +23,32 @@
 package com.jenkins.plugins.awscodecommit.navigator;
 
 import com.amazonaws.services.codecommit.AWSCodeCommit;
+import com.amazonaws.services.codecommit.model.BatchGetRepositoriesRequest;
+import com.amazonaws.services.codecommit.model.BatchGetRepositoriesResult;
 import com.amazonaws.services.codecommit.model.GetRepositoryRequest;
 import com.amazonaws.services.codecommit.model.GetRepositoryResult;
+import com.amazonaws.services.codecommit.model.ListTagsForResourceRequest;
+import com.amazonaws.services.codecommit.model.ListTagsForResourceResult;
+import com.amazonaws.services.codecommit.model.RepositoryDoesNotExistException;
+import com.amazonaws.services.codecommit.model.RepositoryMetadata;
+import com.amazonaws.services.codecommit.model.RepositoryNameIdPair;
+import edu.umd.cs.findbugs.annotations.CheckForNull;
 import edu.umd.cs.findbugs.annotations.NonNull;
 import jenkins.scm.api.SCMSource;
 import jenkins.scm.api.trait.SCMNavigatorRequest;
 
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * The main goal of this class is to build a {@link SCMSource}
@@ -41,6 +60,11 @@ public class SourceFactory implements SCMNavigatorRequest.SourceLambda {
      */
     public static final String SEPARATOR_ID = "::";
 
+    /**
+     * Maximum number of repositories for one call to BatchGetRepositories.
+     */
+    public static final int MAX_BATCH_SIZE = 25;
+
     /**
      * the id used like prefix for id scm source.
      */
@@ -51,6 +75,80 @@ public class SourceFactory implements SCMNavigatorRequest.SourceLambda {
      */
     private final AWSCodeCommitSCMNavigatorRequest request;
 
+    /**
+     * The metadata kept between the scans.
+     */
+    private final RepositoryMetadataCache cache;
+
+    /**
+     * The metadata resolved by {@link #prefetch(AWSCodeCommit, Collection)}, by repository name.
+     */
+    private final Map<String, RepositoryMetadataCache.Entry> prefetched = new ConcurrentHashMap<>();
+
+    /**
+     * The repositories excluded by the {@link TagFilter} of the request.
+     */
+    private final Set<String> excludedByTags = Collections.newSetFromMap(new ConcurrentHashMap<String, Boolean>());
+
+    /**
+     * {@see getTagLookups}
+     */
+    private final AtomicInteger tagLookups = new AtomicInteger();
+
+    /**
+     * The timers of the scan, {@code null} if not measured.
+     */
+    @CheckForNull
+    private ScanMetrics metrics;
+
+    /**
+     * The repositories of the last successful scan, {@code null} if the scan is not incremental.
+     */
+    @CheckForNull
+    private IncrementalScanState scanState;
+
+    /**
+     * The client of the region of the repositories, {@code null} for the client of the request.
+     */
+    @CheckForNull
+    private AWSCodeCommit awsCodeCommit;
+
+    /**
+     * The region qualifying the project names, {@code null} if they are not qualified.
+     */
+    @CheckForNull
+    private String region;
+
+    /**
+     * The account qualifying the project names, {@code null} if they are not qualified.
+     */
+    @CheckForNull
+    private String account;
+
+    /**
+     * The clone URLs derived without the API, {@code null} if they are read from the metadata.
+     */
+    @CheckForNull
+    private CloneUrls cloneUrls;
+
+    /**
+     * The region of the API of the sources, {@code null} if they discover their branches with git.
+     */
+    @CheckForNull
+    private String apiRegion;
+
+    /**
+     * The credentials for the API of the sources.
+     */
+    @CheckForNull
+    private String awsCredentialsId;
+
+    /**
+     * The role assumed from the credentials for the API of the sources.
+     */
+    @CheckForNull
+    private String roleArn;
+
     /**
      * Constructor
      *
@@ -58,23 +156,308 @@ public class SourceFactory implements SCMNavigatorRequest.SourceLambda {
      * @param request the request contains information on SCMSource.
      */
     public SourceFactory(String id, AWSCodeCommitSCMNavigatorRequest request) {
+        this(id, request, new RepositoryMetadataCache(0, TimeUnit.MILLISECONDS));
+    }
+
+    /**
+     * Constructor
+     *
+     * @param id      the id used like prefix for id scm source.
+     * @param request the request contains information on SCMSource.
+     * @param cache   the metadata kept between the scans.
+     */
+    public SourceFactory(String id, AWSCodeCommitSCMNavigatorRequest request, @NonNull RepositoryMetadataCache cache) {
         this.id = id;
         this.request = request;
+        this.cache = cache;
+    }
+
+    /**
+     * Measure the creation of the sources.
+     *
+     * @param metrics the timers of the scan
+     * @return this
+     */
+    @NonNull
+    public SourceFactory withMetrics(@CheckForNull ScanMetrics metrics) {
+        this.metrics = metrics;
+        return this;
+    }
+
+    /**
+     * Compare the repositories with the last successful scan, so the unchanged ones get their tags without the API.
+     * All the repositories are fetched with BatchGetRepositories to get their {@code lastModifiedDate}.
+     *
+     * @param scanState the repositories of the last successful scan, {@code null} if the scan is not incremental
+     * @return this
+     */
+    @NonNull
+    public SourceFactory withScanState(@CheckForNull IncrementalScanState scanState) {
+        this.scanState = scanState;
+        return this;
+    }
+
+    /**
+     * Use the client of the region of the repositories, for a navigator on several regions.
+     *
+     * @param awsCodeCommit the client on API Code commit
+     * @return this
+     */
+    @NonNull
+    public SourceFactory withAwsCodeCommit(@CheckForNull AWSCodeCommit awsCodeCommit) {
+        this.awsCodeCommit = awsCodeCommit;
+        return this;
+    }
+
+    /**
+     * Qualify the project names by the region, so the same repository name in two regions does not collide.
+     *
+     * @param region the region, {@code null} if the names are not qualified
+     * @return this
+     */
+    @NonNull
+    public SourceFactory withRegion(@CheckForNull String region) {
+        this.region = region;
+        return this;
+    }
+
+    /**
+     * Qualify the project names by the account, so the same repository name in two accounts does not collide.
+     * The names qualified by the account are also qualified by the region.
+     *
+     * @param account the account, {@code null} if the names are not qualified
+     * @return this
+     */
+    @NonNull
+    public SourceFactory withAccount(@CheckForNull String account) {
+        this.account = account;
+        return this;
+    }
+
+    /**
+     * Derive the clone URLs from the region and the name of the repositories, so the listed repositories are created
+     * without any call to the API. The metadata is still fetched when the tags of the repositories are filtered.
+     *
+     * @param cloneUrls the clone URLs of the region, {@code null} to read them from the metadata
+     * @return this
+     */
+    @NonNull
+    public SourceFactory withCloneUrls(@CheckForNull CloneUrls cloneUrls) {
+        this.cloneUrls = cloneUrls;
+        return this;
+    }
+
+    /**
+     * Create sources which discover their branches with the API of code commit instead of git.
+     *
+     * @param region           the region of the repositories, {@code null} to discover the branches with git
+     * @param awsCredentialsId the credentials for the API
+     * @param roleArn          the role assumed from the credentials, {@code null} for none
+     * @return this
+     */
+    @NonNull
+    public SourceFactory withApiDiscovery(@CheckForNull String region, @CheckForNull String awsCredentialsId,
+                                          @CheckForNull String roleArn) {
+        this.apiRegion = region;
+        this.awsCredentialsId = awsCredentialsId;
+        this.roleArn = roleArn;
+        return this;
+    }
+
+    /**
+     * @param repositoryName the name of a repository
+     * @return the name of its project, qualified by the account and the region if any
+     */
+    @NonNull
+    public final String getProjectName(@NonNull String repositoryName) {
+        if (region == null) {
+            return repositoryName;
+        }
+        if (account == null) {
+            return AWSCodeCommitSCMNavigator.toProjectName(region, repositoryName);
+        }
+        return AWSCodeCommitSCMNavigator.toProjectName(account, region, repositoryName);
     }
 
     @NonNull
     @Override
     public SCMSource create(@NonNull String projectName) throws IOException, InterruptedException {
-        final String remote = getRemote(request.getAwsCodeCommit(), projectName, request.isCloneSsh());
+        final long start = System.nanoTime();
+        try {
+            final AWSCodeCommit client = awsCodeCommit != null ? awsCodeCommit : request.getAwsCodeCommit();
+            final String remote = getRemote(client, AWSCodeCommitSCMNavigator.toRepositoryName(projectName), request.isCloneSsh());
 
-        final String idSCMSource = new StringBuilder(id).append(SEPARATOR_ID).append(projectName).toString();
-        return new AWSCodeCommitSCMSourceBuilder(idSCMSource, projectName)
-                .withRequest(request)
-                .withRemote(remote)
-                .build();
+            final String idSCMSource = new StringBuilder(id).append(SEPARATOR_ID).append(projectName).toString();
+            return new AWSCodeCommitSCMSourceBuilder(idSCMSource, projectName)
+                    .withRequest(request)
+                    .withRemote(remote)
+                    .withApiDiscovery(apiRegion, awsCredentialsId, roleArn)
+                    .build();
+        } finally {
+            if (metrics != null) {
+                metrics.add(ScanMetrics.CREATE, System.nanoTime() - start);
+            }
+        }
     }
 
 
+    /**
+     * Resolve the metadata of several repositories, so {@link #create(String)} does not call the API.
+     * The repositories found in the cache are not fetched, the others are fetched with one call.
+     *
+     * @param awsCodeCommit the client on API Code commit
+     * @param repositories  the repositories, at most {@link #MAX_BATCH_SIZE}
+     * @return the repositories which do not exist anymore
+     */
+    @NonNull
+    public Set<String> prefetch(AWSCodeCommit awsCodeCommit, @NonNull Collection<RepositoryNameIdPair> repositories) {
+        final List<String> misses = prefetchKnown(repositories);
+        if (misses.isEmpty()) {
+            return new HashSet<>();
+        }
+        return prefetched(awsCodeCommit.batchGetRepositories(new BatchGetRepositoriesRequest().withRepositoryNames(misses)));
+    }
+
+    /**
+     * Resolve the metadata of the repositories found in the cache.
+     *
+     * @param repositories the repositories, at most {@link #MAX_BATCH_SIZE}
+     * @return the names of the repositories to fetch with BatchGetRepositories, none when the clone URLs are derived,
+     * all of them when the scan is incremental
+     */
+    @NonNull
+    public List<String> prefetchKnown(@NonNull Collection<RepositoryNameIdPair> repositories) {
+        final List<String> misses = new ArrayList<>();
+        if (scanState != null) {
+            //the lastModifiedDate is only returned by the API
+            for (RepositoryNameIdPair repository : repositories) {
+                misses.add(repository.getRepositoryName());
+            }
+            return misses;
+        }
+        if (cloneUrls != null && (request == null || request.getTagFilter() == null)) {
+            //the listed repositories exist and their remotes are derived
+            return misses;
+        }
+        for (RepositoryNameIdPair repository : repositories) {
+            final String repositoryId = repository.getRepositoryId();
+            final String repositoryName = repository.getRepositoryName();
+            final RepositoryMetadataCache.Entry entry = cache.get(repositoryId, repositoryName);
+            if (entry == null) {
+                misses.add(repositoryName);
+            } else {
+                prefetched.put(repositoryName, entry);
+            }
+        }
+        return misses;
+    }
+
+    /**
+     * Keep the metadata fetched by BatchGetRepositories.
+     *
+     * @param result the result of BatchGetRepositories
+     * @return the repositories which do not exist anymore
+     */
+    @NonNull
+    public Set<String> prefetched(@NonNull BatchGetRepositoriesResult result) {
+        for (RepositoryMetadata metadata : result.getRepositories()) {
+            final RepositoryMetadataCache.Entry entry = cache.put(metadata);
+            prefetched.put(metadata.getRepositoryName(), entry);
+            if (scanState != null) {
+                scanState.record(metadata);
+            }
+        }
+        return new HashSet<>(result.getRepositoriesNotFound());
+    }
+
+    /**
+     * Resolve the metadata of one repository, so {@link #create(String)} does not call the API.
+     *
+     * @param awsCodeCommit  the client on API Code commit
+     * @param repositoryName the repository
+     * @return {@code false} if the repository does not exist
+     */
+    public boolean prefetch(AWSCodeCommit awsCodeCommit, @NonNull String repositoryName) {
+        try {
+            final GetRepositoryResult result = awsCodeCommit.getRepository(new GetRepositoryRequest().withRepositoryName(repositoryName));
+            prefetched.put(repositoryName, cache.put(result.getRepositoryMetadata()));
+            return true;
+        } catch (RepositoryDoesNotExistException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Check the tags of prefetched repositories with the {@link TagFilter} of the request.
+     * The tags are fetched only if they are not in the {@link RepositoryTagCache}.
+     *
+     * @param awsCodeCommit the client on API Code commit
+     * @param repositories  the repositories prefetched
+     */
+    public void filterTags(AWSCodeCommit awsCodeCommit, @NonNull Collection<RepositoryNameIdPair> repositories) {
+        final TagFilter tagFilter = request != null ? request.getTagFilter() : null;
+        if (tagFilter == null) {
+            return;
+        }
+        final RepositoryTagCache tagCache = RepositoryTagCache.get();
+        for (RepositoryNameIdPair repository : repositories) {
+            final String repositoryName = repository.getRepositoryName();
+            final RepositoryMetadataCache.Entry entry = prefetched.get(repositoryName);
+            if (entry == null) {
+                //not found
+                continue;
+            }
+            final String repositoryId = repository.getRepositoryId();
+            //the tags of a repository unchanged since the last incremental scan
+            Map<String, String> tags = scanState != null && repositoryId != null ? scanState.getTags(repositoryId) : null;
+            if (tags == null) {
+                tags = tagCache.get(entry.getArn(), request.getTagCacheTtl());
+            }
+            if (tags == null) {
+                tags = listTags(awsCodeCommit, entry.getArn());
+                tagCache.put(entry.getArn(), tags);
+            }
+            if (scanState != null && repositoryId != null) {
+                scanState.setTags(repositoryId, tags);
+            }
+            if (!tagFilter.matches(tags)) {
+                prefetched.remove(repositoryName);
+                excludedByTags.add(repositoryName);
+            }
+        }
+    }
+
+    private Map<String, String> listTags(AWSCodeCommit awsCodeCommit, String arn) {
+        final Map<String, String> tags = new HashMap<>();
+        String nextToken = null;
+        do {
+            tagLookups.incrementAndGet();
+            final ListTagsForResourceResult result = awsCodeCommit.listTagsForResource(new ListTagsForResourceRequest()
+                    .withResourceArn(arn)
+                    .withNextToken(nextToken));
+            if (result.getTags() != null) {
+                tags.putAll(result.getTags());
+            }
+            nextToken = result.getNextToken();
+        } while (nextToken != null);
+        return tags;
+    }
+
+    /**
+     * @param repositoryName the name of a repository
+     * @return {@code true} if the repository is excluded by its tags
+     */
+    public boolean isExcludedByTags(@NonNull String repositoryName) {
+        return excludedByTags.contains(repositoryName);
+    }
+
+    /**
+     * @return the number of calls to ListTagsForResource
+     */
+    public int getTagLookups() {
+        return tagLookups.get();
+    }
+
     /**
      * get the remote url on code commit for git.
      *
@@ -84,15 +467,15 @@ public class SourceFactory implements SCMNavigatorRequest.SourceLambda {
      * @return the remote
      */
     protected String getRemote(AWSCodeCommit awsCodeCommit, @NonNull String projectName, boolean cloneSsh) {
-        final GetRepositoryRequest getRepositoryRequest = new GetRepositoryRequest().withRepositoryName(projectName);
-        final GetRepositoryResult result = awsCodeCommit.getRepository(getRepositoryRequest);
-
-        final String remote;
-        if (cloneSsh) {
-            remote = result.getRepositoryMetadata().getCloneUrlSsh();
-        } else {
-            remote = result.getRepositoryMetadata().getCloneUrlHttp();
+        RepositoryMetadataCache.Entry metadata = prefetched.remove(projectName);
+        if (cloneUrls != null) {
+            return cloneUrls.getRemote(projectName, cloneSsh);
+        }
+        if (metadata == null) {
+            final GetRepositoryRequest getRepositoryRequest = new GetRepositoryRequest().withRepositoryName(projectName);
+            final GetRepositoryResult result = awsCodeCommit.getRepository(getRepositoryRequest);
+            metadata = cache.put(result.getRepositoryMetadata());
         }
-        return remote;
+        return metadata.getCloneUrl(cloneSsh);
     }
 }
@@ -0,0 +1,145 @@
+/**
+ * The MIT License
+ * Copyright © 2016 Stephane Jeandeaux and all contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.jenkins.plugins.awscodecommit.navigator;
+
+import edu.umd.cs.findbugs.annotations.CheckForNull;
+import edu.umd.cs.findbugs.annotations.NonNull;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Predicates on the tags of the repositories, one by line:
+ * <ul>
+ *     <li>{@code ci} the tag {@code ci} is set, whatever its value</li>
+ *     <li>{@code team=payments} the tag {@code team} is {@code payments}</li>
+ *     <li>{@code tier=gold,silver} the tag {@code tier} is {@code gold} or {@code silver}</li>
+ * </ul>
+ * A repository matches if it matches all the include predicates and none of the exclude predicates.
+ */
+public final class TagFilter {
+
+    private final List<Predicate> includes;
+
+    private final List<Predicate> excludes;
+
+    private TagFilter(List<Predicate> includes, List<Predicate> excludes) {
+        this.includes = includes;
+        this.excludes = excludes;
+    }
+
+    /**
+     * Compile the predicates.
+     *
+     * @param includes the predicates which must all match, one by line
+     * @param excludes the predicates which must not match, one by line
+     * @return the filter
+     * @throws IllegalArgumentException if a predicate has no key, the message has the number of the line.
+     */
+    @NonNull
+    public static TagFilter compile(@CheckForNull String includes, @CheckForNull String excludes) {
+        return new TagFilter(parse(includes), parse(excludes));
+    }
+
+    /**
+     * @param tags the tags of a repository
+     * @return {@code true} if the repository is selected
+     */
+    public boolean matches(@NonNull Map<String, String> tags) {
+        for (Predicate include : includes) {
+            if (!include.matches(tags)) {
+                return false;
+            }
+        }
+        for (Predicate exclude : excludes) {
+            if (exclude.matches(tags)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * @return {@code true} if there is no predicate
+     */
+    public boolean isEmpty() {
+        return includes.isEmpty() && excludes.isEmpty();
+    }
+
+    private static List<Predicate> parse(@CheckForNull String predicates) {
+        if (predicates == null || predicates.trim().isEmpty()) {
+            return Collections.emptyList();
+        }
+        final List<Predicate> result = new ArrayList<>();
+        final String[] lines = predicates.split("\\r?\\n");
+        for (int i = 0; i < lines.length; i++) {
+            final String line = lines[i].trim();
+            if (line.isEmpty() || line.startsWith("#")) {
+                continue;
+            }
+            final int equals = line.indexOf('=');
+            final String key = (equals < 0 ? line : line.substring(0, equals)).trim();
+            if (key.isEmpty()) {
+                throw new IllegalArgumentException("Line " + (i + 1) + ": no tag key in " + line);
+            }
+            Set<String> values = null;
+            if (equals >= 0) {
+                values = new HashSet<>();
+                for (String value : Arrays.asList(line.substring(equals + 1).split(","))) {
+                    values.add(value.trim());
+                }
+            }
+            result.add(new Predicate(key, values));
+        }
+        return result;
+    }
+
+    /**
+     * A predicate on one tag.
+     */
+    private static final class Predicate {
+
+        private final String key;
+
+        /**
+         * The accepted values, {@code null} for any value.
+         */
+        @CheckForNull
+        private final Set<String> values;
+
+        Predicate(String key, @CheckForNull Set<String> values) {
+            this.key = key;
+            this.values = values;
+        }
+
+        boolean matches(Map<String, String> tags) {
+            final String value = tags.get(key);
+            return value != null && (values == null || values.contains(value));
+        }
+    }
+}
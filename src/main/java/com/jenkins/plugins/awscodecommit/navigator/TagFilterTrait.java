@@ -0,0 +1,159 @@
+/**
+ * The MIT License
+ * Copyright © 2016 Stephane Jeandeaux and all contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.jenkins.plugins.awscodecommit.navigator;
+
+import com.jenkins.plugins.awscodecommit.Messages;
+import edu.umd.cs.findbugs.annotations.CheckForNull;
+import edu.umd.cs.findbugs.annotations.NonNull;
+import hudson.Extension;
+import hudson.util.FormValidation;
+import jenkins.scm.api.trait.SCMNavigatorContext;
+import jenkins.scm.api.trait.SCMNavigatorTrait;
+import jenkins.scm.api.trait.SCMNavigatorTraitDescriptor;
+import jenkins.scm.impl.trait.Selection;
+import org.jenkinsci.Symbol;
+import org.kohsuke.stapler.DataBoundConstructor;
+import org.kohsuke.stapler.DataBoundSetter;
+import org.kohsuke.stapler.QueryParameter;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Select the repositories with predicates on their tags, see {@link TagFilter}.
+ * The tags are only fetched for the repositories selected by their name, and kept in the {@link RepositoryTagCache}.
+ */
+public class TagFilterTrait extends SCMNavigatorTrait {
+
+    /**
+     * By default the tags are kept one hour.
+     */
+    public static final int DEFAULT_TAG_CACHE_TTL = 60;
+
+    /**
+     * The predicates which must all match, one by line.
+     */
+    @CheckForNull
+    private final String includes;
+
+    /**
+     * The predicates which must not match, one by line.
+     */
+    @CheckForNull
+    private final String excludes;
+
+    /**
+     * Time to live in minutes of the tags.
+     */
+    private int tagCacheTtl = DEFAULT_TAG_CACHE_TTL;
+
+    private transient volatile TagFilter tagFilter;
+
+    @DataBoundConstructor
+    public TagFilterTrait(@CheckForNull String includes, @CheckForNull String excludes) {
+        this.includes = includes;
+        this.excludes = excludes;
+    }
+
+    @CheckForNull
+    public String getIncludes() {
+        return includes;
+    }
+
+    @CheckForNull
+    public String getExcludes() {
+        return excludes;
+    }
+
+    /**
+     * @return the time to live in minutes of the tags
+     */
+    public int getTagCacheTtl() {
+        return tagCacheTtl > 0 ? tagCacheTtl : DEFAULT_TAG_CACHE_TTL;
+    }
+
+    @DataBoundSetter
+    public void setTagCacheTtl(int tagCacheTtl) {
+        this.tagCacheTtl = tagCacheTtl;
+    }
+
+    /**
+     * @return the compiled predicates
+     */
+    @NonNull
+    public TagFilter getTagFilter() {
+        TagFilter filter = tagFilter;
+        if (filter == null) {
+            //compiled once, the predicates are immutable
+            filter = TagFilter.compile(includes, excludes);
+            tagFilter = filter;
+        }
+        return filter;
+    }
+
+    @Override
+    protected void decorateContext(SCMNavigatorContext<?, ?> context) {
+        final TagFilter filter = getTagFilter();
+        if (!filter.isEmpty()) {
+            ((AWSCodeCommitSCMNavigatorContext) context).withTagFilter(filter, getTagCacheTtl(), TimeUnit.MINUTES);
+        }
+    }
+
+    /**
+     * Our descriptor.
+     */
+    @Symbol("tagFilter")
+    @Extension
+    @Selection
+    public static class DescriptorImpl extends SCMNavigatorTraitDescriptor {
+
+        @NonNull
+        @Override
+        public String getDisplayName() {
+            return Messages.TagFilterTrait_DisplayName();
+        }
+
+        @Override
+        public Class<? extends SCMNavigatorContext> getContextClass() {
+            return AWSCodeCommitSCMNavigatorContext.class;
+        }
+
+        @SuppressWarnings("unused") // stapler form binding
+        public FormValidation doCheckIncludes(@QueryParameter String includes) {
+            return checkPredicates(includes);
+        }
+
+        @SuppressWarnings("unused") // stapler form binding
+        public FormValidation doCheckExcludes(@QueryParameter String excludes) {
+            return checkPredicates(excludes);
+        }
+
+        private static FormValidation checkPredicates(String predicates) {
+            try {
+                TagFilter.compile(predicates, null);
+                return FormValidation.ok();
+            } catch (IllegalArgumentException e) {
+                return FormValidation.error(e.getMessage());
+            }
+        }
+    }
+}
@@ -0,0 +1,593 @@
+/**
+ * The MIT License
+ * Copyright © 2016 Stephane Jeandeaux and all contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.jenkins.plugins.awscodecommit.source;
+
+import com.amazonaws.services.codecommit.AWSCodeCommit;
+import com.amazonaws.services.codecommit.model.BranchDoesNotExistException;
+import com.amazonaws.services.codecommit.model.GetBranchRequest;
+import com.amazonaws.services.codecommit.model.GetPullRequestRequest;
+import com.amazonaws.services.codecommit.model.ListBranchesRequest;
+import com.amazonaws.services.codecommit.model.ListBranchesResult;
+import com.amazonaws.services.codecommit.model.ListPullRequestsRequest;
+import com.amazonaws.services.codecommit.model.ListPullRequestsResult;
+import com.amazonaws.services.codecommit.model.PullRequest;
+import com.amazonaws.services.codecommit.model.PullRequestDoesNotExistException;
+import com.amazonaws.services.codecommit.model.PullRequestStatusEnum;
+import com.amazonaws.services.codecommit.model.PullRequestTarget;
+import com.cloudbees.jenkins.plugins.awscredentials.AmazonWebServicesCredentials;
+import com.google.common.base.Function;
+import com.jenkins.plugins.awscodecommit.AWSCodeCommitClientRegistry;
+import com.jenkins.plugins.awscodecommit.CredentialsCache;
+import com.jenkins.plugins.awscodecommit.Messages;
+import com.jenkins.plugins.awscodecommit.navigator.AWSCodeCommitSCMNavigator;
+import edu.umd.cs.findbugs.annotations.CheckForNull;
+import edu.umd.cs.findbugs.annotations.NonNull;
+import hudson.Extension;
+import hudson.model.TaskListener;
+import hudson.plugins.git.UserMergeOptions;
+import hudson.plugins.git.extensions.impl.PreBuildMerge;
+import hudson.util.DaemonThreadFactory;
+import hudson.util.NamingThreadFactory;
+import jenkins.plugins.git.GitSCMBuilder;
+import jenkins.plugins.git.GitSCMSource;
+import jenkins.plugins.git.GitSCMSourceContext;
+import jenkins.plugins.git.GitSCMSourceRequest;
+import jenkins.scm.api.SCMHead;
+import jenkins.scm.api.SCMHeadCategory;
+import jenkins.scm.api.SCMHeadEvent;
+import jenkins.scm.api.SCMHeadObserver;
+import jenkins.scm.api.SCMProbe;
+import jenkins.scm.api.SCMRevision;
+import jenkins.scm.api.SCMSourceCriteria;
+import jenkins.scm.api.mixin.ChangeRequestCheckoutStrategy;
+import jenkins.scm.api.trait.SCMSourceRequest;
+import jenkins.scm.api.trait.SCMTrait;
+import jenkins.scm.impl.ChangeRequestSCMHeadCategory;
+import jenkins.scm.impl.UncategorizedSCMHeadCategory;
+import org.apache.commons.lang.StringUtils;
+import org.jenkinsci.plugins.gitclient.MergeCommand;
+import org.kohsuke.stapler.DataBoundConstructor;
+import org.kohsuke.stapler.DataBoundSetter;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import static org.eclipse.jgit.lib.Constants.R_HEADS;
+
+/**
+ * A {@link GitSCMSource} of code commit which discovers its branches with the API instead of git.
+ * The branches are listed with ListBranches and their heads resolved with concurrent calls to GetBranch, with the client
+ * shared by the navigator of the same region and credentials. Git is only used by the checkout, the files needed before
+ * it, like the Jenkinsfile, are read by {@link CodeCommitSCMFileSystem} and the criteria are checked by
+ * {@link CodeCommitSCMProbe}.
+ * With {@link PullRequestDiscoveryTrait}, the open pull requests are listed with ListPullRequests and resolved with
+ * concurrent calls to GetPullRequest.
+ * When the observer or the event only wants some heads, only these heads are resolved, without listing. The branches
+ * are only discovered with the branch discovery of git, like {@link GitSCMSource}.
+ * Code commit has no API for the git tags, so the tags are not discovered.
+ */
+public class AWSCodeCommitSCMSource extends GitSCMSource {
+
+    /**
+     * Number of calls to GetBranch or GetPullRequest at the same time by indexing.
+     */
+    public static final int CONCURRENCY = 8;
+
+    /**
+     * Number of threads shared by all the indexing.
+     */
+    public static final int MAX_THREADS = 4 * CONCURRENCY;
+
+    /**
+     * The threads of the calls to GetBranch and GetPullRequest, shared by all the sources.
+     * The idle threads are stopped after one minute.
+     */
+    private static final ExecutorService EXECUTOR = newExecutor();
+
+    /**
+     * The region of the repository.
+     */
+    @CheckForNull
+    private String region;
+
+    /**
+     * The name of the repository in code commit.
+     */
+    @CheckForNull
+    private String repositoryName;
+
+    /**
+     * The credentials for the API, {@code null} for the default credentials of the JVM.
+     */
+    @CheckForNull
+    private String awsCredentialsId;
+
+    /**
+     * The role assumed from the credentials, {@code null} for the account of the credentials.
+     */
+    @CheckForNull
+    private String roleArn;
+
+    @DataBoundConstructor
+    public AWSCodeCommitSCMSource(String remote) {
+        super(remote);
+    }
+
+    @Override
+    protected void retrieve(@CheckForNull SCMSourceCriteria criteria, @NonNull SCMHeadObserver observer,
+                            @CheckForNull SCMHeadEvent<?> event, @NonNull final TaskListener listener) throws IOException, InterruptedException {
+        try (AWSCodeCommitClientRegistry.Lease lease = leaseAwsCodeCommit()) {
+            if (lease == null) {
+                super.retrieve(criteria, observer, event, listener);
+                return;
+            }
+            final AWSCodeCommit client = lease.getClient();
+            final PrintStream logger = listener.getLogger();
+            final PullRequestDiscoveryTrait pullRequestDiscovery = SCMTrait.find(getTraits(), PullRequestDiscoveryTrait.class);
+            final Set<ChangeRequestCheckoutStrategy> strategies = pullRequestDiscovery == null
+                    ? EnumSet.noneOf(ChangeRequestCheckoutStrategy.class) : pullRequestDiscovery.getStrategies();
+            final SCMSourceRequest.Witness witness = new SCMSourceRequest.Witness() {
+                @Override
+                public void record(@NonNull SCMHead head, @CheckForNull SCMRevision revision, boolean isMatch) {
+                    logger.printf("%s - %s - %s%n", repositoryName, head.getName(), isMatch ? "met criteria" : "does not meet criteria");
+                }
+            };
+            final GitSCMSourceContext context = new GitSCMSourceContext<>(criteria, observer).withTraits(getTraits());
+            try (GitSCMSourceRequest request = context.newRequest(this, listener)) {
+                final boolean fetchBranches = request.isFetchBranches();
+                //only the heads of the event or the ones wanted by the observer, all of them if none
+                final Set<SCMHead> includes = observer.getIncludes();
+                final Collection<SCMHead> heads = event != null ? event.heads(this).keySet() : includes;
+                final Collection<String> branchNames;
+                final Collection<String> pullRequestIds;
+                if (heads == null) {
+                    branchNames = fetchBranches ? listBranches(client) : Collections.<String>emptyList();
+                    pullRequestIds = pullRequestDiscovery == null ? Collections.<String>emptyList() : listPullRequests(client);
+                } else {
+                    branchNames = new ArrayList<>();
+                    pullRequestIds = new LinkedHashSet<>();
+                    for (SCMHead head : heads) {
+                        if (includes != null && !includes.contains(head)) {
+                            continue;
+                        }
+                        if (head instanceof CodeCommitPullRequestSCMHead) {
+                            if (pullRequestDiscovery != null) {
+                                pullRequestIds.add(((CodeCommitPullRequestSCMHead) head).getId());
+                            }
+                        } else if (fetchBranches) {
+                            branchNames.add(head.getName());
+                        }
+                    }
+                }
+                final Map<String, String> commitIds = getCommitIds(client, branchNames);
+                logger.printf("%s - %d branches resolved with the API%n", repositoryName, commitIds.size());
+                final Map<String, PullRequest> pullRequests = getPullRequests(client, pullRequestIds);
+                if (pullRequestDiscovery != null) {
+                    logger.printf("%s - %d pull requests resolved with the API%n", repositoryName, pullRequests.size());
+                }
+
+                for (Map.Entry<String, String> branch : commitIds.entrySet()) {
+                    final SCMHead head = new SCMHead(branch.getKey());
+                    final SCMRevisionImpl revision = new SCMRevisionImpl(head, branch.getValue());
+                    if (request.process(head, revision, new SCMSourceRequest.ProbeLambda<SCMHead, SCMRevisionImpl>() {
+                        @NonNull
+                        @Override
+                        public SCMSourceCriteria.Probe create(@NonNull SCMHead head, @CheckForNull SCMRevisionImpl revision) throws IOException, InterruptedException {
+                            return createProbe(head, revision);
+                        }
+                    }, witness)) {
+                        logger.printf("%s - enough branches%n", repositoryName);
+                        return;
+                    }
+                }
+                for (PullRequest pullRequest : pullRequests.values()) {
+                    for (CodeCommitPullRequestSCMRevision revision : newRevisions(pullRequest, strategies)) {
+                        if (includes != null && !includes.contains(revision.getHead())) {
+                            continue;
+                        }
+                        if (request.process(revision.getHead(), revision, new SCMSourceRequest.ProbeLambda<CodeCommitPullRequestSCMHead, CodeCommitPullRequestSCMRevision>() {
+                            @NonNull
+                            @Override
+                            public SCMSourceCriteria.Probe create(@NonNull CodeCommitPullRequestSCMHead head, @CheckForNull CodeCommitPullRequestSCMRevision revision) throws IOException, InterruptedException {
+                                return createProbe(head, revision);
+                            }
+                        }, witness)) {
+                            logger.printf("%s - enough pull requests%n", repositoryName);
+                            return;
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    @CheckForNull
+    @Override
+    protected SCMRevision retrieve(@NonNull SCMHead head, @NonNull TaskListener listener) throws IOException, InterruptedException {
+        try (AWSCodeCommitClientRegistry.Lease lease = leaseAwsCodeCommit()) {
+            if (lease == null) {
+                return super.retrieve(head, listener);
+            }
+            final AWSCodeCommit client = lease.getClient();
+            if (head instanceof CodeCommitPullRequestSCMHead) {
+                final CodeCommitPullRequestSCMHead pullRequestHead = (CodeCommitPullRequestSCMHead) head;
+                final PullRequest pullRequest = getPullRequest(client, pullRequestHead.getId());
+                if (pullRequest == null) {
+                    return null;
+                }
+                for (CodeCommitPullRequestSCMRevision revision : newRevisions(pullRequest,
+                        EnumSet.of(pullRequestHead.getCheckoutStrategy()))) {
+                    if (revision.getHead().equals(head)) {
+                        return revision;
+                    }
+                }
+                return null;
+            }
+            final String commitId = getCommitId(client, head.getName());
+            return commitId == null ? null : new SCMRevisionImpl(head, commitId);
+        }
+    }
+
+    @NonNull
+    @Override
+    protected Set<String> retrieveRevisions(@NonNull TaskListener listener) throws IOException, InterruptedException {
+        try (AWSCodeCommitClientRegistry.Lease lease = leaseAwsCodeCommit()) {
+            if (lease == null) {
+                return super.retrieveRevisions(listener);
+            }
+            return new LinkedHashSet<>(listBranches(lease.getClient()));
+        }
+    }
+
+    /**
+     * The criteria of the heads are checked with the listings of the folders of their commit, cached by commit.
+     */
+    @NonNull
+    @Override
+    protected SCMProbe createProbe(@NonNull SCMHead head, @CheckForNull SCMRevision revision) throws IOException {
+        final String commitId;
+        if (revision instanceof SCMRevisionImpl) {
+            commitId = ((SCMRevisionImpl) revision).getHash();
+        } else if (revision instanceof CodeCommitPullRequestSCMRevision) {
+            //the merge is only known by git, the criteria of the pull requests are checked on their source
+            commitId = ((CodeCommitPullRequestSCMRevision) revision).getSourceCommitId();
+        } else {
+            commitId = null;
+        }
+        final AWSCodeCommitClientRegistry.Lease lease = commitId == null ? null : leaseAwsCodeCommit();
+        if (lease == null) {
+            return super.createProbe(head, revision);
+        }
+        //the probe releases the client when it is closed
+        return new CodeCommitSCMProbe(lease, repositoryName, head, commitId);
+    }
+
+    /**
+     * Check out the commit of the source branch of the pull requests, merged with their destination branch for the
+     * merge strategy. The branches of a pull request are in the same repository, so they are both fetched by the
+     * default refspec.
+     */
+    @Override
+    protected void decorate(GitSCMBuilder<?> builder) {
+        final SCMHead head = builder.head();
+        if (!(head instanceof CodeCommitPullRequestSCMHead)) {
+            return;
+        }
+        final CodeCommitPullRequestSCMHead pullRequestHead = (CodeCommitPullRequestSCMHead) head;
+        final SCMRevision revision = builder.revision();
+        if (revision instanceof CodeCommitPullRequestSCMRevision) {
+            builder.withRevision(new SCMRevisionImpl(head, ((CodeCommitPullRequestSCMRevision) revision).getSourceCommitId()));
+        }
+        if (pullRequestHead.getCheckoutStrategy() == ChangeRequestCheckoutStrategy.MERGE) {
+            builder.withExtension(new PreBuildMerge(new UserMergeOptions(builder.remoteName(),
+                    pullRequestHead.getTarget().getName(), MergeCommand.Strategy.DEFAULT.toString(),
+                    MergeCommand.GitPluginFastForwardMode.FF)));
+        }
+    }
+
+    /**
+     * @return {@code true} if the branches are discovered with the API
+     */
+    public boolean isApiDiscovery() {
+        return region != null && repositoryName != null;
+    }
+
+    /**
+     * @return the lease of the client of the region of the repository, {@code null} to discover the branches with git
+     */
+    @CheckForNull
+    protected AWSCodeCommitClientRegistry.Lease leaseAwsCodeCommit() {
+        if (!isApiDiscovery()) {
+            return null;
+        }
+        final AmazonWebServicesCredentials credentials = CredentialsCache.get().lookup(getOwner(), awsCredentialsId,
+                AmazonWebServicesCredentials.class, AWSCodeCommitSCMNavigator.CREDENTIALS_MATCHER);
+        return AWSCodeCommitClientRegistry.get().lease(region, awsCredentialsId, credentials, roleArn, false);
+    }
+
+    /**
+     * @param client the client of the region
+     * @return the names of all the branches
+     */
+    private List<String> listBranches(AWSCodeCommit client) {
+        final List<String> branchNames = new ArrayList<>();
+        String nextToken = null;
+        do {
+            final ListBranchesResult result = client.listBranches(new ListBranchesRequest()
+                    .withRepositoryName(repositoryName).withNextToken(nextToken));
+            branchNames.addAll(result.getBranches());
+            nextToken = result.getNextToken();
+        } while (nextToken != null);
+        return branchNames;
+    }
+
+    /**
+     * @param client the client of the region
+     * @return the ids of the open pull requests
+     */
+    private List<String> listPullRequests(AWSCodeCommit client) {
+        final List<String> pullRequestIds = new ArrayList<>();
+        String nextToken = null;
+        do {
+            final ListPullRequestsResult result = client.listPullRequests(new ListPullRequestsRequest()
+                    .withRepositoryName(repositoryName).withPullRequestStatus(PullRequestStatusEnum.OPEN)
+                    .withNextToken(nextToken));
+            pullRequestIds.addAll(result.getPullRequestIds());
+            nextToken = result.getNextToken();
+        } while (nextToken != null);
+        return pullRequestIds;
+    }
+
+    /**
+     * @param pullRequest an open pull request
+     * @param strategies  the checkouts of the pull request
+     * @return a revision by strategy, none if the pull request is not on this repository
+     */
+    private List<CodeCommitPullRequestSCMRevision> newRevisions(PullRequest pullRequest,
+                                                                Set<ChangeRequestCheckoutStrategy> strategies) {
+        final List<CodeCommitPullRequestSCMRevision> revisions = new ArrayList<>();
+        for (PullRequestTarget target : pullRequest.getPullRequestTargets()) {
+            if (!repositoryName.equals(target.getRepositoryName())) {
+                continue;
+            }
+            for (ChangeRequestCheckoutStrategy strategy : strategies) {
+                final String name = "PR-" + pullRequest.getPullRequestId()
+                        + (strategies.size() > 1 ? "-" + strategy.name().toLowerCase(Locale.ENGLISH) : "");
+                final CodeCommitPullRequestSCMHead head = new CodeCommitPullRequestSCMHead(name,
+                        pullRequest.getPullRequestId(), StringUtils.removeStart(target.getSourceReference(), R_HEADS),
+                        StringUtils.removeStart(target.getDestinationReference(), R_HEADS), strategy);
+                revisions.add(new CodeCommitPullRequestSCMRevision(head, target.getSourceCommit(),
+                        target.getDestinationCommit()));
+            }
+            break;
+        }
+        return revisions;
+    }
+
+    /**
+     * Resolve the heads of the branches with concurrent calls.
+     *
+     * @param client      the client of the region
+     * @param branchNames the names of the branches
+     * @return the commits by branch, in the order of the names, without the deleted branches
+     * @throws IOException          if a call failed.
+     * @throws InterruptedException if the operation was interrupted.
+     */
+    private Map<String, String> getCommitIds(final AWSCodeCommit client, Collection<String> branchNames) throws IOException, InterruptedException {
+        return resolve(branchNames, "branch", new Function<String, String>() {
+            @Override
+            public String apply(String branchName) {
+                return getCommitId(client, branchName);
+            }
+        });
+    }
+
+    /**
+     * Resolve the open pull requests with concurrent calls.
+     *
+     * @param client         the client of the region
+     * @param pullRequestIds the ids of the pull requests
+     * @return the pull requests by id, in the order of the ids, without the closed pull requests
+     * @throws IOException          if a call failed.
+     * @throws InterruptedException if the operation was interrupted.
+     */
+    private Map<String, PullRequest> getPullRequests(final AWSCodeCommit client, Collection<String> pullRequestIds) throws IOException, InterruptedException {
+        return resolve(pullRequestIds, "pull request", new Function<String, PullRequest>() {
+            @Override
+            public PullRequest apply(String pullRequestId) {
+                return getPullRequest(client, pullRequestId);
+            }
+        });
+    }
+
+    /**
+     * Call the API for each key with the shared threads, {@link #CONCURRENCY} calls at the same time.
+     *
+     * @param keys     the keys
+     * @param what     the name of the keys, for the errors
+     * @param resolver the call for a key, {@code null} if the key does not exist
+     * @param <T>      the type of the results
+     * @return the results by key, in the order of the keys, without the keys which do not exist
+     * @throws IOException          if a call failed.
+     * @throws InterruptedException if the operation was interrupted.
+     */
+    private <T> Map<String, T> resolve(Collection<String> keys, String what, final Function<String, T> resolver) throws IOException, InterruptedException {
+        final Map<String, T> results = new LinkedHashMap<>();
+        if (keys.isEmpty()) {
+            return results;
+        }
+        //the shared threads are not taken by one indexing
+        final Semaphore permits = new Semaphore(CONCURRENCY);
+        final Map<String, Future<T>> futures = new LinkedHashMap<>();
+        try {
+            for (final String key : keys) {
+                permits.acquire();
+                futures.put(key, EXECUTOR.submit(new Callable<T>() {
+                    @Override
+                    public T call() {
+                        try {
+                            return resolver.apply(key);
+                        } finally {
+                            permits.release();
+                        }
+                    }
+                }));
+            }
+            for (Map.Entry<String, Future<T>> future : futures.entrySet()) {
+                final T result;
+                try {
+                    result = future.getValue().get();
+                } catch (ExecutionException e) {
+                    throw new IOException("Failed to get the " + what + " " + future.getKey() + " of " + repositoryName, e.getCause());
+                }
+                if (result != null) {
+                    results.put(future.getKey(), result);
+                }
+            }
+        } finally {
+            //interrupts the calls when the indexing is cancelled or failed
+            for (Future<T> future : futures.values()) {
+                future.cancel(true);
+            }
+        }
+        return results;
+    }
+
+    /**
+     * @return the threads of the calls, shared by all the sources
+     */
+    private static ExecutorService newExecutor() {
+        final ThreadPoolExecutor executor = new ThreadPoolExecutor(MAX_THREADS, MAX_THREADS, 1, TimeUnit.MINUTES,
+                new LinkedBlockingQueue<Runnable>(),
+                new NamingThreadFactory(new DaemonThreadFactory(), AWSCodeCommitSCMSource.class.getSimpleName()));
+        executor.allowCoreThreadTimeOut(true);
+        return executor;
+    }
+
+    /**
+     * @param client     the client of the region
+     * @param branchName the name of a branch
+     * @return the commit of the head of the branch, {@code null} if the branch does not exist
+     */
+    @CheckForNull
+    private String getCommitId(AWSCodeCommit client, String branchName) {
+        try {
+            return client.getBranch(new GetBranchRequest().withRepositoryName(repositoryName).withBranchName(branchName))
+                    .getBranch().getCommitId();
+        } catch (BranchDoesNotExistException e) {
+            return null;
+        }
+    }
+
+    /**
+     * @param client        the client of the region
+     * @param pullRequestId the id of a pull request
+     * @return the pull request, {@code null} if it does not exist or it is closed
+     */
+    @CheckForNull
+    private PullRequest getPullRequest(AWSCodeCommit client, String pullRequestId) {
+        try {
+            final PullRequest pullRequest = client.getPullRequest(new GetPullRequestRequest()
+                    .withPullRequestId(pullRequestId)).getPullRequest();
+            return PullRequestStatusEnum.OPEN.toString().equals(pullRequest.getPullRequestStatus()) ? pullRequest : null;
+        } catch (PullRequestDoesNotExistException e) {
+            return null;
+        }
+    }
+
+    @CheckForNull
+    public String getRegion() {
+        return region;
+    }
+
+    @DataBoundSetter
+    public void setRegion(@CheckForNull String region) {
+        this.region = region;
+    }
+
+    @CheckForNull
+    public String getRepositoryName() {
+        return repositoryName;
+    }
+
+    @DataBoundSetter
+    public void setRepositoryName(@CheckForNull String repositoryName) {
+        this.repositoryName = repositoryName;
+    }
+
+    @CheckForNull
+    public String getAwsCredentialsId() {
+        return awsCredentialsId;
+    }
+
+    @DataBoundSetter
+    public void setAwsCredentialsId(@CheckForNull String awsCredentialsId) {
+        this.awsCredentialsId = awsCredentialsId;
+    }
+
+    @CheckForNull
+    public String getRoleArn() {
+        return roleArn;
+    }
+
+    @DataBoundSetter
+    public void setRoleArn(@CheckForNull String roleArn) {
+        this.roleArn = roleArn;
+    }
+
+    @Extension
+    public static class DescriptorImpl extends GitSCMSource.DescriptorImpl {
+
+        @Override
+        public String getDisplayName() {
+            return Messages.AWSCodeCommitSCMSource_DisplayName();
+        }
+
+        @NonNull
+        @Override
+        protected SCMHeadCategory[] createCategories() {
+            return new SCMHeadCategory[]{
+                    UncategorizedSCMHeadCategory.DEFAULT,
+                    new ChangeRequestSCMHeadCategory(Messages._AWSCodeCommitSCMSource_PullRequests())
+            };
+        }
+    }
+}
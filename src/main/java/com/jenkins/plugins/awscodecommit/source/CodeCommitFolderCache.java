@@ -0,0 +1,147 @@
+/**
+ * The MIT License
+ * Copyright © 2016 Stephane Jeandeaux and all contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.jenkins.plugins.awscodecommit.source;
+
+import com.amazonaws.services.codecommit.AWSCodeCommit;
+import edu.umd.cs.findbugs.annotations.CheckForNull;
+import edu.umd.cs.findbugs.annotations.NonNull;
+import jenkins.scm.api.SCMFile;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * The listings of the folders by commit and path, shared by the probes and the file systems of the JVM.
+ * A commit identifies its whole tree, so a listing never expires: the branches at the same commit and the rescans of
+ * the unchanged branches do not call GetFolder. The least recently used listings are evicted beyond
+ * {@link #DEFAULT_MAX_SIZE} entries.
+ */
+public final class CodeCommitFolderCache {
+
+    /**
+     * By default ten thousand folders are kept.
+     */
+    public static final int DEFAULT_MAX_SIZE = 10000;
+
+    /**
+     * The listing of a folder which does not exist.
+     */
+    private static final Map<String, SCMFile.Type> MISSING = Collections.emptyMap();
+
+    private static final CodeCommitFolderCache INSTANCE = new CodeCommitFolderCache(DEFAULT_MAX_SIZE);
+
+    /**
+     * The listings by key, in the order of access.
+     */
+    private final Map<String, Map<String, SCMFile.Type>> entries;
+
+    /**
+     * {@see getHits}
+     */
+    private long hits;
+
+    /**
+     * {@see getMisses}
+     */
+    private long misses;
+
+    /**
+     * @param maxSize the maximum number of folders
+     */
+    CodeCommitFolderCache(final int maxSize) {
+        this.entries = new LinkedHashMap<String, Map<String, SCMFile.Type>>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Map<String, SCMFile.Type>> eldest) {
+                return size() > maxSize;
+            }
+        };
+    }
+
+    /**
+     * @return the cache of the JVM
+     */
+    @NonNull
+    public static CodeCommitFolderCache get() {
+        return INSTANCE;
+    }
+
+    /**
+     * Get the listing of a folder, list it with GetFolder if it is not cached.
+     *
+     * @param client         the client of the region of the repository
+     * @param repositoryName the name of the repository
+     * @param commitId       the commit
+     * @param path           the path of the folder, empty for the root
+     * @return the types of the entries by name, {@code null} if the folder does not exist
+     */
+    @CheckForNull
+    public Map<String, SCMFile.Type> getFolder(@NonNull AWSCodeCommit client, @NonNull String repositoryName,
+                                               @NonNull String commitId, @NonNull String path) {
+        final String key = commitId + ':' + path;
+        synchronized (this) {
+            final Map<String, SCMFile.Type> cached = entries.get(key);
+            if (cached != null) {
+                hits++;
+                return cached == MISSING ? null : cached;
+            }
+            misses++;
+        }
+        //two probes of the same folder may both list it, the call is not done under the lock
+        final Map<String, SCMFile.Type> listing = CodeCommitSCMFileSystem.listFolder(client, repositoryName, commitId, path);
+        synchronized (this) {
+            entries.put(key, listing == null ? MISSING : listing);
+        }
+        return listing;
+    }
+
+    /**
+     * Remove all the listings.
+     */
+    public synchronized void clear() {
+        entries.clear();
+        hits = 0;
+        misses = 0;
+    }
+
+    /**
+     * @return the number of folders
+     */
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    /**
+     * @return the number of listings found in the cache
+     */
+    public synchronized long getHits() {
+        return hits;
+    }
+
+    /**
+     * @return the number of listings done with GetFolder
+     */
+    public synchronized long getMisses() {
+        return misses;
+    }
+}
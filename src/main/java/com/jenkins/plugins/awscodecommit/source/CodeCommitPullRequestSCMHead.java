@@ -0,0 +1,94 @@
+/**
+ * The MIT License
+ * Copyright © 2016 Stephane Jeandeaux and all contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.jenkins.plugins.awscodecommit.source;
+
+import edu.umd.cs.findbugs.annotations.NonNull;
+import jenkins.scm.api.SCMHead;
+import jenkins.scm.api.mixin.ChangeRequestCheckoutStrategy;
+import jenkins.scm.api.mixin.ChangeRequestSCMHead2;
+
+/**
+ * The head of a pull request of code commit, from a branch to another branch of the same repository.
+ */
+public class CodeCommitPullRequestSCMHead extends SCMHead implements ChangeRequestSCMHead2 {
+
+    private static final long serialVersionUID = 1L;
+
+    private final String pullRequestId;
+
+    private final String sourceBranch;
+
+    private final SCMHead target;
+
+    private final ChangeRequestCheckoutStrategy strategy;
+
+    /**
+     * Constructor
+     *
+     * @param name          the name of the head, e.g. PR-12
+     * @param pullRequestId the id of the pull request
+     * @param sourceBranch  the branch to merge
+     * @param targetBranch  the branch where the source is merged
+     * @param strategy      the checkout of the pull request
+     */
+    public CodeCommitPullRequestSCMHead(@NonNull String name, @NonNull String pullRequestId, @NonNull String sourceBranch,
+                                        @NonNull String targetBranch, @NonNull ChangeRequestCheckoutStrategy strategy) {
+        super(name);
+        this.pullRequestId = pullRequestId;
+        this.sourceBranch = sourceBranch;
+        this.target = new SCMHead(targetBranch);
+        this.strategy = strategy;
+    }
+
+    @NonNull
+    @Override
+    public String getId() {
+        return pullRequestId;
+    }
+
+    @NonNull
+    @Override
+    public SCMHead getTarget() {
+        return target;
+    }
+
+    @NonNull
+    @Override
+    public ChangeRequestCheckoutStrategy getCheckoutStrategy() {
+        return strategy;
+    }
+
+    /**
+     * @return the branch to merge
+     */
+    @NonNull
+    @Override
+    public String getOriginName() {
+        return sourceBranch;
+    }
+
+    @Override
+    public String getPronoun() {
+        return "Pull Request";
+    }
+}
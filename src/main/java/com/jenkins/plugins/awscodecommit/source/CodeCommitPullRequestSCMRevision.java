@@ -0,0 +1,88 @@
+/**
+ * The MIT License
+ * Copyright © 2016 Stephane Jeandeaux and all contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.jenkins.plugins.awscodecommit.source;
+
+import edu.umd.cs.findbugs.annotations.NonNull;
+import jenkins.plugins.git.AbstractGitSCMSource;
+import jenkins.scm.api.mixin.ChangeRequestSCMRevision;
+
+/**
+ * The revision of a pull request: the commit of its source branch and, as target, the commit of its destination branch.
+ */
+public class CodeCommitPullRequestSCMRevision extends ChangeRequestSCMRevision<CodeCommitPullRequestSCMHead> {
+
+    private static final long serialVersionUID = 1L;
+
+    private final String sourceCommitId;
+
+    /**
+     * Constructor
+     *
+     * @param head                the head of the pull request
+     * @param sourceCommitId      the commit of the source branch
+     * @param destinationCommitId the commit of the destination branch
+     */
+    public CodeCommitPullRequestSCMRevision(@NonNull CodeCommitPullRequestSCMHead head, @NonNull String sourceCommitId,
+                                            @NonNull String destinationCommitId) {
+        super(head, new AbstractGitSCMSource.SCMRevisionImpl(head.getTarget(), destinationCommitId));
+        this.sourceCommitId = sourceCommitId;
+    }
+
+    @NonNull
+    @Override
+    public CodeCommitPullRequestSCMHead getHead() {
+        return (CodeCommitPullRequestSCMHead) super.getHead();
+    }
+
+    /**
+     * @return the commit of the source branch
+     */
+    @NonNull
+    public String getSourceCommitId() {
+        return sourceCommitId;
+    }
+
+    /**
+     * @return the commit of the destination branch
+     */
+    @NonNull
+    public String getDestinationCommitId() {
+        return ((AbstractGitSCMSource.SCMRevisionImpl) getTarget()).getHash();
+    }
+
+    @Override
+    public boolean equivalent(ChangeRequestSCMRevision<?> revision) {
+        return revision instanceof CodeCommitPullRequestSCMRevision
+                && sourceCommitId.equals(((CodeCommitPullRequestSCMRevision) revision).sourceCommitId);
+    }
+
+    @Override
+    protected int _hashCode() {
+        return sourceCommitId.hashCode();
+    }
+
+    @Override
+    public String toString() {
+        return isMerge() ? sourceCommitId + "+" + getDestinationCommitId() : sourceCommitId;
+    }
+}
@@ -0,0 +1,107 @@
+/**
+ * The MIT License
+ * Copyright © 2016 Stephane Jeandeaux and all contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.jenkins.plugins.awscodecommit.source;
+
+import edu.umd.cs.findbugs.annotations.CheckForNull;
+import edu.umd.cs.findbugs.annotations.NonNull;
+import jenkins.scm.api.SCMFile;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A file of a {@link CodeCommitSCMFileSystem}, its type is read from the listing of its folder.
+ */
+class CodeCommitSCMFile extends SCMFile {
+
+    private final CodeCommitSCMFileSystem fileSystem;
+
+    /**
+     * The type given by the listing of the parent, {@code null} if not listed yet.
+     */
+    @CheckForNull
+    private final Type type;
+
+    /**
+     * The root.
+     *
+     * @param fileSystem the file system
+     */
+    CodeCommitSCMFile(@NonNull CodeCommitSCMFileSystem fileSystem) {
+        this.fileSystem = fileSystem;
+        this.type = Type.DIRECTORY;
+    }
+
+    private CodeCommitSCMFile(@NonNull CodeCommitSCMFile parent, @NonNull String name, @CheckForNull Type type) {
+        super(parent, name);
+        this.fileSystem = parent.fileSystem;
+        this.type = type;
+    }
+
+    @NonNull
+    @Override
+    protected SCMFile newChild(@NonNull String name, boolean assumeIsDirectory) {
+        return new CodeCommitSCMFile(this, name, null);
+    }
+
+    @NonNull
+    @Override
+    public Iterable<SCMFile> children() {
+        final Map<String, Type> entries = fileSystem.getFolder(getPath());
+        if (entries == null) {
+            return Collections.emptyList();
+        }
+        final List<SCMFile> children = new ArrayList<>(entries.size());
+        for (Map.Entry<String, Type> entry : entries.entrySet()) {
+            children.add(new CodeCommitSCMFile(this, entry.getKey(), entry.getValue()));
+        }
+        return children;
+    }
+
+    @Override
+    public long lastModified() {
+        return fileSystem.lastModified();
+    }
+
+    @NonNull
+    @Override
+    protected Type type() {
+        if (type != null) {
+            return type;
+        }
+        final Map<String, Type> entries = fileSystem.getFolder(parent().getPath());
+        final Type listed = entries == null ? null : entries.get(getName());
+        return listed == null ? Type.NONEXISTENT : listed;
+    }
+
+    @NonNull
+    @Override
+    public InputStream content() throws IOException {
+        return new ByteArrayInputStream(fileSystem.getFile(getPath()));
+    }
+}
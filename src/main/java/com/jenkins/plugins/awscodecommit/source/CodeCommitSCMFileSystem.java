@@ -0,0 +1,259 @@
+/**
+ * The MIT License
+ * Copyright © 2016 Stephane Jeandeaux and all contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.jenkins.plugins.awscodecommit.source;
+
+import com.amazonaws.services.codecommit.AWSCodeCommit;
+import com.amazonaws.services.codecommit.model.File;
+import com.amazonaws.services.codecommit.model.FileDoesNotExistException;
+import com.amazonaws.services.codecommit.model.Folder;
+import com.amazonaws.services.codecommit.model.FolderDoesNotExistException;
+import com.amazonaws.services.codecommit.model.GetFileRequest;
+import com.amazonaws.services.codecommit.model.GetFolderRequest;
+import com.amazonaws.services.codecommit.model.GetFolderResult;
+import com.amazonaws.services.codecommit.model.SubModule;
+import com.amazonaws.services.codecommit.model.SymbolicLink;
+import com.jenkins.plugins.awscodecommit.AWSCodeCommitClientRegistry;
+import edu.umd.cs.findbugs.annotations.CheckForNull;
+import edu.umd.cs.findbugs.annotations.NonNull;
+import hudson.Extension;
+import hudson.model.Item;
+import hudson.model.TaskListener;
+import hudson.scm.SCM;
+import jenkins.plugins.git.AbstractGitSCMSource;
+import jenkins.scm.api.SCMFile;
+import jenkins.scm.api.SCMFileSystem;
+import jenkins.scm.api.SCMHead;
+import jenkins.scm.api.SCMRevision;
+import jenkins.scm.api.SCMSource;
+
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * The files of a commit of a repository, read with GetFolder and GetFile instead of a checkout.
+ * Loading a Jenkinsfile is one call to GetFile, the listings of the folders are shared in {@link CodeCommitFolderCache}.
+ */
+public class CodeCommitSCMFileSystem extends SCMFileSystem {
+
+    private final AWSCodeCommit client;
+
+    /**
+     * The lease of the client, released when the file system is closed, {@code null} if the client is not leased.
+     */
+    @CheckForNull
+    private final AWSCodeCommitClientRegistry.Lease lease;
+
+    private final String repositoryName;
+
+    private final String commitId;
+
+    /**
+     * Constructor
+     *
+     * @param client         the client of the region of the repository
+     * @param repositoryName the name of the repository
+     * @param revision       the commit
+     */
+    public CodeCommitSCMFileSystem(@NonNull AWSCodeCommit client, @NonNull String repositoryName,
+                                   @NonNull AbstractGitSCMSource.SCMRevisionImpl revision) {
+        this(client, null, repositoryName, revision);
+    }
+
+    /**
+     * Constructor
+     *
+     * @param lease          the lease of the client of the region of the repository, released by {@link #close()}
+     * @param repositoryName the name of the repository
+     * @param revision       the commit
+     */
+    public CodeCommitSCMFileSystem(@NonNull AWSCodeCommitClientRegistry.Lease lease, @NonNull String repositoryName,
+                                   @NonNull AbstractGitSCMSource.SCMRevisionImpl revision) {
+        this(lease.getClient(), lease, repositoryName, revision);
+    }
+
+    private CodeCommitSCMFileSystem(AWSCodeCommit client, AWSCodeCommitClientRegistry.Lease lease, String repositoryName,
+                                    AbstractGitSCMSource.SCMRevisionImpl revision) {
+        super(revision);
+        this.client = client;
+        this.lease = lease;
+        this.repositoryName = repositoryName;
+        this.commitId = revision.getHash();
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (lease != null) {
+            lease.close();
+        }
+    }
+
+    /**
+     * The API does not give the date of the files.
+     *
+     * @return 0
+     */
+    @Override
+    public long lastModified() {
+        return 0L;
+    }
+
+    @NonNull
+    @Override
+    public SCMFile getRoot() {
+        return new CodeCommitSCMFile(this);
+    }
+
+    /**
+     * @return the commit of the files
+     */
+    @NonNull
+    public String getCommitId() {
+        return commitId;
+    }
+
+    /**
+     * List a folder with GetFolder, once by commit and path.
+     *
+     * @param path the path of the folder, empty for the root
+     * @return the types of the entries by name, {@code null} if the folder does not exist
+     */
+    @CheckForNull
+    Map<String, SCMFile.Type> getFolder(@NonNull String path) {
+        return CodeCommitFolderCache.get().getFolder(client, repositoryName, commitId, path);
+    }
+
+    /**
+     * Read a file with GetFile.
+     *
+     * @param path the path of the file
+     * @return the content
+     * @throws FileNotFoundException if the file does not exist.
+     */
+    @NonNull
+    byte[] getFile(@NonNull String path) throws FileNotFoundException {
+        try {
+            final ByteBuffer content = client.getFile(new GetFileRequest()
+                    .withRepositoryName(repositoryName)
+                    .withCommitSpecifier(commitId)
+                    .withFilePath(path))
+                    .getFileContent();
+            final byte[] bytes = new byte[content.remaining()];
+            content.get(bytes);
+            return bytes;
+        } catch (FileDoesNotExistException e) {
+            throw new FileNotFoundException(repositoryName + "/" + path + " at " + commitId);
+        }
+    }
+
+    /**
+     * List a folder with GetFolder.
+     *
+     * @param client         the client of the region of the repository
+     * @param repositoryName the name of the repository
+     * @param commitId       the commit
+     * @param path           the path of the folder, empty for the root
+     * @return the types of the entries by name, {@code null} if the folder does not exist
+     */
+    @CheckForNull
+    static Map<String, SCMFile.Type> listFolder(@NonNull AWSCodeCommit client, @NonNull String repositoryName,
+                                               @NonNull String commitId, @NonNull String path) {
+        final GetFolderResult result;
+        try {
+            result = client.getFolder(new GetFolderRequest()
+                    .withRepositoryName(repositoryName)
+                    .withCommitSpecifier(commitId)
+                    .withFolderPath(path.isEmpty() ? "/" : path));
+        } catch (FolderDoesNotExistException e) {
+            return null;
+        }
+        final Map<String, SCMFile.Type> entries = new LinkedHashMap<>();
+        for (File file : result.getFiles()) {
+            entries.put(file.getRelativePath(), SCMFile.Type.REGULAR_FILE);
+        }
+        for (Folder folder : result.getSubFolders()) {
+            entries.put(folder.getRelativePath(), SCMFile.Type.DIRECTORY);
+        }
+        for (SymbolicLink link : result.getSymbolicLinks()) {
+            entries.put(link.getRelativePath(), SCMFile.Type.LINK);
+        }
+        for (SubModule subModule : result.getSubModules()) {
+            entries.put(subModule.getRelativePath(), SCMFile.Type.OTHER);
+        }
+        return Collections.unmodifiableMap(entries);
+    }
+
+    /**
+     * Build the file systems of the sources which discover their branches with the API.
+     * It is ordered before the file system of git, the other sources fall back to it.
+     */
+    @Extension(ordinal = 100)
+    public static class BuilderImpl extends SCMFileSystem.Builder {
+
+        /**
+         * A {@link SCM} does not know the region and the credentials of the API.
+         */
+        @Override
+        public boolean supports(SCM source) {
+            return false;
+        }
+
+        @Override
+        public boolean supports(SCMSource source) {
+            return source instanceof AWSCodeCommitSCMSource && ((AWSCodeCommitSCMSource) source).isApiDiscovery();
+        }
+
+        @Override
+        public SCMFileSystem build(@NonNull Item owner, @NonNull SCM scm, @CheckForNull SCMRevision rev) {
+            return null;
+        }
+
+        @Override
+        public SCMFileSystem build(@NonNull SCMSource source, @NonNull SCMHead head, @CheckForNull SCMRevision rev)
+                throws IOException, InterruptedException {
+            if (!supports(source)) {
+                return null;
+            }
+            final AWSCodeCommitSCMSource codeCommitSource = (AWSCodeCommitSCMSource) source;
+            SCMRevision revision = rev != null ? rev : codeCommitSource.fetch(head, TaskListener.NULL);
+            if (revision instanceof CodeCommitPullRequestSCMRevision && !((CodeCommitPullRequestSCMRevision) revision).isMerge()) {
+                //the merge of a pull request is only known by git
+                revision = new AbstractGitSCMSource.SCMRevisionImpl(head,
+                        ((CodeCommitPullRequestSCMRevision) revision).getSourceCommitId());
+            }
+            if (!(revision instanceof AbstractGitSCMSource.SCMRevisionImpl)) {
+                return null;
+            }
+            final AWSCodeCommitClientRegistry.Lease lease = codeCommitSource.leaseAwsCodeCommit();
+            if (lease == null) {
+                return null;
+            }
+            //the file system releases the client when it is closed
+            return new CodeCommitSCMFileSystem(lease, codeCommitSource.getRepositoryName(),
+                    (AbstractGitSCMSource.SCMRevisionImpl) revision);
+        }
+    }
+}
@@ -0,0 +1,116 @@
+/**
+ * The MIT License
+ * Copyright © 2016 Stephane Jeandeaux and all contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.jenkins.plugins.awscodecommit.source;
+
+import com.amazonaws.services.codecommit.AWSCodeCommit;
+import com.jenkins.plugins.awscodecommit.AWSCodeCommitClientRegistry;
+import edu.umd.cs.findbugs.annotations.NonNull;
+import jenkins.plugins.git.AbstractGitSCMSource;
+import jenkins.scm.api.SCMFile;
+import jenkins.scm.api.SCMHead;
+import jenkins.scm.api.SCMProbe;
+import jenkins.scm.api.SCMProbeStat;
+import org.apache.commons.lang.StringUtils;
+
+import java.util.Map;
+
+/**
+ * The probe of the criteria of a head, e.g. "has a Jenkinsfile", answered with the listings of the folders of its
+ * commit in {@link CodeCommitFolderCache} instead of git.
+ */
+class CodeCommitSCMProbe extends SCMProbe {
+
+    private static final long serialVersionUID = 1L;
+
+    private final transient AWSCodeCommit client;
+
+    /**
+     * The lease of the client, released when the probe is closed.
+     */
+    private final transient AWSCodeCommitClientRegistry.Lease lease;
+
+    private final String repositoryName;
+
+    private final SCMHead head;
+
+    private final String commitId;
+
+    /**
+     * Constructor
+     *
+     * @param lease          the lease of the client of the region of the repository, released by {@link #close()}
+     * @param repositoryName the name of the repository
+     * @param head           the head
+     * @param commitId       the commit of the head
+     */
+    CodeCommitSCMProbe(@NonNull AWSCodeCommitClientRegistry.Lease lease, @NonNull String repositoryName,
+                       @NonNull SCMHead head, @NonNull String commitId) {
+        this.lease = lease;
+        this.client = lease.getClient();
+        this.repositoryName = repositoryName;
+        this.head = head;
+        this.commitId = commitId;
+    }
+
+    @NonNull
+    @Override
+    public String name() {
+        return head.getName();
+    }
+
+    /**
+     * The API does not give the date of the commits without another call.
+     *
+     * @return 0
+     */
+    @Override
+    public long lastModified() {
+        return 0L;
+    }
+
+    @NonNull
+    @Override
+    public SCMProbeStat stat(@NonNull String path) {
+        final String normalized = StringUtils.strip(path, "/");
+        if (normalized.isEmpty()) {
+            return SCMProbeStat.fromType(SCMFile.Type.DIRECTORY);
+        }
+        final int slash = normalized.lastIndexOf('/');
+        final Map<String, SCMFile.Type> entries = CodeCommitFolderCache.get().getFolder(client, repositoryName, commitId,
+                slash < 0 ? "" : normalized.substring(0, slash));
+        final SCMFile.Type type = entries == null ? null : entries.get(normalized.substring(slash + 1));
+        return SCMProbeStat.fromType(type == null ? SCMFile.Type.NONEXISTENT : type);
+    }
+
+    @NonNull
+    @Override
+    public SCMFile getRoot() {
+        return new CodeCommitSCMFileSystem(client, repositoryName, new AbstractGitSCMSource.SCMRevisionImpl(head, commitId))
+                .getRoot();
+    }
+
+    @Override
+    public void close() {
+        lease.close();
+    }
+}
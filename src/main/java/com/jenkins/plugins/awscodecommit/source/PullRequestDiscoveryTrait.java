@@ -0,0 +1,152 @@
+/**
+ * The MIT License
+ * Copyright © 2016 Stephane Jeandeaux and all contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.jenkins.plugins.awscodecommit.source;
+
+import com.jenkins.plugins.awscodecommit.Messages;
+import edu.umd.cs.findbugs.annotations.NonNull;
+import hudson.Extension;
+import hudson.plugins.git.GitSCM;
+import hudson.scm.SCM;
+import hudson.util.ListBoxModel;
+import jenkins.plugins.git.GitSCMBuilder;
+import jenkins.plugins.git.GitSCMSourceContext;
+import jenkins.scm.api.SCMHeadCategory;
+import jenkins.scm.api.SCMSource;
+import jenkins.scm.api.mixin.ChangeRequestCheckoutStrategy;
+import jenkins.scm.api.trait.SCMBuilder;
+import jenkins.scm.api.trait.SCMSourceContext;
+import jenkins.scm.api.trait.SCMSourceTrait;
+import jenkins.scm.api.trait.SCMSourceTraitDescriptor;
+import jenkins.scm.impl.ChangeRequestSCMHeadCategory;
+import jenkins.scm.impl.trait.Discovery;
+import org.jenkinsci.Symbol;
+import org.kohsuke.stapler.DataBoundConstructor;
+
+import java.util.EnumSet;
+import java.util.Set;
+
+/**
+ * Discover the open pull requests of the repositories, see {@link AWSCodeCommitSCMSource}.
+ * The pull requests are only discovered by the sources generated with the API discovery.
+ */
+public class PullRequestDiscoveryTrait extends SCMSourceTrait {
+
+    /**
+     * Build the merge of the pull request with its destination.
+     */
+    public static final int MERGE = 1;
+
+    /**
+     * Build the head of the source branch of the pull request.
+     */
+    public static final int HEAD = 2;
+
+    /**
+     * Build both, as two heads.
+     */
+    public static final int BOTH = MERGE | HEAD;
+
+    /**
+     * The strategies, {@link #MERGE}, {@link #HEAD} or {@link #BOTH}.
+     */
+    private final int strategyId;
+
+    @DataBoundConstructor
+    public PullRequestDiscoveryTrait(int strategyId) {
+        this.strategyId = strategyId;
+    }
+
+    public int getStrategyId() {
+        return strategyId;
+    }
+
+    /**
+     * @return the checkouts of the pull requests, merge by default
+     */
+    @NonNull
+    public Set<ChangeRequestCheckoutStrategy> getStrategies() {
+        final Set<ChangeRequestCheckoutStrategy> strategies = EnumSet.noneOf(ChangeRequestCheckoutStrategy.class);
+        if ((strategyId & MERGE) != 0) {
+            strategies.add(ChangeRequestCheckoutStrategy.MERGE);
+        }
+        if ((strategyId & HEAD) != 0) {
+            strategies.add(ChangeRequestCheckoutStrategy.HEAD);
+        }
+        if (strategies.isEmpty()) {
+            strategies.add(ChangeRequestCheckoutStrategy.MERGE);
+        }
+        return strategies;
+    }
+
+    @Override
+    public boolean includeCategory(@NonNull SCMHeadCategory category) {
+        return category instanceof ChangeRequestSCMHeadCategory;
+    }
+
+    /**
+     * Our descriptor.
+     */
+    @Symbol("codeCommitPullRequestDiscovery")
+    @Extension
+    @Discovery
+    public static class DescriptorImpl extends SCMSourceTraitDescriptor {
+
+        @NonNull
+        @Override
+        public String getDisplayName() {
+            return Messages.PullRequestDiscoveryTrait_DisplayName();
+        }
+
+        @Override
+        public Class<? extends SCMSourceContext> getContextClass() {
+            return GitSCMSourceContext.class;
+        }
+
+        @Override
+        public Class<? extends SCMBuilder> getBuilderClass() {
+            return GitSCMBuilder.class;
+        }
+
+        @Override
+        public Class<? extends SCM> getScmClass() {
+            return GitSCM.class;
+        }
+
+        /**
+         * Only the sources of code commit discover the pull requests, not the plain git sources.
+         */
+        @Override
+        public Class<? extends SCMSource> getSourceClass() {
+            return AWSCodeCommitSCMSource.class;
+        }
+
+        @SuppressWarnings("unused") // stapler form binding
+        public ListBoxModel doFillStrategyIdItems() {
+            final ListBoxModel result = new ListBoxModel();
+            result.add(Messages.PullRequestDiscoveryTrait_Merge(), String.valueOf(MERGE));
+            result.add(Messages.PullRequestDiscoveryTrait_Head(), String.valueOf(HEAD));
+            result.add(Messages.PullRequestDiscoveryTrait_Both(), String.valueOf(BOTH));
+            return result;
+        }
+    }
+}
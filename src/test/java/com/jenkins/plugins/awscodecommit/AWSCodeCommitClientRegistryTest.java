@@ -0,0 +1,109 @@
+/**
+ * The MIT License
+ * Copyright © 2016 Stephane Jeandeaux and all contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.jenkins.plugins.awscodecommit;
+
+import com.amazonaws.auth.AWSStaticCredentialsProvider;
+import com.amazonaws.auth.BasicAWSCredentials;
+import com.amazonaws.services.codecommit.AWSCodeCommit;
+import org.junit.After;
+import org.junit.Test;
+
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.not;
+import static org.hamcrest.Matchers.sameInstance;
+import static org.junit.Assert.assertThat;
+
+
+public class AWSCodeCommitClientRegistryTest {
+
+    private final AWSCodeCommitClientRegistry registry = AWSCodeCommitClientRegistry.get();
+
+    @After
+    public void closeAll() {
+        registry.closeAll();
+    }
+
+    @Test
+    public void given__lease__when__same_region_and_credentials__then__same_client() throws Exception {
+        final AWSStaticCredentialsProvider credentials = new AWSStaticCredentialsProvider(new BasicAWSCredentials(AwCodeCommitUtils.FAKE, AwCodeCommitUtils.FAKE));
+
+        final AWSCodeCommit first = registry.lease("us-east-1", "id", credentials, false).getClient();
+        final AWSCodeCommit second = registry.lease("us-east-1", "id", credentials, false).getClient();
+
+        assertThat(second, is(sameInstance(first)));
+        assertThat(registry.size(), is(1));
+    }
+
+    @Test
+    public void given__lease__when__updated_credentials__then__new_client() throws Exception {
+        final AWSCodeCommit first = registry.lease("us-east-1", "id",
+                new AWSStaticCredentialsProvider(new BasicAWSCredentials(AwCodeCommitUtils.FAKE, AwCodeCommitUtils.FAKE)), false).getClient();
+        final AWSCodeCommit second = registry.lease("us-east-1", "id",
+                new AWSStaticCredentialsProvider(new BasicAWSCredentials(AwCodeCommitUtils.FAKE, AwCodeCommitUtils.FAKE)), false).getClient();
+
+        assertThat(second, is(not(sameInstance(first))));
+    }
+
+    @Test
+    public void given__lease__when__other_region__then__new_client() throws Exception {
+        final AWSStaticCredentialsProvider credentials = new AWSStaticCredentialsProvider(new BasicAWSCredentials(AwCodeCommitUtils.FAKE, AwCodeCommitUtils.FAKE));
+
+        final AWSCodeCommit first = registry.lease("us-east-1", "id", credentials, false).getClient();
+        final AWSCodeCommit second = registry.lease("eu-west-1", "id", credentials, false).getClient();
+
+        assertThat(second, is(not(sameInstance(first))));
+        assertThat(registry.size(), is(2));
+    }
+
+    @Test
+    public void given__leased_client__when__idle__then__closed_once_released() throws Exception {
+        final AWSStaticCredentialsProvider credentials = new AWSStaticCredentialsProvider(new BasicAWSCredentials(AwCodeCommitUtils.FAKE, AwCodeCommitUtils.FAKE));
+        final AWSCodeCommitClientRegistry.Lease lease = registry.lease("us-east-1", "id", credentials, false);
+
+        registry.closeIdle(Long.MAX_VALUE);
+        assertThat(registry.size(), is(1));
+
+        lease.close();
+        lease.close();
+        registry.closeIdle(Long.MAX_VALUE);
+        assertThat(registry.size(), is(0));
+    }
+
+    @Test
+    public void given__leased_client__when__invalidateAll__then__replaced_and_closed_once_released() throws Exception {
+        final AWSStaticCredentialsProvider credentials = new AWSStaticCredentialsProvider(new BasicAWSCredentials(AwCodeCommitUtils.FAKE, AwCodeCommitUtils.FAKE));
+        final AWSCodeCommitClientRegistry.Lease running = registry.lease("us-east-1", "id", credentials, false);
+        registry.lease("eu-west-1", "id", credentials, false).close();
+
+        registry.invalidateAll();
+
+        //the idle client is closed, the leased one waits for its release
+        assertThat(registry.size(), is(0));
+        assertThat(registry.staleSize(), is(1));
+        try (AWSCodeCommitClientRegistry.Lease next = registry.lease("us-east-1", "id", credentials, false)) {
+            assertThat(next.getClient(), is(not(sameInstance(running.getClient()))));
+        }
+        running.close();
+        assertThat(registry.staleSize(), is(0));
+    }
+}
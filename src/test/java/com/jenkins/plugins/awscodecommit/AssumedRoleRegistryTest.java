@@ -0,0 +1,167 @@
+/**
+ * The MIT License
+ * Copyright © 2016 Stephane Jeandeaux and all contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.jenkins.plugins.awscodecommit;
+
+import com.amazonaws.auth.AWSCredentials;
+import com.amazonaws.auth.AWSCredentialsProvider;
+import com.amazonaws.auth.AWSSessionCredentials;
+import com.amazonaws.auth.AWSStaticCredentialsProvider;
+import com.amazonaws.auth.BasicAWSCredentials;
+import com.amazonaws.client.builder.AwsClientBuilder;
+import com.github.tomakehurst.wiremock.junit.WireMockRule;
+import org.junit.After;
+import org.junit.Rule;
+import org.junit.Test;
+
+import java.text.SimpleDateFormat;
+import java.util.Date;
+import java.util.TimeZone;
+import java.util.concurrent.TimeUnit;
+
+import static com.github.tomakehurst.wiremock.client.WireMock.aResponse;
+import static com.github.tomakehurst.wiremock.client.WireMock.anyUrl;
+import static com.github.tomakehurst.wiremock.client.WireMock.containing;
+import static com.github.tomakehurst.wiremock.client.WireMock.givenThat;
+import static com.github.tomakehurst.wiremock.client.WireMock.post;
+import static com.github.tomakehurst.wiremock.client.WireMock.postRequestedFor;
+import static com.github.tomakehurst.wiremock.client.WireMock.verify;
+import static com.github.tomakehurst.wiremock.core.WireMockConfiguration.wireMockConfig;
+import static org.hamcrest.Matchers.instanceOf;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.not;
+import static org.hamcrest.Matchers.nullValue;
+import static org.hamcrest.Matchers.sameInstance;
+import static org.junit.Assert.assertThat;
+
+
+public class AssumedRoleRegistryTest {
+
+    private static final String ROLE_ARN = "arn:aws:iam::123456789012:role/jenkins";
+
+    @Rule
+    public WireMockRule wireMockRule = new WireMockRule(wireMockConfig().dynamicPort());
+
+    private AssumedRoleRegistry registry;
+
+    @After
+    public void closeAll() {
+        if (registry != null) {
+            registry.closeAll();
+        }
+    }
+
+    @Test
+    public void given__getCredentials__when__same_role__then__one_session() throws Exception {
+        registry = newRegistry();
+        givenThat(post(anyUrl()).withRequestBody(containing("Action=AssumeRole"))
+                .willReturn(aResponse().withBody(assumeRoleResponse(TimeUnit.HOURS.toMillis(1)))));
+        final AWSCredentialsProvider base = new AWSStaticCredentialsProvider(new BasicAWSCredentials(AwCodeCommitUtils.FAKE, AwCodeCommitUtils.FAKE));
+
+        final AWSCredentialsProvider first = registry.getCredentials("us-east-1", "id", base, ROLE_ARN);
+        final AWSCredentialsProvider second = registry.getCredentials("us-east-1", "id", base, ROLE_ARN);
+        final AWSCredentials credentials = first.getCredentials();
+        second.getCredentials();
+
+        assertThat(second, is(sameInstance(first)));
+        assertThat(credentials, is(instanceOf(AWSSessionCredentials.class)));
+        assertThat(credentials.getAWSAccessKeyId(), is("ASIAEXAMPLE"));
+        assertThat(((AWSSessionCredentials) credentials).getSessionToken(), is("session-token"));
+        verify(1, postRequestedFor(anyUrl()).withRequestBody(containing("RoleArn=arn%3Aaws%3Aiam%3A%3A123456789012%3Arole%2Fjenkins")));
+    }
+
+    @Test
+    public void given__getCredentials__when__updated_base_credentials__then__new_session() throws Exception {
+        registry = newRegistry();
+
+        final AWSCredentialsProvider first = registry.getCredentials("us-east-1", "id",
+                new AWSStaticCredentialsProvider(new BasicAWSCredentials(AwCodeCommitUtils.FAKE, AwCodeCommitUtils.FAKE)), ROLE_ARN);
+        final AWSCredentialsProvider second = registry.getCredentials("us-east-1", "id",
+                new AWSStaticCredentialsProvider(new BasicAWSCredentials(AwCodeCommitUtils.FAKE, AwCodeCommitUtils.FAKE)), ROLE_ARN);
+
+        assertThat(second, is(not(sameInstance(first))));
+        assertThat(registry.size(), is(1));
+    }
+
+    @Test
+    public void given__acquire__when__updated_base_credentials__then__previous_session_closed_after_its_clients() throws Exception {
+        registry = newRegistry();
+        givenThat(post(anyUrl()).withRequestBody(containing("Action=AssumeRole"))
+                .willReturn(aResponse().withBody(assumeRoleResponse(TimeUnit.HOURS.toMillis(1)))));
+
+        final AWSCredentialsProvider first = registry.acquire("us-east-1", "id",
+                new AWSStaticCredentialsProvider(new BasicAWSCredentials(AwCodeCommitUtils.FAKE, AwCodeCommitUtils.FAKE)), ROLE_ARN);
+        final AWSCredentialsProvider second = registry.acquire("us-east-1", "id",
+                new AWSStaticCredentialsProvider(new BasicAWSCredentials(AwCodeCommitUtils.FAKE, AwCodeCommitUtils.FAKE)), ROLE_ARN);
+
+        //the client built on the previous session still calls STS
+        assertThat(first.getCredentials().getAWSAccessKeyId(), is("ASIAEXAMPLE"));
+        assertThat(registry.size(), is(1));
+        assertThat(registry.retiredSize(), is(1));
+
+        registry.release(first);
+        assertThat(registry.retiredSize(), is(0));
+
+        registry.release(second);
+        assertThat(registry.size(), is(1));
+    }
+
+    @Test
+    public void given__getCredentials__when__updated_base_credentials_without_client__then__previous_session_closed() throws Exception {
+        registry = newRegistry();
+
+        registry.getCredentials("us-east-1", "id",
+                new AWSStaticCredentialsProvider(new BasicAWSCredentials(AwCodeCommitUtils.FAKE, AwCodeCommitUtils.FAKE)), ROLE_ARN);
+        registry.getCredentials("us-east-1", "id",
+                new AWSStaticCredentialsProvider(new BasicAWSCredentials(AwCodeCommitUtils.FAKE, AwCodeCommitUtils.FAKE)), ROLE_ARN);
+
+        assertThat(registry.retiredSize(), is(0));
+    }
+
+    @Test
+    public void given__getAccountId__when__role_arn__then__account() throws Exception {
+        assertThat(AssumedRoleRegistry.getAccountId(ROLE_ARN), is("123456789012"));
+        assertThat(AssumedRoleRegistry.getAccountId("arn:aws-cn:iam::123456789012:role/path/jenkins"), is("123456789012"));
+        assertThat(AssumedRoleRegistry.getAccountId("arn:aws:iam::123456789012:user/jenkins"), is(nullValue()));
+        assertThat(AssumedRoleRegistry.getAccountId("jenkins"), is(nullValue()));
+    }
+
+    private AssumedRoleRegistry newRegistry() {
+        return new AssumedRoleRegistry(new AwsClientBuilder.EndpointConfiguration("http://localhost:" + wireMockRule.port(), "us-east-1"));
+    }
+
+    /**
+     * @param ttl the time to live of the session in milliseconds
+     * @return the response of STS
+     */
+    private static String assumeRoleResponse(long ttl) {
+        final SimpleDateFormat format = new SimpleDateFormat("yyyy-MM-dd'T'HH:mm:ss'Z'");
+        format.setTimeZone(TimeZone.getTimeZone("UTC"));
+        return "<AssumeRoleResponse xmlns=\"https://sts.amazonaws.com/doc/2011-06-15/\"><AssumeRoleResult>"
+                + "<Credentials><AccessKeyId>ASIAEXAMPLE</AccessKeyId><SecretAccessKey>secret</SecretAccessKey>"
+                + "<SessionToken>session-token</SessionToken><Expiration>" + format.format(new Date(System.currentTimeMillis() + ttl))
+                + "</Expiration></Credentials>"
+                + "<AssumedRoleUser><Arn>arn:aws:sts::123456789012:assumed-role/jenkins/" + AssumedRoleRegistry.SESSION_NAME + "</Arn>"
+                + "<AssumedRoleId>AROAEXAMPLE:" + AssumedRoleRegistry.SESSION_NAME + "</AssumedRoleId></AssumedRoleUser>"
+                + "</AssumeRoleResult><ResponseMetadata><RequestId>r1</RequestId></ResponseMetadata></AssumeRoleResponse>";
+    }
+}
@@ -29,6 +29,8 @@ import com.amazonaws.auth.AWSCredentialsProvider;
 import com.amazonaws.auth.BasicAWSCredentials;
 import com.amazonaws.client.builder.AwsClientBuilder;
 import com.amazonaws.services.codecommit.AWSCodeCommit;
+import com.amazonaws.services.codecommit.AWSCodeCommitAsync;
+import com.amazonaws.services.codecommit.AWSCodeCommitAsyncClientBuilder;
 import com.amazonaws.services.codecommit.AWSCodeCommitClient;
 import com.github.tomakehurst.wiremock.junit.WireMockRule;
 
@@ -52,26 +54,42 @@ public class AwCodeCommitUtils {
      * @return the client to call API Code Commit
      */
     public static AWSCodeCommit getAwsCodeCommit(WireMockRule wireMockRule) {
-        String serviceEndpoint = new StringBuilder(LOCALHOST).append(wireMockRule.port()).toString();
-        AwsClientBuilder.EndpointConfiguration endpointConfiguration = new AwsClientBuilder.EndpointConfiguration(serviceEndpoint, REGION);
-        ClientConfiguration config = new ClientConfiguration().withProtocol(Protocol.HTTP);
+        return AWSCodeCommitClient.builder()
+                .withEndpointConfiguration(getEndpointConfiguration(wireMockRule))
+                .withClientConfiguration(new ClientConfiguration().withProtocol(Protocol.HTTP))
+                .withCredentials(FAKE_CREDENTIALS)
+                .build();
+    }
+
+    /**
+     * Generate asynchronous client for code commit API
+     *
+     * @return the client to call API Code Commit
+     */
+    public static AWSCodeCommitAsync getAwsCodeCommitAsync(WireMockRule wireMockRule) {
+        return AWSCodeCommitAsyncClientBuilder.standard()
+                .withEndpointConfiguration(getEndpointConfiguration(wireMockRule))
+                .withClientConfiguration(new ClientConfiguration().withProtocol(Protocol.HTTP))
+                .withCredentials(FAKE_CREDENTIALS)
+                .build();
+    }
 
+    private static AwsClientBuilder.EndpointConfiguration getEndpointConfiguration(WireMockRule wireMockRule) {
+        String serviceEndpoint = new StringBuilder(LOCALHOST).append(wireMockRule.port()).toString();
+        return new AwsClientBuilder.EndpointConfiguration(serviceEndpoint, REGION);
+    }
 
-        return AWSCodeCommitClient.builder()
-                .withEndpointConfiguration(endpointConfiguration)
-                .withClientConfiguration(config).withCredentials(new AWSCredentialsProvider() {
+    private static final AWSCredentialsProvider FAKE_CREDENTIALS = new AWSCredentialsProvider() {
 
-                    @Override
-                    public AWSCredentials getCredentials() {
-                        return new BasicAWSCredentials(FAKE, FAKE);
-                    }
+        @Override
+        public AWSCredentials getCredentials() {
+            return new BasicAWSCredentials(FAKE, FAKE);
+        }
 
-                    @Override
-                    public void refresh() {
+        @Override
+        public void refresh() {
 
-                    }
+        }
 
-                })
-                .build();
-    }
+    };
 }
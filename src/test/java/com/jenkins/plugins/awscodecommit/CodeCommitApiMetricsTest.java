@@ -0,0 +1,111 @@
+/**
+ * The MIT License
+ * Copyright © 2016 Stephane Jeandeaux and all contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.jenkins.plugins.awscodecommit;
+
+import com.amazonaws.AmazonServiceException;
+import com.amazonaws.DefaultRequest;
+import com.amazonaws.handlers.RequestHandler2;
+import com.amazonaws.services.codecommit.AbstractAWSCodeCommit;
+import com.amazonaws.services.codecommit.model.GetRepositoryRequest;
+import com.amazonaws.services.codecommit.model.GetRepositoryResult;
+import org.junit.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.is;
+import static org.junit.Assert.assertThat;
+
+
+public class CodeCommitApiMetricsTest {
+
+    @Test
+    public void given__bucket__when__millis__then__upper_bound_power_of_two() throws Exception {
+        assertThat(CodeCommitApiMetrics.bucket(0), is(0));
+        assertThat(CodeCommitApiMetrics.bucket(1), is(0));
+        assertThat(CodeCommitApiMetrics.bucket(2), is(1));
+        assertThat(CodeCommitApiMetrics.bucket(3), is(2));
+        assertThat(CodeCommitApiMetrics.bucket(100), is(7));
+        assertThat(CodeCommitApiMetrics.bucket(TimeUnit.HOURS.toMillis(1)), is(CodeCommitApiMetrics.BUCKETS - 1));
+    }
+
+    @Test
+    public void given__snapshots__when__minus__then__calls_between_snapshots() throws Exception {
+        final CodeCommitApiMetrics metrics = CodeCommitApiMetrics.get();
+        metrics.record("TestOperationBefore", TimeUnit.MILLISECONDS.toNanos(5), false, false);
+        final CodeCommitApiMetrics.Snapshot start = metrics.snapshot();
+
+        for (int i = 0; i < 98; i++) {
+            metrics.record("TestOperation", TimeUnit.MILLISECONDS.toNanos(10), false, false);
+        }
+        metrics.record("TestOperation", TimeUnit.MILLISECONDS.toNanos(1000), true, true);
+        metrics.record("TestOperation", TimeUnit.MILLISECONDS.toNanos(1000), true, false);
+
+        final CodeCommitApiMetrics.Snapshot scan = metrics.snapshot().minus(start);
+        assertThat(scan.getOperations(), contains("TestOperation"));
+        assertThat(scan.getCalls("TestOperation"), is(100L));
+        assertThat(scan.getErrors("TestOperation"), is(2L));
+        assertThat(scan.getThrottles("TestOperation"), is(1L));
+        assertThat(scan.getLatency("TestOperation", 0.5), is(16L));
+        assertThat(scan.getLatency("TestOperation", 0.99), is(1024L));
+        assertThat(scan.getLatency("Other", 0.99), is(0L));
+    }
+
+    @Test
+    public void given__scope__when__calls_of_two_scans__then__each_scan_counts_its_calls() throws Exception {
+        final CodeCommitApiMetrics scan = new CodeCommitApiMetrics();
+        final CodeCommitApiMetrics other = new CodeCommitApiMetrics();
+        final RequestHandler2 handler = CodeCommitApiMetrics.get().newRequestHandler();
+        final long before = CodeCommitApiMetrics.get().snapshot().getCalls("GetRepository");
+
+        final GetRepositoryRequest scanRequest = new GetRepositoryRequest().withRepositoryName("one");
+        scan.scope(new RepositoryClient()).getRepository(scanRequest);
+        final GetRepositoryRequest otherRequest = new GetRepositoryRequest().withRepositoryName("two");
+        other.scope(new RepositoryClient()).getRepository(otherRequest);
+        for (GetRepositoryRequest request : new GetRepositoryRequest[]{scanRequest, otherRequest, scanRequest}) {
+            final DefaultRequest<GetRepositoryRequest> call = new DefaultRequest<>(request, "codecommit");
+            handler.beforeRequest(call);
+            handler.afterResponse(call, null);
+        }
+
+        assertThat(scan.snapshot().getCalls("GetRepository"), is(2L));
+        assertThat(other.snapshot().getCalls("GetRepository"), is(1L));
+        assertThat(CodeCommitApiMetrics.get().snapshot().getCalls("GetRepository") - before, is(3L));
+    }
+
+    @Test(expected = AmazonServiceException.class)
+    public void given__scope__when__call_fails__then__exception_of_the_client() throws Exception {
+        new CodeCommitApiMetrics().scope(new RepositoryClient()).getRepository(new GetRepositoryRequest());
+    }
+
+    private static class RepositoryClient extends AbstractAWSCodeCommit {
+
+        @Override
+        public GetRepositoryResult getRepository(GetRepositoryRequest request) {
+            if (request.getRepositoryName() == null) {
+                throw new AmazonServiceException("Repository name is required");
+            }
+            return new GetRepositoryResult();
+        }
+    }
+}
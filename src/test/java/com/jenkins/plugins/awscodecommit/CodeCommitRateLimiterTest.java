@@ -0,0 +1,118 @@
+/**
+ * The MIT License
+ * Copyright © 2016 Stephane Jeandeaux and all contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.jenkins.plugins.awscodecommit;
+
+import com.amazonaws.AmazonServiceException;
+import org.junit.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.lessThan;
+import static org.hamcrest.Matchers.sameInstance;
+import static org.junit.Assert.assertThat;
+
+
+public class CodeCommitRateLimiterTest {
+
+    @Test
+    public void given__get__when__same_region_and_credentials__then__same_limiter() throws Exception {
+        final CodeCommitRateLimiter limiter = CodeCommitRateLimiter.get("same-limiter", "id", 10);
+        assertThat(CodeCommitRateLimiter.get("same-limiter", "id", 10), is(sameInstance(limiter)));
+    }
+
+    @Test
+    public void given__onThrottle__when__throttled__then__rate_halved() throws Exception {
+        final CodeCommitRateLimiter limiter = CodeCommitRateLimiter.get("rate-halved", "id", 10);
+
+        limiter.onThrottle();
+
+        assertThat(limiter.getRate(), is(5.0));
+        assertThat(limiter.getThrottles(), is(1L));
+    }
+
+    @Test
+    public void given__onSuccess__when__throttled__then__rate_increased_up_to_max() throws Exception {
+        final CodeCommitRateLimiter limiter = CodeCommitRateLimiter.get("rate-increased", "id", 1);
+
+        limiter.onThrottle();
+        limiter.onSuccess();
+        assertThat(limiter.getRate(), is(0.6));
+
+        for (int i = 0; i < 10; i++) {
+            limiter.onSuccess();
+        }
+        assertThat(limiter.getRate(), is(1.0));
+    }
+
+    @Test
+    public void given__acquire__when__no_limit__then__calls_not_delayed() throws Exception {
+        final CodeCommitRateLimiter limiter = CodeCommitRateLimiter.get("no-limit", "id", 0);
+
+        final long start = System.nanoTime();
+        for (int i = 0; i < 1000; i++) {
+            limiter.acquire();
+        }
+        limiter.onThrottle();
+        limiter.onSuccess();
+
+        assertThat(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start), lessThan(1000L));
+        assertThat(limiter.isLimited(), is(false));
+        assertThat(limiter.getRate(), is(0.0));
+        assertThat(limiter.getThrottles(), is(1L));
+    }
+
+    @Test
+    public void given__get__when__limit_set_after_no_limit__then__rate_limited() throws Exception {
+        CodeCommitRateLimiter.get("limit-set", "id", 0);
+
+        final CodeCommitRateLimiter limiter = CodeCommitRateLimiter.get("limit-set", "id", 4);
+
+        assertThat(limiter.isLimited(), is(true));
+        assertThat(limiter.getRate(), is(4.0));
+    }
+
+    @Test
+    public void given__backoff__when__retries__then__jitter_under_ceiling() throws Exception {
+        final CodeCommitRateLimiter limiter = CodeCommitRateLimiter.get("backoff", "id", 10);
+
+        for (int i = 0; i < 100; i++) {
+            assertThat(limiter.backoff(2), lessThan(400L));
+            assertThat(limiter.backoff(30), lessThan(20000L));
+        }
+    }
+
+    @Test
+    public void given__isThrottling__when__throttling_exception__then__true() throws Exception {
+        final AmazonServiceException throttling = new AmazonServiceException("Rate exceeded");
+        throttling.setErrorCode("ThrottlingException");
+        throttling.setStatusCode(400);
+
+        final AmazonServiceException notFound = new AmazonServiceException("Not found");
+        notFound.setErrorCode("RepositoryDoesNotExistException");
+        notFound.setStatusCode(400);
+
+        assertThat(CodeCommitRateLimiter.isThrottling(throttling), is(true));
+        assertThat(CodeCommitRateLimiter.isThrottling(notFound), is(false));
+    }
+}
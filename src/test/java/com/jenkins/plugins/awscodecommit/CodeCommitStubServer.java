@@ -0,0 +1,605 @@
+/**
+ * The MIT License
+ * Copyright © 2016 Stephane Jeandeaux and all contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.jenkins.plugins.awscodecommit;
+
+import com.github.tomakehurst.wiremock.common.FileSource;
+import com.github.tomakehurst.wiremock.common.Json;
+import com.github.tomakehurst.wiremock.extension.Parameters;
+import com.github.tomakehurst.wiremock.extension.ResponseDefinitionTransformer;
+import com.github.tomakehurst.wiremock.http.HttpHeader;
+import com.github.tomakehurst.wiremock.http.HttpHeaders;
+import com.github.tomakehurst.wiremock.http.Request;
+import com.github.tomakehurst.wiremock.http.ResponseDefinition;
+import com.github.tomakehurst.wiremock.junit.WireMockRule;
+import org.apache.commons.codec.binary.Base64;
+import org.apache.commons.codec.digest.DigestUtils;
+import org.apache.commons.lang.StringUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static com.github.tomakehurst.wiremock.client.WireMock.aResponse;
+import static com.github.tomakehurst.wiremock.client.WireMock.anyUrl;
+import static com.github.tomakehurst.wiremock.client.WireMock.post;
+
+/**
+ * A code commit account generated on the fly, for the scans at real-world scale.
+ *
+ * <p>The repositories are named {@code repository-00000}, {@code repository-00001}... and have a branch
+ * {@code master} and {@code branch-1}, {@code branch-2}... The server answers ListRepositories by pages,
+ * GetRepository, BatchGetRepositories, ListTagsForResource, ListBranches, GetBranch, GetFolder and GetFile
+ * (the {@link #FILES} at every commit) like AWS, and can
+ * delay every call, throttle or fail one call on N. The calls are counted by operation, the retries of the
+ * client included.</p>
+ *
+ * <pre>
+ * private final CodeCommitStubServer stub = new CodeCommitStubServer().withRepositories(10000);
+ * &#64;Rule
+ * public WireMockRule wireMockRule = new WireMockRule(wireMockConfig().dynamicPort().extensions(stub));
+ * ...
+ * stub.register(wireMockRule);
+ * </pre>
+ */
+public class CodeCommitStubServer extends ResponseDefinitionTransformer {
+
+    public static final String NAME = "aws-codecommit-stub";
+
+    public static final String LIST_REPOSITORIES = "ListRepositories";
+    public static final String GET_REPOSITORY = "GetRepository";
+    public static final String BATCH_GET_REPOSITORIES = "BatchGetRepositories";
+    public static final String LIST_TAGS_FOR_RESOURCE = "ListTagsForResource";
+    public static final String LIST_BRANCHES = "ListBranches";
+    public static final String GET_BRANCH = "GetBranch";
+    public static final String GET_FOLDER = "GetFolder";
+    public static final String GET_FILE = "GetFile";
+    public static final String LIST_PULL_REQUESTS = "ListPullRequests";
+    public static final String GET_PULL_REQUEST = "GetPullRequest";
+
+    /**
+     * The files of every commit, by path.
+     */
+    public static final Map<String, String> FILES;
+
+    static {
+        final Map<String, String> files = new LinkedHashMap<>();
+        files.put("Jenkinsfile", "node {\n    echo 'hello'\n}\n");
+        files.put("README.md", "# repository\n");
+        files.put("src/main/hello.c", "int main() { return 0; }\n");
+        FILES = Collections.unmodifiableMap(files);
+    }
+
+    public static final String ACCOUNT_ID = "123456789012";
+    public static final String REGION = "us-east-1";
+
+    /**
+     * The header of the operation, e.g. {@code CodeCommit_20150413.ListRepositories}.
+     */
+    private static final String TARGET_HEADER = "X-Amz-Target";
+    private static final String CONTENT_TYPE = "application/x-amz-json-1.1";
+
+    /**
+     * The limits of AWS.
+     */
+    private static final int MAX_BATCH_SIZE = 25;
+    private static final int BRANCH_PAGE_SIZE = 100;
+    private static final int PULL_REQUEST_PAGE_SIZE = 100;
+    private static final int MAX_PULL_REQUESTS = 1000;
+
+    private int repositories;
+    private int branches = 1;
+    private int pageSize = 1000;
+    private int latency;
+    private int throttleEvery;
+    private int serverErrorEvery;
+    private int pullRequests;
+
+    private final AtomicInteger calls = new AtomicInteger();
+    private final AtomicInteger throttles = new AtomicInteger();
+    private final AtomicInteger serverErrors = new AtomicInteger();
+    private final Map<String, AtomicInteger> callsByOperation = new ConcurrentHashMap<>();
+    private final Set<String> closedPullRequests = Collections.newSetFromMap(new ConcurrentHashMap<String, Boolean>());
+
+    /**
+     * @param repositories the number of repositories of the account
+     * @return this
+     */
+    public CodeCommitStubServer withRepositories(int repositories) {
+        this.repositories = repositories;
+        return this;
+    }
+
+    /**
+     * @param branches the number of branches of every repository, at least {@code master}
+     * @return this
+     */
+    public CodeCommitStubServer withBranches(int branches) {
+        this.branches = Math.max(1, branches);
+        return this;
+    }
+
+    /**
+     * @param pullRequests the number of open pull requests of every repository, from {@code branch-<n>} to master
+     * @return this
+     */
+    public CodeCommitStubServer withPullRequests(int pullRequests) {
+        this.pullRequests = Math.min(pullRequests, MAX_PULL_REQUESTS);
+        return this;
+    }
+
+    /**
+     * @param pullRequestId the id of the pull request to close
+     */
+    public void closePullRequest(String pullRequestId) {
+        closedPullRequests.add(pullRequestId);
+    }
+
+    /**
+     * @param pageSize the repositories by page of ListRepositories, 1000 on AWS
+     * @return this
+     */
+    public CodeCommitStubServer withPageSize(int pageSize) {
+        this.pageSize = pageSize;
+        return this;
+    }
+
+    /**
+     * @param latency the delay of every response in milliseconds
+     * @return this
+     */
+    public CodeCommitStubServer withLatency(int latency) {
+        this.latency = latency;
+        return this;
+    }
+
+    /**
+     * @param every one call on this number is answered by a {@code ThrottlingException}, 0 for none
+     * @return this
+     */
+    public CodeCommitStubServer withThrottling(int every) {
+        this.throttleEvery = every;
+        return this;
+    }
+
+    /**
+     * @param every one call on this number is answered by a 500, 0 for none
+     * @return this
+     */
+    public CodeCommitStubServer withServerErrors(int every) {
+        this.serverErrorEvery = every;
+        return this;
+    }
+
+    /**
+     * Route all the calls of the server on this account.
+     *
+     * @param wireMockRule the server, with this extension
+     */
+    public void register(WireMockRule wireMockRule) {
+        wireMockRule.stubFor(post(anyUrl()).willReturn(aResponse().withTransformers(NAME)));
+    }
+
+    /**
+     * @return the name of the repository at this index
+     */
+    public static String repositoryName(int index) {
+        return String.format("repository-%05d", index);
+    }
+
+    /**
+     * @return the calls of all the operations, the failed ones included
+     */
+    public int getCalls() {
+        return calls.get();
+    }
+
+    /**
+     * @param operation the operation, e.g. {@link #LIST_REPOSITORIES}
+     * @return the calls of the operation, the failed ones included
+     */
+    public int getCalls(String operation) {
+        final AtomicInteger count = callsByOperation.get(operation);
+        return count == null ? 0 : count.get();
+    }
+
+    /**
+     * @return the calls answered by a {@code ThrottlingException}
+     */
+    public int getThrottles() {
+        return throttles.get();
+    }
+
+    /**
+     * @return the calls answered by a 500
+     */
+    public int getServerErrors() {
+        return serverErrors.get();
+    }
+
+    /**
+     * Forget the calls.
+     */
+    public void reset() {
+        calls.set(0);
+        throttles.set(0);
+        serverErrors.set(0);
+        callsByOperation.clear();
+    }
+
+    @Override
+    public String getName() {
+        return NAME;
+    }
+
+    @Override
+    public boolean applyGlobally() {
+        return false;
+    }
+
+    @Override
+    public ResponseDefinition transform(Request request, ResponseDefinition responseDefinition, FileSource files, Parameters parameters) {
+        final String target = request.getHeader(TARGET_HEADER);
+        final String operation = target == null ? "" : target.substring(target.indexOf('.') + 1);
+        final int call = calls.incrementAndGet();
+        count(operation);
+
+        if (serverErrorEvery > 0 && call % serverErrorEvery == 0) {
+            serverErrors.incrementAndGet();
+            return error(500, "InternalFailure", "stub server error");
+        }
+        if (throttleEvery > 0 && call % throttleEvery == 0) {
+            throttles.incrementAndGet();
+            return error(400, "ThrottlingException", "Rate exceeded");
+        }
+
+        final Map<?, ?> body = Json.read(request.getBodyAsString(), Map.class);
+        switch (operation) {
+            case LIST_REPOSITORIES:
+                return listRepositories((String) body.get("nextToken"));
+            case GET_REPOSITORY:
+                return getRepository((String) body.get("repositoryName"));
+            case BATCH_GET_REPOSITORIES:
+                return batchGetRepositories((Collection<?>) body.get("repositoryNames"));
+            case LIST_TAGS_FOR_RESOURCE:
+                return listTagsForResource((String) body.get("resourceArn"));
+            case LIST_BRANCHES:
+                return listBranches((String) body.get("repositoryName"), (String) body.get("nextToken"));
+            case GET_BRANCH:
+                return getBranch((String) body.get("repositoryName"), (String) body.get("branchName"));
+            case GET_FOLDER:
+                return getFolder((String) body.get("repositoryName"), (String) body.get("commitSpecifier"), (String) body.get("folderPath"));
+            case GET_FILE:
+                return getFile((String) body.get("repositoryName"), (String) body.get("commitSpecifier"), (String) body.get("filePath"));
+            case LIST_PULL_REQUESTS:
+                return listPullRequests((String) body.get("repositoryName"), (String) body.get("nextToken"));
+            case GET_PULL_REQUEST:
+                return getPullRequest((String) body.get("pullRequestId"));
+            default:
+                return error(400, "UnknownOperationException", operation);
+        }
+    }
+
+    private void count(String operation) {
+        AtomicInteger count = callsByOperation.get(operation);
+        if (count == null) {
+            final AtomicInteger created = new AtomicInteger();
+            count = callsByOperation.putIfAbsent(operation, created);
+            if (count == null) {
+                count = created;
+            }
+        }
+        count.incrementAndGet();
+    }
+
+    private ResponseDefinition listRepositories(String nextToken) {
+        final int from = nextToken == null ? 0 : Integer.parseInt(nextToken);
+        final int to = Math.min(repositories, from + pageSize);
+        final List<Map<String, Object>> page = new ArrayList<>();
+        for (int i = from; i < to; i++) {
+            final Map<String, Object> pair = new LinkedHashMap<>();
+            pair.put("repositoryName", repositoryName(i));
+            pair.put("repositoryId", repositoryId(i));
+            page.add(pair);
+        }
+        final Map<String, Object> result = new LinkedHashMap<>();
+        result.put("repositories", page);
+        if (to < repositories) {
+            result.put("nextToken", String.valueOf(to));
+        }
+        return ok(result);
+    }
+
+    private ResponseDefinition getRepository(String repositoryName) {
+        final int index = indexOf(repositoryName);
+        if (index < 0) {
+            return error(400, "RepositoryDoesNotExistException", repositoryName + " does not exist");
+        }
+        final Map<String, Object> result = new LinkedHashMap<>();
+        result.put("repositoryMetadata", metadata(index));
+        return ok(result);
+    }
+
+    private ResponseDefinition batchGetRepositories(Collection<?> repositoryNames) {
+        if (repositoryNames.size() > MAX_BATCH_SIZE) {
+            return error(400, "MaximumRepositoryNamesExceededException", "at most " + MAX_BATCH_SIZE + " repositories");
+        }
+        final List<Map<String, Object>> found = new ArrayList<>();
+        final List<String> notFound = new ArrayList<>();
+        for (Object repositoryName : repositoryNames) {
+            final int index = indexOf((String) repositoryName);
+            if (index < 0) {
+                notFound.add((String) repositoryName);
+            } else {
+                found.add(metadata(index));
+            }
+        }
+        final Map<String, Object> result = new LinkedHashMap<>();
+        result.put("repositories", found);
+        result.put("repositoriesNotFound", notFound);
+        return ok(result);
+    }
+
+    private ResponseDefinition listTagsForResource(String arn) {
+        final int index = arn == null ? -1 : indexOf(arn.substring(arn.lastIndexOf(':') + 1));
+        if (index < 0) {
+            return error(400, "RepositoryDoesNotExistException", arn + " does not exist");
+        }
+        final Map<String, Object> tags = new LinkedHashMap<>();
+        tags.put("team", "team-" + index % 10);
+        final Map<String, Object> result = new LinkedHashMap<>();
+        result.put("tags", tags);
+        return ok(result);
+    }
+
+    private ResponseDefinition listBranches(String repositoryName, String nextToken) {
+        if (indexOf(repositoryName) < 0) {
+            return error(400, "RepositoryDoesNotExistException", repositoryName + " does not exist");
+        }
+        final int from = nextToken == null ? 0 : Integer.parseInt(nextToken);
+        final int to = Math.min(branches, from + BRANCH_PAGE_SIZE);
+        final List<String> page = new ArrayList<>();
+        for (int i = from; i < to; i++) {
+            page.add(branchName(i));
+        }
+        final Map<String, Object> result = new LinkedHashMap<>();
+        result.put("branches", page);
+        if (to < branches) {
+            result.put("nextToken", String.valueOf(to));
+        }
+        return ok(result);
+    }
+
+    private ResponseDefinition getBranch(String repositoryName, String branchName) {
+        if (indexOf(repositoryName) < 0) {
+            return error(400, "RepositoryDoesNotExistException", repositoryName + " does not exist");
+        }
+        if (branchIndexOf(branchName) < 0) {
+            return error(400, "BranchDoesNotExistException", branchName + " does not exist");
+        }
+        final Map<String, Object> branch = new LinkedHashMap<>();
+        branch.put("branchName", branchName);
+        branch.put("commitId", commitId(repositoryName, branchName));
+        final Map<String, Object> result = new LinkedHashMap<>();
+        result.put("branch", branch);
+        return ok(result);
+    }
+
+    private ResponseDefinition getFolder(String repositoryName, String commitSpecifier, String folderPath) {
+        if (indexOf(repositoryName) < 0) {
+            return error(400, "RepositoryDoesNotExistException", repositoryName + " does not exist");
+        }
+        final String path = StringUtils.strip(folderPath, "/");
+        final String prefix = path.isEmpty() ? "" : path + "/";
+        final List<Map<String, Object>> files = new ArrayList<>();
+        final Map<String, Map<String, Object>> subFolders = new LinkedHashMap<>();
+        for (String file : FILES.keySet()) {
+            if (!file.startsWith(prefix)) {
+                continue;
+            }
+            final String relativePath = file.substring(prefix.length());
+            final int slash = relativePath.indexOf('/');
+            final Map<String, Object> entry = new LinkedHashMap<>();
+            if (slash < 0) {
+                entry.put("absolutePath", file);
+                entry.put("relativePath", relativePath);
+                entry.put("fileMode", "NORMAL");
+                files.add(entry);
+            } else {
+                entry.put("absolutePath", prefix + relativePath.substring(0, slash));
+                entry.put("relativePath", relativePath.substring(0, slash));
+                subFolders.put(relativePath.substring(0, slash), entry);
+            }
+        }
+        if (files.isEmpty() && subFolders.isEmpty()) {
+            return error(400, "FolderDoesNotExistException", folderPath + " does not exist");
+        }
+        final Map<String, Object> result = new LinkedHashMap<>();
+        result.put("commitId", commitSpecifier);
+        result.put("folderPath", path);
+        result.put("files", files);
+        result.put("subFolders", new ArrayList<>(subFolders.values()));
+        return ok(result);
+    }
+
+    private ResponseDefinition getFile(String repositoryName, String commitSpecifier, String filePath) {
+        if (indexOf(repositoryName) < 0) {
+            return error(400, "RepositoryDoesNotExistException", repositoryName + " does not exist");
+        }
+        final String path = StringUtils.strip(filePath, "/");
+        final String content = FILES.get(path);
+        if (content == null) {
+            return error(400, "FileDoesNotExistException", filePath + " does not exist");
+        }
+        final Map<String, Object> result = new LinkedHashMap<>();
+        result.put("commitId", commitSpecifier);
+        result.put("filePath", path);
+        result.put("fileMode", "NORMAL");
+        result.put("fileSize", content.length());
+        result.put("fileContent", Base64.encodeBase64String(content.getBytes(StandardCharsets.UTF_8)));
+        return ok(result);
+    }
+
+    private ResponseDefinition listPullRequests(String repositoryName, String nextToken) {
+        final int index = indexOf(repositoryName);
+        if (index < 0) {
+            return error(400, "RepositoryDoesNotExistException", repositoryName + " does not exist");
+        }
+        final int from = nextToken == null ? 0 : Integer.parseInt(nextToken);
+        final int to = Math.min(pullRequests, from + PULL_REQUEST_PAGE_SIZE);
+        final List<String> page = new ArrayList<>();
+        for (int i = from; i < to; i++) {
+            final String pullRequestId = pullRequestId(index, i);
+            if (!closedPullRequests.contains(pullRequestId)) {
+                page.add(pullRequestId);
+            }
+        }
+        final Map<String, Object> result = new LinkedHashMap<>();
+        result.put("pullRequestIds", page);
+        if (to < pullRequests) {
+            result.put("nextToken", String.valueOf(to));
+        }
+        return ok(result);
+    }
+
+    private ResponseDefinition getPullRequest(String pullRequestId) {
+        final int id;
+        try {
+            id = Integer.parseInt(pullRequestId);
+        } catch (NumberFormatException e) {
+            return error(400, "InvalidPullRequestIdException", pullRequestId + " is not valid");
+        }
+        final int index = (id - 1) / MAX_PULL_REQUESTS;
+        if (id < 1 || index >= repositories || (id - 1) % MAX_PULL_REQUESTS >= pullRequests) {
+            return error(400, "PullRequestDoesNotExistException", pullRequestId + " does not exist");
+        }
+        final String repositoryName = repositoryName(index);
+        final String sourceBranch = "branch-" + ((id - 1) % MAX_PULL_REQUESTS + 1);
+        final Map<String, Object> target = new LinkedHashMap<>();
+        target.put("repositoryName", repositoryName);
+        target.put("sourceReference", "refs/heads/" + sourceBranch);
+        target.put("destinationReference", "refs/heads/master");
+        target.put("sourceCommit", commitId(repositoryName, sourceBranch));
+        target.put("destinationCommit", commitId(repositoryName, "master"));
+        final Map<String, Object> pullRequest = new LinkedHashMap<>();
+        pullRequest.put("pullRequestId", pullRequestId);
+        pullRequest.put("title", "Merge " + sourceBranch);
+        pullRequest.put("pullRequestStatus", closedPullRequests.contains(pullRequestId) ? "CLOSED" : "OPEN");
+        pullRequest.put("creationDate", 1.5E9);
+        pullRequest.put("lastActivityDate", 1.5E9);
+        pullRequest.put("pullRequestTargets", Collections.singletonList(target));
+        final Map<String, Object> result = new LinkedHashMap<>();
+        result.put("pullRequest", pullRequest);
+        return ok(result);
+    }
+
+    /**
+     * @return the id of a pull request of a repository, unique in the account
+     */
+    public static String pullRequestId(int repositoryIndex, int pullRequestIndex) {
+        return String.valueOf(repositoryIndex * MAX_PULL_REQUESTS + pullRequestIndex + 1);
+    }
+
+    /**
+     * @return the commit of the head of the branch, stable between the calls
+     */
+    public static String commitId(String repositoryName, String branchName) {
+        return DigestUtils.sha1Hex(repositoryName + '/' + branchName);
+    }
+
+    private static String branchName(int index) {
+        return index == 0 ? "master" : "branch-" + index;
+    }
+
+    private int branchIndexOf(String branchName) {
+        if ("master".equals(branchName)) {
+            return 0;
+        }
+        if (branchName == null || !branchName.startsWith("branch-")) {
+            return -1;
+        }
+        try {
+            final int index = Integer.parseInt(branchName.substring("branch-".length()));
+            return index > 0 && index < branches ? index : -1;
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    private int indexOf(String repositoryName) {
+        if (repositoryName == null || !repositoryName.startsWith("repository-")) {
+            return -1;
+        }
+        try {
+            final int index = Integer.parseInt(repositoryName.substring("repository-".length()));
+            return index < repositories && repositoryName.equals(repositoryName(index)) ? index : -1;
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    private static String repositoryId(int index) {
+        return String.format("00000000-0000-0000-0000-%012d", index);
+    }
+
+    private static Map<String, Object> metadata(int index) {
+        final String name = repositoryName(index);
+        final Map<String, Object> metadata = new LinkedHashMap<>();
+        metadata.put("accountId", ACCOUNT_ID);
+        metadata.put("repositoryId", repositoryId(index));
+        metadata.put("repositoryName", name);
+        metadata.put("defaultBranch", "master");
+        metadata.put("lastModifiedDate", 1.5E9);
+        metadata.put("creationDate", 1.5E9);
+        metadata.put("cloneUrlHttp", "https://git-codecommit." + REGION + ".amazonaws.com/v1/repos/" + name);
+        metadata.put("cloneUrlSsh", "ssh://git-codecommit." + REGION + ".amazonaws.com/v1/repos/" + name);
+        metadata.put("Arn", "arn:aws:codecommit:" + REGION + ":" + ACCOUNT_ID + ":" + name);
+        return metadata;
+    }
+
+    private ResponseDefinition ok(Object result) {
+        return response(200, Json.write(result));
+    }
+
+    private ResponseDefinition error(int status, String type, String message) {
+        final Map<String, Object> result = new LinkedHashMap<>();
+        result.put("__type", type);
+        result.put("message", message);
+        return response(status, Json.write(result));
+    }
+
+    private ResponseDefinition response(int status, String body) {
+        return aResponse()
+                .withStatus(status)
+                .withHeaders(new HttpHeaders(new HttpHeader("Content-Type", CONTENT_TYPE)))
+                .withFixedDelay(latency > 0 ? latency : null)
+                .withBody(body)
+                .build();
+    }
+}
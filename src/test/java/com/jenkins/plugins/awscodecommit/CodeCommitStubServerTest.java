@@ -0,0 +1,127 @@
+/**
+ * The MIT License
+ * Copyright © 2016 Stephane Jeandeaux and all contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.jenkins.plugins.awscodecommit;
+
+import com.amazonaws.services.codecommit.AWSCodeCommit;
+import com.amazonaws.services.codecommit.model.BatchGetRepositoriesRequest;
+import com.amazonaws.services.codecommit.model.BatchGetRepositoriesResult;
+import com.amazonaws.services.codecommit.model.GetBranchRequest;
+import com.amazonaws.services.codecommit.model.ListBranchesRequest;
+import com.amazonaws.services.codecommit.model.ListBranchesResult;
+import com.amazonaws.services.codecommit.model.ListRepositoriesRequest;
+import com.amazonaws.services.codecommit.model.ListRepositoriesResult;
+import com.amazonaws.services.codecommit.model.RepositoryDoesNotExistException;
+import com.github.tomakehurst.wiremock.junit.WireMockRule;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+
+import static com.github.tomakehurst.wiremock.core.WireMockConfiguration.wireMockConfig;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.nullValue;
+import static org.junit.Assert.assertThat;
+
+
+public class CodeCommitStubServerTest {
+
+    private final CodeCommitStubServer stub = new CodeCommitStubServer()
+            .withRepositories(2500)
+            .withBranches(150);
+
+    @Rule
+    public WireMockRule wireMockRule = new WireMockRule(wireMockConfig().dynamicPort().extensions(stub));
+
+    @Before
+    public void setUp() {
+        stub.register(wireMockRule);
+    }
+
+    @Test
+    public void given__listRepositories__when__2500_repositories__then__3_pages() throws Exception {
+        final AWSCodeCommit client = AwCodeCommitUtils.getAwsCodeCommit(wireMockRule);
+
+        final ListRepositoriesResult first = client.listRepositories(new ListRepositoriesRequest());
+        ListRepositoriesResult result = first;
+        int pages = 1;
+        while (result.getNextToken() != null) {
+            result = client.listRepositories(new ListRepositoriesRequest().withNextToken(result.getNextToken()));
+            pages++;
+        }
+
+        assertThat(pages, is(3));
+        assertThat(result.getRepositories(), hasSize(500));
+        assertThat(result.getRepositories().get(499).getRepositoryName(), is(CodeCommitStubServer.repositoryName(2499)));
+        assertThat(first.getRepositories(), hasSize(1000));
+        assertThat(first.getRepositories().get(0).getRepositoryName(), is("repository-00000"));
+        assertThat(stub.getCalls(CodeCommitStubServer.LIST_REPOSITORIES), is(3));
+    }
+
+    @Test
+    public void given__batchGetRepositories__when__unknown__then__not_found() throws Exception {
+        final AWSCodeCommit client = AwCodeCommitUtils.getAwsCodeCommit(wireMockRule);
+
+        final BatchGetRepositoriesResult result = client.batchGetRepositories(new BatchGetRepositoriesRequest()
+                .withRepositoryNames("repository-00001", "repository-99999"));
+
+        assertThat(result.getRepositories(), hasSize(1));
+        assertThat(result.getRepositories().get(0).getCloneUrlHttp(),
+                is("https://git-codecommit.us-east-1.amazonaws.com/v1/repos/repository-00001"));
+        assertThat(result.getRepositoriesNotFound(), contains("repository-99999"));
+    }
+
+    @Test
+    public void given__branches__when__150_branches__then__2_pages_and_stable_commit() throws Exception {
+        final AWSCodeCommit client = AwCodeCommitUtils.getAwsCodeCommit(wireMockRule);
+
+        final ListBranchesResult first = client.listBranches(new ListBranchesRequest().withRepositoryName("repository-00001"));
+        final ListBranchesResult second = client.listBranches(new ListBranchesRequest().withRepositoryName("repository-00001")
+                .withNextToken(first.getNextToken()));
+
+        assertThat(first.getBranches(), hasSize(100));
+        assertThat(second.getBranches(), hasSize(50));
+        assertThat(second.getNextToken(), is(nullValue()));
+        assertThat(client.getBranch(new GetBranchRequest().withRepositoryName("repository-00001").withBranchName("master"))
+                .getBranch().getCommitId(), is(CodeCommitStubServer.commitId("repository-00001", "master")));
+    }
+
+    @Test(expected = RepositoryDoesNotExistException.class)
+    public void given__getBranch__when__unknown_repository__then__exception() throws Exception {
+        final AWSCodeCommit client = AwCodeCommitUtils.getAwsCodeCommit(wireMockRule);
+
+        client.getBranch(new GetBranchRequest().withRepositoryName("unknown").withBranchName("master"));
+    }
+
+    @Test
+    public void given__throttling__when__call__then__retried_by_client() throws Exception {
+        stub.withThrottling(2);
+        final AWSCodeCommit client = AwCodeCommitUtils.getAwsCodeCommit(wireMockRule);
+
+        client.listRepositories(new ListRepositoriesRequest());
+        client.listRepositories(new ListRepositoriesRequest());
+
+        assertThat(stub.getThrottles(), is(1));
+        assertThat(stub.getCalls(CodeCommitStubServer.LIST_REPOSITORIES), is(3));
+    }
+}
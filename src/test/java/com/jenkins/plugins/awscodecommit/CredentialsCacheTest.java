@@ -0,0 +1,65 @@
+/**
+ * The MIT License
+ * Copyright © 2016 Stephane Jeandeaux and all contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.jenkins.plugins.awscodecommit;
+
+import org.junit.Test;
+
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.nullValue;
+import static org.junit.Assert.assertThat;
+
+
+public class CredentialsCacheTest {
+
+    @Test
+    public void given__get__when__put__then__same_owner_id_and_type() throws Exception {
+        final CredentialsCache cache = new CredentialsCache(CredentialsCache.DEFAULT_TTL);
+
+        cache.put("folder/org", "id", String.class, "credentials");
+
+        assertThat(cache.get("folder/org", "id", String.class), is("credentials"));
+        assertThat(cache.get("folder/other", "id", String.class), is(nullValue()));
+        assertThat(cache.get("folder/org", "other", String.class), is(nullValue()));
+        assertThat(cache.get("folder/org", "id", Integer.class), is(nullValue()));
+    }
+
+    @Test
+    public void given__get__when__expired__then__null() throws Exception {
+        final CredentialsCache cache = new CredentialsCache(-1);
+
+        cache.put("folder/org", "id", String.class, "credentials");
+
+        assertThat(cache.get("folder/org", "id", String.class), is(nullValue()));
+        assertThat(cache.size(), is(0));
+    }
+
+    @Test
+    public void given__clear__when__put__then__null() throws Exception {
+        final CredentialsCache cache = new CredentialsCache(CredentialsCache.DEFAULT_TTL);
+        cache.put("folder/org", "id", String.class, "credentials");
+
+        cache.clear();
+
+        assertThat(cache.get("folder/org", "id", String.class), is(nullValue()));
+    }
+}
@@ -0,0 +1,137 @@
+/**
+ * The MIT License
+ * Copyright © 2016 Stephane Jeandeaux and all contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.jenkins.plugins.awscodecommit;
+
+import com.amazonaws.auth.AWSCredentials;
+import com.amazonaws.auth.AWSCredentialsProvider;
+import com.amazonaws.auth.BasicAWSCredentials;
+import com.amazonaws.auth.BasicSessionCredentials;
+import org.junit.After;
+import org.junit.Test;
+
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.hamcrest.Matchers.greaterThan;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.not;
+import static org.hamcrest.Matchers.sameInstance;
+import static org.junit.Assert.assertThat;
+
+
+public class RefreshingCredentialsProviderTest {
+
+    private final ScheduledExecutorService executor = Executors.newSingleThreadScheduledExecutor();
+
+    @After
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    public void given__getCredentials__when__static_credentials__then__one_lookup_and_no_refresh() throws Exception {
+        final CountingProvider delegate = new CountingProvider(false);
+        final RefreshingCredentialsProvider provider = new RefreshingCredentialsProvider(delegate, executor, 10, TimeUnit.HOURS.toMillis(1));
+
+        final AWSCredentials first = provider.getCredentials();
+        Thread.sleep(100);
+        final AWSCredentials second = provider.getCredentials();
+
+        assertThat(second, is(sameInstance(first)));
+        assertThat(delegate.calls.get(), is(1));
+        assertThat(provider.getRefreshes(), is(0));
+    }
+
+    @Test
+    public void given__getCredentials__when__session_credentials__then__refreshed_in_background() throws Exception {
+        final CountingProvider delegate = new CountingProvider(true);
+        final RefreshingCredentialsProvider provider = new RefreshingCredentialsProvider(delegate, executor, 10, TimeUnit.HOURS.toMillis(1));
+
+        final AWSCredentials first = provider.getCredentials();
+        Thread.sleep(100);
+        final AWSCredentials second = provider.getCredentials();
+
+        assertThat(provider.getRefreshes(), is(greaterThan(0)));
+        assertThat(second, is(not(sameInstance(first))));
+        assertThat(second.getAWSAccessKeyId(), is(not(first.getAWSAccessKeyId())));
+    }
+
+    @Test
+    public void given__refreshInBackground__when__idle__then__next_use_looks_up_again() throws Exception {
+        final CountingProvider delegate = new CountingProvider(true);
+        final RefreshingCredentialsProvider provider = new RefreshingCredentialsProvider(delegate, executor, TimeUnit.HOURS.toMillis(1), -1);
+
+        provider.getCredentials();
+        provider.refreshInBackground();
+        provider.getCredentials();
+
+        assertThat(provider.getRefreshes(), is(0));
+        assertThat(delegate.calls.get(), is(2));
+    }
+
+    @Test
+    public void given__close__when__session_credentials__then__no_more_refresh() throws Exception {
+        final CountingProvider delegate = new CountingProvider(true);
+        final RefreshingCredentialsProvider provider = new RefreshingCredentialsProvider(delegate, executor, 10, TimeUnit.HOURS.toMillis(1));
+
+        provider.getCredentials();
+        provider.close();
+        //a renewal running during the close may still end
+        Thread.sleep(50);
+        final int refreshes = provider.getRefreshes();
+        Thread.sleep(100);
+        provider.refreshInBackground();
+
+        assertThat(provider.getRefreshes(), is(refreshes));
+        assertThat(delegate.refreshes.get(), is(refreshes));
+    }
+
+    /**
+     * New credentials on every call.
+     */
+    private static final class CountingProvider implements AWSCredentialsProvider {
+
+        private final AtomicInteger calls = new AtomicInteger();
+
+        private final AtomicInteger refreshes = new AtomicInteger();
+
+        private final boolean session;
+
+        private CountingProvider(boolean session) {
+            this.session = session;
+        }
+
+        @Override
+        public AWSCredentials getCredentials() {
+            final String key = "key-" + calls.incrementAndGet();
+            return session ? new BasicSessionCredentials(key, "secret", "token") : new BasicAWSCredentials(key, "secret");
+        }
+
+        @Override
+        public void refresh() {
+            refreshes.incrementAndGet();
+        }
+    }
+}
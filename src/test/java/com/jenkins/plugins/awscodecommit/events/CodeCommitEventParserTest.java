@@ -0,0 +1,116 @@
+/**
+ * The MIT License
+ * Copyright © 2016 Stephane Jeandeaux and all contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.jenkins.plugins.awscodecommit.events;
+
+import jenkins.scm.api.SCMEvent;
+import net.sf.json.JSONObject;
+import org.apache.commons.io.IOUtils;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.nullValue;
+import static org.junit.Assert.assertThat;
+
+
+public class CodeCommitEventParserTest {
+
+    @Test
+    public void given__eventbridge_reference_updated__when__parse__then__branch_updated() throws Exception {
+        final List<CodeCommitEvent> events = CodeCommitEventParser.parse(read("eventbridge-reference-updated.json"));
+
+        assertThat(events, hasSize(1));
+        final CodeCommitEvent event = events.get(0);
+        assertThat(event.getType(), is(SCMEvent.Type.UPDATED));
+        assertThat(event.getRegion(), is("us-east-1"));
+        assertThat(event.getAccountId(), is("123456789012"));
+        assertThat(event.getRepositoryName(), is("repository-name-1"));
+        assertThat(event.getReferenceType(), is(CodeCommitEvent.BRANCH));
+        assertThat(event.getReferenceName(), is("master"));
+        assertThat(event.getCommitId(), is("0123456789abcdef0123456789abcdef01234567"));
+        assertThat(event.isRepositoryEvent(), is(false));
+    }
+
+    @Test
+    public void given__sns_trigger__when__parse__then__one_event_by_reference() throws Exception {
+        final List<CodeCommitEvent> events = CodeCommitEventParser.parse(read("sns-trigger.json"));
+
+        assertThat(events, hasSize(2));
+        assertThat(events.get(0).getType(), is(SCMEvent.Type.CREATED));
+        assertThat(events.get(0).getRegion(), is("eu-west-1"));
+        assertThat(events.get(0).getRepositoryName(), is("repository-name-2"));
+        assertThat(events.get(0).getReferenceType(), is(CodeCommitEvent.BRANCH));
+        assertThat(events.get(0).getReferenceName(), is("feature/one"));
+        assertThat(events.get(1).getType(), is(SCMEvent.Type.REMOVED));
+        assertThat(events.get(1).getReferenceType(), is(CodeCommitEvent.TAG));
+        assertThat(events.get(1).getReferenceName(), is("v1.0"));
+        assertThat(events.get(1).getCommitId(), is(nullValue()));
+    }
+
+    @Test
+    public void given__cloudtrail_create_repository__when__parse__then__repository_created() throws Exception {
+        final List<CodeCommitEvent> events = CodeCommitEventParser.parse(read("cloudtrail-create-repository.json"));
+
+        assertThat(events, hasSize(1));
+        assertThat(events.get(0).getType(), is(SCMEvent.Type.CREATED));
+        assertThat(events.get(0).getRepositoryName(), is("repository-name-3"));
+        assertThat(events.get(0).isRepositoryEvent(), is(true));
+    }
+
+    @Test
+    public void given__other_notification__when__parse__then__no_event() throws Exception {
+        assertThat(CodeCommitEventParser.parse("{\"source\":\"aws.s3\",\"detail\":{}}"), hasSize(0));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void given__not_json__when__parse__then__IllegalArgumentException() throws Exception {
+        CodeCommitEventParser.parse("not json");
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void given__sns_message_not_json__when__parse__then__IllegalArgumentException() throws Exception {
+        CodeCommitEventParser.parse(JSONObject.fromObject("{\"Type\":\"Notification\",\"Message\":\"not json\"}"));
+    }
+
+    @Test
+    public void given__remotes__when__isRemote__then__only_same_region_and_name() throws Exception {
+        final CodeCommitEvent event = CodeCommitEventParser.parse(read("eventbridge-reference-updated.json")).get(0);
+
+        assertThat(event.isRemote("https://git-codecommit.us-east-1.amazonaws.com/v1/repos/repository-name-1"), is(true));
+        assertThat(event.isRemote("ssh://git-codecommit.us-east-1.amazonaws.com/v1/repos/repository-name-1"), is(true));
+        assertThat(event.isRemote("codecommit::us-east-1://repository-name-1"), is(true));
+        assertThat(event.isRemote("https://git-codecommit.eu-west-1.amazonaws.com/v1/repos/repository-name-1"), is(false));
+        assertThat(event.isRemote("https://git-codecommit.us-east-1.amazonaws.com/v1/repos/repository-name-10"), is(false));
+    }
+
+    private static String read(String name) throws IOException {
+        try (InputStream in = CodeCommitEventParserTest.class.getResourceAsStream("/events/" + name)) {
+            return IOUtils.toString(in, StandardCharsets.UTF_8.name());
+        }
+    }
+}
@@ -0,0 +1,138 @@
+/**
+ * The MIT License
+ * Copyright © 2016 Stephane Jeandeaux and all contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.jenkins.plugins.awscodecommit.events;
+
+import com.amazonaws.ClientConfiguration;
+import com.amazonaws.Protocol;
+import com.amazonaws.auth.AWSStaticCredentialsProvider;
+import com.amazonaws.auth.BasicAWSCredentials;
+import com.amazonaws.client.builder.AwsClientBuilder;
+import com.amazonaws.services.sqs.AmazonSQS;
+import com.amazonaws.services.sqs.AmazonSQSClientBuilder;
+import com.github.tomakehurst.wiremock.junit.WireMockRule;
+import com.jenkins.plugins.awscodecommit.AwCodeCommitUtils;
+import org.apache.commons.codec.digest.DigestUtils;
+import org.apache.commons.lang.StringEscapeUtils;
+import org.junit.Rule;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static com.github.tomakehurst.wiremock.client.WireMock.aResponse;
+import static com.github.tomakehurst.wiremock.client.WireMock.containing;
+import static com.github.tomakehurst.wiremock.client.WireMock.givenThat;
+import static com.github.tomakehurst.wiremock.client.WireMock.postRequestedFor;
+import static com.github.tomakehurst.wiremock.client.WireMock.post;
+import static com.github.tomakehurst.wiremock.client.WireMock.urlEqualTo;
+import static com.github.tomakehurst.wiremock.client.WireMock.verify;
+import static com.github.tomakehurst.wiremock.core.WireMockConfiguration.wireMockConfig;
+import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.is;
+import static org.junit.Assert.assertThat;
+
+
+public class CodeCommitQueueConsumerTest {
+
+    private static final String QUEUE_PATH = "/123456789012/codecommit";
+
+    private static final String EVENT = "{\"source\":\"aws.codecommit\",\"region\":\"us-east-1\",\"account\":\"123456789012\","
+            + "\"detail\":{\"event\":\"referenceUpdated\",\"repositoryName\":\"repository-name-1\","
+            + "\"referenceType\":\"branch\",\"referenceName\":\"master\",\"commitId\":\"0123456789abcdef\"}}";
+
+    @Rule
+    public WireMockRule wireMockRule = new WireMockRule(wireMockConfig().dynamicPort());
+
+    @Test
+    public void given__poll__when__messages__then__events_fired_and_messages_deleted() throws Exception {
+        givenThat(post(urlEqualTo(QUEUE_PATH)).withRequestBody(containing("Action=ReceiveMessage"))
+                .willReturn(aResponse().withBody("<ReceiveMessageResponse><ReceiveMessageResult>"
+                        + message("1", "handle-1", EVENT)
+                        + message("2", "handle-2", "not json")
+                        + "</ReceiveMessageResult><ResponseMetadata><RequestId>r1</RequestId></ResponseMetadata></ReceiveMessageResponse>")));
+        givenThat(post(urlEqualTo(QUEUE_PATH)).withRequestBody(containing("Action=DeleteMessageBatch"))
+                .willReturn(aResponse().withBody("<DeleteMessageBatchResponse><DeleteMessageBatchResult>"
+                        + "<DeleteMessageBatchResultEntry><Id>0</Id></DeleteMessageBatchResultEntry>"
+                        + "<DeleteMessageBatchResultEntry><Id>1</Id></DeleteMessageBatchResultEntry>"
+                        + "</DeleteMessageBatchResult><ResponseMetadata><RequestId>r2</RequestId></ResponseMetadata></DeleteMessageBatchResponse>")));
+
+        final List<CodeCommitEvent> fired = new ArrayList<>();
+        try (CodeCommitQueueConsumer consumer = newConsumer(fired)) {
+            assertThat(consumer.poll(), is(2));
+        }
+
+        assertThat(fired, hasSize(1));
+        assertThat(fired.get(0).getRepositoryName(), is("repository-name-1"));
+        assertThat(fired.get(0).getReferenceName(), is("master"));
+        verify(1, postRequestedFor(urlEqualTo(QUEUE_PATH)).withRequestBody(containing("MaxNumberOfMessages=10")));
+        verify(1, postRequestedFor(urlEqualTo(QUEUE_PATH)).withRequestBody(containing("ReceiptHandle=handle-1"))
+                .withRequestBody(containing("ReceiptHandle=handle-2")));
+    }
+
+    @Test
+    public void given__poll__when__no_message__then__no_delete() throws Exception {
+        givenThat(post(urlEqualTo(QUEUE_PATH)).withRequestBody(containing("Action=ReceiveMessage"))
+                .willReturn(aResponse().withBody("<ReceiveMessageResponse><ReceiveMessageResult/>"
+                        + "<ResponseMetadata><RequestId>r1</RequestId></ResponseMetadata></ReceiveMessageResponse>")));
+
+        try (CodeCommitQueueConsumer consumer = newConsumer(new ArrayList<CodeCommitEvent>())) {
+            assertThat(consumer.poll(), is(0));
+        }
+
+        verify(0, postRequestedFor(urlEqualTo(QUEUE_PATH)).withRequestBody(containing("Action=DeleteMessageBatch")));
+    }
+
+    @Test
+    public void given__getEndpointConfiguration__when__queue_url__then__region_of_url() throws Exception {
+        final AwsClientBuilder.EndpointConfiguration aws = CodeCommitQueueConsumer.getEndpointConfiguration(
+                "https://sqs.eu-west-3.amazonaws.com/123456789012/codecommit");
+        assertThat(aws.getServiceEndpoint(), is("https://sqs.eu-west-3.amazonaws.com"));
+        assertThat(aws.getSigningRegion(), is("eu-west-3"));
+
+        final AwsClientBuilder.EndpointConfiguration local = CodeCommitQueueConsumer.getEndpointConfiguration(
+                "http://localhost:9324/queue/codecommit");
+        assertThat(local.getServiceEndpoint(), is("http://localhost:9324"));
+        assertThat(local.getSigningRegion(), is("us-east-1"));
+    }
+
+    private CodeCommitQueueConsumer newConsumer(final List<CodeCommitEvent> fired) {
+        final String queueUrl = "http://localhost:" + wireMockRule.port() + QUEUE_PATH;
+        final AmazonSQS sqs = AmazonSQSClientBuilder.standard()
+                .withEndpointConfiguration(CodeCommitQueueConsumer.getEndpointConfiguration(queueUrl))
+                .withClientConfiguration(new ClientConfiguration().withProtocol(Protocol.HTTP))
+                .withCredentials(new AWSStaticCredentialsProvider(new BasicAWSCredentials(AwCodeCommitUtils.FAKE, AwCodeCommitUtils.FAKE)))
+                .build();
+        return new CodeCommitQueueConsumer(sqs, queueUrl, 60, 1) {
+            @Override
+            protected void fire(List<CodeCommitEvent> events) {
+                fired.addAll(events);
+            }
+        };
+    }
+
+    private static String message(String id, String receiptHandle, String body) {
+        return "<Message><MessageId>" + id + "</MessageId><ReceiptHandle>" + receiptHandle + "</ReceiptHandle>"
+                + "<MD5OfBody>" + DigestUtils.md5Hex(body) + "</MD5OfBody>"
+                + "<Body>" + StringEscapeUtils.escapeXml(body) + "</Body></Message>";
+    }
+}
@@ -0,0 +1,240 @@
+/**
+ * The MIT License
+ * Copyright © 2016 Stephane Jeandeaux and all contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.jenkins.plugins.awscodecommit.navigator;
+
+import com.amazonaws.services.codecommit.AWSCodeCommit;
+import com.github.tomakehurst.wiremock.junit.WireMockRule;
+import com.jenkins.plugins.awscodecommit.AwCodeCommitUtils;
+import com.jenkins.plugins.awscodecommit.CodeCommitStubServer;
+import jenkins.scm.api.trait.SCMNavigatorRequest;
+import org.apache.commons.io.output.NullOutputStream;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static com.github.tomakehurst.wiremock.core.WireMockConfiguration.wireMockConfig;
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.greaterThan;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.lessThan;
+import static org.hamcrest.Matchers.lessThanOrEqualTo;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.fail;
+import static org.junit.Assume.assumeThat;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+/**
+ * The scans of accounts with thousands of repositories, with budgets on the duration and on the calls of the API.
+ */
+public class AWSCodeCommitSCMNavigatorScaleTest {
+
+    private static final int REPOSITORIES = 5000;
+
+    /**
+     * The calls without failures: 5 pages of 1000 repositories, 200 batches of 25 repositories.
+     */
+    private static final int LIST_CALLS = 5;
+    private static final int BATCH_CALLS = 200;
+
+    /**
+     * The margin of the budgets on the duration, on top of twice the duration of a scan without latency.
+     */
+    private static final long MARGIN_MILLIS = 500;
+
+    private final CodeCommitStubServer stub = new CodeCommitStubServer().withRepositories(REPOSITORIES);
+
+    private final CodeCommitStubServer otherStub = new CodeCommitStubServer().withRepositories(REPOSITORIES);
+
+    @Rule
+    public WireMockRule wireMockRule = new WireMockRule(wireMockConfig().dynamicPort().containerThreads(32).extensions(stub));
+
+    /**
+     * A second region.
+     */
+    @Rule
+    public WireMockRule otherWireMockRule = new WireMockRule(wireMockConfig().dynamicPort().extensions(otherStub));
+
+    private AWSCodeCommit client;
+    private AWSCodeCommitSCMNavigatorRequest requestMock;
+    private SCMNavigatorRequest.Witness witnessMock;
+    private SourceFactory sourceFactory;
+    private PrintStream logger;
+
+    @Before
+    public void setUp() {
+        stub.register(wireMockRule);
+        client = AwCodeCommitUtils.getAwsCodeCommit(wireMockRule);
+        requestMock = mock(AWSCodeCommitSCMNavigatorRequest.class);
+        witnessMock = mock(SCMNavigatorRequest.Witness.class);
+        sourceFactory = new SourceFactory("id", requestMock);
+        logger = new PrintStream(new NullOutputStream());
+    }
+
+    @Test
+    public void given__5000_repositories__when__scan__then__one_batch_call_by_25_repositories() throws Exception {
+        final AWSCodeCommitSCMNavigator nav = new AWSCodeCommitSCMNavigator();
+
+        final long duration = time(nav);
+
+        verify(requestMock, times(REPOSITORIES)).process(anyString(), eq(sourceFactory), isNull(), eq(witnessMock));
+        assertThat(stub.getCalls(CodeCommitStubServer.LIST_REPOSITORIES), is(LIST_CALLS));
+        assertThat(stub.getCalls(CodeCommitStubServer.BATCH_GET_REPOSITORIES), is(BATCH_CALLS));
+        assertThat(stub.getCalls(CodeCommitStubServer.GET_REPOSITORY), is(0));
+        assertThat(duration, lessThan(30000L));
+    }
+
+    @Test
+    public void given__5000_repositories__when__throttling_and_server_errors__then__all_processed_within_retries() throws Exception {
+        //sequential, so a retry never lands on another failure
+        stub.withThrottling(10).withServerErrors(25);
+        final AWSCodeCommitSCMNavigator nav = new AWSCodeCommitSCMNavigator();
+
+        final long duration = time(nav);
+
+        verify(requestMock, times(REPOSITORIES)).process(anyString(), eq(sourceFactory), isNull(), eq(witnessMock));
+        assertThat(stub.getThrottles(), greaterThan(0));
+        assertThat(stub.getServerErrors(), greaterThan(0));
+        //only the failed calls are retried by the client
+        assertThat(stub.getCalls(), is(LIST_CALLS + BATCH_CALLS + stub.getThrottles() + stub.getServerErrors()));
+        assertThat(duration, lessThan(60000L));
+    }
+
+    @Test
+    public void given__5000_repositories__when__latency__then__concurrency_within_budget() throws Exception {
+        final long overhead = warmUp();
+        final int latency = 50;
+        final int concurrency = 8;
+        stub.withLatency(latency);
+        final AWSCodeCommitSCMNavigator nav = new AWSCodeCommitSCMNavigator();
+        nav.setConcurrency(concurrency);
+
+        final long duration = time(nav);
+
+        verify(requestMock, times(REPOSITORIES)).process(anyString(), eq(sourceFactory), isNull(), eq(witnessMock));
+        assertThat(stub.getCalls(), lessThanOrEqualTo(LIST_CALLS + BATCH_CALLS));
+        //the pages are listed one after the other, the batches by 8
+        final long budget = budget(LIST_CALLS + (BATCH_CALLS + concurrency - 1) / concurrency, latency, overhead);
+        //sequential, the 200 batches alone would take 10s: a slower machine cannot tell the difference
+        assumeThat(budget, lessThan((long) BATCH_CALLS * latency));
+        assertThat(duration, lessThan(budget));
+    }
+
+    @Test
+    public void given__2_regions__when__scan__then__concurrent_and_qualified() throws Exception {
+        final long overhead = warmUp();
+        final int latency = 20;
+        stub.withLatency(latency);
+        otherStub.withLatency(latency);
+        otherStub.register(otherWireMockRule);
+        final AWSCodeCommit otherClient = AwCodeCommitUtils.getAwsCodeCommit(otherWireMockRule);
+
+        final Map<String, AWSCodeCommit> clients = new LinkedHashMap<>();
+        clients.put("eu-west-1", client);
+        clients.put("us-east-1", otherClient);
+        final Map<String, SourceFactory> sourceFactories = new LinkedHashMap<>();
+        sourceFactories.put("eu-west-1", new SourceFactory("id", requestMock).withAwsCodeCommit(client).withRegion("eu-west-1"));
+        sourceFactories.put("us-east-1", new SourceFactory("id", requestMock).withAwsCodeCommit(otherClient).withRegion("us-east-1"));
+
+        final long start = System.currentTimeMillis();
+        new AWSCodeCommitSCMNavigator().processRegions(clients, requestMock, witnessMock, sourceFactories, ScanLog.verbose(logger));
+        final long twoRegions = System.currentTimeMillis() - start;
+
+        verify(requestMock).process(eq("eu-west-1~repository-00000"), eq(sourceFactories.get("eu-west-1")), isNull(), eq(witnessMock));
+        verify(requestMock).process(eq("us-east-1~repository-00000"), eq(sourceFactories.get("us-east-1")), isNull(), eq(witnessMock));
+        verify(requestMock, times(REPOSITORIES)).process(anyString(), eq(sourceFactories.get("us-east-1")), isNull(), eq(witnessMock));
+        //the slowest region, not the sum of the regions: each region calls the API one call after the other
+        final long budget = budget(LIST_CALLS + BATCH_CALLS, latency, overhead);
+        assumeThat(budget, lessThan(2L * (LIST_CALLS + BATCH_CALLS) * latency));
+        assertThat(twoRegions, lessThan(budget));
+    }
+
+    @Test
+    public void given__2_accounts__when__one_fails__then__other_scanned_and_exception() throws Exception {
+        otherStub.withServerErrors(1);
+        otherStub.register(otherWireMockRule);
+
+        final Map<String, AWSCodeCommit> clients = new LinkedHashMap<>();
+        clients.put("111111111111 us-east-1", client);
+        clients.put("222222222222 us-east-1", AwCodeCommitUtils.getAwsCodeCommit(otherWireMockRule));
+        final Map<String, SourceFactory> sourceFactories = new LinkedHashMap<>();
+        sourceFactories.put("111111111111 us-east-1", new SourceFactory("id", requestMock)
+                .withAwsCodeCommit(client).withAccount("111111111111").withRegion("us-east-1"));
+        sourceFactories.put("222222222222 us-east-1", new SourceFactory("id", requestMock)
+                .withAwsCodeCommit(clients.get("222222222222 us-east-1")).withAccount("222222222222").withRegion("us-east-1"));
+
+        try {
+            new AWSCodeCommitSCMNavigator().processRegions(clients, requestMock, witnessMock, sourceFactories, ScanLog.verbose(logger));
+            fail("the scan of the account 222222222222 failed");
+        } catch (IOException e) {
+            assertThat(e.getMessage(), containsString("222222222222"));
+        }
+
+        verify(requestMock).process(eq("111111111111~us-east-1~repository-00000"), eq(sourceFactories.get("111111111111 us-east-1")), isNull(), eq(witnessMock));
+        verify(requestMock, times(REPOSITORIES)).process(anyString(), eq(sourceFactories.get("111111111111 us-east-1")), isNull(), eq(witnessMock));
+    }
+
+    /**
+     * Scan without latency until the JVM and the stub are warm, then forget the calls.
+     *
+     * @return the duration of a warm scan without latency in milliseconds, the time of the plugin and of the stub
+     */
+    private long warmUp() throws Exception {
+        final AWSCodeCommitSCMNavigatorRequest warmUpRequest = mock(AWSCodeCommitSCMNavigatorRequest.class);
+        final SourceFactory warmUpFactory = new SourceFactory("id", warmUpRequest);
+        new AWSCodeCommitSCMNavigator().processRepositories(client, warmUpRequest, witnessMock, warmUpFactory, logger);
+        final long start = System.currentTimeMillis();
+        new AWSCodeCommitSCMNavigator().processRepositories(client, warmUpRequest, witnessMock, warmUpFactory, logger);
+        final long overhead = System.currentTimeMillis() - start;
+        stub.reset();
+        return overhead;
+    }
+
+    /**
+     * @param calls    the calls of the slowest chain of calls, the ones waiting for the previous ones
+     * @param latency  the latency of each call in milliseconds
+     * @param overhead the duration of a scan without latency in milliseconds
+     * @return the budget of a scan in milliseconds
+     */
+    private static long budget(int calls, int latency, long overhead) {
+        return (long) calls * latency + 2 * overhead + MARGIN_MILLIS;
+    }
+
+    /**
+     * @return the wall-clock time of the scan in milliseconds
+     */
+    private long time(AWSCodeCommitSCMNavigator nav) throws Exception {
+        final long start = System.currentTimeMillis();
+        nav.processRepositories(client, requestMock, witnessMock, sourceFactory, logger);
+        return System.currentTimeMillis() - start;
+    }
+}
@@ -23,8 +23,14 @@
 package com.jenkins.plugins.awscodecommit.navigator;
 
 import com.amazonaws.services.codecommit.AWSCodeCommit;
+import com.amazonaws.services.codecommit.model.RepositoryNameIdPair;
 import com.github.tomakehurst.wiremock.junit.WireMockRule;
 import com.jenkins.plugins.awscodecommit.AwCodeCommitUtils;
+import com.jenkins.plugins.awscodecommit.events.AWSCodeCommitSCMHeadEvent;
+import com.jenkins.plugins.awscodecommit.events.AWSCodeCommitSCMSourceEvent;
+import com.jenkins.plugins.awscodecommit.events.CodeCommitEvent;
+import jenkins.scm.api.SCMEvent;
+import jenkins.scm.api.SCMSourceObserver;
 import jenkins.scm.api.trait.SCMNavigatorRequest;
 import org.junit.Rule;
 import org.junit.Test;
@@ -32,11 +38,16 @@ import org.mockito.junit.MockitoJUnit;
 import org.mockito.junit.MockitoRule;
 
 import java.io.PrintStream;
+import java.util.Arrays;
+import java.util.Collections;
 
 import static com.github.tomakehurst.wiremock.client.WireMock.*;
 import static com.github.tomakehurst.wiremock.core.WireMockConfiguration.wireMockConfig;
 import static com.github.tomakehurst.wiremock.stubbing.Scenario.STARTED;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.containsString;
 import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.lessThan;
 import static org.hamcrest.Matchers.nullValue;
 import static org.junit.Assert.assertThat;
 import static org.mockito.Mockito.*;
@@ -75,6 +86,82 @@ public class AWSCodeCommitSCMNavigatorTest {
         assertThat(nav.getRegion(), is("us-west-2"));
     }
 
+    @Test
+    public void given__getRegionList__when__regions__then_regions_else_region_of_url() throws Exception {
+        AWSCodeCommitSCMNavigator nav = new AWSCodeCommitSCMNavigator();
+        nav.setAwsCodeCommitURL("https://codecommit.us-west-2.amazonaws.com");
+        assertThat(nav.getRegionList(), contains("us-west-2"));
+
+        nav.setRegions(" eu-west-1, us-east-1 ap-southeast-2 eu-west-1");
+        assertThat(nav.getRegionList(), contains("eu-west-1", "us-east-1", "ap-southeast-2"));
+        assertThat(nav.isMatch("us-east-1", "repo-1"), is(true));
+        assertThat(nav.isMatch("us-west-2", "repo-1"), is(false));
+    }
+
+    @Test
+    public void given__toProjectName__when__qualified__then__region_and_repository() throws Exception {
+        final String projectName = AWSCodeCommitSCMNavigator.toProjectName("eu-west-1", "repo-1");
+
+        assertThat(projectName, is("eu-west-1~repo-1"));
+        assertThat(AWSCodeCommitSCMNavigator.toRegion(projectName), is("eu-west-1"));
+        assertThat(AWSCodeCommitSCMNavigator.toRepositoryName(projectName), is("repo-1"));
+        assertThat(AWSCodeCommitSCMNavigator.toRegion("repo-1"), is(nullValue()));
+        assertThat(AWSCodeCommitSCMNavigator.toRepositoryName("repo-1"), is("repo-1"));
+    }
+
+    @Test
+    public void given__toProjectName__when__account__then__account_region_and_repository() throws Exception {
+        final String projectName = AWSCodeCommitSCMNavigator.toProjectName("123456789012", "eu-west-1", "repo-1");
+
+        assertThat(projectName, is("123456789012~eu-west-1~repo-1"));
+        assertThat(AWSCodeCommitSCMNavigator.toAccount(projectName), is("123456789012"));
+        assertThat(AWSCodeCommitSCMNavigator.toRegion(projectName), is("eu-west-1"));
+        assertThat(AWSCodeCommitSCMNavigator.toRepositoryName(projectName), is("repo-1"));
+        assertThat(AWSCodeCommitSCMNavigator.toAccount("eu-west-1~repo-1"), is(nullValue()));
+    }
+
+    @Test
+    public void given__isMatch__when__roles__then__only_their_accounts() throws Exception {
+        AWSCodeCommitSCMNavigator nav = new AWSCodeCommitSCMNavigator();
+        nav.setAwsCodeCommitURL("https://codecommit.us-west-2.amazonaws.com");
+        nav.setRoleArns("arn:aws:iam::111111111111:role/jenkins\narn:aws:iam::222222222222:role/jenkins");
+
+        assertThat(nav.getRoleArnList(), contains("arn:aws:iam::111111111111:role/jenkins", "arn:aws:iam::222222222222:role/jenkins"));
+        assertThat(nav.isMatch("222222222222", "us-west-2", "repo-1"), is(true));
+        assertThat(nav.isMatch("333333333333", "us-west-2", "repo-1"), is(false));
+        assertThat(nav.isMatch(null, "us-west-2", "repo-1"), is(true));
+    }
+
+    @Test
+    public void given__checkRoleArns__when__invalid_or_same_account__then__error() throws Exception {
+        assertThat(AWSCodeCommitSCMNavigator.checkRoleArns(AWSCodeCommitSCMNavigator.toRoleArnList(
+                "arn:aws:iam::111111111111:role/jenkins\narn:aws:iam::222222222222:role/jenkins")), is(nullValue()));
+        assertThat(AWSCodeCommitSCMNavigator.checkRoleArns(AWSCodeCommitSCMNavigator.toRoleArnList(
+                "arn:aws:iam::111111111111:role/jenkins\njenkins")), containsString("jenkins"));
+        assertThat(AWSCodeCommitSCMNavigator.checkRoleArns(AWSCodeCommitSCMNavigator.toRoleArnList(
+                "arn:aws:iam::111111111111:role/jenkins,arn:aws:iam::111111111111:role/scanner")), containsString("111111111111"));
+    }
+
+    @Test
+    public void given__2_regions__when__events__then__visit_the_project_of_the_scans() throws Exception {
+        final AWSCodeCommitSCMNavigator nav = spy(new AWSCodeCommitSCMNavigator());
+        nav.setRegions("eu-west-1 us-east-1");
+        final SCMSourceObserver observerMock = mock(SCMSourceObserver.class);
+        doNothing().when(nav).visitSource(anyString(), any(SCMSourceObserver.class));
+        //the name of the project created by the scans of the region
+        final String projectName = new SourceFactory("id", mock(AWSCodeCommitSCMNavigatorRequest.class))
+                .withRegion("us-east-1").getProjectName("repo-1");
+
+        nav.visitSources(observerMock, new AWSCodeCommitSCMHeadEvent(new CodeCommitEvent(SCMEvent.Type.UPDATED,
+                "us-east-1", null, "repo-1", CodeCommitEvent.BRANCH, "master", "1234567890abcdef"), "test"));
+        nav.visitSources(observerMock, new AWSCodeCommitSCMSourceEvent(new CodeCommitEvent(SCMEvent.Type.CREATED,
+                "us-east-1", null, "repo-1", null, null, null), "test"));
+
+        assertThat(projectName, is("us-east-1~repo-1"));
+        verify(nav, times(2)).visitSource(projectName, observerMock);
+        verify(nav, never()).visitSource(eq("repo-1"), any(SCMSourceObserver.class));
+    }
+
     @Test
     public void given__processRepository__when_listRepositories_then__process() throws Exception {
         //prepare
@@ -159,4 +246,102 @@ public class AWSCodeCommitSCMNavigatorTest {
         verify(requestMock, never()).process("repo-1002", sourceFactoryMock, null, witnessMock);
 
     }
+
+
+    @Test
+    public void given__processRepository__when_repository_not_found_then__no_process() throws Exception {
+        //prepare
+        final String scenarioName = "1000-repositories";
+        final String nextTokenState = "state-1000-repositories";
+
+        final AWSCodeCommit codeCommitClient = AwCodeCommitUtils.getAwsCodeCommit(wireMockRule);
+
+        final AWSCodeCommitSCMNavigator nav = new AWSCodeCommitSCMNavigator();
+
+        final AWSCodeCommitSCMNavigatorRequest requestMock = mock(AWSCodeCommitSCMNavigatorRequest.class);
+        final SCMNavigatorRequest.Witness witnessMock = mock(SCMNavigatorRequest.Witness.class);
+        final SourceFactory sourceFactoryMock = mock(SourceFactory.class);
+        final PrintStream loggerMock = mock(PrintStream.class);
+
+        when(sourceFactoryMock.prefetch(codeCommitClient, Arrays.asList(
+                new RepositoryNameIdPair().withRepositoryId("1-1-1-1-3").withRepositoryName("repo-1001"),
+                new RepositoryNameIdPair().withRepositoryId("1-1-1-1-4").withRepositoryName("repo-1002"))))
+                .thenReturn(Collections.singleton("repo-1002"));
+
+        //the API
+        givenThat(post(anyUrl())
+                .inScenario(scenarioName).willSetStateTo(nextTokenState).whenScenarioStateIs(STARTED)
+                .withRequestBody(containing("{}"))
+                .willReturn(aResponse().withBodyFile("list-repositories-1.json")));
+
+
+        givenThat(post(anyUrl())
+                .inScenario(scenarioName).whenScenarioStateIs(nextTokenState)
+                .withRequestBody(containing("{\"nextToken\":\"1000-repositories\"}"))
+                .willReturn(aResponse().withBodyFile("list-repositories-2.json")));
+
+
+
+        //test
+        nav.processRepositories(codeCommitClient, requestMock, witnessMock, sourceFactoryMock, loggerMock);
+
+        verify(requestMock).process("repo-1001", sourceFactoryMock, null, witnessMock);
+        verify(requestMock, never()).process("repo-1002", sourceFactoryMock, null, witnessMock);
+        verify(witnessMock).record("repo-1002", false);
+
+    }
+
+
+    @Test
+    public void given__processRepository__when_concurrency_then__faster() throws Exception {
+        //prepare
+        final AWSCodeCommit codeCommitClient = AwCodeCommitUtils.getAwsCodeCommit(wireMockRule);
+
+        final AWSCodeCommitSCMNavigatorRequest requestMock = mock(AWSCodeCommitSCMNavigatorRequest.class);
+        final SCMNavigatorRequest.Witness witnessMock = mock(SCMNavigatorRequest.Witness.class);
+        final SourceFactory sourceFactory = new SourceFactory("id", requestMock);
+        final PrintStream loggerMock = mock(PrintStream.class);
+
+        //one call by repository
+        final AWSCodeCommitSCMNavigator nav = new AWSCodeCommitSCMNavigator();
+        nav.setBatchSize(1);
+
+        //the API
+        givenThat(post(anyUrl()).withHeader("X-Amz-Target", equalTo("CodeCommit_20150413.BatchGetRepositories"))
+                .willReturn(aResponse().withFixedDelay(500).withBody("{\"repositories\":[],\"repositoriesNotFound\":[]}")));
+
+        //test
+        nav.setConcurrency(1);
+        final long sequential = timeProcessRepositories(nav, codeCommitClient, requestMock, witnessMock, sourceFactory, loggerMock);
+
+        nav.setConcurrency(4);
+        final long parallel = timeProcessRepositories(nav, codeCommitClient, requestMock, witnessMock, sourceFactory, loggerMock);
+
+        assertThat(parallel, lessThan(sequential));
+        verify(requestMock, times(2)).process("repo-1002", sourceFactory, null, witnessMock);
+    }
+
+    /**
+     * Measure a scan of the 4 repositories of list-repositories-1.json and list-repositories-2.json.
+     *
+     * @return the wall-clock time in milliseconds
+     */
+    private long timeProcessRepositories(AWSCodeCommitSCMNavigator nav, AWSCodeCommit codeCommitClient, AWSCodeCommitSCMNavigatorRequest requestMock,
+                                         SCMNavigatorRequest.Witness witnessMock, SourceFactory sourceFactory, PrintStream loggerMock) throws Exception {
+        final String scenarioName = "1000-repositories";
+        final String nextTokenState = "state-1000-repositories";
+
+        resetAllScenarios();
+        givenThat(post(anyUrl()).withHeader("X-Amz-Target", equalTo("CodeCommit_20150413.ListRepositories"))
+                .inScenario(scenarioName).willSetStateTo(nextTokenState).whenScenarioStateIs(STARTED)
+                .willReturn(aResponse().withBodyFile("list-repositories-1.json")));
+
+        givenThat(post(anyUrl()).withHeader("X-Amz-Target", equalTo("CodeCommit_20150413.ListRepositories"))
+                .inScenario(scenarioName).whenScenarioStateIs(nextTokenState)
+                .willReturn(aResponse().withBodyFile("list-repositories-2.json")));
+
+        final long start = System.currentTimeMillis();
+        nav.processRepositories(codeCommitClient, requestMock, witnessMock, sourceFactory, loggerMock);
+        return System.currentTimeMillis() - start;
+    }
 }
\ No newline at end of file
@@ -0,0 +1,169 @@
+/**
+ * The MIT License
+ * Copyright © 2016 Stephane Jeandeaux and all contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.jenkins.plugins.awscodecommit.navigator;
+
+import com.amazonaws.services.codecommit.AWSCodeCommitAsync;
+import com.github.tomakehurst.wiremock.junit.WireMockRule;
+import com.jenkins.plugins.awscodecommit.AwCodeCommitUtils;
+import com.jenkins.plugins.awscodecommit.CodeCommitStubServer;
+import jenkins.scm.api.trait.SCMNavigatorRequest;
+import org.apache.commons.io.output.NullOutputStream;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
+
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.regex.Pattern;
+
+import static com.github.tomakehurst.wiremock.core.WireMockConfiguration.wireMockConfig;
+import static org.hamcrest.Matchers.containsInAnyOrder;
+import static org.hamcrest.Matchers.greaterThan;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.lessThan;
+import static org.hamcrest.Matchers.lessThanOrEqualTo;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.fail;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+
+public class AsyncScanEngineTest {
+
+    private static final int REPOSITORIES = 2000;
+
+    private final CodeCommitStubServer stub = new CodeCommitStubServer().withRepositories(REPOSITORIES).withLatency(20);
+
+    @Rule
+    public WireMockRule wireMockRule = new WireMockRule(wireMockConfig().dynamicPort().containerThreads(64).extensions(stub));
+
+    private AWSCodeCommitAsync client;
+    private AWSCodeCommitSCMNavigatorRequest requestMock;
+    private SCMNavigatorRequest.Witness witnessMock;
+    private SourceFactory sourceFactory;
+    private ScanLog logger;
+    private final List<String> processed = Collections.synchronizedList(new ArrayList<String>());
+
+    @Before
+    public void setUp() throws Exception {
+        stub.register(wireMockRule);
+        client = AwCodeCommitUtils.getAwsCodeCommitAsync(wireMockRule);
+        requestMock = mock(AWSCodeCommitSCMNavigatorRequest.class);
+        witnessMock = mock(SCMNavigatorRequest.Witness.class);
+        sourceFactory = new SourceFactory("id", requestMock);
+        logger = ScanLog.verbose(new PrintStream(new NullOutputStream()));
+        doAnswer(new Answer<Object>() {
+            @Override
+            public Object answer(InvocationOnMock invocation) {
+                processed.add(invocation.<String>getArgument(0));
+                return null;
+            }
+        }).when(requestMock).process(anyString(), any(SourceFactory.class), isNull(), eq(witnessMock));
+    }
+
+    @After
+    public void tearDown() {
+        client.shutdown();
+    }
+
+    @Test
+    public void given__ordered__when__process__then__repositories_in_order_of_listing() throws Exception {
+        final AsyncScanEngine engine = new AsyncScanEngine(client, 16, true);
+
+        engine.process(requestMock, null, witnessMock, sourceFactory, SourceFactory.MAX_BATCH_SIZE, logger);
+
+        final List<String> expected = new ArrayList<>();
+        for (int i = 0; i < REPOSITORIES; i++) {
+            expected.add(CodeCommitStubServer.repositoryName(i));
+        }
+        assertThat(processed, is(expected));
+        assertThat(engine.getCalls(), is(REPOSITORIES / SourceFactory.MAX_BATCH_SIZE));
+        assertThat(stub.getCalls(CodeCommitStubServer.GET_REPOSITORY), is(0));
+        assertThat(engine.getInFlight(), is(0));
+    }
+
+    @Test
+    public void given__unordered__when__process__then__all_repositories_processed() throws Exception {
+        final AsyncScanEngine engine = new AsyncScanEngine(client, 16, false);
+
+        engine.process(requestMock, null, witnessMock, sourceFactory, SourceFactory.MAX_BATCH_SIZE, logger);
+
+        final List<String> expected = new ArrayList<>();
+        for (int i = 0; i < REPOSITORIES; i++) {
+            expected.add(CodeCommitStubServer.repositoryName(i));
+        }
+        assertThat(processed, containsInAnyOrder(expected.toArray()));
+    }
+
+    @Test
+    public void given__max_in_flight__when__latency__then__bounded_and_concurrent() throws Exception {
+        final AsyncScanEngine engine = new AsyncScanEngine(client, 8, true);
+
+        final long start = System.currentTimeMillis();
+        engine.process(requestMock, null, witnessMock, sourceFactory, SourceFactory.MAX_BATCH_SIZE, logger);
+        final long duration = System.currentTimeMillis() - start;
+
+        assertThat(processed.size(), is(REPOSITORIES));
+        assertThat(engine.getPeakInFlight(), lessThanOrEqualTo(8));
+        assertThat(engine.getPeakInFlight(), greaterThan(1));
+        //sequential, the 80 batches would take 1.6s
+        assertThat(duration, lessThan(1600L));
+    }
+
+    @Test
+    public void given__pattern__when__process__then__only_matching_repositories_fetched() throws Exception {
+        final AsyncScanEngine engine = new AsyncScanEngine(client, 8, true);
+
+        engine.process(requestMock, Pattern.compile("repository-000.."), witnessMock, sourceFactory,
+                SourceFactory.MAX_BATCH_SIZE, logger);
+
+        assertThat(processed.size(), is(100));
+        assertThat(stub.getCalls(CodeCommitStubServer.BATCH_GET_REPOSITORIES), is(4));
+    }
+
+    @Test
+    public void given__failed_scan__when__calls_cancelled__then__permits_released() throws Exception {
+        final AsyncScanEngine engine = new AsyncScanEngine(client, 8, true);
+        final SCMNavigatorRequest.Witness failingWitness = mock(SCMNavigatorRequest.Witness.class);
+        doThrow(new IllegalStateException("observer failed")).when(requestMock)
+                .process(anyString(), any(SourceFactory.class), isNull(), eq(failingWitness));
+
+        try {
+            engine.process(requestMock, null, failingWitness, sourceFactory, SourceFactory.MAX_BATCH_SIZE, logger);
+            fail("the observer failed");
+        } catch (IllegalStateException e) {
+            //the calls still in flight are cancelled
+        }
+
+        assertThat(engine.getInFlight(), is(0));
+    }
+}
@@ -0,0 +1,124 @@
+/**
+ * The MIT License
+ * Copyright © 2016 Stephane Jeandeaux and all contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.jenkins.plugins.awscodecommit.navigator;
+
+import com.amazonaws.services.codecommit.AWSCodeCommit;
+import com.amazonaws.services.codecommit.model.GetRepositoryRequest;
+import com.amazonaws.services.codecommit.model.RepositoryMetadata;
+import com.amazonaws.services.codecommit.model.RepositoryNameIdPair;
+import com.github.tomakehurst.wiremock.junit.WireMockRule;
+import com.jenkins.plugins.awscodecommit.AwCodeCommitUtils;
+import org.junit.Rule;
+import org.junit.Test;
+
+import java.util.Collections;
+import java.util.Set;
+
+import static com.github.tomakehurst.wiremock.client.WireMock.*;
+import static com.github.tomakehurst.wiremock.core.WireMockConfiguration.wireMockConfig;
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.is;
+import static org.junit.Assert.assertThat;
+
+
+public class CloneUrlsTest {
+
+
+    @Rule
+    public WireMockRule wireMockRule = new WireMockRule(wireMockConfig().dynamicPort());
+
+
+    @Test
+    public void given__us_east_1__when__getRemote__then__same_urls_as_getRepository() throws Exception {
+        final RepositoryMetadata metadata = getRepository("repository-name-1", "get-repository.json");
+
+        final CloneUrls cloneUrls = new CloneUrls("us-east-1", null);
+
+        assertThat(cloneUrls.getRemote("repository-name-1", false), is(metadata.getCloneUrlHttp()));
+        assertThat(cloneUrls.getRemote("repository-name-1", true), is(metadata.getCloneUrlSsh()));
+    }
+
+
+    @Test
+    public void given__china_region__when__getRemote__then__same_urls_as_getRepository() throws Exception {
+        final RepositoryMetadata metadata = getRepository("repository-name-2", "get-repository-cn-north-1.json");
+
+        final CloneUrls cloneUrls = new CloneUrls("cn-north-1", null);
+
+        assertThat(cloneUrls.getRemote("repository-name-2", false), is(metadata.getCloneUrlHttp()));
+        assertThat(cloneUrls.getRemote("repository-name-2", true), is(metadata.getCloneUrlSsh()));
+    }
+
+
+    @Test
+    public void given__grc_template__when__getRemote__then__region_and_repository_replaced() throws Exception {
+        final CloneUrls cloneUrls = new CloneUrls("eu-west-1", "codecommit::${region}://${repository}");
+
+        assertThat(cloneUrls.getRemote("repository-name-1", true), is("codecommit::eu-west-1://repository-name-1"));
+    }
+
+
+    @Test
+    public void given__vpc_endpoint_template__when__getRemote__then__domain_replaced() throws Exception {
+        final CloneUrls cloneUrls = new CloneUrls("cn-north-1",
+                "https://vpce-1.git-codecommit.${region}.vpce.${domain}/v1/repos/${repository}");
+
+        assertThat(cloneUrls.getRemote("repository-name-1", false),
+                is("https://vpce-1.git-codecommit.cn-north-1.vpce.amazonaws.com.cn/v1/repos/repository-name-1"));
+    }
+
+
+    @Test
+    public void given__template__when__isValid__then__repository_required() throws Exception {
+        assertThat(CloneUrls.isValid(null), is(true));
+        assertThat(CloneUrls.isValid(" "), is(true));
+        assertThat(CloneUrls.isValid("codecommit::${region}://${repository}"), is(true));
+        assertThat(CloneUrls.isValid("codecommit::${region}://"), is(false));
+    }
+
+
+    @Test
+    public void given__derived_clone_urls__when__prefetch_and_getRemote__then__no_call_to_the_api() throws Exception {
+        final AWSCodeCommit codeCommitClient = AwCodeCommitUtils.getAwsCodeCommit(wireMockRule);
+
+        final SourceFactory sourceFactory = new SourceFactory(null, null)
+                .withCloneUrls(new CloneUrls("us-east-1", null));
+
+        final Set<String> notFound = sourceFactory.prefetch(codeCommitClient, Collections.singletonList(
+                new RepositoryNameIdPair().withRepositoryId("1-1-1-1-1").withRepositoryName("repository-name-1")));
+        final String actual = sourceFactory.getRemote(codeCommitClient, "repository-name-1", false);
+
+        assertThat(notFound, is(empty()));
+        assertThat(actual, is("https://git-codecommit.us-east-1.amazonaws.com/v1/repos/repository-name-1"));
+        verify(0, postRequestedFor(anyUrl()));
+    }
+
+
+    private RepositoryMetadata getRepository(String repositoryName, String bodyFile) {
+        givenThat(post(anyUrl()).withHeader("X-Amz-Target", equalTo("CodeCommit_20150413.GetRepository"))
+                .willReturn(aResponse().withBodyFile(bodyFile)));
+        return AwCodeCommitUtils.getAwsCodeCommit(wireMockRule)
+                .getRepository(new GetRepositoryRequest().withRepositoryName(repositoryName))
+                .getRepositoryMetadata();
+    }
+}
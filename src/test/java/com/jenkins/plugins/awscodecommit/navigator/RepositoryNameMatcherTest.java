@@ -0,0 +1,87 @@
+/**
+ * The MIT License
+ * Copyright © 2016 Stephane Jeandeaux and all contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.jenkins.plugins.awscodecommit.navigator;
+
+import org.junit.Test;
+
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.is;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.fail;
+
+
+public class RepositoryNameMatcherTest {
+
+    @Test
+    public void given__rules__when__matches__then__any_rule_matches() throws Exception {
+        final RepositoryNameMatcher matcher = RepositoryNameMatcher.compile(
+                "# teams\nprefix:team-\nregex:app-(web|api)\nglob:lib-?-core\nexact-name\nlegacy-*\n\n");
+
+        assertThat(matcher.isEmpty(), is(false));
+        assertThat(matcher.matches("team-a"), is(true));
+        assertThat(matcher.matches("team-"), is(true));
+        assertThat(matcher.matches("app-web"), is(true));
+        assertThat(matcher.matches("app-webs"), is(false));
+        assertThat(matcher.matches("lib-a-core"), is(true));
+        assertThat(matcher.matches("lib-ab-core"), is(false));
+        assertThat(matcher.matches("exact-name"), is(true));
+        assertThat(matcher.matches("exact-name-2"), is(false));
+        assertThat(matcher.matches("legacy-1"), is(true));
+        assertThat(matcher.matches("other"), is(false));
+    }
+
+    @Test
+    public void given__glob__when__special_characters__then__quoted() throws Exception {
+        final RepositoryNameMatcher matcher = RepositoryNameMatcher.compile("a.b*c");
+
+        assertThat(matcher.matches("a.bxxc"), is(true));
+        assertThat(matcher.matches("axbxxc"), is(false));
+    }
+
+    @Test
+    public void given__no_rule__when__compile__then__empty() throws Exception {
+        assertThat(RepositoryNameMatcher.compile(null).isEmpty(), is(true));
+        assertThat(RepositoryNameMatcher.compile("\n# comment\n").isEmpty(), is(true));
+        assertThat(RepositoryNameMatcher.compile(null).matches("name"), is(false));
+    }
+
+    @Test
+    public void given__invalid_regex__when__compile__then__line_in_error() throws Exception {
+        try {
+            RepositoryNameMatcher.compile("prefix:a\nregex:(b");
+            fail("IllegalArgumentException expected");
+        } catch (IllegalArgumentException e) {
+            assertThat(e.getMessage(), containsString("Line 2"));
+        }
+    }
+
+    @Test
+    public void given__trait__when__isMatch__then__included_and_not_excluded() throws Exception {
+        final RepositoryFilterTrait trait = new RepositoryFilterTrait("prefix:team-", "glob:*-archive");
+
+        assertThat(trait.isMatch("team-a"), is(true));
+        assertThat(trait.isMatch("team-a-archive"), is(false));
+        assertThat(trait.isMatch("other"), is(false));
+        assertThat(new RepositoryFilterTrait(null, "prefix:tmp-").isMatch("other"), is(true));
+    }
+}
@@ -0,0 +1,179 @@
+/**
+ * The MIT License
+ * Copyright © 2016 Stephane Jeandeaux and all contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.jenkins.plugins.awscodecommit.navigator;
+
+import com.amazonaws.AmazonServiceException;
+import com.amazonaws.services.codecommit.AbstractAWSCodeCommit;
+import com.amazonaws.services.codecommit.model.ListRepositoriesRequest;
+import com.amazonaws.services.codecommit.model.ListRepositoriesResult;
+import com.amazonaws.services.codecommit.model.RepositoryNameIdPair;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.nullValue;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.fail;
+
+
+public class RepositoryPagesTest {
+
+    private static final long TIMEOUT = TimeUnit.SECONDS.toMillis(10);
+
+    @Test
+    public void given__pages__when__next__then__in_order() throws Exception {
+        final PagedCodeCommit client = new PagedCodeCommit(5, -1);
+        final List<String> names = new ArrayList<>();
+
+        try (RepositoryPages pages = new RepositoryPages(client, RepositoryPages.DEFAULT_PREFETCH_DEPTH)) {
+            List<RepositoryNameIdPair> page;
+            while ((page = pages.next()) != null) {
+                for (RepositoryNameIdPair repository : page) {
+                    names.add(repository.getRepositoryName());
+                }
+            }
+            assertThat(pages.next(), nullValue());
+        }
+
+        assertThat(names, is(PagedCodeCommit.names(5)));
+        assertThat(client.calls.get(), is(5));
+    }
+
+    @Test
+    public void given__slow_consumer__when__prefetch__then__bounded_look_ahead() throws Exception {
+        final PagedCodeCommit client = new PagedCodeCommit(10, -1);
+
+        try (RepositoryPages pages = new RepositoryPages(client, 2)) {
+            //2 pages queued and the third waits for room
+            awaitCalls(client, 3);
+            Thread.sleep(200);
+            assertThat(client.calls.get(), is(3));
+
+            pages.next();
+            awaitCalls(client, 4);
+            Thread.sleep(200);
+            assertThat(client.calls.get(), is(4));
+        }
+    }
+
+    @Test
+    public void given__failure__when__next__then__thrown_on_the_consumer() throws Exception {
+        final PagedCodeCommit client = new PagedCodeCommit(5, 2);
+
+        try (RepositoryPages pages = new RepositoryPages(client, RepositoryPages.DEFAULT_PREFETCH_DEPTH)) {
+            assertThat(pages.next().size(), is(PagedCodeCommit.PAGE_SIZE));
+            assertThat(pages.next().size(), is(PagedCodeCommit.PAGE_SIZE));
+            try {
+                pages.next();
+                fail("the failure of the third page must reach the consumer");
+            } catch (AmazonServiceException e) {
+                assertThat(e.getErrorCode(), is("ServiceUnavailable"));
+            }
+            assertThat(pages.next(), nullValue());
+        }
+    }
+
+    @Test
+    public void given__pages_not_consumed__when__close__then__producer_stopped() throws Exception {
+        final PagedCodeCommit client = new PagedCodeCommit(10, -1);
+        final RepositoryPages pages = new RepositoryPages(client, 1);
+        awaitCalls(client, 2);
+
+        pages.close();
+
+        final Thread producer = client.producer;
+        producer.join(TIMEOUT);
+        assertThat(producer.isAlive(), is(false));
+        assertThat(client.calls.get(), is(2));
+    }
+
+    private static void awaitCalls(PagedCodeCommit client, int calls) throws InterruptedException {
+        final long deadline = System.currentTimeMillis() + TIMEOUT;
+        while (client.calls.get() < calls) {
+            if (System.currentTimeMillis() > deadline) {
+                fail("expected " + calls + " calls, got " + client.calls.get());
+            }
+            Thread.sleep(10);
+        }
+    }
+
+    /**
+     * An account with pages of {@link #PAGE_SIZE} repositories, which can fail on a page.
+     */
+    private static class PagedCodeCommit extends AbstractAWSCodeCommit {
+
+        private static final int PAGE_SIZE = 3;
+
+        private final int pages;
+
+        private final int failingPage;
+
+        private final AtomicInteger calls = new AtomicInteger();
+
+        private volatile Thread producer;
+
+        /**
+         * @param pages       the number of pages
+         * @param failingPage the index of the page which fails, -1 for none
+         */
+        private PagedCodeCommit(int pages, int failingPage) {
+            this.pages = pages;
+            this.failingPage = failingPage;
+        }
+
+        @Override
+        public ListRepositoriesResult listRepositories(ListRepositoriesRequest request) {
+            producer = Thread.currentThread();
+            final int index = request.getNextToken() == null ? 0 : Integer.parseInt(request.getNextToken());
+            calls.incrementAndGet();
+            if (index == failingPage) {
+                final AmazonServiceException e = new AmazonServiceException("unavailable");
+                e.setErrorCode("ServiceUnavailable");
+                throw e;
+            }
+            final List<RepositoryNameIdPair> repositories = new ArrayList<>();
+            for (int i = 0; i < PAGE_SIZE; i++) {
+                repositories.add(new RepositoryNameIdPair().withRepositoryName(name(index * PAGE_SIZE + i)));
+            }
+            return new ListRepositoriesResult().withRepositories(repositories)
+                    .withNextToken(index + 1 < pages ? String.valueOf(index + 1) : null);
+        }
+
+        private static String name(int index) {
+            return "repository-" + index;
+        }
+
+        private static List<String> names(int pages) {
+            final List<String> names = new ArrayList<>();
+            for (int i = 0; i < pages * PAGE_SIZE; i++) {
+                names.add(name(i));
+            }
+            return Collections.unmodifiableList(names);
+        }
+    }
+}
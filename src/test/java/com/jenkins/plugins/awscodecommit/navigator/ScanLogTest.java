@@ -0,0 +1,92 @@
+/**
+ * The MIT License
+ * Copyright © 2016 Stephane Jeandeaux and all contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.jenkins.plugins.awscodecommit.navigator;
+
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.util.concurrent.TimeUnit;
+
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.isEmptyString;
+import static org.hamcrest.Matchers.not;
+import static org.junit.Assert.assertThat;
+
+
+public class ScanLogTest {
+
+    @Test
+    public void given__verbose__when__repositories__then__one_line_by_repository() throws Exception {
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        final ScanLog scanLog = ScanLog.verbose(new PrintStream(out, true, "UTF-8"));
+
+        scanLog.repository("repo-1", "matches");
+        scanLog.record("repo-1", true);
+
+        //buffered until the flush
+        assertThat(out.toString("UTF-8"), isEmptyString());
+        scanLog.summary();
+        assertThat(out.toString("UTF-8"), containsString("repo-1 - matches"));
+        assertThat(out.toString("UTF-8"), containsString("repo-1 = TRUE"));
+    }
+
+    @Test
+    public void given__summary__when__repositories__then__counts_slowest_and_errors() throws Exception {
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        final ScanLog scanLog = new ScanLog(new PrintStream(out, true, "UTF-8"), ScanLog.Level.SUMMARY, 0, 2);
+
+        for (int i = 0; i < 100; i++) {
+            scanLog.repository("repo-" + i, "matches");
+            scanLog.processed("repo-" + i, TimeUnit.MILLISECONDS.toNanos(i));
+        }
+        scanLog.error("repo-lost", "not found");
+        scanLog.summary();
+
+        final String log = out.toString("UTF-8");
+        assertThat(scanLog.getCount("matches"), is(100));
+        assertThat(log, not(containsString("repo-1 - matches")));
+        assertThat(log, containsString("repo-lost - not found"));
+        assertThat(log, containsString("repositories - matches: 100 not found: 1"));
+        assertThat(log, containsString("slowest - repo-99 99 ms"));
+        assertThat(log, containsString("slowest - repo-98 98 ms"));
+        assertThat(log, not(containsString("slowest - repo-97")));
+    }
+
+    @Test
+    public void given__summary__when__sampling__then__one_line_on_sampling() throws Exception {
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        final ScanLog scanLog = new ScanLog(new PrintStream(out, true, "UTF-8"), ScanLog.Level.SUMMARY, 10, 0);
+
+        for (int i = 1; i <= 20; i++) {
+            scanLog.repository("repo-" + i, "matches");
+        }
+        scanLog.summary();
+
+        final String log = out.toString("UTF-8");
+        assertThat(log, containsString("repo-10 - matches"));
+        assertThat(log, containsString("repo-20 - matches"));
+        assertThat(log, not(containsString("repo-11 - matches")));
+    }
+}
@@ -23,15 +23,26 @@
 package com.jenkins.plugins.awscodecommit.navigator;
 
 import com.amazonaws.services.codecommit.AWSCodeCommit;
+import com.amazonaws.services.codecommit.model.RepositoryNameIdPair;
 import com.github.tomakehurst.wiremock.junit.WireMockRule;
 import com.jenkins.plugins.awscodecommit.AwCodeCommitUtils;
 import org.junit.Rule;
 import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
 
 import static com.github.tomakehurst.wiremock.client.WireMock.*;
 import static com.github.tomakehurst.wiremock.core.WireMockConfiguration.wireMockConfig;
+import static org.hamcrest.Matchers.contains;
 import static org.hamcrest.Matchers.is;
 import static org.junit.Assert.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
 
 
 public class SourceFactoryTest {
@@ -40,6 +51,9 @@ public class SourceFactoryTest {
     @Rule
     public WireMockRule wireMockRule = new WireMockRule(wireMockConfig().dynamicPort());
 
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
 
     @Test
     public void given__getRemote__cloneSsh_is_true__then__getCloneUrlSsh() throws Exception {
@@ -83,4 +97,213 @@ public class SourceFactoryTest {
     }
 
 
-}
\ No newline at end of file
+
+    @Test
+    public void given__prefetch__when__batchGetRepositories__then__getRemote_without_getRepository() throws Exception {
+        //prepare
+        final AWSCodeCommit codeCommitClient = AwCodeCommitUtils.getAwsCodeCommit(wireMockRule);
+
+        final SourceFactory sourceFactory = new SourceFactory(null, null);
+
+        //the API
+        givenThat(post(anyUrl()).withHeader("X-Amz-Target", equalTo("CodeCommit_20150413.BatchGetRepositories"))
+                .willReturn(aResponse().withBodyFile("batch-get-repositories.json")));
+
+        //action
+        final Set<String> notFound = sourceFactory.prefetch(codeCommitClient, Arrays.asList(
+                new RepositoryNameIdPair().withRepositoryId("1-1-1-1-1").withRepositoryName("repository-name-1"),
+                new RepositoryNameIdPair().withRepositoryId("1-1-1-1-2").withRepositoryName("repository-name-2")));
+        final String actual = sourceFactory.getRemote(codeCommitClient, "repository-name-1", false);
+
+        //test
+        assertThat(notFound, contains("repository-name-2"));
+        assertThat(actual, is("https://git-codecommit.us-east-1.amazonaws.com/v1/repos/repository-name-1"));
+        verify(1, postRequestedFor(anyUrl()));
+    }
+
+
+    @Test
+    public void given__prefetch__when__cached__then__no_batchGetRepositories() throws Exception {
+        //prepare
+        final AWSCodeCommit codeCommitClient = AwCodeCommitUtils.getAwsCodeCommit(wireMockRule);
+
+        final RepositoryMetadataCache cache = new RepositoryMetadataCache(1, TimeUnit.HOURS);
+        final List<RepositoryNameIdPair> repositories = Collections.singletonList(
+                new RepositoryNameIdPair().withRepositoryId("1-1-1-1-1").withRepositoryName("repository-name-1"));
+
+        //the API
+        givenThat(post(anyUrl()).withHeader("X-Amz-Target", equalTo("CodeCommit_20150413.BatchGetRepositories"))
+                .willReturn(aResponse().withBodyFile("batch-get-repositories.json")));
+
+        //action
+        new SourceFactory(null, null, cache).prefetch(codeCommitClient, repositories);
+        final SourceFactory sourceFactory = new SourceFactory(null, null, cache);
+        sourceFactory.prefetch(codeCommitClient, repositories);
+        final String actual = sourceFactory.getRemote(codeCommitClient, "repository-name-1", true);
+
+        //test
+        assertThat(actual, is("ssh://git-codecommit.us-east-1.amazonaws.com/v1/repos/repository-name-1"));
+        assertThat(cache.getHits(), is(1L));
+        assertThat(cache.getMisses(), is(1L));
+        verify(1, postRequestedFor(anyUrl()));
+    }
+
+
+    @Test
+    public void given__prefetch_one__when__getRepository__then__getRemote_without_api() throws Exception {
+        //prepare
+        final AWSCodeCommit codeCommitClient = AwCodeCommitUtils.getAwsCodeCommit(wireMockRule);
+
+        final SourceFactory sourceFactory = new SourceFactory(null, null);
+
+        //the API
+        givenThat(post(anyUrl()).withRequestBody(containing("{\"repositoryName\":\"repository-name-1\"}"))
+                .willReturn(aResponse().withBodyFile("get-repository.json")));
+
+        //action
+        final boolean found = sourceFactory.prefetch(codeCommitClient, "repository-name-1");
+        final String actual = sourceFactory.getRemote(codeCommitClient, "repository-name-1", false);
+
+        //test
+        assertThat(found, is(true));
+        assertThat(actual, is("https://git-codecommit.us-east-1.amazonaws.com/v1/repos/repository-name-1"));
+        verify(1, postRequestedFor(anyUrl()));
+    }
+
+
+    @Test
+    public void given__prefetch_one__when__repository_does_not_exist__then__false() throws Exception {
+        //prepare
+        final AWSCodeCommit codeCommitClient = AwCodeCommitUtils.getAwsCodeCommit(wireMockRule);
+
+        final SourceFactory sourceFactory = new SourceFactory(null, null);
+
+        //the API
+        givenThat(post(anyUrl()).withRequestBody(containing("{\"repositoryName\":\"repository-name-2\"}"))
+                .willReturn(aResponse().withStatus(400)
+                        .withBody("{\"__type\":\"RepositoryDoesNotExistException\",\"message\":\"repository-name-2 does not exist\"}")));
+
+        //action
+        final boolean found = sourceFactory.prefetch(codeCommitClient, "repository-name-2");
+
+        //test
+        assertThat(found, is(false));
+    }
+
+
+    @Test
+    public void given__filterTags__when__tags_cached__then__one_lookup_by_repository() throws Exception {
+        //prepare
+        final AWSCodeCommit codeCommitClient = AwCodeCommitUtils.getAwsCodeCommit(wireMockRule);
+        RepositoryTagCache.get().clear();
+
+        final AWSCodeCommitSCMNavigatorRequest request = mock(AWSCodeCommitSCMNavigatorRequest.class);
+        when(request.getTagFilter()).thenReturn(TagFilter.compile("team=payments", "archived"));
+        when(request.getTagCacheTtl()).thenReturn(TimeUnit.HOURS.toMillis(1));
+        final List<RepositoryNameIdPair> repositories = Arrays.asList(
+                new RepositoryNameIdPair().withRepositoryId("1-1-1-1-1").withRepositoryName("repository-name-1"),
+                new RepositoryNameIdPair().withRepositoryId("2-2-2-2-2").withRepositoryName("repository-name-2"));
+
+        //the API
+        givenThat(post(anyUrl()).withHeader("X-Amz-Target", equalTo("CodeCommit_20150413.BatchGetRepositories"))
+                .willReturn(aResponse().withBodyFile("batch-get-repositories.json")));
+        givenThat(post(anyUrl()).withHeader("X-Amz-Target", equalTo("CodeCommit_20150413.ListTagsForResource"))
+                .willReturn(aResponse().withBody("{\"tags\":{\"team\":\"payments\"}}")));
+
+        //action
+        final SourceFactory firstScan = new SourceFactory(null, request);
+        firstScan.prefetch(codeCommitClient, repositories);
+        firstScan.filterTags(codeCommitClient, repositories);
+        final SourceFactory secondScan = new SourceFactory(null, request);
+        secondScan.prefetch(codeCommitClient, repositories);
+        secondScan.filterTags(codeCommitClient, repositories);
+
+        //test
+        assertThat(firstScan.isExcludedByTags("repository-name-1"), is(false));
+        assertThat(firstScan.getTagLookups(), is(1));
+        assertThat(secondScan.getTagLookups(), is(0));
+        verify(1, postRequestedFor(anyUrl()).withHeader("X-Amz-Target", equalTo("CodeCommit_20150413.ListTagsForResource"))
+                .withRequestBody(containing("arn:aws:codecommit:us-east-1:1:repository-name-1")));
+    }
+
+    @Test
+    public void given__filterTags__when__tags_do_not_match__then__excluded() throws Exception {
+        //prepare
+        final AWSCodeCommit codeCommitClient = AwCodeCommitUtils.getAwsCodeCommit(wireMockRule);
+        RepositoryTagCache.get().clear();
+
+        final AWSCodeCommitSCMNavigatorRequest request = mock(AWSCodeCommitSCMNavigatorRequest.class);
+        when(request.getTagFilter()).thenReturn(TagFilter.compile("team=payments", "archived"));
+        when(request.getTagCacheTtl()).thenReturn(TimeUnit.HOURS.toMillis(1));
+        final List<RepositoryNameIdPair> repositories = Collections.singletonList(
+                new RepositoryNameIdPair().withRepositoryId("1-1-1-1-1").withRepositoryName("repository-name-1"));
+
+        //the API
+        givenThat(post(anyUrl()).withHeader("X-Amz-Target", equalTo("CodeCommit_20150413.BatchGetRepositories"))
+                .willReturn(aResponse().withBodyFile("batch-get-repositories.json")));
+        givenThat(post(anyUrl()).withHeader("X-Amz-Target", equalTo("CodeCommit_20150413.ListTagsForResource"))
+                .willReturn(aResponse().withBody("{\"tags\":{\"team\":\"payments\",\"archived\":\"true\"}}")));
+
+        //action
+        final SourceFactory sourceFactory = new SourceFactory(null, request);
+        sourceFactory.prefetch(codeCommitClient, repositories);
+        sourceFactory.filterTags(codeCommitClient, repositories);
+
+        //test
+        assertThat(sourceFactory.isExcludedByTags("repository-name-1"), is(true));
+    }
+
+    @Test
+    public void given__incremental__when__repository_unchanged__then__tags_without_api() throws Exception {
+        //prepare
+        final AWSCodeCommit codeCommitClient = AwCodeCommitUtils.getAwsCodeCommit(wireMockRule);
+        RepositoryTagCache.get().clear();
+
+        final AWSCodeCommitSCMNavigatorRequest request = mock(AWSCodeCommitSCMNavigatorRequest.class);
+        when(request.getTagFilter()).thenReturn(TagFilter.compile("team=payments", "archived"));
+        when(request.getTagCacheTtl()).thenReturn(0L);
+        final List<RepositoryNameIdPair> repositories = Collections.singletonList(
+                new RepositoryNameIdPair().withRepositoryId("1-1-1-1-1").withRepositoryName("repository-name-1"));
+
+        //the API
+        givenThat(post(anyUrl()).withHeader("X-Amz-Target", equalTo("CodeCommit_20150413.BatchGetRepositories"))
+                .willReturn(aResponse().withBodyFile("batch-get-repositories.json")));
+        givenThat(post(anyUrl()).withHeader("X-Amz-Target", equalTo("CodeCommit_20150413.ListTagsForResource"))
+                .willReturn(aResponse().withBody("{\"tags\":{\"team\":\"payments\"}}")));
+
+        //action
+        final IncrementalScanState firstState = IncrementalScanState.load(temporaryFolder.getRoot(), 10);
+        final SourceFactory firstScan = new SourceFactory(null, request).withScanState(firstState);
+        firstScan.prefetch(codeCommitClient, repositories);
+        firstScan.filterTags(codeCommitClient, repositories);
+        firstState.save();
+
+        final IncrementalScanState secondState = IncrementalScanState.load(temporaryFolder.getRoot(), 10);
+        final SourceFactory secondScan = new SourceFactory(null, request).withScanState(secondState);
+        secondScan.prefetch(codeCommitClient, repositories);
+        secondScan.filterTags(codeCommitClient, repositories);
+        secondState.save();
+
+        //the repository is modified
+        givenThat(post(anyUrl()).withHeader("X-Amz-Target", equalTo("CodeCommit_20150413.BatchGetRepositories"))
+                .willReturn(aResponse().withBody("{\"repositories\":[{\"repositoryId\":\"1-1-1-1-1\","
+                        + "\"repositoryName\":\"repository-name-1\",\"lastModifiedDate\":2.0,"
+                        + "\"Arn\":\"arn:aws:codecommit:us-east-1:1:repository-name-1\"}]}")));
+        final IncrementalScanState thirdState = IncrementalScanState.load(temporaryFolder.getRoot(), 10);
+        final SourceFactory thirdScan = new SourceFactory(null, request).withScanState(thirdState);
+        thirdScan.prefetch(codeCommitClient, repositories);
+        thirdScan.filterTags(codeCommitClient, repositories);
+
+        //test
+        assertThat(firstState.isFullScan(), is(true));
+        assertThat(firstState.getChanged(), is(1));
+        assertThat(firstScan.getTagLookups(), is(1));
+        assertThat(secondState.isFullScan(), is(false));
+        assertThat(secondState.getUnchanged(), is(1));
+        assertThat(secondScan.getTagLookups(), is(0));
+        assertThat(secondScan.isExcludedByTags("repository-name-1"), is(false));
+        assertThat(thirdState.getChanged(), is(1));
+        assertThat(thirdScan.getTagLookups(), is(1));
+        verify(3, postRequestedFor(anyUrl()).withHeader("X-Amz-Target", equalTo("CodeCommit_20150413.BatchGetRepositories")));
+    }
+}
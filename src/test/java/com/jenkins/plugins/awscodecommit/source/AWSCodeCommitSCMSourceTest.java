@@ -0,0 +1,226 @@
+/**
+ * The MIT License
+ * Copyright © 2016 Stephane Jeandeaux and all contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.jenkins.plugins.awscodecommit.source;
+
+import com.amazonaws.services.codecommit.AWSCodeCommit;
+import com.github.tomakehurst.wiremock.junit.WireMockRule;
+import com.jenkins.plugins.awscodecommit.AWSCodeCommitClientRegistry;
+import com.jenkins.plugins.awscodecommit.AwCodeCommitUtils;
+import com.jenkins.plugins.awscodecommit.CodeCommitStubServer;
+import hudson.model.TaskListener;
+import hudson.util.StreamTaskListener;
+import jenkins.plugins.git.AbstractGitSCMSource;
+import jenkins.plugins.git.traits.BranchDiscoveryTrait;
+import jenkins.scm.api.SCMHead;
+import jenkins.scm.api.SCMHeadObserver;
+import jenkins.scm.api.SCMRevision;
+import jenkins.scm.api.mixin.ChangeRequestCheckoutStrategy;
+import jenkins.scm.api.trait.SCMSourceTrait;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Map;
+
+import static com.github.tomakehurst.wiremock.core.WireMockConfiguration.wireMockConfig;
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.hasItem;
+import static org.hamcrest.Matchers.instanceOf;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.nullValue;
+import static org.junit.Assert.assertThat;
+
+
+public class AWSCodeCommitSCMSourceTest {
+
+    private static final String REPOSITORY = CodeCommitStubServer.repositoryName(0);
+
+    private final CodeCommitStubServer stub = new CodeCommitStubServer().withRepositories(1).withBranches(250);
+
+    @Rule
+    public WireMockRule wireMockRule = new WireMockRule(wireMockConfig().dynamicPort().containerThreads(16).extensions(stub));
+
+    private AWSCodeCommitSCMSource source;
+    private TaskListener listener;
+
+    @Before
+    public void setUp() {
+        stub.register(wireMockRule);
+        final AWSCodeCommit client = AwCodeCommitUtils.getAwsCodeCommit(wireMockRule);
+        source = new AWSCodeCommitSCMSource("https://git-codecommit.us-east-1.amazonaws.com/v1/repos/" + REPOSITORY) {
+            @Override
+            protected AWSCodeCommitClientRegistry.Lease leaseAwsCodeCommit() {
+                return AWSCodeCommitClientRegistry.Lease.unmanaged(client);
+            }
+        };
+        source.setRegion("us-east-1");
+        source.setRepositoryName(REPOSITORY);
+        source.setTraits(Collections.<SCMSourceTrait>singletonList(new BranchDiscoveryTrait()));
+        listener = StreamTaskListener.fromStdout();
+    }
+
+    @Test
+    public void given__250_branches__when__fetch__then__heads_from_the_api() throws Exception {
+        final SCMHeadObserver.Collector collector = SCMHeadObserver.collect();
+
+        source.fetch(collector, listener);
+
+        final Map<SCMHead, SCMRevision> result = collector.result();
+        assertThat(result.size(), is(250));
+        final SCMRevision master = result.get(new SCMHead("master"));
+        assertThat(master, instanceOf(AbstractGitSCMSource.SCMRevisionImpl.class));
+        assertThat(((AbstractGitSCMSource.SCMRevisionImpl) master).getHash(), is(CodeCommitStubServer.commitId(REPOSITORY, "master")));
+        //3 pages of 100 branches, one call by branch
+        assertThat(stub.getCalls(CodeCommitStubServer.LIST_BRANCHES), is(3));
+        assertThat(stub.getCalls(CodeCommitStubServer.GET_BRANCH), is(250));
+        assertThat(stub.getCalls(CodeCommitStubServer.LIST_PULL_REQUESTS), is(0));
+    }
+
+    @Test
+    public void given__pull_requests__when__fetch__then__merge_and_head_of_each() throws Exception {
+        stub.withPullRequests(3);
+        source.setTraits(Arrays.<SCMSourceTrait>asList(new BranchDiscoveryTrait(), new PullRequestDiscoveryTrait(PullRequestDiscoveryTrait.BOTH)));
+        final SCMHeadObserver.Collector collector = SCMHeadObserver.collect();
+
+        source.fetch(collector, listener);
+
+        final Map<SCMHead, SCMRevision> result = collector.result();
+        assertThat(result.size(), is(256));
+        final CodeCommitPullRequestSCMRevision head = (CodeCommitPullRequestSCMRevision) find(result, "PR-1-head");
+        assertThat(head.getHead().getCheckoutStrategy(), is(ChangeRequestCheckoutStrategy.HEAD));
+        assertThat(head.getHead().getOriginName(), is("branch-1"));
+        assertThat(head.getHead().getTarget().getName(), is("master"));
+        assertThat(head.getSourceCommitId(), is(CodeCommitStubServer.commitId(REPOSITORY, "branch-1")));
+        final CodeCommitPullRequestSCMRevision merge = (CodeCommitPullRequestSCMRevision) find(result, "PR-1-merge");
+        assertThat(merge.isMerge(), is(true));
+        assertThat(merge.getDestinationCommitId(), is(CodeCommitStubServer.commitId(REPOSITORY, "master")));
+        //one call by pull request, whatever the number of strategies
+        assertThat(stub.getCalls(CodeCommitStubServer.LIST_PULL_REQUESTS), is(1));
+        assertThat(stub.getCalls(CodeCommitStubServer.GET_PULL_REQUEST), is(3));
+    }
+
+    @Test
+    public void given__selected_head__when__fetch__then__only_its_getBranch() throws Exception {
+        final SCMHead branch = new SCMHead("branch-42");
+
+        final SCMRevision revision = source.fetch(SCMHeadObserver.select(branch), listener).result();
+
+        assertThat(((AbstractGitSCMSource.SCMRevisionImpl) revision).getHash(), is(CodeCommitStubServer.commitId(REPOSITORY, "branch-42")));
+        assertThat(stub.getCalls(CodeCommitStubServer.LIST_BRANCHES), is(0));
+        assertThat(stub.getCalls(CodeCommitStubServer.GET_BRANCH), is(1));
+    }
+
+    @Test
+    public void given__selected_pull_request__when__fetch__then__only_its_getPullRequest() throws Exception {
+        stub.withPullRequests(3);
+        source.setTraits(Arrays.<SCMSourceTrait>asList(new BranchDiscoveryTrait(), new PullRequestDiscoveryTrait(PullRequestDiscoveryTrait.HEAD)));
+        final CodeCommitPullRequestSCMHead head = new CodeCommitPullRequestSCMHead("PR-2", CodeCommitStubServer.pullRequestId(0, 1),
+                "branch-2", "master", ChangeRequestCheckoutStrategy.HEAD);
+
+        final SCMRevision revision = source.fetch(SCMHeadObserver.select(head), listener).result();
+
+        assertThat(((CodeCommitPullRequestSCMRevision) revision).getSourceCommitId(), is(CodeCommitStubServer.commitId(REPOSITORY, "branch-2")));
+        assertThat(stub.getCalls(), is(1));
+    }
+
+    @Test
+    public void given__no_branch_discovery__when__fetch__then__no_branch() throws Exception {
+        source.setTraits(Collections.<SCMSourceTrait>emptyList());
+        final SCMHeadObserver.Collector collector = SCMHeadObserver.collect();
+
+        source.fetch(collector, listener);
+
+        assertThat(collector.result().size(), is(0));
+        assertThat(stub.getCalls(CodeCommitStubServer.LIST_BRANCHES), is(0));
+        assertThat(stub.getCalls(CodeCommitStubServer.GET_BRANCH), is(0));
+    }
+
+    @Test
+    public void given__pull_request_closed__when__fetch_again__then__not_discovered() throws Exception {
+        stub.withPullRequests(3);
+        source.setTraits(Collections.<SCMSourceTrait>singletonList(new PullRequestDiscoveryTrait(PullRequestDiscoveryTrait.MERGE)));
+        source.fetch(SCMHeadObserver.collect(), listener);
+        stub.closePullRequest(CodeCommitStubServer.pullRequestId(0, 2));
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        final SCMHeadObserver.Collector collector = SCMHeadObserver.collect();
+
+        source.fetch(collector, new StreamTaskListener(out));
+
+        assertThat(out.toString(StandardCharsets.UTF_8.name()), containsString("2 pull requests resolved with the API"));
+        assertThat(find(collector.result(), "PR-1"), instanceOf(CodeCommitPullRequestSCMRevision.class));
+        assertThat(find(collector.result(), "PR-3"), nullValue());
+    }
+
+    @Test
+    public void given__pull_request__when__fetch_head__then__one_getPullRequest() throws Exception {
+        stub.withPullRequests(3);
+        final CodeCommitPullRequestSCMHead head = new CodeCommitPullRequestSCMHead("PR-2", CodeCommitStubServer.pullRequestId(0, 1),
+                "branch-2", "master", ChangeRequestCheckoutStrategy.HEAD);
+
+        final SCMRevision revision = source.fetch(head, listener);
+
+        assertThat(((CodeCommitPullRequestSCMRevision) revision).getSourceCommitId(), is(CodeCommitStubServer.commitId(REPOSITORY, "branch-2")));
+        assertThat(stub.getCalls(), is(1));
+        stub.closePullRequest(head.getId());
+        assertThat(source.fetch(head, listener), nullValue());
+    }
+
+    @Test
+    public void given__branch__when__fetch_head__then__one_call() throws Exception {
+        final SCMRevision revision = source.fetch(new SCMHead("branch-42"), listener);
+
+        assertThat(((AbstractGitSCMSource.SCMRevisionImpl) revision).getHash(), is(CodeCommitStubServer.commitId(REPOSITORY, "branch-42")));
+        assertThat(stub.getCalls(), is(1));
+    }
+
+    @Test
+    public void given__deleted_branch__when__fetch_head__then__null() throws Exception {
+        assertThat(source.fetch(new SCMHead("deleted"), listener), nullValue());
+    }
+
+    @Test
+    public void given__branches__when__fetchRevisions__then__names_without_getBranch() throws Exception {
+        assertThat(source.fetchRevisions(listener), hasItem("branch-249"));
+        assertThat(stub.getCalls(CodeCommitStubServer.GET_BRANCH), is(0));
+    }
+
+    @Test
+    public void given__no_region__when__leaseAwsCodeCommit__then__git() throws Exception {
+        final AWSCodeCommitSCMSource gitSource = new AWSCodeCommitSCMSource("https://example.com/repository");
+
+        assertThat(gitSource.leaseAwsCodeCommit(), nullValue());
+    }
+
+    private static SCMRevision find(Map<SCMHead, SCMRevision> revisions, String name) {
+        for (Map.Entry<SCMHead, SCMRevision> revision : revisions.entrySet()) {
+            if (revision.getKey().getName().equals(name)) {
+                return revision.getValue();
+            }
+        }
+        return null;
+    }
+}
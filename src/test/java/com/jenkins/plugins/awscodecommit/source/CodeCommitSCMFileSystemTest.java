@@ -0,0 +1,135 @@
+/**
+ * The MIT License
+ * Copyright © 2016 Stephane Jeandeaux and all contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.jenkins.plugins.awscodecommit.source;
+
+import com.amazonaws.services.codecommit.AWSCodeCommit;
+import com.github.tomakehurst.wiremock.junit.WireMockRule;
+import com.jenkins.plugins.awscodecommit.AWSCodeCommitClientRegistry;
+import com.jenkins.plugins.awscodecommit.AwCodeCommitUtils;
+import com.jenkins.plugins.awscodecommit.CodeCommitStubServer;
+import jenkins.plugins.git.AbstractGitSCMSource;
+import jenkins.plugins.git.GitSCMSource;
+import jenkins.scm.api.SCMFile;
+import jenkins.scm.api.SCMFileSystem;
+import jenkins.scm.api.SCMHead;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+
+import java.io.FileNotFoundException;
+import java.util.ArrayList;
+import java.util.List;
+
+import static com.github.tomakehurst.wiremock.core.WireMockConfiguration.wireMockConfig;
+import static org.hamcrest.Matchers.containsInAnyOrder;
+import static org.hamcrest.Matchers.instanceOf;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.nullValue;
+import static org.junit.Assert.assertThat;
+
+
+public class CodeCommitSCMFileSystemTest {
+
+    private static final String REPOSITORY = CodeCommitStubServer.repositoryName(0);
+
+    private final CodeCommitStubServer stub = new CodeCommitStubServer().withRepositories(1);
+
+    @Rule
+    public WireMockRule wireMockRule = new WireMockRule(wireMockConfig().dynamicPort().extensions(stub));
+
+    private AWSCodeCommit client;
+    private CodeCommitSCMFileSystem fileSystem;
+
+    @Before
+    public void setUp() {
+        CodeCommitFolderCache.get().clear();
+        stub.register(wireMockRule);
+        client = AwCodeCommitUtils.getAwsCodeCommit(wireMockRule);
+        final SCMHead head = new SCMHead("master");
+        fileSystem = new CodeCommitSCMFileSystem(client, REPOSITORY, new AbstractGitSCMSource.SCMRevisionImpl(head,
+                CodeCommitStubServer.commitId(REPOSITORY, "master")));
+    }
+
+    @Test
+    public void given__jenkinsfile__when__content__then__one_getFile() throws Exception {
+        final String actual = fileSystem.getRoot().child("Jenkinsfile").contentAsString();
+
+        assertThat(actual, is(CodeCommitStubServer.FILES.get("Jenkinsfile")));
+        assertThat(stub.getCalls(), is(1));
+        assertThat(stub.getCalls(CodeCommitStubServer.GET_FILE), is(1));
+    }
+
+    @Test
+    public void given__folders__when__children__then__listed_once() throws Exception {
+        final List<String> names = new ArrayList<>();
+        for (SCMFile child : fileSystem.getRoot().children()) {
+            names.add(child.getName() + (child.isDirectory() ? "/" : ""));
+        }
+
+        assertThat(names, containsInAnyOrder("Jenkinsfile", "README.md", "src/"));
+        assertThat(fileSystem.getRoot().child("src/main/hello.c").isFile(), is(true));
+        assertThat(fileSystem.getRoot().child("src").getType(), is(SCMFile.Type.DIRECTORY));
+        //the root and src/main, the type of src is in the listing of the root
+        assertThat(stub.getCalls(CodeCommitStubServer.GET_FOLDER), is(2));
+    }
+
+    @Test
+    public void given__missing_file__when__type__then__nonexistent() throws Exception {
+        assertThat(fileSystem.getRoot().child("missing/Jenkinsfile").exists(), is(false));
+        assertThat(fileSystem.getRoot().child("Dockerfile").exists(), is(false));
+    }
+
+    @Test(expected = FileNotFoundException.class)
+    public void given__missing_file__when__content__then__FileNotFoundException() throws Exception {
+        fileSystem.getRoot().child("Dockerfile").content();
+    }
+
+    @Test
+    public void given__api_source__when__build__then__file_system_at_head() throws Exception {
+        final AWSCodeCommitSCMSource source = new AWSCodeCommitSCMSource("https://git-codecommit.us-east-1.amazonaws.com/v1/repos/" + REPOSITORY) {
+            @Override
+            protected AWSCodeCommitClientRegistry.Lease leaseAwsCodeCommit() {
+                return AWSCodeCommitClientRegistry.Lease.unmanaged(client);
+            }
+        };
+        source.setRegion("us-east-1");
+        source.setRepositoryName(REPOSITORY);
+        final SCMFileSystem.Builder builder = new CodeCommitSCMFileSystem.BuilderImpl();
+
+        final SCMFileSystem actual = builder.build(source, new SCMHead("master"), null);
+
+        assertThat(actual, instanceOf(CodeCommitSCMFileSystem.class));
+        assertThat(((CodeCommitSCMFileSystem) actual).getCommitId(), is(CodeCommitStubServer.commitId(REPOSITORY, "master")));
+        assertThat(stub.getCalls(CodeCommitStubServer.GET_BRANCH), is(1));
+    }
+
+    @Test
+    public void given__git_source__when__build__then__not_supported() throws Exception {
+        final SCMFileSystem.Builder builder = new CodeCommitSCMFileSystem.BuilderImpl();
+        final GitSCMSource source = new GitSCMSource("https://git-codecommit.us-east-1.amazonaws.com/v1/repos/" + REPOSITORY);
+
+        assertThat(builder.supports(source), is(false));
+        assertThat(builder.build(source, new SCMHead("master"), null), nullValue());
+        assertThat(builder.supports(new AWSCodeCommitSCMSource("https://example.com/repository")), is(false));
+    }
+}
@@ -0,0 +1,105 @@
+/**
+ * The MIT License
+ * Copyright © 2016 Stephane Jeandeaux and all contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.jenkins.plugins.awscodecommit.source;
+
+import com.amazonaws.services.codecommit.AWSCodeCommit;
+import com.github.tomakehurst.wiremock.junit.WireMockRule;
+import com.jenkins.plugins.awscodecommit.AWSCodeCommitClientRegistry;
+import com.jenkins.plugins.awscodecommit.AwCodeCommitUtils;
+import com.jenkins.plugins.awscodecommit.CodeCommitStubServer;
+import jenkins.scm.api.SCMFile;
+import jenkins.scm.api.SCMHead;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+
+import static com.github.tomakehurst.wiremock.core.WireMockConfiguration.wireMockConfig;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.notNullValue;
+import static org.hamcrest.Matchers.nullValue;
+import static org.junit.Assert.assertThat;
+
+
+public class CodeCommitSCMProbeTest {
+
+    private static final String REPOSITORY = CodeCommitStubServer.repositoryName(0);
+
+    private static final String COMMIT_ID = CodeCommitStubServer.commitId(REPOSITORY, "master");
+
+    private final CodeCommitStubServer stub = new CodeCommitStubServer().withRepositories(1);
+
+    @Rule
+    public WireMockRule wireMockRule = new WireMockRule(wireMockConfig().dynamicPort().extensions(stub));
+
+    private AWSCodeCommit client;
+
+    @Before
+    public void setUp() {
+        CodeCommitFolderCache.get().clear();
+        stub.register(wireMockRule);
+        client = AwCodeCommitUtils.getAwsCodeCommit(wireMockRule);
+    }
+
+    @Test
+    public void given__jenkinsfile__when__stat__then__regular_file() throws Exception {
+        final CodeCommitSCMProbe probe = new CodeCommitSCMProbe(AWSCodeCommitClientRegistry.Lease.unmanaged(client), REPOSITORY, new SCMHead("master"), COMMIT_ID);
+
+        assertThat(probe.stat("Jenkinsfile").getType(), is(SCMFile.Type.REGULAR_FILE));
+        assertThat(probe.stat("src").getType(), is(SCMFile.Type.DIRECTORY));
+        assertThat(probe.stat("Dockerfile").getType(), is(SCMFile.Type.NONEXISTENT));
+        assertThat(probe.stat("missing/Jenkinsfile").getType(), is(SCMFile.Type.NONEXISTENT));
+        assertThat(probe.stat("/").getType(), is(SCMFile.Type.DIRECTORY));
+        //the root and missing
+        assertThat(stub.getCalls(CodeCommitStubServer.GET_FOLDER), is(2));
+    }
+
+    @Test
+    public void given__heads_at_same_commit__when__stat__then__one_getFolder() throws Exception {
+        for (String branch : new String[]{"master", "develop", "master"}) {
+            final CodeCommitSCMProbe probe = new CodeCommitSCMProbe(AWSCodeCommitClientRegistry.Lease.unmanaged(client), REPOSITORY, new SCMHead(branch), COMMIT_ID);
+            assertThat(probe.stat("Jenkinsfile").exists(), is(true));
+        }
+
+        assertThat(stub.getCalls(CodeCommitStubServer.GET_FOLDER), is(1));
+        assertThat(CodeCommitFolderCache.get().getHits(), is(2L));
+        assertThat(CodeCommitFolderCache.get().getMisses(), is(1L));
+    }
+
+    @Test
+    public void given__bounded_cache__when__more_folders__then__least_recently_used_evicted() throws Exception {
+        final CodeCommitFolderCache cache = new CodeCommitFolderCache(2);
+
+        assertThat(cache.getFolder(client, REPOSITORY, COMMIT_ID, ""), notNullValue());
+        assertThat(cache.getFolder(client, REPOSITORY, COMMIT_ID, "src"), notNullValue());
+        cache.getFolder(client, REPOSITORY, COMMIT_ID, "");
+        assertThat(cache.getFolder(client, REPOSITORY, COMMIT_ID, "missing"), nullValue());
+        //src is evicted, the root and missing are cached
+        cache.getFolder(client, REPOSITORY, COMMIT_ID, "");
+        cache.getFolder(client, REPOSITORY, COMMIT_ID, "missing");
+
+        assertThat(cache.size(), is(2));
+        assertThat(stub.getCalls(CodeCommitStubServer.GET_FOLDER), is(3));
+        assertThat(cache.getFolder(client, REPOSITORY, COMMIT_ID, "src"), notNullValue());
+        assertThat(stub.getCalls(CodeCommitStubServer.GET_FOLDER), is(4));
+    }
+}